@@ -0,0 +1,423 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.codec.CodeTextWriter;
+import de.raida.jcadlib.cadimport.jt.codec.CodecDriver;
+import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContextTableEntry;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContexts;
+import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
+import de.raida.jcadlib.cadimport.jt.codec.arithmetic.ArithmeticDecoder;
+import de.raida.jcadlib.cadimport.jt.codec.arithmetic.ArithmeticEncoder;
+import de.raida.jcadlib.cadimport.jt.codec.bitlength.BitlengthDecoder;
+import de.raida.jcadlib.cadimport.jt.codec.bitlength.BitlengthEncoder;
+import de.raida.jcadlib.cadimport.jt.codec.deering.DeeringNormalCodec;
+import de.raida.jcadlib.cadimport.jt.codec.huffman.HuffmanDecoder;
+import de.raida.jcadlib.cadimport.jt.codec.mesh.MeshCoderDriver;
+import de.raida.jcadlib.cadimport.jt.reader.BitBuffer;
+import de.raida.jcadlib.cadimport.jt.reader.Helper;
+
+/**
+ * Micro benchmarks for the hot paths of the JT codec stack and a macro benchmark,
+ * loading all JT files of a corpus directory. All codec inputs are synthetic code
+ * texts, created once from a fixed seed before the measurement, so the numbers of
+ * two runs can be compared.
+ * <br>Usage: BenchmarkJTCodecs [corpus directory] [name filter]
+ */
+public class BenchmarkJTCodecs {
+	/** Number of warmup iterations per benchmark */
+	private final static int WARMUP_ITERATIONS = 10;
+
+	/** Number of measured iterations per benchmark */
+	private final static int MEASUREMENT_ITERATIONS = 20;
+
+	/** Number of values per synthetic code text */
+	private final static int VALUE_COUNT = 1 << 16;
+
+	/** Number of triangles of the synthetic mesh */
+	private final static int TRIANGLE_COUNT = 1 << 12;
+
+	/** Seed of the synthetic inputs */
+	private final static long SEED = 0x4a54L;
+
+	/** Sink for the benchmark results, so that the JIT can't drop the work */
+	private static volatile Object _sink;
+
+	/** Only benchmarks, whose name contains this text, are run */
+	private String _filter;
+
+	/**
+	 * A single benchmark.
+	 */
+	private abstract static class Benchmark {
+		/** Name of the benchmark */
+		private String _name;
+
+		/**
+		 * Constructor.
+		 * @param name Name of the benchmark
+		 */
+		public Benchmark(String name){
+			_name = name;
+		}
+
+		/**
+		 * Returns the name of the benchmark.
+		 * @return Name of the benchmark
+		 */
+		public String getName(){
+			return _name;
+		}
+
+		/**
+		 * Runs one operation.
+		 * @return           Result of the operation
+		 * @throws Exception Thrown when something happens
+		 */
+		public abstract Object run() throws Exception;
+	}
+
+	/**
+	 * Constructor.
+	 * @param filter Only benchmarks, whose name contains this text, are run
+	 */
+	public BenchmarkJTCodecs(String filter){
+		_filter = filter;
+	}
+
+	/**
+	 * Runs the warmup and the measured iterations of the given benchmark and prints
+	 * the times per operation.
+	 * @param benchmark Benchmark to run
+	 */
+	private void measure(Benchmark benchmark){
+		if((_filter != null) && (benchmark.getName().indexOf(_filter) == -1)){
+			return;
+		}
+
+		try {
+			for(int i = 0; i < WARMUP_ITERATIONS; i++){
+				_sink = benchmark.run();
+			}
+
+			long[] times = new long[MEASUREMENT_ITERATIONS];
+			for(int i = 0; i < MEASUREMENT_ITERATIONS; i++){
+				long startTime = System.nanoTime();
+				_sink = benchmark.run();
+				times[i] = System.nanoTime() - startTime;
+			}
+
+			Arrays.sort(times);
+			long totalTime = 0;
+			for(long time : times){
+				totalTime += time;
+			}
+
+			System.out.println(String.format("%-45s avg %10.3f ms/op   median %10.3f ms/op   min %10.3f ms/op",
+					benchmark.getName(),
+					(totalTime / (double)times.length) / 1000000.0,
+					times[times.length / 2] / 1000000.0,
+					times[0] / 1000000.0));
+
+		} catch(Exception exception){
+			System.out.println(benchmark.getName() + " failed: " + exception);
+		}
+	}
+
+	/**
+	 * Benchmarks reading bit fields of all widths from a bit buffer.
+	 */
+	private void benchmarkBitBuffer(){
+		final byte[] bytes = new byte[VALUE_COUNT * 4];
+		new Random(SEED).nextBytes(bytes);
+
+		measure(new Benchmark("BitBuffer.readAsUnsignedInt"){
+			/**
+			 * Reads bit fields with widths from 1 to 32 bits up to the end of the buffer.
+			 * @return Sum of the read values
+			 */
+			public Object run(){
+				BitBuffer bitBuffer = new BitBuffer(ByteBuffer.wrap(bytes));
+				long bitCount = bitBuffer.getSize();
+				int sum = 0;
+				int numberOfBits = 1;
+				while((bitBuffer.getPosition() + numberOfBits) <= bitCount){
+					sum += bitBuffer.readAsUnsignedInt(numberOfBits);
+					numberOfBits = (numberOfBits == 32) ? 1 : (numberOfBits + 1);
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks the bitlength codec of JT v8 and v9.
+	 */
+	private void benchmarkBitlengthDecoder(){
+		int[] values = createResiduals(new Random(SEED), VALUE_COUNT);
+
+		final CodeTextWriter codeTextWriter = new CodeTextWriter();
+		BitlengthEncoder.encode(values, codeTextWriter);
+		final byte[] codeText = codeTextWriter.getCodeText();
+		measure(new Benchmark("BitlengthDecoder.decode"){
+			/**
+			 * Decodes the JT v8 code text.
+			 * @return Decoded symbols
+			 */
+			public Object run(){
+				return BitlengthDecoder.decode(new CodecDriver(codeText, (int)codeTextWriter.getBitLength(), VALUE_COUNT, VALUE_COUNT, null, null), new int[VALUE_COUNT]);
+			}
+		});
+
+		final CodeTextWriter codeTextWriter2 = new CodeTextWriter();
+		BitlengthEncoder.encode2(values, codeTextWriter2);
+		final byte[] codeText2 = codeTextWriter2.getCodeText();
+		measure(new Benchmark("BitlengthDecoder.decode2"){
+			/**
+			 * Decodes the JT v9 code text.
+			 * @return Decoded symbols
+			 */
+			public Object run(){
+				return BitlengthDecoder.decode2(new CodecDriver(codeText2, (int)codeTextWriter2.getBitLength(), VALUE_COUNT, null, null, null), new int[VALUE_COUNT]);
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks the huffman codec. Every bit sequence is a valid huffman code text,
+	 * if the probability context has no 'escape' symbol, so random bits are decoded.
+	 */
+	@SuppressWarnings("unchecked")
+	private void benchmarkHuffmanDecoder(){
+		Random random = new Random(SEED);
+		final byte[] codeText = new byte[VALUE_COUNT];
+		random.nextBytes(codeText);
+
+		ArrayList<Int32ProbabilityContextTableEntry>[] int32ProbabilityContextTableEntries = (ArrayList<Int32ProbabilityContextTableEntry>[])new ArrayList<?>[1];
+		int32ProbabilityContextTableEntries[0] = new ArrayList<Int32ProbabilityContextTableEntry>();
+		for(int i = 0; i < 32; i++){
+			int32ProbabilityContextTableEntries[0].add(new Int32ProbabilityContextTableEntry(i, 1 + random.nextInt(1000), i - 16, 0));
+		}
+		final Int32ProbabilityContexts int32ProbabilityContexts = new Int32ProbabilityContexts(int32ProbabilityContextTableEntries);
+
+		measure(new Benchmark("HuffmanDecoder.decode"){
+			/**
+			 * Decodes the random code text.
+			 * @return Decoded symbols
+			 */
+			public Object run(){
+				return HuffmanDecoder.decode(new CodecDriver(codeText, codeText.length * 8, VALUE_COUNT, VALUE_COUNT, int32ProbabilityContexts, null), new int[codeText.length * 8]);
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks the arithmetic codec, including 'out-of-band' values.
+	 */
+	private void benchmarkArithmeticDecoder(){
+		int[] values = createResiduals(new Random(SEED), VALUE_COUNT);
+
+		final Int32ProbabilityContexts int32ProbabilityContexts = ArithmeticEncoder.createProbabilityContexts(values, 64);
+		final CodeTextWriter codeTextWriter = new CodeTextWriter();
+		final int[] outOfBandValues = Helper.convertToIntArray(ArithmeticEncoder.encode(values, int32ProbabilityContexts, codeTextWriter));
+		final byte[] codeText = codeTextWriter.getCodeText();
+
+		measure(new Benchmark("ArithmeticDecoder.decode"){
+			/**
+			 * Decodes the code text.
+			 * @return Decoded symbols
+			 */
+			public Object run(){
+				return ArithmeticDecoder.decode(new CodecDriver(codeText, (int)codeTextWriter.getBitLength(), VALUE_COUNT, null, int32ProbabilityContexts, outOfBandValues), new int[VALUE_COUNT]);
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks unpacking the residuals for each predictor type.
+	 */
+	private void benchmarkUnpackResiduals(){
+		int[] values = createResiduals(new Random(SEED), VALUE_COUNT);
+		final List<Integer> residuals = new ArrayList<Integer>(values.length);
+		for(int value : values){
+			residuals.add(value);
+		}
+
+		for(final PredictorType predictorType : PredictorType.values()){
+			measure(new Benchmark("Int32CDP.unpackResiduals(" + predictorType + ")"){
+				/**
+				 * Unpacks the residuals.
+				 * @return Unpacked values
+				 */
+				public Object run(){
+					return Int32CDP.unpackResiduals(residuals, predictorType);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Benchmarks converting deering normal codes into normal vectors.
+	 */
+	private void benchmarkDeeringNormalCodec(){
+		final int numberOfBits = 6;
+		final long[] codes = new long[VALUE_COUNT * 4];
+		Random random = new Random(SEED);
+		for(int i = 0; i < codes.length; i += 4){
+			codes[i] = random.nextInt(6);
+			codes[i + 1] = random.nextInt(8);
+			codes[i + 2] = random.nextInt(1 << numberOfBits);
+			codes[i + 3] = random.nextInt(1 << numberOfBits);
+		}
+
+		measure(new Benchmark("DeeringNormalCodec.convertCodeToVec"){
+			/**
+			 * Converts all codes.
+			 * @return Sum of the x components
+			 */
+			public Object run(){
+				DeeringNormalCodec deeringNormalCodec = new DeeringNormalCodec(numberOfBits);
+				double sum = 0;
+				for(int i = 0; i < codes.length; i += 4){
+					sum += deeringNormalCodec.convertCodeToVec(codes[i], codes[i + 1], codes[i + 2], codes[i + 3]).x;
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks the topological mesh decoder with the symbols of separate triangles.
+	 */
+	private void benchmarkMeshDecoder(){
+		final int[] vertexValences = new int[TRIANGLE_COUNT];
+		final int[] vertexGroups = new int[TRIANGLE_COUNT];
+		final int[] vertexFlags = new int[TRIANGLE_COUNT];
+		final int[][] faceDegrees = new int[8][0];
+		final int[][] faceAttributeMasks = new int[8][0];
+
+		// Each triangle is a dual vertex of valence 3 with three dual faces of degree 1.
+		// The first face is coded in context 1, the other ones in context 0.
+		Arrays.fill(vertexValences, 3);
+		faceDegrees[0] = new int[TRIANGLE_COUNT * 2];
+		faceDegrees[1] = new int[TRIANGLE_COUNT];
+		faceAttributeMasks[0] = new int[TRIANGLE_COUNT * 3];
+		Arrays.fill(faceDegrees[0], 1);
+		Arrays.fill(faceDegrees[1], 1);
+		Arrays.fill(faceAttributeMasks[0], 1);
+
+		measure(new Benchmark("MeshCoderDriver.decode"){
+			/**
+			 * Decodes the mesh.
+			 * @return Vertex and normal indices
+			 */
+			public Object run(){
+				MeshCoderDriver meshCoderDriver = new MeshCoderDriver();
+				meshCoderDriver.setInputData(	vertexValences, faceDegrees, vertexGroups, vertexFlags,
+												faceAttributeMasks, new int[0], new int[0],
+												new long[0], new int[0], new int[0]);
+				return meshCoderDriver.decode();
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks loading each JT file of the corpus directory. The segment cache is
+	 * disabled, so each iteration decodes the whole file.
+	 * @param corpusDirectory Directory with the JT files
+	 */
+	private void benchmarkLoadFile(String corpusDirectory){
+		File directory = new File(corpusDirectory);
+		String[] fileNames = directory.list();
+		if(fileNames == null){
+			System.out.println("No corpus found at: " + directory.getAbsolutePath());
+			return;
+		}
+
+		Arrays.sort(fileNames);
+		for(final String fileName : fileNames){
+			final File file = new File(directory, fileName);
+			if(!file.isFile() || !fileName.toLowerCase().endsWith(".jt")){
+				continue;
+			}
+
+			measure(new Benchmark("JTImporter.loadFile(" + fileName + ")"){
+				/**
+				 * Loads the file.
+				 * @return           JT importer
+				 * @throws Exception Thrown when something happens
+				 */
+				public Object run() throws Exception {
+					JTImporter jtImporter = new JTImporter();
+					jtImporter.setSegmentCache(null);
+					jtImporter.loadFile(file.toURI().toURL());
+					return jtImporter;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Creates residuals, distributed like the residuals of quantized coordinates:
+	 * mostly small values around zero and a few big jumps.
+	 * @param  random     Random number generator
+	 * @param  valueCount Number of values
+	 * @return            Residuals
+	 */
+	private static int[] createResiduals(Random random, int valueCount){
+		int[] residuals = new int[valueCount];
+		for(int i = 0; i < valueCount; i++){
+			if(random.nextInt(64) == 0){
+				residuals[i] = random.nextInt(1 << 20) - (1 << 19);
+			} else {
+				residuals[i] = (int)Math.round(random.nextGaussian() * 8);
+			}
+		}
+		return residuals;
+	}
+
+	/**
+	 * Main entry point.
+	 * @param arguments Arguments of the command line: [corpus directory] [name filter]
+	 */
+	public static void main(String[] arguments){
+		BenchmarkJTCodecs benchmarkJTCodecs = new BenchmarkJTCodecs((arguments.length > 1) ? arguments[1] : null);
+		benchmarkJTCodecs.benchmarkBitBuffer();
+		benchmarkJTCodecs.benchmarkBitlengthDecoder();
+		benchmarkJTCodecs.benchmarkHuffmanDecoder();
+		benchmarkJTCodecs.benchmarkArithmeticDecoder();
+		benchmarkJTCodecs.benchmarkUnpackResiduals();
+		benchmarkJTCodecs.benchmarkDeeringNormalCodec();
+		benchmarkJTCodecs.benchmarkMeshDecoder();
+		benchmarkJTCodecs.benchmarkLoadFile((arguments.length > 0) ? arguments[0] : "data");
+	}
+}
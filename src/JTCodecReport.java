@@ -0,0 +1,230 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import de.raida.jcadlib.cadimport.jt.codec.CodecStatistics;
+import de.raida.jcadlib.cadimport.jt.model.ElementHeader;
+import de.raida.jcadlib.cadimport.jt.model.GUID;
+import de.raida.jcadlib.cadimport.jt.model.PointSetShapeLODElement;
+import de.raida.jcadlib.cadimport.jt.model.PolylineSetShapeLODElement;
+import de.raida.jcadlib.cadimport.jt.model.SegmentHeader;
+import de.raida.jcadlib.cadimport.jt.model.TOCEntry;
+import de.raida.jcadlib.cadimport.jt.model.TriStripSetShapeLODElement;
+import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
+
+/**
+ * Diagnostic tool, reporting the codecs of the compressed integer vectors of a
+ * corpus of JT files. Unlike the importer, which only decodes the shapes used by
+ * the LSG, every shape LOD segment of the TOC is decoded (all levels of detail).
+ * The statistics are aggregated per decoder, codec and predictor type over all
+ * files: number of vectors, values and out-of-band values, encoded size,
+ * compression ratio, size of the probability context tables and decode time.
+ * <br>Usage: JTCodecReport [-vectors &lt;csv file&gt;] &lt;file or directory&gt; ...
+ */
+public class JTCodecReport {
+	/** Statistics of the compressed vectors */
+	private CodecStatistics _codecStatistics;
+
+	/** Number of examined files */
+	private int _fileCount;
+
+	/** Number of examined bytes */
+	private long _byteCount;
+
+	/** Number of decoded shape LOD segments */
+	private int _segmentCount;
+
+	/** Errors of the files or segments, which couldn't be decoded */
+	private ArrayList<String> _errors;
+
+	/**
+	 * Constructor.
+	 */
+	public JTCodecReport(){
+		_codecStatistics = new CodecStatistics();
+		_errors = new ArrayList<String>();
+	}
+
+	/**
+	 * Returns the statistics of the compressed vectors.
+	 * @return Statistics of the compressed vectors
+	 */
+	public CodecStatistics getCodecStatistics(){
+		return _codecStatistics;
+	}
+
+	/**
+	 * Adds the given JT file or all JT files below the given directory.
+	 * @param file File or directory
+	 */
+	public void add(File file){
+		if(file.isDirectory()){
+			String[] fileNames = file.list();
+			if(fileNames != null){
+				Arrays.sort(fileNames);
+				for(int i = 0; i < fileNames.length; i++){
+					File childFile = new File(file, fileNames[i]);
+					if(childFile.isDirectory() || fileNames[i].toLowerCase().endsWith(".jt")){
+						add(childFile);
+					}
+				}
+			}
+			return;
+		}
+
+		try {
+			addFile(file);
+		} catch(Exception exception){
+			_errors.add(file.getPath() + ": " + exception);
+		}
+	}
+
+	/**
+	 * Decodes all shape LOD segments of the given JT file.
+	 * @param  file      JT file
+	 * @throws Exception Thrown if the file header or the TOC couldn't be read
+	 */
+	private void addFile(File file) throws Exception {
+		ByteBuffer byteBuffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		_fileCount++;
+		_byteCount += byteBuffer.limit();
+
+		WorkingContext workingContext = new WorkingContext();
+		workingContext.setByteBuffer(byteBuffer);
+		workingContext.setCodecStatistics(_codecStatistics);
+
+		// Header: signature, byte order, reserved field, TOC offset and root LSG
+		String signature = Helper.readStringByLength(byteBuffer, 80);
+		if(!signature.startsWith("Version ")){
+			throw new IllegalArgumentException("Wrong signature! File doesn't seem to be a JT file!");
+		}
+		float jtFileVersion = Float.parseFloat(signature.substring(8, 11));
+		if((jtFileVersion < 8.0) || (jtFileVersion >= 10.0)){
+			throw new IllegalArgumentException("Found unsupported JT major version: " + signature.substring(8, 11));
+		}
+		workingContext.setJTFileVersion(jtFileVersion);
+		if(Helper.readU8(byteBuffer) == 0){
+			byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		Helper.readI32(byteBuffer);
+		int tocOffset = Helper.readI32(byteBuffer);
+		GUID.read(workingContext);
+
+		// TOC
+		byteBuffer.position(tocOffset);
+		List<TOCEntry> tocEntries = new ArrayList<TOCEntry>();
+		int tocEntryCount = Helper.readI32(byteBuffer);
+		for(int i = 0; i < tocEntryCount; i++){
+			tocEntries.add(TOCEntry.read(workingContext));
+		}
+
+		for(Iterator<TOCEntry> iterator = tocEntries.iterator(); iterator.hasNext();){
+			TOCEntry tocEntry = iterator.next();
+			try {
+				workingContext.setByteBuffer(byteBuffer);
+				byteBuffer.position(tocEntry.getSegmentOffSet());
+				SegmentHeader segmentHeader = SegmentHeader.read(workingContext);
+
+				// Shape segments are never zipped, so the zipped LSG, B-Rep, PMI and meta data segments can be skipped
+				if(segmentHeader.getSegmentType().isZipped()){
+					continue;
+				}
+				workingContext.setSegmentType(segmentHeader.getSegmentType());
+
+				ElementHeader elementHeader = ElementHeader.read(workingContext, true);
+				String elementID = elementHeader.getElementID().toString();
+				workingContext.setByteBuffer(elementHeader.getByteBuffer());
+				if(elementID.equals(TriStripSetShapeLODElement.ID)){
+					TriStripSetShapeLODElement.read(workingContext);
+				} else if(elementID.equals(PolylineSetShapeLODElement.ID)){
+					PolylineSetShapeLODElement.read(workingContext);
+				} else if(elementID.equals(PointSetShapeLODElement.ID)){
+					PointSetShapeLODElement.read(workingContext);
+				} else {
+					continue;
+				}
+				_segmentCount++;
+
+			} catch(Exception exception){
+				_errors.add(file.getPath() + ", segment " + tocEntry.getSegmentID() + ": " + exception);
+			}
+		}
+	}
+
+	/**
+	 * Returns the report of the examined files.
+	 * @return Report
+	 */
+	public String toString(){
+		StringBuffer report = new StringBuffer();
+		report.append(String.format(Locale.US, "Files: %d (%.1f MB), shape LOD segments: %d, errors: %d%n%n",
+									_fileCount, _byteCount / (1024.0 * 1024.0), _segmentCount, _errors.size()));
+		report.append(_codecStatistics.toString());
+		for(Iterator<String> iterator = _errors.iterator(); iterator.hasNext();){
+			report.append("ERROR: " + iterator.next() + "\n");
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Main entry point.
+	 * @param  arguments   Arguments of the command line: [-vectors &lt;csv file&gt;] &lt;file or directory&gt; ...
+	 * @throws IOException Thrown if the CSV file couldn't be created
+	 */
+	public static void main(String[] arguments) throws IOException {
+		if(arguments.length == 0){
+			System.out.println("Usage: JTCodecReport [-vectors <csv file>] <file or directory> ...");
+			return;
+		}
+
+		JTCodecReport jtCodecReport = new JTCodecReport();
+		PrintStream vectorOutput = null;
+		for(int i = 0; i < arguments.length; i++){
+			if(arguments[i].equals("-vectors") && ((i + 1) < arguments.length)){
+				vectorOutput = new PrintStream(new File(arguments[++i]), "UTF-8");
+				jtCodecReport.getCodecStatistics().setVectorOutput(vectorOutput);
+			} else {
+				jtCodecReport.add(new File(arguments[i]));
+			}
+		}
+		if(vectorOutput != null){
+			vectorOutput.close();
+		}
+
+		System.out.print(jtCodecReport);
+	}
+}
@@ -0,0 +1,150 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt;
+
+/**
+ * Decoded geometry of a single shape LOD segment, stored in primitive arrays and
+ * still in the local coordinate system of the shape. The transformation, the
+ * color of the LSG and the layer name are applied when the shape is added to the
+ * JT model, so one decoded shape can be reused for every instance.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class DecodedShape {
+	/** Shape type: triangles */
+	public final static int TYPE_TRIANGLES = 0;
+
+	/** Shape type: polylines */
+	public final static int TYPE_POLYLINES = 1;
+
+	/** Shape type: points */
+	public final static int TYPE_POINTS = 2;
+
+	/** Shape type */
+	private int _type;
+
+	/** Vertices (x, y, z) */
+	private double[] _vertices;
+
+	/** Normals (x, y, z), only used by triangles */
+	private double[] _normals;
+
+	/** Colors (r, g, b) or null, if the color of the LSG has to be used */
+	private double[] _colors;
+
+	/** Triangle indices or vertex indices of the polylines */
+	private int[] _indices;
+
+	/** Start index of each polyline inside the vertex indices (polylines only) */
+	private int[] _primitiveIndices;
+
+	/**
+	 * Constructor.
+	 * @param type             Shape type
+	 * @param vertices         Vertices (x, y, z)
+	 * @param normals          Normals (x, y, z) or null
+	 * @param colors           Colors (r, g, b) or null
+	 * @param indices          Triangle indices or vertex indices of the polylines
+	 * @param primitiveIndices Start index of each polyline or null
+	 */
+	public DecodedShape(int type, double[] vertices, double[] normals, double[] colors, int[] indices, int[] primitiveIndices){
+		if((type < TYPE_TRIANGLES) || (type > TYPE_POINTS)){
+			throw new IllegalArgumentException("Found invalid shape type: " + type);
+		}
+		_type = type;
+		_vertices = vertices;
+		_normals = normals;
+		_colors = colors;
+		_indices = indices;
+		_primitiveIndices = primitiveIndices;
+	}
+
+	/**
+	 * Returns the shape type.
+	 * @return Shape type
+	 */
+	public int getType(){
+		return _type;
+	}
+
+	/**
+	 * Returns the vertices.
+	 * @return Vertices (x, y, z)
+	 */
+	public double[] getVertices(){
+		return _vertices;
+	}
+
+	/**
+	 * Returns the normals.
+	 * @return Normals (x, y, z) or<br>
+	 *         <b>null</b> if the shape has no normals
+	 */
+	public double[] getNormals(){
+		return _normals;
+	}
+
+	/**
+	 * Returns the colors.
+	 * @return Colors (r, g, b) or<br>
+	 *         <b>null</b> if the color of the LSG has to be used
+	 */
+	public double[] getColors(){
+		return _colors;
+	}
+
+	/**
+	 * Returns the triangle indices or the vertex indices of the polylines.
+	 * @return Indices or<br>
+	 *         <b>null</b> for points
+	 */
+	public int[] getIndices(){
+		return _indices;
+	}
+
+	/**
+	 * Returns the start index of each polyline inside the vertex indices.
+	 * @return Primitive indices or<br>
+	 *         <b>null</b> if the shape contains no polylines
+	 */
+	public int[] getPrimitiveIndices(){
+		return _primitiveIndices;
+	}
+
+	/**
+	 * Returns the number of bytes, occupied by the arrays of this shape.
+	 * @return Size in bytes
+	 */
+	public long getByteSize(){
+		long byteSize = 0;
+		byteSize += (_vertices == null) ? 0 : (_vertices.length * 8L);
+		byteSize += (_normals == null) ? 0 : (_normals.length * 8L);
+		byteSize += (_colors == null) ? 0 : (_colors.length * 8L);
+		byteSize += (_indices == null) ? 0 : (_indices.length * 4L);
+		byteSize += (_primitiveIndices == null) ? 0 : (_primitiveIndices.length * 4L);
+		return byteSize;
+	}
+}
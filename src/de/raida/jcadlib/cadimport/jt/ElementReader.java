@@ -0,0 +1,51 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt;
+
+import de.raida.jcadlib.cadimport.jt.model.ElementHeader;
+import de.raida.jcadlib.cadimport.jt.model.JTNode;
+import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
+
+/**
+ * Reads the elements of one object type inside the LSG segment. The importer
+ * looks up the reader by the element ID of the element header, see
+ * JTImporter.registerElementReader(), so new element types can be supported
+ * without changing the importer.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public interface ElementReader {
+	/**
+	 * Reads the element, whose header has just been read. The reader has to
+	 * consume the element data (the importer only skips the unread bytes of
+	 * graph elements, not those of property atom elements).
+	 * @param  workingContext Working context, positioned behind the element header
+	 * @param  elementHeader  Element header
+	 * @param  dataLength     Number of bytes of the element behind the header
+	 * @return                Read node, which is stored by its object ID or null, if there is no node
+	 */
+	public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength);
+}
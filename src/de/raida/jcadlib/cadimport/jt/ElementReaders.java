@@ -0,0 +1,185 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt;
+
+import java.util.HashMap;
+
+import de.raida.jcadlib.cadimport.jt.model.ElementHeader;
+import de.raida.jcadlib.cadimport.jt.model.GUID;
+import de.raida.jcadlib.cadimport.jt.model.JTNode;
+import de.raida.jcadlib.cadimport.jt.model.lsg.GeometricTransformAttributeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.GroupNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.InstanceNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.MaterialAttributeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.MetaDataNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PartNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PartitionNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PointSetShapeNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PolylineSetShapeNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.RangeLODNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.TriStripSetShapeNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.property.DatePropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.model.property.FloatingPointPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.model.property.IntegerPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.model.property.LateLoadedPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.model.property.StringPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
+
+/**
+ * Element readers of the element types, which are supported by the importer.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ElementReaders {
+	/**
+	 * Constructor.
+	 */
+	private ElementReaders(){
+	}
+
+	/**
+	 * Creates the readers of all supported graph and property atom elements. Each
+	 * reader delegates to the static read method of its element class.
+	 * @return Element readers, indexed by their element ID
+	 */
+	public static HashMap<GUID, ElementReader> createDefaultElementReaders(){
+		HashMap<GUID, ElementReader> elementReaders = new HashMap<GUID, ElementReader>();
+
+		// Part Node Element
+		elementReaders.put(new GUID(PartNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return PartNodeElement.read(workingContext);
+			}
+		});
+
+		// Range LOD Node Element
+		elementReaders.put(new GUID(RangeLODNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return RangeLODNodeElement.read(workingContext);
+			}
+		});
+
+		// Group Node Element
+		elementReaders.put(new GUID(GroupNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return GroupNodeElement.read(workingContext);
+			}
+		});
+
+		// Tri-Strip Set Shape Node Element
+		elementReaders.put(new GUID(TriStripSetShapeNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return TriStripSetShapeNodeElement.read(workingContext);
+			}
+		});
+
+		// Material Attribute Element
+		elementReaders.put(new GUID(MaterialAttributeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return MaterialAttributeElement.read(workingContext);
+			}
+		});
+
+		// Meta Data Node Element
+		elementReaders.put(new GUID(MetaDataNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return MetaDataNodeElement.read(workingContext);
+			}
+		});
+
+		// Instance Node Element
+		elementReaders.put(new GUID(InstanceNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return InstanceNodeElement.read(workingContext);
+			}
+		});
+
+		// Geometric Transform Attribute Element
+		elementReaders.put(new GUID(GeometricTransformAttributeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return GeometricTransformAttributeElement.read(workingContext, dataLength);
+			}
+		});
+
+		// Partition Node Element
+		elementReaders.put(new GUID(PartitionNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return PartitionNodeElement.read(workingContext);
+			}
+		});
+
+		// Polyline Set Shape Node Element
+		elementReaders.put(new GUID(PolylineSetShapeNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return PolylineSetShapeNodeElement.read(workingContext);
+			}
+		});
+
+		// Point Set Shape Node Element
+		elementReaders.put(new GUID(PointSetShapeNodeElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return PointSetShapeNodeElement.read(workingContext);
+			}
+		});
+
+		// String Property Atom Element
+		elementReaders.put(new GUID(StringPropertyAtomElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return StringPropertyAtomElement.read(workingContext);
+			}
+		});
+
+		// Floating Point Property Atom Element
+		elementReaders.put(new GUID(FloatingPointPropertyAtomElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return FloatingPointPropertyAtomElement.read(workingContext);
+			}
+		});
+
+		// Late Loaded Property Atom Element
+		elementReaders.put(new GUID(LateLoadedPropertyAtomElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return LateLoadedPropertyAtomElement.read(workingContext);
+			}
+		});
+
+		// Date Property Atom Element
+		elementReaders.put(new GUID(DatePropertyAtomElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return DatePropertyAtomElement.read(workingContext);
+			}
+		});
+
+		// Integer Property Atom Element
+		elementReaders.put(new GUID(IntegerPropertyAtomElement.ID), new ElementReader(){
+			public JTNode readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+				return IntegerPropertyAtomElement.read(workingContext);
+			}
+		});
+
+		return elementReaders;
+	}
+}
@@ -0,0 +1,58 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt;
+
+import java.awt.Color;
+import java.io.IOException;
+
+import javax.vecmath.Matrix4d;
+
+import de.raida.jcadlib.cadimport.jt.model.LSGNode;
+
+/**
+ * Receives the geometry of a JT file shape by shape, while the importer walks
+ * the LSG. Together with JTImporter.setGeometryRetained(false), the geometry is
+ * streamed to the visitor without being collected in the JT model, so the memory
+ * doesn't grow with the size of the assembly.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public interface GeometryVisitor {
+	/**
+	 * Called for each instance of a shape. The decoded shape is still in the local
+	 * coordinate system and may be shared by all instances of the same segment (and
+	 * by the caches of the importer), so it must not be modified.
+	 * @param  shapeNode      Shape node of the LSG (the parent nodes hold the hierarchy and the attributes)
+	 * @param  segmentID      ID of the shape segment, identical for all instances of the shape
+	 * @param  decodedShape   Decoded shape: type, vertices, normals, colors and indices
+	 * @param  transformation Transformation into the world coordinate system (including the one of a referencing file)
+	 * @param  color          Color of the shape, if the decoded shape has no colors
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the shape couldn't be processed (aborts the import of the file)
+	 */
+	public void visitShape(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName) throws IOException;
+}
@@ -27,6 +27,7 @@ package de.raida.jcadlib.cadimport.jt;
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
@@ -37,16 +38,20 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 import javax.vecmath.Matrix4d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 
+import de.raida.jcadlib.cadimport.jt.cache.SegmentCache;
+import de.raida.jcadlib.cadimport.jt.cache.ShapeCache;
 import de.raida.jcadlib.cadimport.jt.model.ElementHeader;
 import de.raida.jcadlib.cadimport.jt.model.GUID;
 import de.raida.jcadlib.cadimport.jt.model.JTNode;
@@ -54,6 +59,7 @@ import de.raida.jcadlib.cadimport.jt.model.LSGNode;
 import de.raida.jcadlib.cadimport.jt.model.PointSetShapeLODElement;
 import de.raida.jcadlib.cadimport.jt.model.PolylineSetShapeLODElement;
 import de.raida.jcadlib.cadimport.jt.model.SegmentHeader;
+import de.raida.jcadlib.cadimport.jt.model.SegmentType;
 import de.raida.jcadlib.cadimport.jt.model.TOCEntry;
 import de.raida.jcadlib.cadimport.jt.model.TopoMeshCompressedLODData;
 import de.raida.jcadlib.cadimport.jt.model.TopoMeshCompressedRepDataV1;
@@ -62,7 +68,6 @@ import de.raida.jcadlib.cadimport.jt.model.VertexBasedShapeCompressedRepData;
 import de.raida.jcadlib.cadimport.jt.model.VertexShapeLODData;
 import de.raida.jcadlib.cadimport.jt.model.VertexShapeLODElement;
 import de.raida.jcadlib.cadimport.jt.model.lsg.GeometricTransformAttributeElement;
-import de.raida.jcadlib.cadimport.jt.model.lsg.GroupNodeElement;
 import de.raida.jcadlib.cadimport.jt.model.lsg.InstanceNodeElement;
 import de.raida.jcadlib.cadimport.jt.model.lsg.MaterialAttributeElement;
 import de.raida.jcadlib.cadimport.jt.model.lsg.MetaDataNodeElement;
@@ -79,7 +84,13 @@ import de.raida.jcadlib.cadimport.jt.model.property.LateLoadedPropertyAtomElemen
 import de.raida.jcadlib.cadimport.jt.model.property.NodePropertyTable;
 import de.raida.jcadlib.cadimport.jt.model.property.PropertyTable;
 import de.raida.jcadlib.cadimport.jt.model.property.StringPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.reader.DecodeEvents;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
+import de.raida.jcadlib.cadimport.jt.reader.ImportStatistics;
+import de.raida.jcadlib.cadimport.jt.reader.ScratchArena;
+import de.raida.jcadlib.cadimport.jt.reader.SegmentInflater;
+import de.raida.jcadlib.cadimport.jt.reader.SegmentPrefetcher;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 import de.raida.progress.ProgressEvent;
@@ -104,8 +115,23 @@ public class JTImporter {
 	/** Layer name */
 	public final static String DEFAULT_LAYER = "0";
 
+	/** Element ID of the tri-strip set shape LOD element */
+	private final static GUID TRI_STRIP_SET_SHAPE_LOD_ELEMENT_ID = new GUID(TriStripSetShapeLODElement.ID);
+
+	/** Element ID of the polyline set shape LOD element */
+	private final static GUID POLYLINE_SET_SHAPE_LOD_ELEMENT_ID = new GUID(PolylineSetShapeLODElement.ID);
+
+	/** Element ID of the point set shape LOD element */
+	private final static GUID POINT_SET_SHAPE_LOD_ELEMENT_ID = new GUID(PointSetShapeLODElement.ID);
+
+	/** Element ID of the partition node element */
+	private final static GUID PARTITION_NODE_ELEMENT_ID = new GUID(PartitionNodeElement.ID);
+
+	/** Readers of the supported graph and property atom elements: element ID -> reader */
+	private final static HashMap<GUID, ElementReader> DEFAULT_ELEMENT_READERS = ElementReaders.createDefaultElementReaders();
+
 	/** List of load informations */
-	private static ArrayList<String[]> _loadInformation;
+	private ArrayList<String[]> _loadInformation;
 
 	/** List of unsupported entities */
 	private ArrayList<String> _unsupportedEntities;
@@ -114,7 +140,7 @@ public class JTImporter {
 	private JTModel _jtModel;
 
 	/** List of progress listener */
-	private static ArrayList<ProgressListenerInterface> _progressListener;
+	private ArrayList<ProgressListenerInterface> _progressListener;
 
 	/** Root node of the LSG */
 	private LSGNode _rootNode;
@@ -129,23 +155,83 @@ public class JTImporter {
 	private PropertyTable _propertyTable;
 
 	/** Base URL name */
-	private static URL _baseURLName;
+	private URL _baseURLName;
 
 	/** Current URL name */
-	private static URL _currentURLName;
+	private URL _currentURLName;
 
 	/** Length of file in bytes */
-	private static HashMap<URL, Integer> _fileLength;
+	private HashMap<URL, Integer> _fileLength;
 
 	/** Number of read bytes */
-	private static HashMap<URL, Integer> _readBytes;
+	private HashMap<URL, Integer> _readBytes;
 
 	/** Number of read bytes for progress intervall */
-	private static HashMap<URL, Integer> _progressIntervall;
+	private HashMap<URL, Integer> _progressIntervall;
 
 	/** Mapping of unsupported GUID's: GUID -> Name */
 	private HashMap<String, String> _guidMapping;
 
+	/** Segment types of all XSetShapeLODElements */
+	private HashMap<String, SegmentType> _xSetShapeLODSegmentTypes;
+
+	/** Segment lengths of all XSetShapeLODElements */
+	private HashMap<String, Integer> _xSetShapeLODSegmentLengths;
+
+	/** Optional disk cache for decoded shapes */
+	private ShapeCache _shapeCache;
+
+	/** Key of the current file inside the shape cache */
+	private String _shapeCacheFileKey;
+
+	/** Optional in-memory cache for decoded shapes, shared between importers */
+	private SegmentCache _segmentCache;
+
+	/** URL of the loaded file */
+	private URL _url;
+
+	/** Version of the loaded file (part of the segment cache keys) */
+	private String _fileVersion;
+
+	/** Number of threads, inflating the zipped segments in advance */
+	private int _inflaterThreadCount;
+
+	/** Threads of the segment inflaters during an import, shared with the importers of the external references */
+	private ExecutorService _inflaterExecutorService;
+
+	/** Number of concurrent segment downloads for remote files */
+	private int _prefetchThreadCount;
+
+	/** Measure the imports? */
+	private boolean _importStatisticsEnabled;
+
+	/** Statistics of the last import or null */
+	private ImportStatistics _importStatistics;
+
+	/** Optional visitor, receiving the geometry shape by shape */
+	private GeometryVisitor _geometryVisitor;
+
+	/** Collect the geometry in the JT model? */
+	private boolean _geometryRetained;
+
+	/** Keep the shape instances, so the model can be saved as snapshot? */
+	private boolean _snapshotEnabled;
+
+	/** Decoded shapes of the shape nodes (only if snapshots are enabled) */
+	private IdentityHashMap<LSGNode, DecodedShape> _shapeNodes;
+
+	/** LSG outlines of the external references by their partition nodes (only if snapshots are enabled) */
+	private IdentityHashMap<LSGNode, JTModelNode> _referencedModelNodes;
+
+	/** Transformation of the referencing file or null */
+	private Matrix4d _baseTransformation;
+
+	/** Readers of the graph and property atom elements: element ID -> reader */
+	private HashMap<GUID, ElementReader> _elementReaders;
+
+	/** Importer, currently loading a file in this thread (the target of the static callbacks) */
+	private static ThreadLocal<JTImporter> _currentImporter = new ThreadLocal<JTImporter>();
+
 	/**
 	 * Constructor.
 	 */
@@ -158,6 +244,12 @@ public class JTImporter {
 		_unsupportedEntities = new ArrayList<String>();
 		_jtNodes = new HashMap<Integer, JTNode>();
 		_xSetShapeLODElements = new HashMap<String, Integer>();
+		_xSetShapeLODSegmentTypes = new HashMap<String, SegmentType>();
+		_xSetShapeLODSegmentLengths = new HashMap<String, Integer>();
+		_inflaterThreadCount = Math.max(0, Runtime.getRuntime().availableProcessors() - 1);
+		_prefetchThreadCount = 4;
+		_geometryRetained = true;
+		_elementReaders = new HashMap<GUID, ElementReader>(DEFAULT_ELEMENT_READERS);
 		_guidMapping = new HashMap<String, String>();
 		_guidMapping.put("873a70c0-2ac8-11d1-9b-6b-0-80-c7-bb-59-97", "JT B-Rep Element");
 		_guidMapping.put("ce357249-38fb-11d1-a5-6-0-60-97-bd-c6-e1",  "PMI Manager Meta Data");
@@ -192,6 +284,33 @@ public class JTImporter {
 		loadFile(url, false);
 	}
 
+	/**
+	 * Loads the model from the given snapshot, which has been written by
+	 * saveSnapshot(). No segment is decoded, so only the outline of the LSG is
+	 * available (see getLSGOutline()) and the unsupported entities aren't.
+	 * @param  snapshotFile Snapshot file
+	 * @throws IOException  Thrown if the snapshot couldn't be read
+	 */
+	public void loadSnapshot(File snapshotFile) throws IOException {
+		_jtModel = JTModelSnapshot.read(snapshotFile);
+	}
+
+	/**
+	 * Saves the loaded model as snapshot, which can be reloaded much faster than
+	 * the JT file. Snapshots have to be enabled before the import.
+	 * @param  snapshotFile Snapshot file
+	 * @throws IOException  Thrown if the snapshot couldn't be written
+	 */
+	public void saveSnapshot(File snapshotFile) throws IOException {
+		if(_jtModel == null){
+			throw new IllegalStateException("No model has been loaded!");
+		}
+		if(!_jtModel.isShapeInstancesRetained()){
+			throw new IllegalStateException("Snapshots haven't been enabled before the import!");
+		}
+		JTModelSnapshot.write(_jtModel, snapshotFile);
+	}
+
 	/**
 	 * Parses the given file and creates the model.
 	 * @param  url            URL of the file to load
@@ -204,26 +323,71 @@ public class JTImporter {
 		}
 
 		_currentURLName = url;
+		_url = url;
 		_jtModel = new JTModel();
+		_jtModel.setShapeInstancesRetained(_snapshotEnabled);
+		_shapeNodes = null;
+		_referencedModelNodes = null;
+		if(_snapshotEnabled){
+			_shapeNodes = new IdentityHashMap<LSGNode, DecodedShape>();
+			_referencedModelNodes = new IdentityHashMap<LSGNode, JTModelNode>();
+		}
 
 		_progressIntervall.put(_currentURLName, 0);
 		_readBytes.put(_currentURLName, 0);
-		_fileLength.put(_currentURLName, url.openConnection().getContentLength());
+		_importStatistics = null;
+		if(_importStatisticsEnabled){
+			_importStatistics = new ImportStatistics(url);
+			_importStatistics.start();
+		}
 
+		SegmentPrefetcher segmentPrefetcher = null;
+		SegmentInflater segmentInflater = null;
+		boolean inflaterExecutorServiceOwned = false;
+		JTImporter previousImporter = _currentImporter.get();
+		_currentImporter.set(this);
+		DecodeEvents.refresh();
 		try {
-			InputStream inputStream = url.openStream();
+			beginPhase(ImportPhase.READ);
 
-			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(_fileLength.get(_currentURLName));
-			byte[] buffer = new byte[1024];
-			int readBytes = 0;
-			while((readBytes = inputStream.read(buffer)) != -1){
-				byteArrayOutputStream.write(buffer, 0, readBytes);
+			// Fetch only header and TOC of remote files, the segments follow concurrently
+			byte[] content = null;
+			if((_prefetchThreadCount > 0) && !url.getProtocol().equals("file")){
+				try {
+					segmentPrefetcher = new SegmentPrefetcher(SegmentPrefetcher.createByteRangeSource(url));
+					content = segmentPrefetcher.loadHeaderAndTOC();
+					_fileVersion = segmentPrefetcher.getFileVersion();
+					_fileLength.put(_currentURLName, content.length);
+
+				} catch(IOException exception){
+					// Fall back to the complete download
+					if(segmentPrefetcher != null){
+						segmentPrefetcher.shutdown();
+						segmentPrefetcher = null;
+					}
+				}
 			}
-			ByteBuffer byteBuffer = ByteBuffer.wrap(byteArrayOutputStream.toByteArray());
-			inputStream.close();
+
+			if(content == null){
+				URLConnection urlConnection = url.openConnection();
+				_fileLength.put(_currentURLName, urlConnection.getContentLength());
+				_fileVersion = Helper.getContentVersion(urlConnection);
+				InputStream inputStream = urlConnection.getInputStream();
+
+				ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(Math.max(_fileLength.get(_currentURLName), 32));
+				byte[] buffer = new byte[1024];
+				int readBytes = 0;
+				while((readBytes = inputStream.read(buffer)) != -1){
+					byteArrayOutputStream.write(buffer, 0, readBytes);
+				}
+				content = byteArrayOutputStream.toByteArray();
+				inputStream.close();
+			}
+			ByteBuffer byteBuffer = ByteBuffer.wrap(content);
 
 			WorkingContext workingContext = new WorkingContext();
 			workingContext.setByteBuffer(byteBuffer);
+			workingContext.setImportStatistics(_importStatistics);
 
 			// Check the signature
 			String signature = Helper.readStringByLength(byteBuffer, 80);
@@ -260,7 +424,10 @@ public class JTImporter {
 				rootLSG = null;
 			}
 
+			endPhase(ImportPhase.READ);
+
 			// Go to the TOC
+			beginPhase(ImportPhase.TOC);
 			byteBuffer.position(tocOffset);
 
 			// Get all TOC entries
@@ -270,32 +437,60 @@ public class JTImporter {
 				tocEntries.add(TOCEntry.read(workingContext));				
 			}
 
+			// Fetch all segments concurrently
+			if(segmentPrefetcher != null){
+				segmentPrefetcher.start(tocEntries, _prefetchThreadCount);
+			}
+
+			// Inflate all zipped segments concurrently
+			if(_inflaterThreadCount > 0){
+				if(_inflaterExecutorService == null){
+					_inflaterExecutorService = SegmentInflater.createExecutorService(_inflaterThreadCount);
+					inflaterExecutorServiceOwned = true;
+				}
+				segmentInflater = new SegmentInflater(byteBuffer, tocEntries, _inflaterExecutorService, segmentPrefetcher);
+				workingContext.setSegmentInflater(segmentInflater);
+			}
+			endPhase(ImportPhase.TOC);
+
 			// Iterate over elements referenced from TOC
+			beginPhase(ImportPhase.LSG);
 			for(Iterator<TOCEntry> tocIterator = tocEntries.iterator(); tocIterator.hasNext();){
 				workingContext.setByteBuffer(byteBuffer);
 
 				TOCEntry tocEntry = tocIterator.next();
+				if(segmentPrefetcher != null){
+					segmentPrefetcher.waitForSegment(tocEntry.getSegmentOffSet());
+				}
 				byteBuffer.position(tocEntry.getSegmentOffSet());
 
 				SegmentHeader segmentHeader = SegmentHeader.read(workingContext);
+				if(_importStatistics != null){
+					_importStatistics.addSegment(segmentHeader.getSegmentType());
+				}
 
 				String segmentID = segmentHeader.getSegmentID().toString();
 				workingContext.setSegmentType(segmentHeader.getSegmentType());
 
 				ElementHeader elementHeader = ElementHeader.read(workingContext, true);
-				String elementID = elementHeader.getElementID().toString();
+				GUID elementID = elementHeader.getElementID();
 				workingContext.setByteBuffer(elementHeader.getByteBuffer());
 
-				// Extract the geometry information
-				if(elementID.equals(TriStripSetShapeLODElement.ID)){
+				// Extract the tri-strip, polyline and point shape definition data
+				if(	elementID.equals(TRI_STRIP_SET_SHAPE_LOD_ELEMENT_ID) ||
+					elementID.equals(POLYLINE_SET_SHAPE_LOD_ELEMENT_ID) ||
+					elementID.equals(POINT_SET_SHAPE_LOD_ELEMENT_ID)){
 					// Store the position for later reading
 					_xSetShapeLODElements.put(segmentID, workingContext.getByteBuffer().position());
+					_xSetShapeLODSegmentTypes.put(segmentID, segmentHeader.getSegmentType());
+					_xSetShapeLODSegmentLengths.put(segmentID, segmentHeader.getSegmentLength());
 
 				// Extract the assembly information
-				} else if(elementID.equals(PartitionNodeElement.ID)){
+				} else if(elementID.equals(PARTITION_NODE_ELEMENT_ID)){
+					Object segmentEvent = DecodeEvents.beginSegmentDecode();
 					PartitionNodeElement y = PartitionNodeElement.read(workingContext);
 					_jtNodes.put(y.getObjectID(), y);
-					if(segmentID.equals(rootLSG.toString())){
+					if(segmentHeader.getSegmentID().equals(rootLSG)){
 						_rootNode = y;
 					}
 
@@ -305,58 +500,7 @@ public class JTImporter {
 						int beforeHeader = workingContext.getByteBuffer().position();
 						ElementHeader elementHeader2 = ElementHeader.read(workingContext, false);
 						int headerSize = workingContext.getByteBuffer().position() - beforeHeader;
-						String elementID2 = elementHeader2.getElementID().toString();
-
-						if(elementID2.equals(PartNodeElement.ID)){
-							PartNodeElement x = PartNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(RangeLODNodeElement.ID)){
-							RangeLODNodeElement x = RangeLODNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(GroupNodeElement.ID)){
-							GroupNodeElement x = GroupNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(TriStripSetShapeNodeElement.ID)){
-							TriStripSetShapeNodeElement x = TriStripSetShapeNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(MaterialAttributeElement.ID)){
-							MaterialAttributeElement x = MaterialAttributeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(MetaDataNodeElement.ID)){
-							MetaDataNodeElement x = MetaDataNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(InstanceNodeElement.ID)){
-							InstanceNodeElement x = InstanceNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(GeometricTransformAttributeElement.ID)){
-							GeometricTransformAttributeElement x = GeometricTransformAttributeElement.read(workingContext, elementHeader2.getElementLength() - headerSize + 4);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(PartitionNodeElement.ID)){
-							PartitionNodeElement x = PartitionNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(PolylineSetShapeNodeElement.ID)){
-							PolylineSetShapeNodeElement x = PolylineSetShapeNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(PointSetShapeNodeElement.ID)){
-							PointSetShapeNodeElement x = PointSetShapeNodeElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						// Skip unevaluated element
-						} else {
-							addUnsupportedEntity(elementID2);
-							int bytesToSkip = elementHeader2.getElementLength() - headerSize + 4;
-							Helper.readBytes(workingContext.getByteBuffer(), bytesToSkip);
-						}
+						readElement(workingContext, elementHeader2, elementHeader2.getElementLength() - headerSize + 4);
 
 						// Check whether a next element is available
 						int currentPosition = workingContext.getByteBuffer().position();
@@ -372,7 +516,7 @@ public class JTImporter {
 
 						// Possibly break endless loop
 						GUID nextGUID = GUID.read(workingContext);
-						if(nextGUID.toString().equals(GUID.END_OF_ELEMENTS)){
+						if(nextGUID.equals(GUID.END_OF_ELEMENTS)){
 							break;
 						}
 
@@ -385,34 +529,7 @@ public class JTImporter {
 						int beforeHeader = workingContext.getByteBuffer().position();
 						ElementHeader elementHeader2 = ElementHeader.read(workingContext, false);
 						int headerSize = workingContext.getByteBuffer().position() - beforeHeader;
-						String elementID2 = elementHeader2.getElementID().toString();
-
-						if(elementID2.equals(StringPropertyAtomElement.ID)){
-							StringPropertyAtomElement x = StringPropertyAtomElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(FloatingPointPropertyAtomElement.ID)){
-							FloatingPointPropertyAtomElement x = FloatingPointPropertyAtomElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(LateLoadedPropertyAtomElement.ID)){
-							LateLoadedPropertyAtomElement x = LateLoadedPropertyAtomElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(DatePropertyAtomElement.ID)){
-							DatePropertyAtomElement x = DatePropertyAtomElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						} else if(elementID2.equals(IntegerPropertyAtomElement.ID)){
-							IntegerPropertyAtomElement x = IntegerPropertyAtomElement.read(workingContext);
-							_jtNodes.put(x.getObjectID(), x);
-
-						// Skip unevaluated element
-						} else {
-							addUnsupportedEntity(elementID2);
-							int bytesToSkip = elementHeader2.getElementLength() - headerSize + 4;
-							Helper.readBytes(workingContext.getByteBuffer(), bytesToSkip);
-						}
+						readElement(workingContext, elementHeader2, elementHeader2.getElementLength() - headerSize + 4);
 
 						// Check whether a next element is available
 						int currentPosition = workingContext.getByteBuffer().position();
@@ -422,7 +539,7 @@ public class JTImporter {
 
 						// Possibly break endless loop
 						GUID nextGUID = GUID.read(workingContext);
-						if(nextGUID.toString().equals(GUID.END_OF_ELEMENTS)){
+						if(nextGUID.equals(GUID.END_OF_ELEMENTS)){
 							break;
 						}
 
@@ -431,33 +548,63 @@ public class JTImporter {
 
 					// Read Property Table
 					//---------------------
+					beginPhase(ImportPhase.PROPERTY_TABLE);
 					_propertyTable = PropertyTable.read(workingContext);
-
-				// Extract the point shape definition data
-				} else if(elementID.equals(PointSetShapeLODElement.ID)){
-					// Store the position for later reading
-					_xSetShapeLODElements.put(segmentID, workingContext.getByteBuffer().position());
-
-				// Extract the polyline shape definition data
-				} else if(elementID.equals(PolylineSetShapeLODElement.ID)){
-					// Store the position for later reading
-					_xSetShapeLODElements.put(segmentID, workingContext.getByteBuffer().position());
+					endPhase(ImportPhase.PROPERTY_TABLE);
+					DecodeEvents.commitSegmentDecode(segmentEvent, segmentID, segmentHeader.getSegmentType(), segmentHeader.getSegmentLength());
 
 				// Skip unevaluated element
 				} else {
-					addUnsupportedEntity(elementID);
+					addUnsupportedEntity(elementID.toString());
 				}
 			}
 
+			endPhase(ImportPhase.LSG);
+
+			// Identify the file inside the shape cache
+			if(_shapeCache != null){
+				_shapeCacheFileKey = ShapeCache.createFileKey(url, content);
+			}
+
 			// Create the LSG tree
+			beginPhase(ImportPhase.CREATE_LSG);
 			createLSG(_rootNode.getObjectID(), _jtNodes);
+			endPhase(ImportPhase.CREATE_LSG);
 
 			// Extract the geometry and fill the JTModel
 			walkLSGTree(null, byteBuffer, workingContext);
 
+			// Keep the outline of the LSG for the snapshot
+			if(_snapshotEnabled){
+				_jtModel.setRootNode(createModelNode(_rootNode));
+				_shapeNodes = null;
+				_referencedModelNodes = null;
+			}
+
 		} catch(Exception exception){
 			addLoadInformation("ERROR", exception.getMessage());
 			throw exception;
+
+		} finally {
+			if(segmentInflater != null){
+				segmentInflater.shutdown();
+			}
+			if(inflaterExecutorServiceOwned){
+				_inflaterExecutorService.shutdownNow();
+			}
+			_inflaterExecutorService = null;
+			if(segmentPrefetcher != null){
+				segmentPrefetcher.shutdown();
+			}
+			if(_importStatistics != null){
+				_importStatistics.stop();
+			}
+			_currentImporter.set(previousImporter);
+
+			// Don't pin the scratch memory of the decoders after the outermost import
+			if(previousImporter == null){
+				ScratchArena.releaseInstance();
+			}
 		}
 	}
 
@@ -514,9 +661,10 @@ public class JTImporter {
 	 * Walks down the LSG and creates the geometry.
 	 * @param lsgNode        LSG node to process
 	 * @param byteBuffer     Byte buffer
-	 * @param workingContext Working context
+	 * @param  workingContext Working context
+	 * @throws IOException    Thrown if the geometry visitor failed
 	 */
-	private void walkLSGTree(LSGNode lsgNode, ByteBuffer byteBuffer, WorkingContext workingContext){
+	private void walkLSGTree(LSGNode lsgNode, ByteBuffer byteBuffer, WorkingContext workingContext) throws IOException {
 		if(lsgNode == null){
 			lsgNode = _rootNode;
 		}
@@ -546,59 +694,13 @@ public class JTImporter {
 						LateLoadedPropertyAtomElement lateLoadedPropertyAtomElement = (LateLoadedPropertyAtomElement)entry.getValue();
 						String segmentID = lateLoadedPropertyAtomElement.getSegmentID();
 
-						// Faces
-						if(lsgNode instanceof TriStripSetShapeNodeElement){
-							int currentPosition = byteBuffer.position();
-							byteBuffer.position(_xSetShapeLODElements.get(segmentID));
-							TriStripSetShapeLODElement triStripSetShapeLODElement = null;
-							try {
-								workingContext.setByteBuffer(byteBuffer);
-								triStripSetShapeLODElement = TriStripSetShapeLODElement.read(workingContext);
-	
-							} catch(UnsupportedCodecException exception){
-								addLoadInformation("WARNING", exception.getMessage());
-							}
-							byteBuffer.position(currentPosition);
-	
-							if(triStripSetShapeLODElement != null){
-								prepareGeometry(lsgNode.getObjectID(), triStripSetShapeLODElement, null, null, transformation, color, nodeName);
-							}
-
-						// Polylines
-						} else if(lsgNode instanceof PolylineSetShapeNodeElement){
-							int currentPosition = byteBuffer.position();
-							byteBuffer.position(_xSetShapeLODElements.get(segmentID));
-							PolylineSetShapeLODElement polylineSetShapeLODElement = null;
-							try {
-								workingContext.setByteBuffer(byteBuffer);
-								polylineSetShapeLODElement = PolylineSetShapeLODElement.read(workingContext);
-	
-							} catch(UnsupportedCodecException exception){
-								addLoadInformation("WARNING", exception.getMessage());
-							}
-							byteBuffer.position(currentPosition);
-	
-							if(polylineSetShapeLODElement != null){
-								prepareGeometry(lsgNode.getObjectID(), null, polylineSetShapeLODElement, null, transformation, color, nodeName);
-							}
-
-						// Points
-						} else if(lsgNode instanceof PointSetShapeNodeElement){
-							int currentPosition = byteBuffer.position();
-							byteBuffer.position(_xSetShapeLODElements.get(segmentID));
-							PointSetShapeLODElement pointSetShapeLODElement = null;
-							try {
-								workingContext.setByteBuffer(byteBuffer);
-								pointSetShapeLODElement = PointSetShapeLODElement.read(workingContext);
-	
-							} catch(UnsupportedCodecException exception){
-								addLoadInformation("WARNING", exception.getMessage());
-							}
-							byteBuffer.position(currentPosition);
-	
-							if(pointSetShapeLODElement != null){
-								prepareGeometry(lsgNode.getObjectID(), null, null, pointSetShapeLODElement, transformation, color, nodeName);
-							}
+						beginPhase(ImportPhase.SHAPE_DECODE);
+						DecodedShape decodedShape = getDecodedShape(lsgNode, segmentID, byteBuffer, workingContext, nodeName);
+						endPhase(ImportPhase.SHAPE_DECODE);
+						if(decodedShape != null){
+							beginPhase(ImportPhase.PREPARE_GEOMETRY);
+							prepareGeometry(lsgNode, segmentID, decodedShape, transformation, color, nodeName);
+							endPhase(ImportPhase.PREPARE_GEOMETRY);
 						}
 
 					} else {
@@ -611,6 +713,7 @@ public class JTImporter {
 		} else if(lsgNode instanceof PartitionNodeElement){
 			PartitionNodeElement partitionNodeElement = (PartitionNodeElement)lsgNode;
 			if(lsgNode.getParentLSGNode() != null){
+				beginPhase(ImportPhase.EXTERNAL_REFERENCES);
 				String urlAsString = _baseURLName.toString();
 
 				// Get the absolute external reference file name
@@ -633,15 +736,26 @@ public class JTImporter {
 					// Get the transformation matrix
 					Matrix4d transformation = getTransformationFromParentNodes(lsgNode);
 
-					// Extract the rotation from the transformation
-					Matrix4d rotation = (Matrix4d)transformation.clone();
-					rotation.setTranslation(new Vector3d());
-
 					// Load the referenced file
 					try {
-						URL oldURLName = _currentURLName;
 						JTImporter jtImporter = new JTImporter();
+						jtImporter._baseURLName = _baseURLName;
+						jtImporter._progressListener = _progressListener;
+						jtImporter.setShapeCache(_shapeCache);
+						jtImporter.setSegmentCache(_segmentCache);
+						jtImporter.setInflaterThreadCount(_inflaterThreadCount);
+						jtImporter._inflaterExecutorService = _inflaterExecutorService;
+						jtImporter.setPrefetchThreadCount(_prefetchThreadCount);
+						jtImporter.setImportStatisticsEnabled(_importStatisticsEnabled);
+						jtImporter.setGeometryVisitor(_geometryVisitor);
+						jtImporter.setGeometryRetained(_geometryRetained);
+						jtImporter.setSnapshotEnabled(_snapshotEnabled);
+						jtImporter._elementReaders.putAll(_elementReaders);
+						jtImporter._baseTransformation = getWorldTransformation(transformation);
 						jtImporter.loadFile(externalReference, true);
+						if((_importStatistics != null) && (jtImporter.getImportStatistics() != null)){
+							_importStatistics.addCounts(jtImporter.getImportStatistics());
+						}
 
 						// Transfer the load information
 						for(String[] loadInformation : jtImporter.getLoadInformation()){
@@ -653,45 +767,65 @@ public class JTImporter {
 							addUnsupportedEntity(unsupportedEntity);
 						}
 
-						HashMap<String, ArrayList<Object[]>> jtEntities = jtImporter.getFaces();
-						for(Iterator<String> iterator = jtEntities.keySet().iterator(); iterator.hasNext();){
-							String layerName = iterator.next();
-							ArrayList<Object[]> faces = jtEntities.get(layerName);
-							for(Object[] faceList : faces){
-								double[] vertices = (double[])faceList[0];
-								int[] indices = (int[])faceList[1];
-								double[] colors = (double[])faceList[2];
-								double[] normals = (double[])faceList[3];
-
-								// Apply the transformation to all vertices
-								for(int i = 0; i < vertices.length; i += 3){
-									Point3d vertex = new Point3d(vertices[i], vertices[i + 1], vertices[i + 2]);
-									transformation.transform(vertex);
-									vertices[i]     = vertex.getX();
-									vertices[i + 1] = vertex.getY();
-									vertices[i + 2] = vertex.getZ();
+						if(_snapshotEnabled){
+							_referencedModelNodes.put(lsgNode, jtImporter._jtModel.getRootNode());
+
+							// Transfer the faces as shape instances, positioned by the transformation of the reference
+							for(Iterator<Object[]> iterator = jtImporter._jtModel.getShapeInstances().iterator(); iterator.hasNext();){
+								Object[] shapeInstance = iterator.next();
+								DecodedShape decodedShape = (DecodedShape)shapeInstance[0];
+								if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+									Matrix4d instanceTransformation = (Matrix4d)transformation.clone();
+									instanceTransformation.mul((Matrix4d)shapeInstance[1]);
+									_jtModel.addShapeInstance(decodedShape, instanceTransformation, (Color)shapeInstance[2], (String)shapeInstance[3]);
 								}
+							}
 
-								// Apply the transformation to all normals
-								for(int i = 0; i < normals.length; i += 3){
-									Point3d normal = new Point3d(normals[i], normals[i + 1], normals[i + 2]);
-									rotation.transform(normal);
-									normals[i]     = normal.getX();
-									normals[i + 1] = normal.getY();
-									normals[i + 2] = normal.getZ();
+						} else {
+							// Extract the rotation from the transformation
+							Matrix4d rotation = (Matrix4d)transformation.clone();
+							rotation.setTranslation(new Vector3d());
+
+							// Transfer the faces, positioned by the transformation of the reference
+							HashMap<String, ArrayList<Object[]>> jtEntities = jtImporter.getFaces();
+							for(Iterator<String> iterator = jtEntities.keySet().iterator(); iterator.hasNext();){
+								String layerName = iterator.next();
+								ArrayList<Object[]> faces = jtEntities.get(layerName);
+								for(Object[] faceList : faces){
+									double[] vertices = (double[])faceList[0];
+									int[] indices = (int[])faceList[1];
+									double[] colors = (double[])faceList[2];
+									double[] normals = (double[])faceList[3];
+
+									// Apply the transformation to all vertices
+									for(int i = 0; i < vertices.length; i += 3){
+										Point3d vertex = new Point3d(vertices[i], vertices[i + 1], vertices[i + 2]);
+										transformation.transform(vertex);
+										vertices[i]     = vertex.getX();
+										vertices[i + 1] = vertex.getY();
+										vertices[i + 2] = vertex.getZ();
+									}
+
+									// Apply the transformation to all normals
+									for(int i = 0; i < normals.length; i += 3){
+										Point3d normal = new Point3d(normals[i], normals[i + 1], normals[i + 2]);
+										rotation.transform(normal);
+										normals[i]     = normal.getX();
+										normals[i + 1] = normal.getY();
+										normals[i + 2] = normal.getZ();
+									}
+
+									// Add the new positioned face
+									_jtModel.addTriangles(vertices, indices, colors, normals, layerName);
 								}
-
-								// Add the new positioned face
-								_jtModel.addTriangles(vertices, indices, colors, normals, layerName);
 							}
 						}
 
-						_currentURLName = oldURLName;
-
 					} catch(Exception exception){
 						addLoadInformation("WARNING", "Failed loading external reference: " + externalReference.toString());
 					}
 				}
+				endPhase(ImportPhase.EXTERNAL_REFERENCES);
 			}
 		}
 
@@ -837,11 +971,67 @@ public class JTImporter {
 	}
 
 	/**
-	 * Returns the node name.
+	 * Creates the outline of the given LSG node and its sub tree. The outlines of
+	 * the external references are attached to their partition nodes.
 	 * @param  lsgNode LSG node
-	 * @return         Name of the node
+	 * @return         Outline of the LSG node
 	 */
-	private String getNodeName(LSGNode lsgNode){
+	private JTModelNode createModelNode(LSGNode lsgNode){
+		JTModelNode modelNode = new JTModelNode(lsgNode.getClass().getSimpleName(), getNodeName(lsgNode));
+
+		Map<JTNode, JTNode> propertyNodes = lsgNode.getPropertyNodes();
+		for(Iterator<Entry<JTNode, JTNode>> iterator = propertyNodes.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<JTNode, JTNode> entry = iterator.next();
+			modelNode.addProperty(getPropertyValue(entry.getKey()), getPropertyValue(entry.getValue()));
+		}
+
+		for(JTNode attributeNode : lsgNode.getAttributeNodes()){
+			if(attributeNode instanceof GeometricTransformAttributeElement){
+				modelNode.addTransformation(((GeometricTransformAttributeElement)attributeNode).getTransformationMatrix());
+			}
+		}
+
+		modelNode.setDecodedShape(_shapeNodes.get(lsgNode));
+		JTModelNode referencedModelNode = _referencedModelNodes.get(lsgNode);
+		if(referencedModelNode != null){
+			modelNode.addChildNode(referencedModelNode);
+		}
+
+		for(LSGNode childNode : lsgNode.getChildLSGNodes()){
+			modelNode.addChildNode(createModelNode(childNode));
+		}
+		return modelNode;
+	}
+
+	/**
+	 * Returns the value of the given property atom as string.
+	 * @param  propertyNode Property atom
+	 * @return              Value of the property atom or<br>
+	 *                      <b>null</b> if the property atom type is unknown
+	 */
+	private static String getPropertyValue(JTNode propertyNode){
+		if(propertyNode instanceof StringPropertyAtomElement){
+			return ((StringPropertyAtomElement)propertyNode).getValue();
+		} else if(propertyNode instanceof IntegerPropertyAtomElement){
+			return Integer.toString(((IntegerPropertyAtomElement)propertyNode).getValue());
+		} else if(propertyNode instanceof FloatingPointPropertyAtomElement){
+			return Float.toString(((FloatingPointPropertyAtomElement)propertyNode).getValue());
+		} else if(propertyNode instanceof DatePropertyAtomElement){
+			short[] date = ((DatePropertyAtomElement)propertyNode).getValue();
+			return String.format("%04d-%02d-%02d %02d:%02d:%02d", date[0], date[1], date[2], date[3], date[4], date[5]);
+		} else if(propertyNode instanceof LateLoadedPropertyAtomElement){
+			return ((LateLoadedPropertyAtomElement)propertyNode).getSegmentID();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the node name, given by the properties "Name::" or "JT_PROP_NAME".
+	 * @param  lsgNode LSG node
+	 * @return         Name of the node or<br>
+	 *                 <b>null</b> if the node has no name
+	 */
+	public static String getNodeName(LSGNode lsgNode){
 		String layerName = null;
 
 		if(lsgNode != null){
@@ -878,59 +1068,124 @@ public class JTImporter {
 	}
 
 	/**
-	 * Fills the JT models with the triangulated faces.
-	 * @param parentNodeObjectID         Object ID of the parent LSG node
-	 * @param triStripSetShapeLODElement TriStripSetShapeLODElement
-	 * @param polylineSetShapeLODElement PolylineSetShapeLODElement
-	 * @param pointSetShapeLODElement    PointSetShapeLODElement
-	 * @param transformation             Transformation
-	 * @param globalColor                Default color
-	 * @param layerName                  Layer name
+	 * Returns the decoded shape of the given shape node. If a segment cache or a shape
+	 * cache is set, the shape is taken from the caches or stored there after it has
+	 * been decoded.
+	 * @param  lsgNode        Shape node
+	 * @param  segmentID      ID of the segment, holding the shape LOD element
+	 * @param  byteBuffer     Byte buffer
+	 * @param  workingContext Working context
+	 * @param  layerName      Layer name
+	 * @return                Decoded shape or<br>
+	 *                        <b>null</b> if the shape couldn't be decoded or is empty
+	 */
+	private DecodedShape getDecodedShape(LSGNode lsgNode, String segmentID, ByteBuffer byteBuffer, WorkingContext workingContext, String layerName){
+		if(_segmentCache != null){
+			DecodedShape decodedShape = _segmentCache.get(_url, _fileVersion, segmentID);
+			if(decodedShape != null){
+				return decodedShape;
+			}
+		}
+
+		int lod = getLOD(segmentID);
+		if(_shapeCache != null){
+			DecodedShape decodedShape = _shapeCache.get(_shapeCacheFileKey, segmentID, lod);
+			if(decodedShape != null){
+				if(_segmentCache != null){
+					_segmentCache.put(_url, _fileVersion, segmentID, decodedShape);
+				}
+				return decodedShape;
+			}
+		}
+
+		Object segmentEvent = DecodeEvents.beginSegmentDecode();
+		int currentPosition = byteBuffer.position();
+		byteBuffer.position(_xSetShapeLODElements.get(segmentID));
+		TriStripSetShapeLODElement triStripSetShapeLODElement = null;
+		PolylineSetShapeLODElement polylineSetShapeLODElement = null;
+		PointSetShapeLODElement pointSetShapeLODElement = null;
+		try {
+			workingContext.setByteBuffer(byteBuffer);
+			if(lsgNode instanceof TriStripSetShapeNodeElement){
+				triStripSetShapeLODElement = TriStripSetShapeLODElement.read(workingContext);
+			} else if(lsgNode instanceof PolylineSetShapeNodeElement){
+				polylineSetShapeLODElement = PolylineSetShapeLODElement.read(workingContext);
+			} else if(lsgNode instanceof PointSetShapeNodeElement){
+				pointSetShapeLODElement = PointSetShapeLODElement.read(workingContext);
+			}
+
+		} catch(UnsupportedCodecException exception){
+			addLoadInformation("WARNING", exception.getMessage());
+		}
+		byteBuffer.position(currentPosition);
+
+		DecodedShape decodedShape = createDecodedShape(triStripSetShapeLODElement, polylineSetShapeLODElement, pointSetShapeLODElement, workingContext, layerName);
+		DecodeEvents.commitSegmentDecode(segmentEvent, segmentID, _xSetShapeLODSegmentTypes.get(segmentID), _xSetShapeLODSegmentLengths.get(segmentID));
+		if((decodedShape != null) && (_shapeCache != null)){
+			try {
+				_shapeCache.put(_shapeCacheFileKey, segmentID, lod, decodedShape);
+			} catch(IOException exception){
+				addLoadInformation("WARNING", "Failed writing shape cache: " + exception.getMessage());
+			}
+		}
+		if((decodedShape != null) && (_segmentCache != null)){
+			_segmentCache.put(_url, _fileVersion, segmentID, decodedShape);
+		}
+		return decodedShape;
+	}
+
+	/**
+	 * Returns the level of detail of the given shape segment.
+	 * @param  segmentID Segment ID
+	 * @return           Level of detail or<br>
+	 *                   <b>-1</b> if the segment isn't a LOD segment
 	 */
-	private void prepareGeometry(int parentNodeObjectID, TriStripSetShapeLODElement triStripSetShapeLODElement, PolylineSetShapeLODElement polylineSetShapeLODElement, PointSetShapeLODElement pointSetShapeLODElement, Matrix4d transformation, Color globalColor, String layerName){
+	private int getLOD(String segmentID){
+		SegmentType segmentType = _xSetShapeLODSegmentTypes.get(segmentID);
+		if((segmentType == null) || (segmentType.getType() < SegmentType.SHAPE_LOD0.getType()) || (segmentType.getType() > SegmentType.SHAPE_LOD9.getType())){
+			return -1;
+		}
+		return segmentType.getType() - SegmentType.SHAPE_LOD0.getType();
+	}
+
+	/**
+	 * Converts the given shape LOD element into a decoded shape. The geometry stays
+	 * in the local coordinate system of the shape.
+	 * @param  triStripSetShapeLODElement TriStripSetShapeLODElement
+	 * @param  polylineSetShapeLODElement PolylineSetShapeLODElement
+	 * @param  pointSetShapeLODElement    PointSetShapeLODElement
+	 * @param  workingContext             Working context
+	 * @param  layerName                  Layer name
+	 * @return                            Decoded shape or<br>
+	 *                                    <b>null</b> if the shape couldn't be decoded or is empty
+	 */
+	private DecodedShape createDecodedShape(TriStripSetShapeLODElement triStripSetShapeLODElement, PolylineSetShapeLODElement polylineSetShapeLODElement, PointSetShapeLODElement pointSetShapeLODElement, WorkingContext workingContext, String layerName){
 		try {
 			if(_jtModel.getJTFileVersion() < 9.0){
 				if(triStripSetShapeLODElement != null){
 					VertexBasedShapeCompressedRepData vertexBasedShapeCompressedRepData = triStripSetShapeLODElement.getVertexBasedShapeCompressedRepData();
-					List<Double> normalsAsList = vertexBasedShapeCompressedRepData.getNormals();
-					List<Float> colorsAsList = vertexBasedShapeCompressedRepData.getColors();
-					List<Integer> indicesAsList = vertexBasedShapeCompressedRepData.getIndices();
-					List<Double> verticesAsList = vertexBasedShapeCompressedRepData.getVertices();
-
-					if((verticesAsList == null) || (verticesAsList.size() == 0)){
-						return;
+					beginPhase(ImportPhase.DEQUANTIZE);
+					double[] normalsAsArray = vertexBasedShapeCompressedRepData.getNormalArray();
+					double[] colorsAsArray = vertexBasedShapeCompressedRepData.getColorArray();
+					int[] indicesAsArray = vertexBasedShapeCompressedRepData.getIndices();
+					double[] verticesAsArray = vertexBasedShapeCompressedRepData.getVertexArray();
+					endPhase(ImportPhase.DEQUANTIZE);
+
+					if((verticesAsArray == null) || (verticesAsArray.length == 0)){
+						return null;
 					}
 
-					// Extract the rotation from the transformation
-					Matrix4d rotation = (Matrix4d)transformation.clone();
-					rotation.setTranslation(new Vector3d());
-
 					// Calculate the number of vertices and faces
 					int vertexCount = 0;
 					int faceCount = 0;
-					for(int i = 0; i < (indicesAsList.size() - 1); i++){
-						int startIndex = indicesAsList.get(i);
-						int endIndex = indicesAsList.get(i + 1);
+					for(int i = 0; i < (indicesAsArray.length - 1); i++){
+						int startIndex = indicesAsArray[i];
+						int endIndex = indicesAsArray[i + 1];
 						vertexCount += (endIndex - startIndex);
 						faceCount += (endIndex - startIndex - 2);
 					}
 
-					// Possibly create color list
-					double[] colors = null;
-					if((colorsAsList == null) || (colorsAsList.size() == 0)){
-						float[] color = globalColor.getColorComponents(null);
-						colors = new double[faceCount * 3];
-						for(int i = 0; i < colors.length; i += 3){
-							colors[i]     = color[0];
-							colors[i + 1] = color[1];
-							colors[i + 2] = color[2];
-						}
-					} else {
-						colors = new double[colorsAsList.size()];
-						for(int i = 0; i < colors.length; i++){
-							colors[i] = colorsAsList.get(i);
-						}
-					}
+					double[] colors = ((colorsAsArray != null) && (colorsAsArray.length > 0)) ? colorsAsArray : null;
 
 					// Create the vertex and index list
 					double[] vertices = new double[vertexCount * 3];
@@ -938,27 +1193,19 @@ public class JTImporter {
 					int[] faceIndices = new int[faceCount * 3];
 
 					int l = 0;
-					for(int i = 0; i < (indicesAsList.size() - 1); i++){
-						int startIndex = indicesAsList.get(i);
-						int endIndex = indicesAsList.get(i + 1);
+					for(int i = 0; i < (indicesAsArray.length - 1); i++){
+						int startIndex = indicesAsArray[i];
+						int endIndex = indicesAsArray[i + 1];
 
 						// Fill the vertex list
 						for(int j = startIndex; j < endIndex; j++){
 							int k = j * 3;
-
-							// Apply the transformation to each vertex
-							Point3d vertex = new Point3d(verticesAsList.get(k), verticesAsList.get(k + 1), verticesAsList.get(k + 2));
-							transformation.transform(vertex);
-							vertices[k]     = vertex.getX();
-							vertices[k + 1] = vertex.getY();
-							vertices[k + 2] = vertex.getZ();
-
-							// Apply the rotation to each normal 
-							Point3d normal = new Point3d(normalsAsList.get(k), normalsAsList.get(k + 1), normalsAsList.get(k + 2));
-							rotation.transform(normal);
-							normals[k]     = normal.getX();
-							normals[k + 1] = normal.getY();
-							normals[k + 2] = normal.getZ();
+							vertices[k]     = verticesAsArray[k];
+							vertices[k + 1] = verticesAsArray[k + 1];
+							vertices[k + 2] = verticesAsArray[k + 2];
+							normals[k]      = normalsAsArray[k];
+							normals[k + 1]  = normalsAsArray[k + 1];
+							normals[k + 2]  = normalsAsArray[k + 2];
 						}
 
 						// Fill the index list
@@ -969,22 +1216,17 @@ public class JTImporter {
 							l += 3;
 						}
 					}
-					_jtModel.addTriangles(vertices, faceIndices, colors, normals, layerName);
+					return new DecodedShape(DecodedShape.TYPE_TRIANGLES, vertices, normals, colors, faceIndices, null);
 
 				} else if(pointSetShapeLODElement != null){
 					VertexBasedShapeCompressedRepData vertexBasedShapeCompressedRepData = pointSetShapeLODElement.getVertexBasedShapeCompressedRepData();
-					List<Double> vertices = vertexBasedShapeCompressedRepData.getVertices();
-					List<Float> colors = vertexBasedShapeCompressedRepData.getColors();
-					if((colors == null) || (colors.size() == 0)){
-						colors = new ArrayList<Float>();
-						float[] color = globalColor.getColorComponents(null);
-						for(int i = 0; i < vertices.size(); i += 3){
-							colors.add(color[0]);
-							colors.add(color[1]);
-							colors.add(color[2]);
-						}
-					}
-					_jtModel.addPoints(vertices, colors, layerName);
+					beginPhase(ImportPhase.DEQUANTIZE);
+					double[] vertices = vertexBasedShapeCompressedRepData.getVertexArray();
+					double[] colorsAsArray = vertexBasedShapeCompressedRepData.getColorArray();
+					endPhase(ImportPhase.DEQUANTIZE);
+
+					double[] colors = ((colorsAsArray != null) && (colorsAsArray.length > 0)) ? colorsAsArray : null;
+					return new DecodedShape(DecodedShape.TYPE_POINTS, vertices, null, colors, null, null);
 				}
 
 			// JT version 9+
@@ -992,20 +1234,18 @@ public class JTImporter {
 				VertexShapeLODElement vertexShapeLODElement = null;
 				if(triStripSetShapeLODElement != null){
 					vertexShapeLODElement = triStripSetShapeLODElement.getVertexShapeLODElement();
-					List<Double> normalsAsList = vertexShapeLODElement.getNormals();
-					List<Double> colorsAsList = vertexShapeLODElement.getColors();
-					List<List<Integer>> indexLists = vertexShapeLODElement.getIndices();
-					List<Double> verticesAsList = vertexShapeLODElement.getVertices();
-
-					if((verticesAsList == null) || (verticesAsList.size() == 0) || (indexLists.get(0).size() == 0)){
+					double[] normalsAsArray = vertexShapeLODElement.getNormalArray();
+					double[] colorsAsArray = vertexShapeLODElement.getColorArray();
+					beginPhase(ImportPhase.TOPOLOGY_DECODE);
+					List<List<Integer>> indexLists = vertexShapeLODElement.getIndices(workingContext);
+					endPhase(ImportPhase.TOPOLOGY_DECODE);
+					double[] verticesAsArray = vertexShapeLODElement.getVertexArray();
+
+					if((verticesAsArray == null) || (verticesAsArray.length == 0) || (indexLists.get(0).size() == 0)){
 						addLoadInformation("WARNING", "Found empty element!");
-						return;
+						return null;
 					}
 
-					// Extract the rotation from the transformation
-					Matrix4d rotation = (Matrix4d)transformation.clone();
-					rotation.setTranslation(new Vector3d());
-
 					List<Integer> vertexIndicesList = indexLists.get(0);
 					List<Integer> normalIndicesList = indexLists.get(1);
 
@@ -1013,103 +1253,28 @@ public class JTImporter {
 					int[] indicesNew = new int[vertexIndicesList.size()];
 					double[] normalsNew = new double[vertexIndicesList.size() * 3];
 					int lastNormalIndex = -1;
-					for(int i = 0, vertexCount = 0, normalCount = 0; i < (vertexIndicesList.size() / 3); i++){
-						int baseIndex = (i * 3);
-
-						int faceIndex1 = vertexIndicesList.get(baseIndex);
-						int faceIndex2 = vertexIndicesList.get(baseIndex + 1);
-						int faceIndex3 = vertexIndicesList.get(baseIndex + 2);
+					for(int i = 0, vertexCount = 0, normalCount = 0; i < ((vertexIndicesList.size() / 3) * 3); i++){
+						int vertexIndex = vertexIndicesList.get(i) * 3;
+						int normalIndex = normalIndicesList.get(i);
+						if(normalIndex == -1){
+							normalIndex = lastNormalIndex;
+						}
+						lastNormalIndex = normalIndex;
+						normalIndex *= 3;
 
-						int normalIndex1 = normalIndicesList.get(baseIndex);
-						int normalIndex2 = normalIndicesList.get(baseIndex + 1);
-						int normalIndex3 = normalIndicesList.get(baseIndex + 2);
+						indicesNew[i] = i;
 
-						if(normalIndex1 == -1){
-							normalIndex1 = lastNormalIndex;
-						}
-						lastNormalIndex = normalIndex1;
-						if(normalIndex2 == -1){
-							normalIndex2 = lastNormalIndex;
-						}
-						lastNormalIndex = normalIndex2;
-						if(normalIndex3 == -1){
-							normalIndex3 = lastNormalIndex;
-						}
-						lastNormalIndex = normalIndex3;
-
-						indicesNew[baseIndex]     = baseIndex;
-						indicesNew[baseIndex + 1] = baseIndex + 1;
-						indicesNew[baseIndex + 2] = baseIndex + 2;
-
-						// Apply the transformation to each vertex
-						Point3d vertex = new Point3d(	verticesAsList.get((faceIndex1 * 3)),
-														verticesAsList.get((faceIndex1 * 3) + 1),
-														verticesAsList.get((faceIndex1 * 3) + 2));
-						transformation.transform(vertex);
-						verticesNew[vertexCount++] = vertex.getX();
-						verticesNew[vertexCount++] = vertex.getY();
-						verticesNew[vertexCount++] = vertex.getZ();
-
-						vertex = new Point3d(	verticesAsList.get((faceIndex2 * 3)),
-												verticesAsList.get((faceIndex2 * 3) + 1),
-												verticesAsList.get((faceIndex2 * 3) + 2));
-						transformation.transform(vertex);
-						verticesNew[vertexCount++] = vertex.getX();
-						verticesNew[vertexCount++] = vertex.getY();
-						verticesNew[vertexCount++] = vertex.getZ();
-
-						vertex = new Point3d(	verticesAsList.get((faceIndex3 * 3)),
-												verticesAsList.get((faceIndex3 * 3) + 1),
-												verticesAsList.get((faceIndex3 * 3) + 2));
-						transformation.transform(vertex);
-						verticesNew[vertexCount++] = vertex.getX();
-						verticesNew[vertexCount++] = vertex.getY();
-						verticesNew[vertexCount++] = vertex.getZ();
-
-						// Apply the rotation to each normal 
-						Point3d normal = new Point3d(	normalsAsList.get((normalIndex1 * 3)),
-														normalsAsList.get((normalIndex1 * 3) + 1),
-														normalsAsList.get((normalIndex1 * 3) + 2));
-						rotation.transform(normal);
-						normalsNew[normalCount++] = normal.getX();
-						normalsNew[normalCount++] = normal.getY();
-						normalsNew[normalCount++] = normal.getZ();
-
-						normal = new Point3d(	normalsAsList.get((normalIndex2 * 3)),
-												normalsAsList.get((normalIndex2 * 3) + 1),
-												normalsAsList.get((normalIndex2 * 3) + 2));
-						rotation.transform(normal);
-						normalsNew[normalCount++] = normal.getX();
-						normalsNew[normalCount++] = normal.getY();
-						normalsNew[normalCount++] = normal.getZ();
-
-						normal = new Point3d(	normalsAsList.get((normalIndex3 * 3)),
-												normalsAsList.get((normalIndex3 * 3) + 1),
-												normalsAsList.get((normalIndex3 * 3) + 2));
-						rotation.transform(normal);
-						normalsNew[normalCount++] = normal.getX();
-						normalsNew[normalCount++] = normal.getY();
-						normalsNew[normalCount++] = normal.getZ();
-					}
+						verticesNew[vertexCount++] = verticesAsArray[vertexIndex];
+						verticesNew[vertexCount++] = verticesAsArray[vertexIndex + 1];
+						verticesNew[vertexCount++] = verticesAsArray[vertexIndex + 2];
 
-					// Possibly create color list
-					double[] colors = null;
-					if((colorsAsList == null) || (colorsAsList.size() == 0)){
-						float[] color = globalColor.getColorComponents(null);
-						colors = new double[vertexIndicesList.size()];
-						for(int i = 0; i < colors.length; i += 3){
-							colors[i]     = color[0];
-							colors[i + 1] = color[1];
-							colors[i + 2] = color[2];
-						}
-					} else {
-						colors = new double[colorsAsList.size()];
-						for(int i = 0; i < colors.length; i++){
-							colors[i] = colorsAsList.get(i);
-						}
+						normalsNew[normalCount++] = normalsAsArray[normalIndex];
+						normalsNew[normalCount++] = normalsAsArray[normalIndex + 1];
+						normalsNew[normalCount++] = normalsAsArray[normalIndex + 2];
 					}
 
-					_jtModel.addTriangles(verticesNew, indicesNew, colors, normalsNew, layerName);
+					double[] colors = ((colorsAsArray != null) && (colorsAsArray.length > 0)) ? colorsAsArray : null;
+					return new DecodedShape(DecodedShape.TYPE_TRIANGLES, verticesNew, normalsNew, colors, indicesNew, null);
 
 				} else if(polylineSetShapeLODElement != null) {
 					VertexShapeLODData vertexShapeLODData = polylineSetShapeLODElement.getVertexShapeLODData();
@@ -1119,58 +1284,49 @@ public class JTImporter {
 						topoMeshCompressedRepDataV1 = topoMeshCompressedLODData.getTopoMeshCompressedRepDataV2().getTopoMeshCompressedRepDataV1();
 					}
 
-					List<Double> colorsAsList = null;
+					double[] colors = null;
 					if(topoMeshCompressedRepDataV1.getCompressedVertexColorArray() != null){
-						colorsAsList = topoMeshCompressedRepDataV1.getCompressedVertexColorArray().getColors();
+						colors = topoMeshCompressedRepDataV1.getCompressedVertexColorArray().getColorArray();
 					}
 
-					List<Integer> vertexIndicesList = topoMeshCompressedRepDataV1.getVertexListIndices();
-					List<Integer> primitiveIndicesList = topoMeshCompressedRepDataV1.getPrimitiveListIndices();
+					int[] vertexIndices = topoMeshCompressedRepDataV1.getVertexListIndices();
+					int[] primitiveIndices = topoMeshCompressedRepDataV1.getPrimitiveListIndices();
 					if(topoMeshCompressedRepDataV1.getCompressedVertexCoordinateArray() == null){
-						return;
-					}
-					List<Double> verticesAsList = topoMeshCompressedRepDataV1.getCompressedVertexCoordinateArray().getVertices();
-
-					if(colorsAsList == null){
-						colorsAsList = new ArrayList<Double>();
-						float[] color = globalColor.getColorComponents(null);
-						for(int i = 0; i < verticesAsList.size(); i += 3){
-							colorsAsList.add((double)color[0]);
-							colorsAsList.add((double)color[1]);
-							colorsAsList.add((double)color[2]);
-						}
+						return null;
 					}
+					double[] vertices = topoMeshCompressedRepDataV1.getCompressedVertexCoordinateArray().getVertexArray();
+					return new DecodedShape(DecodedShape.TYPE_POLYLINES, vertices, null, colors, vertexIndices, primitiveIndices);
+				}
+			}
+		} catch(Exception exception){
+			exception.printStackTrace();
+			addLoadInformation("WARNING", "Failed decoding node element: " + layerName + " (" + exception.getMessage() + ")");
+		}
+		return null;
+	}
 
-					// Extract the rotation from the transformation
-					Matrix4d rotation = (Matrix4d)transformation.clone();
-					rotation.setTranslation(new Vector3d());
-
-					for(int i = 0; i < (primitiveIndicesList.size() - 1); i++){
-						int startIndex = primitiveIndicesList.get(i);
-						int endIndex = primitiveIndicesList.get(i + 1);
+	/**
+	 * Passes the given decoded shape to the geometry visitor and fills the JT model.
+	 * @param  shapeNode      Shape node of the LSG
+	 * @param  segmentID      ID of the shape segment
+	 * @param  decodedShape   Decoded shape
+	 * @param  transformation Transformation
+	 * @param  globalColor    Default color
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the geometry visitor failed
+	 */
+	private void prepareGeometry(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color globalColor, String layerName) throws IOException {
+		if(_geometryVisitor != null){
+			_geometryVisitor.visitShape(shapeNode, segmentID, decodedShape, getWorldTransformation(transformation), globalColor, layerName);
+		}
+		if(!_geometryRetained){
+			return;
+		}
 
-						// Fill the vertex list
-						List<Double[]> polylineVertices = new ArrayList<Double[]>();
-						List<Double[]> polylineColors = new ArrayList<Double[]>();
-						for(int j = startIndex; j < endIndex; j++){
-							int vertexIndex = vertexIndicesList.get(j) * 3;
-							double x = verticesAsList.get(vertexIndex);
-							double y = verticesAsList.get(vertexIndex + 1);
-							double z = verticesAsList.get(vertexIndex + 2);
-
-							// Apply the transformation to each vertex
-							Point3d vertex = new Point3d(x, y, z);
-							transformation.transform(vertex);
-
-							// Add the transformed vertex
-							polylineVertices.add(new Double[]{vertex.getX(), vertex.getY(), vertex.getZ()});
-							polylineColors.add(new Double[]{colorsAsList.get(vertexIndex),
-															colorsAsList.get(vertexIndex + 1),
-															colorsAsList.get(vertexIndex + 2)});
-						}
-						_jtModel.addPolyline(polylineVertices, polylineColors, layerName);
-					}
-				}
+		try {
+			_jtModel.addShapeInstance(decodedShape, transformation, globalColor, layerName);
+			if(_shapeNodes != null){
+				_shapeNodes.put(shapeNode, decodedShape);
 			}
 		} catch(Exception exception){
 			exception.printStackTrace();
@@ -1178,12 +1334,39 @@ public class JTImporter {
 		}
 	}
 
+	/**
+	 * Returns the transformation into the world coordinate system, which includes
+	 * the transformation of the referencing file.
+	 * @param  transformation Transformation inside this file
+	 * @return                Transformation into the world coordinate system
+	 */
+	private Matrix4d getWorldTransformation(Matrix4d transformation){
+		if(_baseTransformation == null){
+			return transformation;
+		}
+		Matrix4d worldTransformation = (Matrix4d)_baseTransformation.clone();
+		worldTransformation.mul(transformation);
+		return worldTransformation;
+	}
+
 	/**
 	 * Adds an unique load information message.
 	 * @param type    Message type
 	 * @param message Message text
 	 */
 	public static void addLoadInformation(String type, String message){
+		JTImporter jtImporter = _currentImporter.get();
+		if(jtImporter != null){
+			jtImporter.addLoadInformationOfFile(type, message);
+		}
+	}
+
+	/**
+	 * Adds an unique load information message to the current file.
+	 * @param type    Message type
+	 * @param message Message text
+	 */
+	private void addLoadInformationOfFile(String type, String message){
 		for(String[] information : _loadInformation){
 			if(information[0].equals(type) && information[1].equals(message)){
 				return;
@@ -1192,6 +1375,27 @@ public class JTImporter {
 		_loadInformation.add(new String[]{type, message});
 	}
 
+	/**
+	 * Reads a graph or property atom element with the registered reader or skips it.
+	 * @param workingContext Working context, positioned behind the element header
+	 * @param elementHeader  Element header
+	 * @param dataLength     Number of bytes of the element behind the header
+	 */
+	private void readElement(WorkingContext workingContext, ElementHeader elementHeader, int dataLength){
+		ElementReader elementReader = _elementReaders.get(elementHeader.getElementID());
+		if(elementReader != null){
+			JTNode jtNode = elementReader.readElement(workingContext, elementHeader, dataLength);
+			if(jtNode != null){
+				_jtNodes.put(jtNode.getObjectID(), jtNode);
+			}
+
+		// Skip unevaluated element
+		} else {
+			addUnsupportedEntity(elementHeader.getElementID().toString());
+			Helper.readBytes(workingContext.getByteBuffer(), dataLength);
+		}
+	}
+
 	/**
 	 * Adds an unique unsupprted element.
 	 * @param elementID Element ID
@@ -1206,6 +1410,26 @@ public class JTImporter {
 		_unsupportedEntities.add(newUnsupportedEntityString);
 	}
 
+	/**
+	 * Begins the given phase, if the import is measured.
+	 * @param importPhase Phase to begin
+	 */
+	private void beginPhase(ImportPhase importPhase){
+		if(_importStatistics != null){
+			_importStatistics.beginPhase(importPhase);
+		}
+	}
+
+	/**
+	 * Ends the given phase, if the import is measured.
+	 * @param importPhase Phase to end
+	 */
+	private void endPhase(ImportPhase importPhase){
+		if(_importStatistics != null){
+			_importStatistics.endPhase(importPhase);
+		}
+	}
+
 	/**
 	 * Returns the list of faces.
 	 * @return List of faces, sorted by their layer
@@ -1230,6 +1454,16 @@ public class JTImporter {
 		return _jtModel.getPoints();
 	}
 
+	/**
+	 * Returns the outline of the LSG, which is kept if snapshots are enabled or
+	 * the model has been loaded from a snapshot.
+	 * @return Root node of the LSG outline or<br>
+	 *         <b>null</b> if the outline hasn't been kept
+	 */
+	public JTModelNode getLSGOutline(){
+		return _jtModel.getRootNode();
+	}
+
 	/**
 	 * Returns a list of layer names with their visibility. 
 	 * @return List of layer names with their visibility
@@ -1308,7 +1542,18 @@ public class JTImporter {
 	 * @param readBytes Number of read bytes
 	 */
 	public static void updateProgress(int readBytes){
-		if(_readBytes == null){
+		JTImporter jtImporter = _currentImporter.get();
+		if(jtImporter != null){
+			jtImporter.updateProgressOfFile(readBytes);
+		}
+	}
+
+	/**
+	 * Updates the progress of the current file.
+	 * @param readBytes Number of read bytes
+	 */
+	private void updateProgressOfFile(int readBytes){
+		if(_readBytes.get(_currentURLName) == null){
 			return;
 		}
 
@@ -1340,6 +1585,177 @@ public class JTImporter {
 		_progressListener.add(progressListenerInterface);
 	}
 
+	/**
+	 * Sets the cache for decoded shapes. If set, every decoded shape is stored in
+	 * the cache and taken from there, when the same file is loaded again.
+	 * @param shapeCache Shape cache or null, to disable the caching
+	 */
+	public void setShapeCache(ShapeCache shapeCache){
+		_shapeCache = shapeCache;
+	}
+
+	/**
+	 * Returns the cache for decoded shapes.
+	 * @return Shape cache or<br>
+	 *         <b>null</b> if no cache is used
+	 */
+	public ShapeCache getShapeCache(){
+		return _shapeCache;
+	}
+
+	/**
+	 * Sets the in-memory cache for decoded shapes. The cache may be shared by many
+	 * importers (see SegmentCache.getSharedInstance()), so files, loaded again by
+	 * another importer, reuse the already decoded shapes.
+	 * @param segmentCache Segment cache or null, to disable the caching
+	 */
+	public void setSegmentCache(SegmentCache segmentCache){
+		_segmentCache = segmentCache;
+	}
+
+	/**
+	 * Returns the in-memory cache for decoded shapes.
+	 * @return Segment cache or<br>
+	 *         <b>null</b> if no cache is used
+	 */
+	public SegmentCache getSegmentCache(){
+		return _segmentCache;
+	}
+
+	/**
+	 * Sets the number of threads, inflating the zipped segments (LSG, meta data,
+	 * PMI, ...) concurrently, while the segments are parsed. The importers of the
+	 * external references share the threads of the importer.
+	 * @param inflaterThreadCount Number of threads or 0, to inflate the segments on demand
+	 */
+	public void setInflaterThreadCount(int inflaterThreadCount){
+		_inflaterThreadCount = Math.max(0, inflaterThreadCount);
+	}
+
+	/**
+	 * Returns the number of threads, inflating the zipped segments concurrently.
+	 * @return Number of threads or<br>
+	 *         <b>0</b> if the segments are inflated on demand
+	 */
+	public int getInflaterThreadCount(){
+		return _inflaterThreadCount;
+	}
+
+	/**
+	 * Sets the number of concurrent segment downloads for remote (non file) URL's.
+	 * Header and TOC are fetched first, the segments are fetched by range requests
+	 * and parsed as soon as they have arrived. Servers without range support are
+	 * loaded completely, as before.
+	 * @param prefetchThreadCount Number of concurrent downloads or 0, to load remote files completely
+	 */
+	public void setPrefetchThreadCount(int prefetchThreadCount){
+		_prefetchThreadCount = Math.max(0, prefetchThreadCount);
+	}
+
+	/**
+	 * Returns the number of concurrent segment downloads for remote URL's.
+	 * @return Number of concurrent downloads or<br>
+	 *         <b>0</b> if remote files are loaded completely
+	 */
+	public int getPrefetchThreadCount(){
+		return _prefetchThreadCount;
+	}
+
+	/**
+	 * Enables the measurement of the imports. If enabled, wall time, CPU time and
+	 * allocated bytes are measured per phase and the segments and codecs are counted.
+	 * The result is also emitted as JFR events, if JFR is available.
+	 * @param importStatisticsEnabled Measure the imports?
+	 */
+	public void setImportStatisticsEnabled(boolean importStatisticsEnabled){
+		_importStatisticsEnabled = importStatisticsEnabled;
+	}
+
+	/**
+	 * Returns a flag, telling whether the imports are measured.
+	 * @return Are the imports measured?
+	 */
+	public boolean isImportStatisticsEnabled(){
+		return _importStatisticsEnabled;
+	}
+
+	/**
+	 * Returns the statistics of the last import.
+	 * @return Statistics of the last import or<br>
+	 *         <b>null</b> if the import hasn't been measured
+	 */
+	public ImportStatistics getImportStatistics(){
+		return _importStatistics;
+	}
+
+	/**
+	 * Sets the visitor, which receives the geometry shape by shape, while the LSG
+	 * is walked (also the geometry of referenced files).
+	 * @param geometryVisitor Geometry visitor or null
+	 */
+	public void setGeometryVisitor(GeometryVisitor geometryVisitor){
+		_geometryVisitor = geometryVisitor;
+	}
+
+	/**
+	 * Returns the visitor, which receives the geometry shape by shape.
+	 * @return Geometry visitor or<br>
+	 *         <b>null</b> if no visitor is set
+	 */
+	public GeometryVisitor getGeometryVisitor(){
+		return _geometryVisitor;
+	}
+
+	/**
+	 * Sets whether the geometry is collected in the JT model (default: true). If
+	 * not, the geometry is only passed to the geometry visitor, so getFaces(),
+	 * getPolylines(), getPoints() and getExtremeValues() stay empty.
+	 * @param geometryRetained Collect the geometry in the JT model?
+	 */
+	public void setGeometryRetained(boolean geometryRetained){
+		_geometryRetained = geometryRetained;
+	}
+
+	/**
+	 * Returns a flag, telling whether the geometry is collected in the JT model.
+	 * @return Is the geometry collected in the JT model?
+	 */
+	public boolean isGeometryRetained(){
+		return _geometryRetained;
+	}
+
+	/**
+	 * Sets whether the model can be saved as snapshot (default: false). If so,
+	 * the shape instances are kept during the import, which costs additional
+	 * memory. Has to be set before the import.
+	 * @param snapshotEnabled Keep the shape instances for saveSnapshot()?
+	 */
+	public void setSnapshotEnabled(boolean snapshotEnabled){
+		_snapshotEnabled = snapshotEnabled;
+	}
+
+	/**
+	 * Returns a flag, telling whether the model can be saved as snapshot.
+	 * @return Are the shape instances kept for saveSnapshot()?
+	 */
+	public boolean isSnapshotEnabled(){
+		return _snapshotEnabled;
+	}
+
+	/**
+	 * Registers a reader for graph or property atom elements of the given type,
+	 * replacing the built-in reader, if there is one. External references are
+	 * loaded with the same readers.
+	 * @param elementID     Element ID (object type ID)
+	 * @param elementReader Element reader
+	 */
+	public void registerElementReader(GUID elementID, ElementReader elementReader){
+		if((elementID == null) || (elementReader == null)){
+			throw new IllegalArgumentException("Element ID and element reader are required!");
+		}
+		_elementReaders.put(elementID, elementReader);
+	}
+
 	/**
 	 * Returns the unsupported entities.
 	 * @return           List of unsupported entities
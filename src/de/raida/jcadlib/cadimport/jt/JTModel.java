@@ -24,11 +24,17 @@
 
 package de.raida.jcadlib.cadimport.jt;
 
+import java.awt.Color;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
 /**
  * Model, holding the attributes of a JT file.
  * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
@@ -63,6 +69,15 @@ public class JTModel {
 	/** List of points, sorted by layer */
 	private HashMap<String, ArrayList<Object[]>> _coloredPointsOnLayers;
 
+	/** Shape instances: [decoded shape (local), transformation, color, layer name] or null, if not retained */
+	private ArrayList<Object[]> _shapeInstances;
+
+	/** Faces, polylines and points, which have been created from the shape instances or null, if not retained */
+	private IdentityHashMap<Object[], Boolean> _instanceEntries;
+
+	/** Outline of the LSG or null, if the shape instances aren't retained */
+	private JTModelNode _rootNode;
+
 	/**
 	 * Constructor.
 	 */
@@ -98,6 +113,24 @@ public class JTModel {
 		_comment = comment.trim();
 	}
 
+	/**
+	 * Returns the comment.
+	 * @return Comment string or<br>
+	 *         <b>null</b> if no comment has been set
+	 */
+	public String getComment(){
+		return _comment;
+	}
+
+	/**
+	 * Returns the existing or missing external references.
+	 * @param  existing Return the existing references (or the missing ones)?
+	 * @return          List of external references
+	 */
+	public ArrayList<String> getExternalReferences(boolean existing){
+		return existing ? _existingReferences : _missingReferences;
+	}
+
 	/**
 	 * Returns specific information about the file and the model.
 	 * @return List of string[2] containing all information
@@ -180,6 +213,14 @@ public class JTModel {
 		return _extremeValues;
 	}
 
+	/**
+	 * Sets the extreme values, e.g. of a model loaded from a snapshot.
+	 * @param extremeValues Extreme values (double[2][3] [x1, y1, z1] and [x2, y2, z2])
+	 */
+	void setExtremeValues(double[][] extremeValues){
+		_extremeValues = extremeValues;
+	}
+
 	/**
 	 * Returns the list of faces.
 	 * @return List of faces, sorted by their layers
@@ -266,6 +307,199 @@ public class JTModel {
 		_coloredPointsOnLayers.get(layerName).add(new Object[]{vertices, colors});
 	}
 
+	/**
+	 * Adds an instance of a shape: the shape is transformed into the model and
+	 * added as faces, polylines or points. If the shape instances are retained,
+	 * the instance is kept with the shape in its local coordinate system, so the
+	 * snapshot stores each shape only once.
+	 * @param decodedShape   Decoded shape in the local coordinate system (mustn't be modified afterwards)
+	 * @param transformation Transformation of the instance
+	 * @param color          Color of the shape, if the decoded shape has no colors
+	 * @param layerName      Layer name
+	 */
+	@SuppressWarnings("unchecked")
+	void addShapeInstance(DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName){
+		double[] verticesAsArray = decodedShape.getVertices();
+		double[] colorsAsArray = decodedShape.getColors();
+		float[] colorComponents = color.getColorComponents(null);
+
+		// Extract the rotation from the transformation
+		Matrix4d rotation = (Matrix4d)transformation.clone();
+		rotation.setTranslation(new Vector3d());
+
+		// The entries are completely built, before they are added
+		ArrayList<Object[]> entries = new ArrayList<Object[]>();
+		if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+			double[] normalsAsArray = decodedShape.getNormals();
+			int[] indices = decodedShape.getIndices().clone();
+
+			// Apply the transformation to each vertex
+			double[] vertices = new double[verticesAsArray.length];
+			for(int i = 0; i < vertices.length; i += 3){
+				Point3d vertex = new Point3d(verticesAsArray[i], verticesAsArray[i + 1], verticesAsArray[i + 2]);
+				transformation.transform(vertex);
+				vertices[i]     = vertex.getX();
+				vertices[i + 1] = vertex.getY();
+				vertices[i + 2] = vertex.getZ();
+			}
+
+			// Apply the rotation to each normal 
+			double[] normals = new double[normalsAsArray.length];
+			for(int i = 0; i < normals.length; i += 3){
+				Point3d normal = new Point3d(normalsAsArray[i], normalsAsArray[i + 1], normalsAsArray[i + 2]);
+				rotation.transform(normal);
+				normals[i]     = normal.getX();
+				normals[i + 1] = normal.getY();
+				normals[i + 2] = normal.getZ();
+			}
+
+			// Possibly create color list
+			double[] colors = null;
+			if(colorsAsArray == null){
+				colors = new double[indices.length];
+				for(int i = 0; i < colors.length; i += 3){
+					colors[i]     = colorComponents[0];
+					colors[i + 1] = colorComponents[1];
+					colors[i + 2] = colorComponents[2];
+				}
+			} else {
+				colors = colorsAsArray.clone();
+			}
+			entries.add(new Object[]{vertices, indices, colors, normals});
+
+		} else if(decodedShape.getType() == DecodedShape.TYPE_POLYLINES){
+			int[] vertexIndices = decodedShape.getIndices();
+			int[] primitiveIndices = decodedShape.getPrimitiveIndices();
+
+			for(int i = 0; i < (primitiveIndices.length - 1); i++){
+				int startIndex = primitiveIndices[i];
+				int endIndex = primitiveIndices[i + 1];
+
+				// Fill the vertex list
+				List<Double[]> polylineVertices = new ArrayList<Double[]>();
+				List<Double[]> polylineColors = new ArrayList<Double[]>();
+				for(int j = startIndex; j < endIndex; j++){
+					int vertexIndex = vertexIndices[j] * 3;
+
+					// Apply the transformation to each vertex
+					Point3d vertex = new Point3d(verticesAsArray[vertexIndex], verticesAsArray[vertexIndex + 1], verticesAsArray[vertexIndex + 2]);
+					transformation.transform(vertex);
+
+					// Add the transformed vertex
+					polylineVertices.add(new Double[]{vertex.getX(), vertex.getY(), vertex.getZ()});
+					if(colorsAsArray == null){
+						polylineColors.add(new Double[]{(double)colorComponents[0], (double)colorComponents[1], (double)colorComponents[2]});
+					} else {
+						polylineColors.add(new Double[]{colorsAsArray[vertexIndex],
+														colorsAsArray[vertexIndex + 1],
+														colorsAsArray[vertexIndex + 2]});
+					}
+				}
+				entries.add(new Object[]{polylineVertices, polylineColors});
+			}
+
+		} else {
+			List<Double> vertices = new ArrayList<Double>(verticesAsArray.length);
+			for(int i = 0; i < verticesAsArray.length; i++){
+				vertices.add(verticesAsArray[i]);
+			}
+
+			List<Float> colors = new ArrayList<Float>(verticesAsArray.length);
+			if(colorsAsArray == null){
+				for(int i = 0; i < verticesAsArray.length; i += 3){
+					colors.add(colorComponents[0]);
+					colors.add(colorComponents[1]);
+					colors.add(colorComponents[2]);
+				}
+			} else {
+				for(int i = 0; i < colorsAsArray.length; i++){
+					colors.add((float)colorsAsArray[i]);
+				}
+			}
+			entries.add(new Object[]{vertices, colors});
+		}
+
+		for(Iterator<Object[]> iterator = entries.iterator(); iterator.hasNext();){
+			Object[] entry = iterator.next();
+			if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+				addTriangles((double[])entry[0], (int[])entry[1], (double[])entry[2], (double[])entry[3], layerName);
+				entry = _coloredFacesOnLayers.get(layerName).get(_coloredFacesOnLayers.get(layerName).size() - 1);
+			} else if(decodedShape.getType() == DecodedShape.TYPE_POLYLINES){
+				addPolyline((List<Double[]>)entry[0], (List<Double[]>)entry[1], layerName);
+				entry = _coloredPolylinesOnLayers.get(layerName).get(_coloredPolylinesOnLayers.get(layerName).size() - 1);
+			} else {
+				addPoints((List<Double>)entry[0], (List<Float>)entry[1], layerName);
+				entry = _coloredPointsOnLayers.get(layerName).get(_coloredPointsOnLayers.get(layerName).size() - 1);
+			}
+			if(_instanceEntries != null){
+				_instanceEntries.put(entry, Boolean.TRUE);
+			}
+		}
+		if(_shapeInstances != null){
+			_shapeInstances.add(new Object[]{decodedShape, transformation.clone(), color, layerName});
+		}
+	}
+
+	/**
+	 * Sets whether the shape instances are retained (default: false). They are
+	 * only needed for writing a snapshot, so they have to be enabled before the
+	 * first shape instance is added.
+	 * @param shapeInstancesRetained Retain the shape instances?
+	 */
+	void setShapeInstancesRetained(boolean shapeInstancesRetained){
+		if(shapeInstancesRetained){
+			_shapeInstances = new ArrayList<Object[]>();
+			_instanceEntries = new IdentityHashMap<Object[], Boolean>();
+		} else {
+			_shapeInstances = null;
+			_instanceEntries = null;
+		}
+	}
+
+	/**
+	 * Returns a flag, telling whether the shape instances are retained.
+	 * @return Are the shape instances retained?
+	 */
+	boolean isShapeInstancesRetained(){
+		return (_shapeInstances != null);
+	}
+
+	/**
+	 * Sets the outline of the LSG.
+	 * @param rootNode Root node of the LSG outline
+	 */
+	void setRootNode(JTModelNode rootNode){
+		_rootNode = rootNode;
+	}
+
+	/**
+	 * Returns the outline of the LSG, which is only kept if the model can be
+	 * saved as snapshot.
+	 * @return Root node of the LSG outline or<br>
+	 *         <b>null</b> if the outline hasn't been kept
+	 */
+	public JTModelNode getRootNode(){
+		return _rootNode;
+	}
+
+	/**
+	 * Returns the shape instances, added by addShapeInstance().
+	 * @return Shape instances: [decoded shape (local), transformation, color, layer name] or null, if not retained
+	 */
+	ArrayList<Object[]> getShapeInstances(){
+		return _shapeInstances;
+	}
+
+	/**
+	 * Checks whether the given face, polyline or point list has been created from
+	 * a shape instance (or has been added directly).
+	 * @param  entry Face, polyline or point list
+	 * @return       Has the entry been created from a shape instance?
+	 */
+	boolean isInstanceEntry(Object[] entry){
+		return ((_instanceEntries != null) && _instanceEntries.containsKey(entry));
+	}
+
 	/**
 	 * Adds a existing / missing reference.
 	 * @param reference External file reference
@@ -0,0 +1,168 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Matrix4d;
+
+/**
+ * Outline of a node of the LSG (logical scene graph), which is kept in the JT
+ * model for the snapshot: node type, name, properties, transformations and the
+ * decoded shape of a shape node. The nodes of external references are attached
+ * below their partition nodes.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class JTModelNode {
+	/** Node type (simple class name of the LSG node) */
+	private String _type;
+
+	/** Node name or null */
+	private String _name;
+
+	/** Properties: [key, value] */
+	private List<String[]> _properties;
+
+	/** Matrices of the geometric transform attributes */
+	private List<Matrix4d> _transformations;
+
+	/** Decoded shape in the local coordinate system or null */
+	private DecodedShape _decodedShape;
+
+	/** Parent node or null */
+	private JTModelNode _parentNode;
+
+	/** Child nodes */
+	private List<JTModelNode> _childNodes;
+
+	/**
+	 * Constructor.
+	 * @param type Node type (simple class name of the LSG node)
+	 * @param name Node name or null
+	 */
+	public JTModelNode(String type, String name){
+		_type = type;
+		_name = name;
+		_properties = new ArrayList<String[]>();
+		_transformations = new ArrayList<Matrix4d>();
+		_childNodes = new ArrayList<JTModelNode>();
+	}
+
+	/**
+	 * Returns the node type.
+	 * @return Node type (simple class name of the LSG node)
+	 */
+	public String getType(){
+		return _type;
+	}
+
+	/**
+	 * Returns the node name.
+	 * @return Node name or<br>
+	 *         <b>null</b> if the node has no name
+	 */
+	public String getName(){
+		return _name;
+	}
+
+	/**
+	 * Adds a property.
+	 * @param key   Key
+	 * @param value Value
+	 */
+	public void addProperty(String key, String value){
+		_properties.add(new String[]{key, value});
+	}
+
+	/**
+	 * Returns the properties.
+	 * @return Properties: [key, value]
+	 */
+	public List<String[]> getProperties(){
+		return _properties;
+	}
+
+	/**
+	 * Adds the matrix of a geometric transform attribute.
+	 * @param transformation Transformation matrix
+	 */
+	public void addTransformation(Matrix4d transformation){
+		_transformations.add(transformation);
+	}
+
+	/**
+	 * Returns the matrices of the geometric transform attributes.
+	 * @return Transformation matrices
+	 */
+	public List<Matrix4d> getTransformations(){
+		return _transformations;
+	}
+
+	/**
+	 * Sets the decoded shape of a shape node.
+	 * @param decodedShape Decoded shape in the local coordinate system
+	 */
+	public void setDecodedShape(DecodedShape decodedShape){
+		_decodedShape = decodedShape;
+	}
+
+	/**
+	 * Returns the decoded shape of a shape node.
+	 * @return Decoded shape in the local coordinate system or<br>
+	 *         <b>null</b> if the node has no (loaded) shape
+	 */
+	public DecodedShape getDecodedShape(){
+		return _decodedShape;
+	}
+
+	/**
+	 * Adds a child node.
+	 * @param childNode Child node
+	 */
+	public void addChildNode(JTModelNode childNode){
+		childNode._parentNode = this;
+		_childNodes.add(childNode);
+	}
+
+	/**
+	 * Returns the child nodes.
+	 * @return Child nodes
+	 */
+	public List<JTModelNode> getChildNodes(){
+		return _childNodes;
+	}
+
+	/**
+	 * Returns the parent node.
+	 * @return Parent node or<br>
+	 *         <b>null</b> if it's the root node
+	 */
+	public JTModelNode getParentNode(){
+		return _parentNode;
+	}
+}
@@ -0,0 +1,923 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.vecmath.Matrix4d;
+
+/**
+ * Saves and loads a JT model as binary snapshot. After an expensive import,
+ * the snapshot can be reloaded in a fraction of the time, because no segment is
+ * inflated and no codec runs: the arrays are copied in bulk from the memory
+ * mapped file.
+ * <br>Each shape is stored once in its local coordinate system, together with
+ * the transformation, color and layer of each of its instances. The faces,
+ * polylines and points of the instances are recreated while loading. Only the
+ * entries, which have been added directly to the model, are stored flat. The
+ * outline of the LSG references the shapes of its shape nodes. Vertices,
+ * normals and colors are stored with float precision, as in the JT file.
+ * <br>Layout (little endian, version FORMAT_VERSION):
+ * <ul>
+ * <li>Header (HEADER_SIZE bytes): magic number, version, offset and length of the meta data</li>
+ * <li>Arrays (vertices, indices, colors, normals), each aligned to 8 bytes. Arrays
+ *     with identical content are stored once and shared by the loaded model.</li>
+ * <li>Meta data: version and comment of the JT file, external references,
+ *     extreme values, array table, the shapes, the shape instances, the LSG
+ *     outline (node type, name, properties, transformations, shape and child
+ *     nodes in pre-order) and the direct faces, polylines and points per layer
+ *     with their position in the layer, referencing the arrays.</li>
+ * </ul>
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class JTModelSnapshot {
+	/** Magic number of a snapshot: "JTMS" */
+	private final static int MAGIC = 0x534D544A;
+
+	/** Version of the snapshot format */
+	private final static int FORMAT_VERSION = 3;
+
+	/** Size of the header in bytes */
+	private final static int HEADER_SIZE = 32;
+
+	/** Size of the write buffer in bytes */
+	private final static int BUFFER_SIZE = 1 << 22;
+
+	/** Array type: double[] */
+	private final static byte ARRAY_TYPE_DOUBLE = 0;
+
+	/** Array type: int[] */
+	private final static byte ARRAY_TYPE_INT = 1;
+
+	/** Array type: float[] */
+	private final static byte ARRAY_TYPE_FLOAT = 2;
+
+	/** Channel of the snapshot file */
+	private FileChannel _fileChannel;
+
+	/** Write buffer (writing) or meta data (reading) */
+	private ByteBuffer _buffer;
+
+	/** Number of bytes, already written to the file */
+	private long _flushedLength;
+
+	/** Written arrays */
+	private List<Object> _arrays;
+
+	/** Indices of the written arrays by their hash code */
+	private HashMap<Integer, List<Integer>> _arrayIndices;
+
+	/** Array table: [type, length, offset] */
+	private List<long[]> _arrayTable;
+
+	/** Complete file, if it could be mapped at once (reading) */
+	private MappedByteBuffer _mappedBuffer;
+
+	/** Loaded arrays (reading) */
+	private Object[] _loadedArrays;
+
+	/** Loaded float arrays, converted to double[] (reading) */
+	private double[][] _widenedArrays;
+
+	/**
+	 * Constructor.
+	 * @param fileChannel Channel of the snapshot file
+	 */
+	private JTModelSnapshot(FileChannel fileChannel){
+		_fileChannel = fileChannel;
+		_arrays = new ArrayList<Object>();
+		_arrayIndices = new HashMap<Integer, List<Integer>>();
+		_arrayTable = new ArrayList<long[]>();
+	}
+
+	/**
+	 * Saves the given model as snapshot.
+	 * @param  jtModel      JT model to save
+	 * @param  snapshotFile Snapshot file
+	 * @throws IOException  Thrown if the file couldn't be written
+	 */
+	@SuppressWarnings("unchecked")
+	public static void write(JTModel jtModel, File snapshotFile) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(snapshotFile, "rw");
+		try {
+			randomAccessFile.setLength(0);
+			JTModelSnapshot snapshot = new JTModelSnapshot(randomAccessFile.getChannel());
+			snapshot._buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			snapshot._buffer.order(ByteOrder.LITTLE_ENDIAN);
+			snapshot._buffer.put(new byte[HEADER_SIZE]);
+
+			// The arrays are written while the meta data is collected
+			ByteBuffer metaData = ByteBuffer.allocate(1 << 16);
+			metaData.order(ByteOrder.LITTLE_ENDIAN);
+			metaData.putFloat(jtModel.getJTFileVersion());
+			metaData = putString(metaData, jtModel.getComment());
+			metaData = putStrings(metaData, jtModel.getExternalReferences(true));
+			metaData = putStrings(metaData, jtModel.getExternalReferences(false));
+			double[][] extremeValues = jtModel.getExtremeValues();
+			metaData = ensureCapacity(metaData, 49);
+			metaData.put((byte)((extremeValues == null) ? 0 : 1));
+			for(int i = 0; (extremeValues != null) && (i < 6); i++){
+				metaData.putDouble(extremeValues[i / 3][i % 3]);
+			}
+
+			// Shapes, each one is stored once in its local coordinate system
+			ByteBuffer entities = ByteBuffer.allocate(1 << 16);
+			entities.order(ByteOrder.LITTLE_ENDIAN);
+			IdentityHashMap<DecodedShape, Integer> shapeIndices = new IdentityHashMap<DecodedShape, Integer>();
+			List<DecodedShape> decodedShapes = new ArrayList<DecodedShape>();
+			for(Iterator<Object[]> iterator = jtModel.getShapeInstances().iterator(); iterator.hasNext();){
+				DecodedShape decodedShape = (DecodedShape)iterator.next()[0];
+				if(!shapeIndices.containsKey(decodedShape)){
+					shapeIndices.put(decodedShape, decodedShapes.size());
+					decodedShapes.add(decodedShape);
+				}
+			}
+			entities = putInt(entities, decodedShapes.size());
+			for(Iterator<DecodedShape> iterator = decodedShapes.iterator(); iterator.hasNext();){
+				DecodedShape decodedShape = iterator.next();
+				entities = ensureCapacity(entities, 1);
+				entities.put((byte)decodedShape.getType());
+				entities = putInt(entities, snapshot.writeFloatArray(decodedShape.getVertices()));
+				entities = putInt(entities, snapshot.writeFloatArray(decodedShape.getNormals()));
+				entities = putInt(entities, snapshot.writeFloatArray(decodedShape.getColors()));
+				entities = putInt(entities, snapshot.writeArray(decodedShape.getIndices()));
+				entities = putInt(entities, snapshot.writeArray(decodedShape.getPrimitiveIndices()));
+			}
+
+			// Shape instances, referencing the shapes
+			entities = putInt(entities, jtModel.getShapeInstances().size());
+			for(Iterator<Object[]> iterator = jtModel.getShapeInstances().iterator(); iterator.hasNext();){
+				Object[] shapeInstance = iterator.next();
+				entities = putInt(entities, shapeIndices.get(shapeInstance[0]));
+				entities = putMatrix(entities, (Matrix4d)shapeInstance[1]);
+				float[] color = ((Color)shapeInstance[2]).getRGBComponents(null);
+				entities = ensureCapacity(entities, 4 * 4);
+				for(int i = 0; i < 4; i++){
+					entities.putFloat(color[i]);
+				}
+				entities = putString(entities, (String)shapeInstance[3]);
+			}
+
+			// Outline of the LSG
+			entities = ensureCapacity(entities, 1);
+			entities.put((byte)((jtModel.getRootNode() == null) ? 0 : 1));
+			if(jtModel.getRootNode() != null){
+				entities = putModelNode(entities, jtModel.getRootNode(), shapeIndices);
+			}
+
+			// Faces, polylines and points, which haven't been created from the shape instances
+			entities = putInt(entities, countDirectLayers(jtModel, jtModel.getFaces()));
+			for(Iterator<String> iterator = jtModel.getFaces().keySet().iterator(); iterator.hasNext();){
+				String layerName = iterator.next();
+				List<Object[]> faces = jtModel.getFaces().get(layerName);
+				int entryCount = countDirectEntries(jtModel, faces);
+				if(entryCount == 0){
+					continue;
+				}
+				entities = putString(entities, layerName);
+				entities = putInt(entities, entryCount);
+				for(int j = 0; j < faces.size(); j++){
+					Object[] faceList = faces.get(j);
+					if(!jtModel.isInstanceEntry(faceList)){
+						entities = putInt(entities, j);
+						entities = putInt(entities, snapshot.writeFloatArray((double[])faceList[0]));
+						entities = putInt(entities, snapshot.writeArray(faceList[1]));
+						entities = putInt(entities, snapshot.writeFloatArray((double[])faceList[2]));
+						entities = putInt(entities, snapshot.writeFloatArray((double[])faceList[3]));
+					}
+				}
+			}
+
+			entities = putInt(entities, countDirectLayers(jtModel, jtModel.getPolylines()));
+			for(Iterator<String> iterator = jtModel.getPolylines().keySet().iterator(); iterator.hasNext();){
+				String layerName = iterator.next();
+				List<Object[]> polylines = jtModel.getPolylines().get(layerName);
+				int entryCount = countDirectEntries(jtModel, polylines);
+				if(entryCount == 0){
+					continue;
+				}
+				entities = putString(entities, layerName);
+				entities = putInt(entities, entryCount);
+				for(int j = 0; j < polylines.size(); j++){
+					Object[] polyline = polylines.get(j);
+					if(!jtModel.isInstanceEntry(polyline)){
+						entities = putInt(entities, j);
+						entities = putInt(entities, snapshot.writeFloatArray(toDoubleArray((List<Double[]>)polyline[0])));
+						entities = putInt(entities, snapshot.writeFloatArray(toDoubleArray((List<Double[]>)polyline[1])));
+					}
+				}
+			}
+
+			entities = putInt(entities, countDirectLayers(jtModel, jtModel.getPoints()));
+			for(Iterator<String> iterator = jtModel.getPoints().keySet().iterator(); iterator.hasNext();){
+				String layerName = iterator.next();
+				List<Object[]> points = jtModel.getPoints().get(layerName);
+				int entryCount = countDirectEntries(jtModel, points);
+				if(entryCount == 0){
+					continue;
+				}
+				entities = putString(entities, layerName);
+				entities = putInt(entities, entryCount);
+				for(int j = 0; j < points.size(); j++){
+					Object[] pointList = points.get(j);
+					if(jtModel.isInstanceEntry(pointList)){
+						continue;
+					}
+					List<Double> vertices = (List<Double>)pointList[0];
+					double[] vertexArray = new double[vertices.size()];
+					for(int i = 0; i < vertexArray.length; i++){
+						vertexArray[i] = vertices.get(i);
+					}
+					List<Float> colors = (List<Float>)pointList[1];
+					float[] colorArray = null;
+					if(colors != null){
+						colorArray = new float[colors.size()];
+						for(int i = 0; i < colorArray.length; i++){
+							colorArray[i] = colors.get(i);
+						}
+					}
+					entities = putInt(entities, j);
+					entities = putInt(entities, snapshot.writeFloatArray(vertexArray));
+					entities = putInt(entities, snapshot.writeArray(colorArray));
+				}
+			}
+
+			// Array table, followed by the entities
+			metaData = putInt(metaData, snapshot._arrayTable.size());
+			for(Iterator<long[]> iterator = snapshot._arrayTable.iterator(); iterator.hasNext();){
+				long[] arrayEntry = iterator.next();
+				metaData = ensureCapacity(metaData, 13);
+				metaData.put((byte)arrayEntry[0]);
+				metaData.putInt((int)arrayEntry[1]);
+				metaData.putLong(arrayEntry[2]);
+			}
+			entities.flip();
+			metaData = ensureCapacity(metaData, entities.remaining());
+			metaData.put(entities);
+			metaData.flip();
+
+			long metaDataOffset = snapshot.align();
+			snapshot.flush();
+			while(metaData.hasRemaining()){
+				snapshot._fileChannel.write(metaData);
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC);
+			header.putInt(FORMAT_VERSION);
+			header.putLong(metaDataOffset);
+			header.putLong(metaData.limit());
+			header.putLong(0);
+			header.flip();
+			long position = 0;
+			while(header.hasRemaining()){
+				position += snapshot._fileChannel.write(header, position);
+			}
+
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Loads a model from the given snapshot.
+	 * @param  snapshotFile Snapshot file
+	 * @return              Loaded JT model
+	 * @throws IOException  Thrown if the file couldn't be read
+	 */
+	public static JTModel read(File snapshotFile) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(snapshotFile, "r");
+		try {
+			FileChannel fileChannel = randomAccessFile.getChannel();
+			JTModelSnapshot snapshot = new JTModelSnapshot(fileChannel);
+			if(fileChannel.size() < HEADER_SIZE){
+				throw new IllegalArgumentException("File is no JT model snapshot: " + snapshotFile);
+			}
+			if(fileChannel.size() <= Integer.MAX_VALUE){
+				snapshot._mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+			}
+
+			ByteBuffer header = snapshot.getRegion(0, HEADER_SIZE);
+			if(header.getInt() != MAGIC){
+				throw new IllegalArgumentException("File is no JT model snapshot: " + snapshotFile);
+			}
+			int formatVersion = header.getInt();
+			if(formatVersion != FORMAT_VERSION){
+				throw new IllegalArgumentException("Unsupported version of the JT model snapshot: " + formatVersion);
+			}
+			long metaDataOffset = header.getLong();
+			long metaDataLength = header.getLong();
+			if((metaDataOffset + metaDataLength) > fileChannel.size()){
+				throw new IllegalArgumentException("JT model snapshot is truncated: " + snapshotFile);
+			}
+			snapshot._buffer = snapshot.getRegion(metaDataOffset, metaDataLength);
+			return snapshot.readModel();
+
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Reads the model from the meta data.
+	 * @return             Loaded JT model
+	 * @throws IOException Thrown if an array couldn't be read
+	 */
+	private JTModel readModel() throws IOException {
+		JTModel jtModel = new JTModel();
+		jtModel.setShapeInstancesRetained(true);
+		jtModel.setVersion(Float.toString(_buffer.getFloat()));
+		String comment = getString(_buffer);
+		if(comment != null){
+			jtModel.setComment(comment);
+		}
+		for(int j = 0; j < 2; j++){
+			int referenceCount = _buffer.getInt();
+			for(int i = 0; i < referenceCount; i++){
+				jtModel.addExternalReference(getString(_buffer), j == 0);
+			}
+		}
+		double[][] extremeValues = null;
+		if(_buffer.get() != 0){
+			extremeValues = new double[][]{	{_buffer.getDouble(), _buffer.getDouble(), _buffer.getDouble()},
+											{_buffer.getDouble(), _buffer.getDouble(), _buffer.getDouble()}};
+		}
+
+		int arrayCount = _buffer.getInt();
+		for(int i = 0; i < arrayCount; i++){
+			_arrayTable.add(new long[]{_buffer.get(), _buffer.getInt(), _buffer.getLong()});
+		}
+		_loadedArrays = new Object[arrayCount];
+		_widenedArrays = new double[arrayCount][];
+
+		// Recreate the shapes and their instances
+		List<DecodedShape> decodedShapes = new ArrayList<DecodedShape>();
+		int shapeCount = _buffer.getInt();
+		for(int i = 0; i < shapeCount; i++){
+			decodedShapes.add(new DecodedShape(_buffer.get(), readDoubleArray(_buffer.getInt()), readDoubleArray(_buffer.getInt()),
+												readDoubleArray(_buffer.getInt()), (int[])readArray(_buffer.getInt()), (int[])readArray(_buffer.getInt())));
+		}
+		int instanceCount = _buffer.getInt();
+		for(int i = 0; i < instanceCount; i++){
+			DecodedShape decodedShape = decodedShapes.get(_buffer.getInt());
+			Matrix4d transformation = getMatrix(_buffer);
+			Color color = new Color(_buffer.getFloat(), _buffer.getFloat(), _buffer.getFloat(), _buffer.getFloat());
+			jtModel.addShapeInstance(decodedShape, transformation, color, getString(_buffer));
+		}
+
+		// Outline of the LSG
+		if(_buffer.get() != 0){
+			jtModel.setRootNode(getModelNode(decodedShapes));
+		}
+
+		// Insert the direct entries at their original positions
+		int layerCount = _buffer.getInt();
+		for(int i = 0; i < layerCount; i++){
+			String layerName = getString(_buffer);
+			int faceCount = _buffer.getInt();
+			for(int j = 0; j < faceCount; j++){
+				int index = _buffer.getInt();
+				insertEntry(jtModel.getFaces(), layerName, index, new Object[]{readDoubleArray(_buffer.getInt()), readArray(_buffer.getInt()), readDoubleArray(_buffer.getInt()), readDoubleArray(_buffer.getInt())});
+			}
+		}
+
+		layerCount = _buffer.getInt();
+		for(int i = 0; i < layerCount; i++){
+			String layerName = getString(_buffer);
+			int polylineCount = _buffer.getInt();
+			for(int j = 0; j < polylineCount; j++){
+				int index = _buffer.getInt();
+				insertEntry(jtModel.getPolylines(), layerName, index, new Object[]{toTupleList(readDoubleArray(_buffer.getInt())), toTupleList(readDoubleArray(_buffer.getInt()))});
+			}
+		}
+
+		layerCount = _buffer.getInt();
+		for(int i = 0; i < layerCount; i++){
+			String layerName = getString(_buffer);
+			int pointListCount = _buffer.getInt();
+			for(int j = 0; j < pointListCount; j++){
+				int index = _buffer.getInt();
+				double[] vertexArray = readDoubleArray(_buffer.getInt());
+				List<Double> vertices = new ArrayList<Double>(vertexArray.length);
+				for(int k = 0; k < vertexArray.length; k++){
+					vertices.add(vertexArray[k]);
+				}
+				float[] colorArray = (float[])readArray(_buffer.getInt());
+				List<Float> colors = null;
+				if(colorArray != null){
+					colors = new ArrayList<Float>(colorArray.length);
+					for(int k = 0; k < colorArray.length; k++){
+						colors.add(colorArray[k]);
+					}
+				}
+				insertEntry(jtModel.getPoints(), layerName, index, new Object[]{vertices, colors});
+			}
+		}
+
+		// The extreme values include the direct entries
+		jtModel.setExtremeValues(extremeValues);
+		return jtModel;
+	}
+
+	/**
+	 * Reads the outline of an LSG node and its sub tree, written by putModelNode().
+	 * @param  decodedShapes Decoded shapes, referenced by the shape nodes
+	 * @return               Outline of the LSG node
+	 * @throws IOException   Thrown if a string couldn't be decoded
+	 */
+	private JTModelNode getModelNode(List<DecodedShape> decodedShapes) throws IOException {
+		JTModelNode modelNode = new JTModelNode(getString(_buffer), getString(_buffer));
+		int propertyCount = _buffer.getInt();
+		for(int i = 0; i < propertyCount; i++){
+			modelNode.addProperty(getString(_buffer), getString(_buffer));
+		}
+		int transformationCount = _buffer.getInt();
+		for(int i = 0; i < transformationCount; i++){
+			modelNode.addTransformation(getMatrix(_buffer));
+		}
+		int shapeIndex = _buffer.getInt();
+		if(shapeIndex >= 0){
+			modelNode.setDecodedShape(decodedShapes.get(shapeIndex));
+		}
+		int childCount = _buffer.getInt();
+		for(int i = 0; i < childCount; i++){
+			modelNode.addChildNode(getModelNode(decodedShapes));
+		}
+		return modelNode;
+	}
+
+	/**
+	 * Appends the outline of the given LSG node and its sub tree in pre-order.
+	 * @param  byteBuffer   Growing heap buffer
+	 * @param  modelNode    Outline of the LSG node
+	 * @param  shapeIndices Indices of the written shapes
+	 * @return              Buffer to write to
+	 * @throws IOException  Thrown if a string couldn't be encoded
+	 */
+	private static ByteBuffer putModelNode(ByteBuffer byteBuffer, JTModelNode modelNode, IdentityHashMap<DecodedShape, Integer> shapeIndices) throws IOException {
+		byteBuffer = putString(byteBuffer, modelNode.getType());
+		byteBuffer = putString(byteBuffer, modelNode.getName());
+		byteBuffer = putInt(byteBuffer, modelNode.getProperties().size());
+		for(Iterator<String[]> iterator = modelNode.getProperties().iterator(); iterator.hasNext();){
+			String[] property = iterator.next();
+			byteBuffer = putString(byteBuffer, property[0]);
+			byteBuffer = putString(byteBuffer, property[1]);
+		}
+		byteBuffer = putInt(byteBuffer, modelNode.getTransformations().size());
+		for(Iterator<Matrix4d> iterator = modelNode.getTransformations().iterator(); iterator.hasNext();){
+			byteBuffer = putMatrix(byteBuffer, iterator.next());
+		}
+
+		// Shapes, which aren't part of the model (e.g. skipped LOD's), aren't referenced
+		Integer shapeIndex = shapeIndices.get(modelNode.getDecodedShape());
+		byteBuffer = putInt(byteBuffer, (shapeIndex == null) ? -1 : shapeIndex);
+		byteBuffer = putInt(byteBuffer, modelNode.getChildNodes().size());
+		for(Iterator<JTModelNode> iterator = modelNode.getChildNodes().iterator(); iterator.hasNext();){
+			byteBuffer = putModelNode(byteBuffer, iterator.next(), shapeIndices);
+		}
+		return byteBuffer;
+	}
+
+	/**
+	 * Returns the number of layers with faces, polylines or points, which haven't
+	 * been created from the shape instances.
+	 * @param  jtModel JT model
+	 * @param  layers  Faces, polylines or points per layer
+	 * @return         Number of layers with direct entries
+	 */
+	private static int countDirectLayers(JTModel jtModel, HashMap<String, ArrayList<Object[]>> layers){
+		int layerCount = 0;
+		for(Iterator<ArrayList<Object[]>> iterator = layers.values().iterator(); iterator.hasNext();){
+			if(countDirectEntries(jtModel, iterator.next()) > 0){
+				layerCount++;
+			}
+		}
+		return layerCount;
+	}
+
+	/**
+	 * Returns the number of the given faces, polylines or points, which haven't
+	 * been created from the shape instances.
+	 * @param  jtModel JT model
+	 * @param  entries Faces, polylines or points of a layer
+	 * @return         Number of direct entries
+	 */
+	private static int countDirectEntries(JTModel jtModel, List<Object[]> entries){
+		int entryCount = 0;
+		for(Iterator<Object[]> iterator = entries.iterator(); iterator.hasNext();){
+			if(!jtModel.isInstanceEntry(iterator.next())){
+				entryCount++;
+			}
+		}
+		return entryCount;
+	}
+
+	/**
+	 * Inserts the given face, polyline or point list at its original position.
+	 * The entries of a layer have to be inserted in ascending order.
+	 * @param layers    Faces, polylines or points per layer
+	 * @param layerName Layer name
+	 * @param index     Position inside the layer
+	 * @param entry     Face, polyline or point list
+	 */
+	private static void insertEntry(HashMap<String, ArrayList<Object[]>> layers, String layerName, int index, Object[] entry){
+		ArrayList<Object[]> entries = layers.get(layerName);
+		if(entries == null){
+			entries = new ArrayList<Object[]>();
+			layers.put(layerName, entries);
+		}
+		if((index < 0) || (index > entries.size())){
+			throw new IllegalArgumentException("Found invalid entry position in JT model snapshot: " + index);
+		}
+		entries.add(index, entry);
+	}
+
+	/**
+	 * Returns the given region of the file.
+	 * @param  offset      Offset of the region
+	 * @param  length      Length of the region in bytes
+	 * @return             Little endian buffer of the region
+	 * @throws IOException Thrown if the region couldn't be mapped
+	 */
+	private ByteBuffer getRegion(long offset, long length) throws IOException {
+		ByteBuffer region = null;
+		if(_mappedBuffer != null){
+			region = _mappedBuffer.duplicate();
+			region.position((int)offset);
+			region.limit((int)(offset + length));
+			region = region.slice();
+		} else {
+			// Files beyond 2 GB are mapped piece by piece
+			region = _fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+		}
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		return region;
+	}
+
+	/**
+	 * Returns the array with the given index. Arrays, which are referenced more
+	 * than once, are shared.
+	 * @param  arrayIndex  Index of the array or -1
+	 * @return             double[], int[], float[] or<br>
+	 *                     <b>null</b> if the index is -1
+	 * @throws IOException Thrown if the array couldn't be read
+	 */
+	private Object readArray(int arrayIndex) throws IOException {
+		if(arrayIndex < 0){
+			return null;
+		}
+		if(_loadedArrays[arrayIndex] != null){
+			return _loadedArrays[arrayIndex];
+		}
+
+		long[] arrayEntry = _arrayTable.get(arrayIndex);
+		int length = (int)arrayEntry[1];
+		Object array = null;
+		if(arrayEntry[0] == ARRAY_TYPE_DOUBLE){
+			double[] doubleArray = new double[length];
+			getRegion(arrayEntry[2], length * 8L).asDoubleBuffer().get(doubleArray);
+			array = doubleArray;
+		} else if(arrayEntry[0] == ARRAY_TYPE_INT){
+			int[] intArray = new int[length];
+			getRegion(arrayEntry[2], length * 4L).asIntBuffer().get(intArray);
+			array = intArray;
+		} else if(arrayEntry[0] == ARRAY_TYPE_FLOAT){
+			float[] floatArray = new float[length];
+			getRegion(arrayEntry[2], length * 4L).asFloatBuffer().get(floatArray);
+			array = floatArray;
+		} else {
+			throw new IllegalArgumentException("Unknown array type in JT model snapshot: " + arrayEntry[0]);
+		}
+		_loadedArrays[arrayIndex] = array;
+		return array;
+	}
+
+	/**
+	 * Returns the double or float array with the given index as double[]. Float
+	 * arrays are converted once and shared like the arrays.
+	 * @param  arrayIndex  Index of the array or -1
+	 * @return             Array or<br>
+	 *                     <b>null</b> if the index is -1
+	 * @throws IOException Thrown if the array couldn't be read
+	 */
+	private double[] readDoubleArray(int arrayIndex) throws IOException {
+		Object array = readArray(arrayIndex);
+		if((array == null) || (array instanceof double[])){
+			return (double[])array;
+		}
+		if(!(array instanceof float[])){
+			throw new IllegalArgumentException("Found invalid array type in JT model snapshot: " + array.getClass().getName());
+		}
+		if(_widenedArrays[arrayIndex] == null){
+			float[] floatArray = (float[])array;
+			double[] doubleArray = new double[floatArray.length];
+			for(int i = 0; i < floatArray.length; i++){
+				doubleArray[i] = floatArray[i];
+			}
+			_widenedArrays[arrayIndex] = doubleArray;
+		}
+		return _widenedArrays[arrayIndex];
+	}
+
+	/**
+	 * Writes the given array with float precision.
+	 * @param  array       Array or null
+	 * @return             Index of the array or<br>
+	 *                     <b>-1</b> if the array is null
+	 * @throws IOException Thrown if the array couldn't be written
+	 */
+	private int writeFloatArray(double[] array) throws IOException {
+		if(array == null){
+			return -1;
+		}
+		float[] floatArray = new float[array.length];
+		for(int i = 0; i < array.length; i++){
+			floatArray[i] = (float)array[i];
+		}
+		return writeArray(floatArray);
+	}
+
+	/**
+	 * Writes the given array, if no array with the same content has been written.
+	 * @param  array       double[], int[], float[] or null
+	 * @return             Index of the array or<br>
+	 *                     <b>-1</b> if the array is null
+	 * @throws IOException Thrown if the array couldn't be written
+	 */
+	private int writeArray(Object array) throws IOException {
+		if(array == null){
+			return -1;
+		}
+
+		int hashCode = 0;
+		if(array instanceof double[]){
+			hashCode = Arrays.hashCode((double[])array);
+		} else if(array instanceof int[]){
+			hashCode = Arrays.hashCode((int[])array);
+		} else if(array instanceof float[]){
+			hashCode = Arrays.hashCode((float[])array);
+		} else {
+			throw new IllegalArgumentException("Unsupported array type: " + array.getClass().getName());
+		}
+
+		List<Integer> candidates = _arrayIndices.get(hashCode);
+		if(candidates == null){
+			candidates = new ArrayList<Integer>(1);
+			_arrayIndices.put(hashCode, candidates);
+		}
+		for(Iterator<Integer> iterator = candidates.iterator(); iterator.hasNext();){
+			Integer arrayIndex = iterator.next();
+			if(Arrays.deepEquals(new Object[]{_arrays.get(arrayIndex)}, new Object[]{array})){
+				return arrayIndex;
+			}
+		}
+
+		long offset = align();
+		if(array instanceof double[]){
+			double[] doubleArray = (double[])array;
+			for(int i = 0; i < doubleArray.length; i++){
+				ensureCapacity(8);
+				_buffer.putDouble(doubleArray[i]);
+			}
+			_arrayTable.add(new long[]{ARRAY_TYPE_DOUBLE, doubleArray.length, offset});
+		} else if(array instanceof int[]){
+			int[] intArray = (int[])array;
+			for(int i = 0; i < intArray.length; i++){
+				ensureCapacity(4);
+				_buffer.putInt(intArray[i]);
+			}
+			_arrayTable.add(new long[]{ARRAY_TYPE_INT, intArray.length, offset});
+		} else {
+			float[] floatArray = (float[])array;
+			for(int i = 0; i < floatArray.length; i++){
+				ensureCapacity(4);
+				_buffer.putFloat(floatArray[i]);
+			}
+			_arrayTable.add(new long[]{ARRAY_TYPE_FLOAT, floatArray.length, offset});
+		}
+
+		_arrays.add(array);
+		candidates.add(_arrays.size() - 1);
+		return _arrays.size() - 1;
+	}
+
+	/**
+	 * Pads the file to a multiple of 8 bytes.
+	 * @return             Length of the file
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private long align() throws IOException {
+		ensureCapacity(8);
+		while(((_flushedLength + _buffer.position()) % 8) != 0){
+			_buffer.put((byte)0);
+		}
+		return _flushedLength + _buffer.position();
+	}
+
+	/**
+	 * Flushes the write buffer, if less than the given number of bytes are free.
+	 * @param  byteCount   Number of bytes to write next
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void ensureCapacity(int byteCount) throws IOException {
+		if(_buffer.remaining() < byteCount){
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the write buffer to the file.
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void flush() throws IOException {
+		_buffer.flip();
+		while(_buffer.hasRemaining()){
+			_flushedLength += _fileChannel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	/**
+	 * Returns a buffer with at least the given number of free bytes: the given
+	 * buffer or a bigger copy.
+	 * @param  byteBuffer Growing heap buffer
+	 * @param  byteCount  Number of bytes to write next
+	 * @return            Buffer to write to
+	 */
+	private static ByteBuffer ensureCapacity(ByteBuffer byteBuffer, int byteCount){
+		if(byteBuffer.remaining() >= byteCount){
+			return byteBuffer;
+		}
+		ByteBuffer biggerBuffer = ByteBuffer.allocate(Math.max(byteBuffer.capacity() * 2, byteBuffer.position() + byteCount));
+		biggerBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		byteBuffer.flip();
+		biggerBuffer.put(byteBuffer);
+		return biggerBuffer;
+	}
+
+	/**
+	 * Appends the given integer.
+	 * @param  byteBuffer Growing heap buffer
+	 * @param  value      Integer
+	 * @return            Buffer to write to
+	 */
+	private static ByteBuffer putInt(ByteBuffer byteBuffer, int value){
+		byteBuffer = ensureCapacity(byteBuffer, 4);
+		byteBuffer.putInt(value);
+		return byteBuffer;
+	}
+
+	/**
+	 * Appends the given matrix row by row.
+	 * @param  byteBuffer Growing heap buffer
+	 * @param  matrix     Matrix
+	 * @return            Buffer to write to
+	 */
+	private static ByteBuffer putMatrix(ByteBuffer byteBuffer, Matrix4d matrix){
+		byteBuffer = ensureCapacity(byteBuffer, 16 * 8);
+		byteBuffer.putDouble(matrix.m00).putDouble(matrix.m01).putDouble(matrix.m02).putDouble(matrix.m03);
+		byteBuffer.putDouble(matrix.m10).putDouble(matrix.m11).putDouble(matrix.m12).putDouble(matrix.m13);
+		byteBuffer.putDouble(matrix.m20).putDouble(matrix.m21).putDouble(matrix.m22).putDouble(matrix.m23);
+		byteBuffer.putDouble(matrix.m30).putDouble(matrix.m31).putDouble(matrix.m32).putDouble(matrix.m33);
+		return byteBuffer;
+	}
+
+	/**
+	 * Reads a matrix, written by putMatrix().
+	 * @param  byteBuffer Buffer to read from
+	 * @return            Matrix
+	 */
+	private static Matrix4d getMatrix(ByteBuffer byteBuffer){
+		double[] m = new double[16];
+		for(int i = 0; i < m.length; i++){
+			m[i] = byteBuffer.getDouble();
+		}
+		return new Matrix4d(m[0], m[1], m[2], m[3], m[4], m[5], m[6], m[7], m[8], m[9], m[10], m[11], m[12], m[13], m[14], m[15]);
+	}
+
+	/**
+	 * Appends the given string as length and UTF-8 bytes.
+	 * @param  byteBuffer          Growing heap buffer
+	 * @param  value               String or null (length -1)
+	 * @return                     Buffer to write to
+	 * @throws IOException         Thrown if the string couldn't be encoded
+	 */
+	private static ByteBuffer putString(ByteBuffer byteBuffer, String value) throws IOException {
+		if(value == null){
+			return putInt(byteBuffer, -1);
+		}
+		byte[] bytes = value.getBytes("UTF-8");
+		byteBuffer = ensureCapacity(byteBuffer, 4 + bytes.length);
+		byteBuffer.putInt(bytes.length);
+		byteBuffer.put(bytes);
+		return byteBuffer;
+	}
+
+	/**
+	 * Appends the given strings as number of strings and the strings.
+	 * @param  byteBuffer  Growing heap buffer
+	 * @param  values      Strings
+	 * @return             Buffer to write to
+	 * @throws IOException Thrown if a string couldn't be encoded
+	 */
+	private static ByteBuffer putStrings(ByteBuffer byteBuffer, List<String> values) throws IOException {
+		byteBuffer = putInt(byteBuffer, values.size());
+		for(Iterator<String> iterator = values.iterator(); iterator.hasNext();){
+			byteBuffer = putString(byteBuffer, iterator.next());
+		}
+		return byteBuffer;
+	}
+
+	/**
+	 * Reads a string, written by putString().
+	 * @param  byteBuffer  Buffer to read from
+	 * @return             String or null
+	 * @throws IOException Thrown if the string couldn't be decoded
+	 */
+	private static String getString(ByteBuffer byteBuffer) throws IOException {
+		int length = byteBuffer.getInt();
+		if(length < 0){
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		byteBuffer.get(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	/**
+	 * Converts the given list of tuples into a flat array.
+	 * @param  tuples List of tuples or null
+	 * @return        Flat array or<br>
+	 *                <b>null</b> if the list is null
+	 */
+	private static double[] toDoubleArray(List<Double[]> tuples){
+		if(tuples == null){
+			return null;
+		}
+		double[] values = new double[tuples.size() * 3];
+		int index = 0;
+		for(Iterator<Double[]> iterator = tuples.iterator(); iterator.hasNext();){
+			Double[] tuple = iterator.next();
+			values[index++] = tuple[0];
+			values[index++] = tuple[1];
+			values[index++] = tuple[2];
+		}
+		return values;
+	}
+
+	/**
+	 * Converts the given flat array into a list of tuples.
+	 * @param  values Flat array or null
+	 * @return        List of tuples or<br>
+	 *                <b>null</b> if the array is null
+	 */
+	private static List<Double[]> toTupleList(double[] values){
+		if(values == null){
+			return null;
+		}
+		List<Double[]> tuples = new ArrayList<Double[]>(values.length / 3);
+		for(int i = 0; (i + 2) < values.length; i += 3){
+			tuples.add(new Double[]{values[i], values[i + 1], values[i + 2]});
+		}
+		return tuples;
+	}
+}
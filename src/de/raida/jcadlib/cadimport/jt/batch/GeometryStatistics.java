@@ -0,0 +1,208 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.batch;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.HashSet;
+
+import javax.vecmath.Matrix4d;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+import de.raida.jcadlib.cadimport.jt.GeometryVisitor;
+import de.raida.jcadlib.cadimport.jt.model.LSGNode;
+
+/**
+ * Collects the entity counts and the bounding box of the imported shapes, while
+ * the geometry is streamed, so the importer doesn't have to retain the geometry
+ * in the JT model. The counts follow the ones of the JT model: one face set per
+ * triangle shape instance, one polyline per polyline of an instance and one point
+ * set per point shape instance. All shapes are passed on to the optional visitor.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class GeometryStatistics implements GeometryVisitor {
+	/** Visitor, the shapes are passed on to (or null) */
+	private GeometryVisitor _geometryVisitor;
+
+	/** Number of face sets */
+	private int _faceSetCount;
+
+	/** Number of triangles */
+	private long _triangleCount;
+
+	/** Number of polylines */
+	private int _polylineCount;
+
+	/** Number of point sets */
+	private int _pointSetCount;
+
+	/** Number of points */
+	private long _pointCount;
+
+	/** Names of the layers */
+	private HashSet<String> _layerNames;
+
+	/** Smallest and biggest X, Y and Z value or null, if no vertex has been found */
+	private double[][] _extremeValues;
+
+	/**
+	 * Constructor.
+	 * @param geometryVisitor Visitor, the shapes are passed on to (or null)
+	 */
+	public GeometryStatistics(GeometryVisitor geometryVisitor){
+		_geometryVisitor = geometryVisitor;
+		_layerNames = new HashSet<String>();
+	}
+
+	/**
+	 * Counts the entities of the given shape instance and registers its vertices
+	 * in the world coordinate system.
+	 * @param  shapeNode      Shape node of the LSG
+	 * @param  segmentID      ID of the shape segment
+	 * @param  decodedShape   Decoded shape
+	 * @param  transformation Transformation into the world coordinate system
+	 * @param  color          Color of the shape
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the passed on visitor failed
+	 */
+	public void visitShape(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName) throws IOException {
+		if(_geometryVisitor != null){
+			_geometryVisitor.visitShape(shapeNode, segmentID, decodedShape, transformation, color, layerName);
+		}
+
+		double[] vertices = decodedShape.getVertices();
+		if((vertices == null) || ((decodedShape.getType() != DecodedShape.TYPE_POINTS) && (decodedShape.getIndices() == null))){
+			return;
+		}
+		_layerNames.add(layerName);
+
+		if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+			_faceSetCount++;
+			_triangleCount += decodedShape.getIndices().length / 3;
+			for(int i = 0; (i + 2) < vertices.length; i += 3){
+				registerVertex(transformation, vertices, i);
+			}
+
+		} else if(decodedShape.getType() == DecodedShape.TYPE_POLYLINES){
+			int[] vertexIndices = decodedShape.getIndices();
+			int[] primitiveIndices = decodedShape.getPrimitiveIndices();
+			for(int i = 0; i < (primitiveIndices.length - 1); i++){
+				for(int j = primitiveIndices[i]; j < primitiveIndices[i + 1]; j++){
+					registerVertex(transformation, vertices, vertexIndices[j] * 3);
+				}
+				_polylineCount++;
+			}
+
+		} else {
+			_pointSetCount++;
+			_pointCount += vertices.length / 3;
+			for(int i = 0; (i + 2) < vertices.length; i += 3){
+				registerVertex(transformation, vertices, i);
+			}
+		}
+	}
+
+	/**
+	 * Registers the given vertex in the world coordinate system for the bounding box.
+	 * @param transformation Transformation into the world coordinate system
+	 * @param vertices       Vertices (x, y, z)
+	 * @param index          Index of the x coordinate
+	 */
+	private void registerVertex(Matrix4d transformation, double[] vertices, int index){
+		double x = vertices[index];
+		double y = vertices[index + 1];
+		double z = vertices[index + 2];
+		double[] vertex = new double[]{	(transformation.m00 * x) + (transformation.m01 * y) + (transformation.m02 * z) + transformation.m03,
+										(transformation.m10 * x) + (transformation.m11 * y) + (transformation.m12 * z) + transformation.m13,
+										(transformation.m20 * x) + (transformation.m21 * y) + (transformation.m22 * z) + transformation.m23};
+		if(_extremeValues == null){
+			_extremeValues = new double[][]{vertex.clone(), vertex.clone()};
+			return;
+		}
+		for(int i = 0; i < 3; i++){
+			_extremeValues[0][i] = Math.min(_extremeValues[0][i], vertex[i]);
+			_extremeValues[1][i] = Math.max(_extremeValues[1][i], vertex[i]);
+		}
+	}
+
+	/**
+	 * Returns the number of face sets (one per triangle shape instance).
+	 * @return Number of face sets
+	 */
+	public int getFaceSetCount(){
+		return _faceSetCount;
+	}
+
+	/**
+	 * Returns the number of triangles.
+	 * @return Number of triangles
+	 */
+	public long getTriangleCount(){
+		return _triangleCount;
+	}
+
+	/**
+	 * Returns the number of polylines.
+	 * @return Number of polylines
+	 */
+	public int getPolylineCount(){
+		return _polylineCount;
+	}
+
+	/**
+	 * Returns the number of point sets (one per point shape instance).
+	 * @return Number of point sets
+	 */
+	public int getPointSetCount(){
+		return _pointSetCount;
+	}
+
+	/**
+	 * Returns the number of points.
+	 * @return Number of points
+	 */
+	public long getPointCount(){
+		return _pointCount;
+	}
+
+	/**
+	 * Returns the number of layers with shapes.
+	 * @return Number of layers
+	 */
+	public int getLayerCount(){
+		return _layerNames.size();
+	}
+
+	/**
+	 * Returns the bounding box in the world coordinate system.
+	 * @return Extreme values (double[2][3] [x1, y1, z1] and [x2, y2, z2]) or<br>
+	 *         <b>null</b> if no vertex has been found
+	 */
+	public double[][] getExtremeValues(){
+		return _extremeValues;
+	}
+}
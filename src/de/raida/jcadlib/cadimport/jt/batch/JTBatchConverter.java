@@ -0,0 +1,515 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt.batch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.export.JSONHelper;
+import de.raida.jcadlib.cadimport.jt.export.STLExporter;
+
+/**
+ * Converts a corpus of JT files concurrently. Each file is imported by its own
+ * JTImporter; the workers take the next file from a shared queue as soon as they
+ * are idle, so a few huge files don't stall the others. The queue is sorted by
+ * size (biggest first), which keeps the tail of the run short. For each file the
+ * triangles are written as binary STL and the meta data (model and load
+ * information, bounding box, entity counts, errors) as JSON. The output files
+ * mirror the absolute path of the input below the output directory, so files
+ * with the same name from different directories don't collide. The geometry is
+ * streamed to the STL exporter and the statistics, it isn't retained in the JT
+ * model. Failed files are listed in "errors.txt".
+ * <br>Usage: JTBatchConverter &lt;output directory&gt; [-threads N] [-nomesh] &lt;file, directory or @file list&gt; ...
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class JTBatchConverter {
+	/** Interval of the progress reports in milliseconds */
+	private final static long PROGRESS_INTERVAL = 10000;
+
+	/** Output directory */
+	private File _outputDirectory;
+
+	/** Number of worker threads */
+	private int _threadCount;
+
+	/** Write the triangles as STL? */
+	private boolean _meshExportEnabled;
+
+	/** Files to convert: [source file, relative path] */
+	private List<Object[]> _jobs;
+
+	/** Relative paths of the added files */
+	private HashSet<String> _relativePaths;
+
+	/** Index of the next job to convert */
+	private AtomicInteger _nextJob;
+
+	/** Number of converted files */
+	private AtomicInteger _convertedFileCount;
+
+	/** Number of failed files */
+	private AtomicInteger _failedFileCount;
+
+	/** Number of read bytes of all finished files */
+	private AtomicLong _readByteCount;
+
+	/** Number of imported triangles */
+	private AtomicLong _triangleCount;
+
+	/** Errors of the failed files */
+	private List<String> _errors;
+
+	/** Start time of the conversion in nanoseconds */
+	private long _startTime;
+
+	/**
+	 * Constructor.
+	 * @param outputDirectory Output directory
+	 */
+	public JTBatchConverter(File outputDirectory){
+		_outputDirectory = outputDirectory;
+		_threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		_meshExportEnabled = true;
+		_jobs = new ArrayList<Object[]>();
+		_relativePaths = new HashSet<String>();
+		_errors = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	/**
+	 * Sets the number of worker threads (default: number of cores - 1).
+	 * @param threadCount Number of worker threads
+	 */
+	public void setThreadCount(int threadCount){
+		if(threadCount <= 0){
+			throw new IllegalArgumentException("Found invalid thread count: " + threadCount);
+		}
+		_threadCount = threadCount;
+	}
+
+	/**
+	 * Sets whether the triangles are written as STL.
+	 * @param meshExportEnabled Write the triangles as STL?
+	 */
+	public void setMeshExportEnabled(boolean meshExportEnabled){
+		_meshExportEnabled = meshExportEnabled;
+	}
+
+	/**
+	 * Adds the given JT file or all JT files below the given directory. The output
+	 * files mirror the absolute path of the input below the output directory.
+	 * @param file File or directory
+	 */
+	public void add(File file){
+		add(file, getMirroredPath(file));
+	}
+
+	/**
+	 * Returns the absolute, normalized path of the given file without its root
+	 * (e.g. "/data/a.jt" -> "data/a.jt", "C:\data\a.jt" -> "C\data\a.jt").
+	 * @param  file File or directory
+	 * @return      Path, relative to the output directory
+	 */
+	private static String getMirroredPath(File file){
+		String path = new File(file.getAbsoluteFile().toURI().normalize()).getPath().replace(":", "");
+		while(path.startsWith(File.separator)){
+			path = path.substring(1);
+		}
+		return path;
+	}
+
+	/**
+	 * Adds all JT files of the given list file (one file or directory per line).
+	 * @param  listFile    List file
+	 * @throws IOException Thrown if the list file couldn't be read
+	 */
+	public void addFileList(File listFile) throws IOException {
+		BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(listFile), "UTF-8"));
+		try {
+			String line = null;
+			while((line = bufferedReader.readLine()) != null){
+				if(line.trim().length() > 0){
+					add(new File(line.trim()));
+				}
+			}
+		} finally {
+			bufferedReader.close();
+		}
+	}
+
+	/**
+	 * Adds the given JT file or all JT files below the given directory.
+	 * @param file         File or directory
+	 * @param relativePath Path of the output files, relative to the output directory
+	 */
+	private void add(File file, String relativePath){
+		if(file.isDirectory()){
+			String[] fileNames = file.list();
+			if(fileNames != null){
+				Arrays.sort(fileNames);
+				for(int i = 0; i < fileNames.length; i++){
+					File childFile = new File(file, fileNames[i]);
+					if(childFile.isDirectory() || fileNames[i].toLowerCase().endsWith(".jt")){
+						add(childFile, relativePath.equals("") ? fileNames[i] : (relativePath + File.separator + fileNames[i]));
+					}
+				}
+			}
+		} else if(_relativePaths.add(relativePath)){
+			_jobs.add(new Object[]{file, relativePath});
+		}
+	}
+
+	/**
+	 * Converts all added files.
+	 * @throws InterruptedException Thrown if the conversion has been interrupted
+	 * @throws IOException          Thrown if the error list couldn't be written
+	 */
+	public void convert() throws InterruptedException, IOException {
+		// Biggest files first
+		final HashMap<File, Long> fileLengths = new HashMap<File, Long>();
+		long totalByteCount = 0;
+		for(Iterator<Object[]> iterator = _jobs.iterator(); iterator.hasNext();){
+			File file = (File)iterator.next()[0];
+			fileLengths.put(file, file.length());
+			totalByteCount += file.length();
+		}
+		Collections.sort(_jobs, new Comparator<Object[]>(){
+			/**
+			 * Compares the file lengths of the given jobs (descending).
+			 * @param  job1 First job
+			 * @param  job2 Second job
+			 * @return      Comparison result
+			 */
+			public int compare(Object[] job1, Object[] job2){
+				return fileLengths.get((File)job2[0]).compareTo(fileLengths.get((File)job1[0]));
+			}
+		});
+
+		_nextJob = new AtomicInteger();
+		_convertedFileCount = new AtomicInteger();
+		_failedFileCount = new AtomicInteger();
+		_readByteCount = new AtomicLong();
+		_triangleCount = new AtomicLong();
+		_errors.clear();
+		_startTime = System.nanoTime();
+		System.out.println(String.format(Locale.US, "Converting %d files (%.1f MB) with %d threads", _jobs.size(), totalByteCount / (1024.0 * 1024.0), _threadCount));
+
+		ExecutorService executorService = Executors.newFixedThreadPool(_threadCount, new ThreadFactory(){
+			/** Number of created threads */
+			private int _createdThreadCount;
+
+			/**
+			 * Creates a daemon thread.
+			 * @param  runnable Runnable to execute
+			 * @return          New thread
+			 */
+			public Thread newThread(Runnable runnable){
+				Thread thread = new Thread(runnable, "JT batch converter " + (++_createdThreadCount));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		for(int i = 0; i < _threadCount; i++){
+			executorService.execute(new Runnable(){
+				/**
+				 * Converts the next files, until all jobs are done.
+				 */
+				public void run(){
+					int jobIndex = 0;
+					while((jobIndex = _nextJob.getAndIncrement()) < _jobs.size()){
+						convert((File)_jobs.get(jobIndex)[0], (String)_jobs.get(jobIndex)[1]);
+					}
+				}
+			});
+		}
+		executorService.shutdown();
+		while(!executorService.awaitTermination(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS)){
+			System.out.println(getProgress());
+		}
+		System.out.println(getProgress());
+
+		// List the failed files
+		if(_errors.size() > 0){
+			Collections.sort(_errors);
+			PrintWriter printWriter = new PrintWriter(new File(_outputDirectory, "errors.txt"), "UTF-8");
+			for(Iterator<String> iterator = _errors.iterator(); iterator.hasNext();){
+				printWriter.println(iterator.next());
+			}
+			printWriter.close();
+		}
+	}
+
+	/**
+	 * Converts the given file. Errors are reported in the JSON file.
+	 * @param file         JT file
+	 * @param relativePath Path of the output files, relative to the output directory
+	 */
+	private void convert(File file, String relativePath){
+		File outputFile = new File(_outputDirectory, relativePath);
+		outputFile.getParentFile().mkdirs();
+		String baseName = outputFile.getPath().replaceAll("(?i)\\.jt$", "");
+
+		long startTime = System.nanoTime();
+		JTImporter jtImporter = new JTImporter();
+		jtImporter.setInflaterThreadCount(0);
+		jtImporter.setGeometryRetained(false);
+		String error = null;
+		STLExporter stlExporter = null;
+		GeometryStatistics geometryStatistics = null;
+		try {
+			if(_meshExportEnabled){
+				stlExporter = new STLExporter(new File(baseName + ".stl"));
+			}
+			geometryStatistics = new GeometryStatistics(stlExporter);
+			jtImporter.setGeometryVisitor(geometryStatistics);
+			jtImporter.loadFile(file.toURI().toURL());
+			if(stlExporter != null){
+				stlExporter.close();
+			}
+
+		} catch(Throwable throwable){
+			StringWriter stringWriter = new StringWriter();
+			throwable.printStackTrace(new PrintWriter(stringWriter));
+			error = stringWriter.toString();
+			_errors.add(file.getPath() + ": " + throwable);
+			closeQuietly(stlExporter);
+		}
+		long importTime = System.nanoTime() - startTime;
+
+		try {
+			PrintWriter printWriter = new PrintWriter(new File(baseName + ".json"), "UTF-8");
+			printWriter.print(createJSON(file, jtImporter, geometryStatistics, importTime, error));
+			printWriter.close();
+		} catch(Exception exception){
+			error = exception.toString();
+			_errors.add(file.getPath() + ": " + exception);
+		}
+
+		_readByteCount.addAndGet(file.length());
+		if(error == null){
+			_triangleCount.addAndGet(geometryStatistics.getTriangleCount());
+		}
+		if(error == null){
+			_convertedFileCount.incrementAndGet();
+		} else {
+			_failedFileCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Closes the given STL exporter after a failed import, ignoring further errors.
+	 * @param stlExporter STL exporter or null
+	 */
+	private static void closeQuietly(STLExporter stlExporter){
+		if(stlExporter == null){
+			return;
+		}
+		try {
+			stlExporter.close();
+		} catch(IOException exception){
+			// The import error is reported
+		}
+	}
+
+	/**
+	 * Creates the JSON meta data of the given file. The entity counts and the
+	 * bounding box are taken from the geometry statistics.
+	 * @param  file               JT file
+	 * @param  jtImporter         JT importer
+	 * @param  geometryStatistics Geometry statistics of the import
+	 * @param  importTime         Time of the conversion in nanoseconds
+	 * @param  error              Error or null
+	 * @return                    JSON meta data
+	 */
+	private static String createJSON(File file, JTImporter jtImporter, GeometryStatistics geometryStatistics, long importTime, String error){
+		StringBuffer json = new StringBuffer();
+		json.append("{\n  \"file\": ");
+		JSONHelper.appendString(json, file.getPath());
+		json.append(",\n  \"bytes\": " + file.length());
+		json.append(",\n  \"status\": \"" + ((error == null) ? "ok" : "error") + "\"");
+		json.append(String.format(Locale.US, ",\n  \"milliseconds\": %.1f", importTime / 1e6));
+		if(error != null){
+			json.append(",\n  \"error\": ");
+			JSONHelper.appendString(json, error);
+		}
+
+		if(error == null){
+			json.append(",\n  \"faceSets\": " + geometryStatistics.getFaceSetCount());
+			json.append(",\n  \"triangles\": " + geometryStatistics.getTriangleCount());
+			json.append(",\n  \"polylines\": " + geometryStatistics.getPolylineCount());
+			json.append(",\n  \"pointSets\": " + geometryStatistics.getPointSetCount());
+			json.append(",\n  \"layers\": " + geometryStatistics.getLayerCount());
+
+			double[][] extremeValues = geometryStatistics.getExtremeValues();
+			if(extremeValues == null){
+				json.append(",\n  \"boundingBox\": null");
+			} else {
+				json.append(",\n  \"boundingBox\": [[" + toJSONNumber(extremeValues[0][0]) + ", " + toJSONNumber(extremeValues[0][1]) + ", " + toJSONNumber(extremeValues[0][2]) + "], [" +
+															toJSONNumber(extremeValues[1][0]) + ", " + toJSONNumber(extremeValues[1][1]) + ", " + toJSONNumber(extremeValues[1][2]) + "]]");
+			}
+
+			json.append(",\n  \"modelInformation\": [");
+			appendJSONPairs(json, getModelInformation(jtImporter, geometryStatistics));
+			json.append("]");
+		}
+
+		json.append(",\n  \"loadInformation\": [");
+		appendJSONPairs(json, jtImporter.getLoadInformation());
+		json.append("]");
+
+		try {
+			List<String> unsupportedEntities = jtImporter.getUnsupportedEntities();
+			json.append(",\n  \"unsupportedEntities\": [");
+			for(int i = 0; i < unsupportedEntities.size(); i++){
+				json.append((i == 0) ? "" : ", ");
+				JSONHelper.appendString(json, unsupportedEntities.get(i));
+			}
+			json.append("]");
+		} catch(Exception exception){
+			// The unsupported entities are optional
+		}
+
+		json.append("\n}\n");
+		return json.toString();
+	}
+
+	/**
+	 * Returns the model information of the importer, whose entity counts are
+	 * replaced by the ones of the geometry statistics (the geometry isn't retained
+	 * in the JT model).
+	 * @param  jtImporter         JT importer
+	 * @param  geometryStatistics Geometry statistics of the import
+	 * @return                    Model information
+	 */
+	private static List<String[]> getModelInformation(JTImporter jtImporter, GeometryStatistics geometryStatistics){
+		List<String[]> modelInformation = new ArrayList<String[]>();
+		for(Iterator<String[]> iterator = jtImporter.getModelInformation().iterator(); iterator.hasNext();){
+			String[] pair = iterator.next();
+			if(pair[0].equals("Number of faces")){
+				pair = new String[]{pair[0], Long.toString(geometryStatistics.getTriangleCount())};
+			} else if(pair[0].equals("Number of polylines")){
+				pair = new String[]{pair[0], Integer.toString(geometryStatistics.getPolylineCount())};
+			} else if(pair[0].equals("Number of points")){
+				pair = new String[]{pair[0], Long.toString(geometryStatistics.getPointCount())};
+			}
+			modelInformation.add(pair);
+		}
+		return modelInformation;
+	}
+
+	/**
+	 * Appends the given pairs as JSON arrays.
+	 * @param json  JSON text
+	 * @param pairs Pairs of strings
+	 */
+	private static void appendJSONPairs(StringBuffer json, List<String[]> pairs){
+		if(pairs == null){
+			return;
+		}
+		for(int i = 0; i < pairs.size(); i++){
+			json.append((i == 0) ? "\n    [" : ",\n    [");
+			JSONHelper.appendString(json, pairs.get(i)[0]);
+			json.append(", ");
+			JSONHelper.appendString(json, pairs.get(i)[1]);
+			json.append("]");
+		}
+		if(pairs.size() > 0){
+			json.append("\n  ");
+		}
+	}
+
+	/**
+	 * Returns the given number as JSON number (JSON knows no infinite values).
+	 * @param  value Number
+	 * @return       JSON number
+	 */
+	private static String toJSONNumber(double value){
+		return (Double.isNaN(value) || Double.isInfinite(value)) ? "null" : String.valueOf(value);
+	}
+
+	/**
+	 * Returns the current progress and throughput of the conversion.
+	 * @return Progress
+	 */
+	public String getProgress(){
+		double seconds = Math.max(1e-9, (System.nanoTime() - _startTime) / 1e9);
+		int finishedFileCount = _convertedFileCount.get() + _failedFileCount.get();
+		return String.format(Locale.US, "%d / %d files (%d failed), %.1f MB, %d triangles in %.1f s: %.2f files/s, %.2f MB/s",
+								finishedFileCount, _jobs.size(), _failedFileCount.get(), _readByteCount.get() / (1024.0 * 1024.0),
+								_triangleCount.get(), seconds, finishedFileCount / seconds, (_readByteCount.get() / (1024.0 * 1024.0)) / seconds);
+	}
+
+	/**
+	 * Main entry point.
+	 * @param  arguments Arguments of the command line: &lt;output directory&gt; [-threads N] [-nomesh] &lt;file, directory or @file list&gt; ...
+	 * @throws Exception Thrown when something happens
+	 */
+	public static void main(String[] arguments) throws Exception {
+		if(arguments.length < 2){
+			System.out.println("Usage: JTBatchConverter <output directory> [-threads N] [-nomesh] <file, directory or @file list> ...");
+			return;
+		}
+
+		JTBatchConverter jtBatchConverter = new JTBatchConverter(new File(arguments[0]));
+		for(int i = 1; i < arguments.length; i++){
+			String argument = arguments[i];
+			if(argument.equals("-threads") && ((i + 1) < arguments.length)){
+				jtBatchConverter.setThreadCount(Integer.parseInt(arguments[++i]));
+			} else if(argument.equals("-nomesh")){
+				jtBatchConverter.setMeshExportEnabled(false);
+			} else if(argument.startsWith("@")){
+				jtBatchConverter.addFileList(new File(argument.substring(1)));
+			} else {
+				jtBatchConverter.add(new File(argument));
+			}
+		}
+
+		new File(arguments[0]).mkdirs();
+		jtBatchConverter.convert();
+	}
+}
@@ -0,0 +1,272 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.cache;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+
+/**
+ * In-memory cache for decoded shape segments, shared by all importers. The
+ * entries are identified by the URL and the version of the file and the segment
+ * ID, so a file, which is rewritten in place, isn't served from stale entries.
+ * The entries are evicted in least recently used order, as soon as the byte budget is exceeded.
+ * All methods are synchronized, so the cache can be used by concurrent imports.
+ * The arrays of cached shapes are shared and must not be modified.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class SegmentCache {
+	/** Default byte budget of the shared instance (256 MB) */
+	public final static long DEFAULT_MAXIMUM_BYTE_SIZE = 256L * 1024L * 1024L;
+
+	/** Estimated number of bytes, occupied by an entry besides its arrays */
+	private final static int ENTRY_OVERHEAD = 128;
+
+	/** Shared instance */
+	private static SegmentCache _sharedInstance;
+
+	/** Cached shapes in access order: key -> shape */
+	private LinkedHashMap<String, DecodedShape> _entries;
+
+	/** Maximum number of bytes */
+	private long _maximumByteSize;
+
+	/** Current number of bytes */
+	private long _byteSize;
+
+	/** Number of cache hits */
+	private long _hitCount;
+
+	/** Number of cache misses */
+	private long _missCount;
+
+	/** Number of evicted entries */
+	private long _evictionCount;
+
+	/**
+	 * Constructor.
+	 * @param maximumByteSize Maximum number of bytes
+	 */
+	public SegmentCache(long maximumByteSize){
+		if(maximumByteSize < 0){
+			throw new IllegalArgumentException("Found invalid byte budget: " + maximumByteSize);
+		}
+		_entries = new LinkedHashMap<String, DecodedShape>(16, 0.75f, true);
+		_maximumByteSize = maximumByteSize;
+	}
+
+	/**
+	 * Returns the cache, shared by the whole process.
+	 * @return Shared segment cache
+	 */
+	public static synchronized SegmentCache getSharedInstance(){
+		if(_sharedInstance == null){
+			_sharedInstance = new SegmentCache(DEFAULT_MAXIMUM_BYTE_SIZE);
+		}
+		return _sharedInstance;
+	}
+
+	/**
+	 * Returns the cached shape.
+	 * @param  url         URL of the file
+	 * @param  fileVersion Version of the file (e.g. modification time and length or entity tag)
+	 * @param  segmentID   Segment ID
+	 * @return             Cached shape or<br>
+	 *                     <b>null</b> if the shape isn't cached
+	 */
+	public synchronized DecodedShape get(URL url, String fileVersion, String segmentID){
+		DecodedShape decodedShape = _entries.get(createKey(url, fileVersion, segmentID));
+		if(decodedShape == null){
+			_missCount++;
+		} else {
+			_hitCount++;
+		}
+		return decodedShape;
+	}
+
+	/**
+	 * Adds the given shape to the cache and evicts the least recently used entries,
+	 * until the byte budget is kept. Shapes, bigger than the whole budget, are not cached.
+	 * @param url          URL of the file
+	 * @param fileVersion  Version of the file (e.g. modification time and length or entity tag)
+	 * @param segmentID    Segment ID
+	 * @param decodedShape Decoded shape
+	 */
+	public synchronized void put(URL url, String fileVersion, String segmentID, DecodedShape decodedShape){
+		if(getByteSize(decodedShape) > _maximumByteSize){
+			return;
+		}
+
+		DecodedShape oldDecodedShape = _entries.put(createKey(url, fileVersion, segmentID), decodedShape);
+		if(oldDecodedShape != null){
+			_byteSize -= getByteSize(oldDecodedShape);
+		}
+		_byteSize += getByteSize(decodedShape);
+		evict();
+	}
+
+	/**
+	 * Removes all cached shapes of the given file, regardless of their version.
+	 * @param url URL of the file
+	 */
+	public synchronized void remove(URL url){
+		String prefix = url.toString() + "|";
+		for(Iterator<Map.Entry<String, DecodedShape>> iterator = _entries.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<String, DecodedShape> entry = iterator.next();
+			if(entry.getKey().startsWith(prefix)){
+				_byteSize -= getByteSize(entry.getValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached shapes and resets the statistics.
+	 */
+	public synchronized void clear(){
+		_entries.clear();
+		_byteSize = 0;
+		_hitCount = 0;
+		_missCount = 0;
+		_evictionCount = 0;
+	}
+
+	/**
+	 * Sets the maximum number of bytes and possibly evicts entries.
+	 * @param maximumByteSize Maximum number of bytes
+	 */
+	public synchronized void setMaximumByteSize(long maximumByteSize){
+		if(maximumByteSize < 0){
+			throw new IllegalArgumentException("Found invalid byte budget: " + maximumByteSize);
+		}
+		_maximumByteSize = maximumByteSize;
+		evict();
+	}
+
+	/**
+	 * Returns the maximum number of bytes.
+	 * @return Maximum number of bytes
+	 */
+	public synchronized long getMaximumByteSize(){
+		return _maximumByteSize;
+	}
+
+	/**
+	 * Returns the number of bytes, occupied by the cached shapes.
+	 * @return Number of bytes
+	 */
+	public synchronized long getByteSize(){
+		return _byteSize;
+	}
+
+	/**
+	 * Returns the number of cached shapes.
+	 * @return Number of cached shapes
+	 */
+	public synchronized int getEntryCount(){
+		return _entries.size();
+	}
+
+	/**
+	 * Returns the number of cache hits.
+	 * @return Number of cache hits
+	 */
+	public synchronized long getHitCount(){
+		return _hitCount;
+	}
+
+	/**
+	 * Returns the number of cache misses.
+	 * @return Number of cache misses
+	 */
+	public synchronized long getMissCount(){
+		return _missCount;
+	}
+
+	/**
+	 * Returns the number of evicted entries.
+	 * @return Number of evicted entries
+	 */
+	public synchronized long getEvictionCount(){
+		return _evictionCount;
+	}
+
+	/**
+	 * Returns the ratio of cache hits to all requests.
+	 * @return Hit rate (0.0 - 1.0)
+	 */
+	public synchronized double getHitRate(){
+		long requestCount = _hitCount + _missCount;
+		return (requestCount == 0) ? 0.0 : ((double)_hitCount / requestCount);
+	}
+
+	/**
+	 * Returns a short summary of the cache statistics.
+	 * @return Cache statistics
+	 */
+	@Override
+	public synchronized String toString(){
+		return	"SegmentCache[entries=" + _entries.size() + ", bytes=" + _byteSize + "/" + _maximumByteSize +
+				", hits=" + _hitCount + ", misses=" + _missCount + ", evictions=" + _evictionCount + "]";
+	}
+
+	/**
+	 * Evicts the least recently used entries, until the byte budget is kept.
+	 */
+	private void evict(){
+		Iterator<Map.Entry<String, DecodedShape>> iterator = _entries.entrySet().iterator();
+		while((_byteSize > _maximumByteSize) && iterator.hasNext()){
+			Map.Entry<String, DecodedShape> entry = iterator.next();
+			_byteSize -= getByteSize(entry.getValue());
+			iterator.remove();
+			_evictionCount++;
+		}
+	}
+
+	/**
+	 * Returns the estimated number of bytes of the given cache entry.
+	 * @param  decodedShape Decoded shape
+	 * @return              Number of bytes
+	 */
+	private static long getByteSize(DecodedShape decodedShape){
+		return decodedShape.getByteSize() + ENTRY_OVERHEAD;
+	}
+
+	/**
+	 * Creates the key of a cache entry.
+	 * @param  url         URL of the file
+	 * @param  fileVersion Version of the file
+	 * @param  segmentID   Segment ID
+	 * @return             Key of the cache entry
+	 */
+	private static String createKey(URL url, String fileVersion, String segmentID){
+		return url.toString() + "|" + fileVersion + "|" + segmentID;
+	}
+}
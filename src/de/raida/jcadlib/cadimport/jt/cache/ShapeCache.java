@@ -0,0 +1,389 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+
+/**
+ * Persistent cache for decoded shapes. Every shape is stored in its own file,
+ * named by the hash of the file key, the segment ID and the LOD. The file key
+ * is built of the path, length and modification time for local files and of
+ * the content hash for all other URL's, so a changed JT file never hits an old
+ * entry.
+ * <br>
+ * The layout of a cache file (little endian) is a header of eight integers
+ * (magic, version, type, number of vertex, normal, color, index and primitive
+ * values; -1 marks a missing array), followed by the float arrays and the
+ * integer arrays. Vertices, normals and colors are stored with the single
+ * precision of the JT file, which halves their size on disk, and are widened
+ * to double while the file is read.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ShapeCache {
+	/** Magic number of a cache file ("JTSC") */
+	private final static int MAGIC = 0x4a545343;
+
+	/** Version of the cache file layout */
+	private final static int VERSION = 2;
+
+	/** Size of the header in bytes */
+	private final static int HEADER_SIZE = 32;
+
+	/** Extension of the cache files */
+	private final static String FILE_EXTENSION = ".shape";
+
+	/** Directory containing the cache files */
+	private File _cacheDirectory;
+
+	/**
+	 * Constructor.
+	 * @param cacheDirectory Directory containing the cache files
+	 */
+	public ShapeCache(File cacheDirectory){
+		if(!cacheDirectory.exists() && !cacheDirectory.mkdirs()){
+			throw new IllegalArgumentException("Couldn't create cache directory: " + cacheDirectory);
+		}
+		if(!cacheDirectory.isDirectory()){
+			throw new IllegalArgumentException("Cache directory is not a directory: " + cacheDirectory);
+		}
+		_cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Returns the cache directory.
+	 * @return Directory containing the cache files
+	 */
+	public File getCacheDirectory(){
+		return _cacheDirectory;
+	}
+
+	/**
+	 * Creates the key, identifying the content of the given file.
+	 * @param  url     URL of the file
+	 * @param  content Content of the file
+	 * @return         File key
+	 */
+	public static String createFileKey(URL url, byte[] content){
+		if(url.getProtocol().equals("file")){
+			try {
+				File file = new File(url.toURI());
+				return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+			} catch(Exception exception){
+				// Fall back to the content hash
+			}
+		}
+		return toHexString(createDigest().digest(content));
+	}
+
+	/**
+	 * Returns the decoded shape from the cache.
+	 * @param  fileKey   File key
+	 * @param  segmentID Segment ID
+	 * @param  lod       Level of detail
+	 * @return           Decoded shape or<br>
+	 *                   <b>null</b> if the shape isn't cached or the cache file is invalid
+	 */
+	public DecodedShape get(String fileKey, String segmentID, int lod){
+		File file = getCacheFile(fileKey, segmentID, lod);
+		if(!file.isFile()){
+			return null;
+		}
+
+		RandomAccessFile randomAccessFile = null;
+		try {
+			randomAccessFile = new RandomAccessFile(file, "r");
+			byte[] content = new byte[(int)randomAccessFile.length()];
+			randomAccessFile.readFully(content);
+			ByteBuffer byteBuffer = ByteBuffer.wrap(content);
+			byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+			return read(byteBuffer);
+
+		} catch(Exception exception){
+			return null;
+
+		} finally {
+			close(randomAccessFile);
+		}
+	}
+
+	/**
+	 * Stores the decoded shape in the cache. The file is written to a temporary
+	 * file first and renamed afterwards, so readers never see a partial file.
+	 * @param  fileKey      File key
+	 * @param  segmentID    Segment ID
+	 * @param  lod          Level of detail
+	 * @param  decodedShape Decoded shape
+	 * @throws IOException  Thrown if the cache file couldn't be written
+	 */
+	public void put(String fileKey, String segmentID, int lod, DecodedShape decodedShape) throws IOException {
+		File file = getCacheFile(fileKey, segmentID, lod);
+		File temporaryFile = File.createTempFile(file.getName(), ".tmp", _cacheDirectory);
+
+		FileOutputStream fileOutputStream = null;
+		try {
+			ByteBuffer byteBuffer = write(decodedShape);
+			fileOutputStream = new FileOutputStream(temporaryFile);
+			FileChannel fileChannel = fileOutputStream.getChannel();
+			while(byteBuffer.hasRemaining()){
+				fileChannel.write(byteBuffer);
+			}
+			fileOutputStream.close();
+			fileOutputStream = null;
+
+			if(!temporaryFile.renameTo(file)){
+				if(!file.delete() || !temporaryFile.renameTo(file)){
+					throw new IOException("Couldn't rename cache file: " + temporaryFile);
+				}
+			}
+
+		} finally {
+			close(fileOutputStream);
+			if(temporaryFile.exists()){
+				temporaryFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cache files.
+	 */
+	public void clear(){
+		File[] files = _cacheDirectory.listFiles();
+		if(files == null){
+			return;
+		}
+		for(int i = 0; i < files.length; i++){
+			if(files[i].getName().endsWith(FILE_EXTENSION)){
+				files[i].delete();
+			}
+		}
+	}
+
+	/**
+	 * Reads a decoded shape from the given buffer.
+	 * @param  byteBuffer Buffer holding the cache file
+	 * @return            Decoded shape
+	 */
+	private static DecodedShape read(ByteBuffer byteBuffer){
+		if((byteBuffer.getInt() != MAGIC) || (byteBuffer.getInt() != VERSION)){
+			throw new IllegalStateException("Found invalid cache file!");
+		}
+
+		int type = byteBuffer.getInt();
+		int vertexCount = byteBuffer.getInt();
+		int normalCount = byteBuffer.getInt();
+		int colorCount = byteBuffer.getInt();
+		int indexCount = byteBuffer.getInt();
+		int primitiveCount = byteBuffer.getInt();
+
+		double[] vertices = readFloats(byteBuffer, vertexCount);
+		double[] normals = readFloats(byteBuffer, normalCount);
+		double[] colors = readFloats(byteBuffer, colorCount);
+		int[] indices = readInts(byteBuffer, indexCount);
+		int[] primitiveIndices = readInts(byteBuffer, primitiveCount);
+
+		return new DecodedShape(type, vertices, normals, colors, indices, primitiveIndices);
+	}
+
+	/**
+	 * Writes the given decoded shape into a new buffer.
+	 * @param  decodedShape Decoded shape
+	 * @return              Buffer, ready to be written
+	 */
+	private static ByteBuffer write(DecodedShape decodedShape){
+		int size = HEADER_SIZE;
+		size += Math.max(getLength(decodedShape.getVertices()), 0) * 4;
+		size += Math.max(getLength(decodedShape.getNormals()), 0) * 4;
+		size += Math.max(getLength(decodedShape.getColors()), 0) * 4;
+		size += Math.max(getLength(decodedShape.getIndices()), 0) * 4;
+		size += Math.max(getLength(decodedShape.getPrimitiveIndices()), 0) * 4;
+
+		ByteBuffer byteBuffer = ByteBuffer.allocate(size);
+		byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		byteBuffer.putInt(MAGIC);
+		byteBuffer.putInt(VERSION);
+		byteBuffer.putInt(decodedShape.getType());
+		byteBuffer.putInt(getLength(decodedShape.getVertices()));
+		byteBuffer.putInt(getLength(decodedShape.getNormals()));
+		byteBuffer.putInt(getLength(decodedShape.getColors()));
+		byteBuffer.putInt(getLength(decodedShape.getIndices()));
+		byteBuffer.putInt(getLength(decodedShape.getPrimitiveIndices()));
+
+		writeFloats(byteBuffer, decodedShape.getVertices());
+		writeFloats(byteBuffer, decodedShape.getNormals());
+		writeFloats(byteBuffer, decodedShape.getColors());
+		writeInts(byteBuffer, decodedShape.getIndices());
+		writeInts(byteBuffer, decodedShape.getPrimitiveIndices());
+
+		byteBuffer.flip();
+		return byteBuffer;
+	}
+
+	/**
+	 * Reads the given number of floats and widens them to doubles.
+	 * @param  byteBuffer Buffer to read from
+	 * @param  count      Number of floats or -1
+	 * @return            Read values or<br>
+	 *                    <b>null</b> if the count is -1
+	 */
+	private static double[] readFloats(ByteBuffer byteBuffer, int count){
+		if(count < 0){
+			return null;
+		}
+		double[] values = new double[count];
+		FloatBuffer floatBuffer = byteBuffer.asFloatBuffer();
+		for(int i = 0; i < count; i++){
+			values[i] = floatBuffer.get(i);
+		}
+		byteBuffer.position(byteBuffer.position() + (count * 4));
+		return values;
+	}
+
+	/**
+	 * Reads the given number of integers.
+	 * @param  byteBuffer Buffer to read from
+	 * @param  count      Number of integers or -1
+	 * @return            Read integers or<br>
+	 *                    <b>null</b> if the count is -1
+	 */
+	private static int[] readInts(ByteBuffer byteBuffer, int count){
+		if(count < 0){
+			return null;
+		}
+		int[] values = new int[count];
+		byteBuffer.asIntBuffer().get(values);
+		byteBuffer.position(byteBuffer.position() + (count * 4));
+		return values;
+	}
+
+	/**
+	 * Writes the given values as floats.
+	 * @param byteBuffer Buffer to write to
+	 * @param values     Values to write or null
+	 */
+	private static void writeFloats(ByteBuffer byteBuffer, double[] values){
+		if(values != null){
+			FloatBuffer floatBuffer = byteBuffer.asFloatBuffer();
+			for(int i = 0; i < values.length; i++){
+				floatBuffer.put(i, (float)values[i]);
+			}
+			byteBuffer.position(byteBuffer.position() + (values.length * 4));
+		}
+	}
+
+	/**
+	 * Writes the given integers.
+	 * @param byteBuffer Buffer to write to
+	 * @param values     Values to write or null
+	 */
+	private static void writeInts(ByteBuffer byteBuffer, int[] values){
+		if(values != null){
+			byteBuffer.asIntBuffer().put(values);
+			byteBuffer.position(byteBuffer.position() + (values.length * 4));
+		}
+	}
+
+	/**
+	 * Returns the length of the given array.
+	 * @param  values Array (double[] or int[]) or null
+	 * @return        Length of the array or -1
+	 */
+	private static int getLength(Object values){
+		if(values == null){
+			return -1;
+		}
+		return (values instanceof double[]) ? ((double[])values).length : ((int[])values).length;
+	}
+
+	/**
+	 * Returns the cache file of the given shape.
+	 * @param  fileKey   File key
+	 * @param  segmentID Segment ID
+	 * @param  lod       Level of detail
+	 * @return           Cache file
+	 */
+	private File getCacheFile(String fileKey, String segmentID, int lod){
+		try {
+			byte[] key = (fileKey + "|" + segmentID + "|" + lod).getBytes("UTF-8");
+			return new File(_cacheDirectory, toHexString(createDigest().digest(key)) + FILE_EXTENSION);
+		} catch(IOException exception){
+			throw new IllegalStateException(exception.getMessage());
+		}
+	}
+
+	/**
+	 * Creates the message digest, used for all keys.
+	 * @return Message digest
+	 */
+	private static MessageDigest createDigest(){
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch(Exception exception){
+			throw new IllegalStateException(exception.getMessage());
+		}
+	}
+
+	/**
+	 * Converts the given bytes into a hex string.
+	 * @param  bytes Bytes to convert
+	 * @return       Hex string
+	 */
+	private static String toHexString(byte[] bytes){
+		StringBuffer stringBuffer = new StringBuffer();
+		for(int i = 0; i < bytes.length; i++){
+			stringBuffer.append(Integer.toHexString((bytes[i] & 0xFF) | 0x100).substring(1));
+		}
+		return stringBuffer.toString();
+	}
+
+	/**
+	 * Closes the given stream and ignores all errors.
+	 * @param closeable Stream to close or null
+	 */
+	private static void close(Closeable closeable){
+		if(closeable != null){
+			try {
+				closeable.close();
+			} catch(IOException exception){
+				// Ignore
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.codec;
+
+/**
+ * Writer for code texts, the counterpart of the bit buffer used by the decoders.
+ * The bits are collected most significant bit first in 32 bit words, so the
+ * result can be handed to a CodecDriver or written as U32 words into a file.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class CodeTextWriter {
+	/** Code text words */
+	private int[] _words;
+
+	/** Number of written bits */
+	private long _bitLength;
+
+	/**
+	 * Constructor.
+	 */
+	public CodeTextWriter(){
+		_words = new int[64];
+	}
+
+	/**
+	 * Appends the lowest bits of the given value, most significant bit first.
+	 * @param value        Value to write
+	 * @param numberOfBits Number of bits to write (0 - 32)
+	 */
+	public void write(int value, int numberOfBits){
+		if((numberOfBits < 0) || (numberOfBits > 32)){
+			throw new IllegalArgumentException("Found invalid number of bits: " + numberOfBits);
+		}
+		if(numberOfBits == 0){
+			return;
+		}
+
+		if(numberOfBits < 32){
+			value &= (1 << numberOfBits) - 1;
+		}
+
+		int wordIndex = (int)(_bitLength >>> 5);
+		int freeBits = 32 - (int)(_bitLength & 31);
+		if((wordIndex + 1) >= _words.length){
+			int[] words = new int[_words.length * 2];
+			System.arraycopy(_words, 0, words, 0, _words.length);
+			_words = words;
+		}
+
+		if(numberOfBits <= freeBits){
+			_words[wordIndex] |= (int)(((long)value & 0xFFFFFFFFL) << (freeBits - numberOfBits));
+		} else {
+			int remainingBits = numberOfBits - freeBits;
+			_words[wordIndex] |= value >>> remainingBits;
+			_words[wordIndex + 1] |= value << (32 - remainingBits);
+		}
+		_bitLength += numberOfBits;
+	}
+
+	/**
+	 * Returns the number of written bits.
+	 * @return Number of written bits
+	 */
+	public long getBitLength(){
+		return _bitLength;
+	}
+
+	/**
+	 * Returns the written code text as 32 bit words. The unused bits of the last
+	 * word are "0".
+	 * @return Code text words
+	 */
+	public int[] getWords(){
+		int[] words = new int[(int)((_bitLength + 31) >>> 5)];
+		System.arraycopy(_words, 0, words, 0, words.length);
+		return words;
+	}
+
+	/**
+	 * Returns the written code text as bytes, each word in big endian order, like
+	 * the readers pass it to the CodecDriver.
+	 * @return Code text bytes
+	 */
+	public byte[] getCodeText(){
+		int[] words = getWords();
+		byte[] codeText = new byte[words.length * 4];
+		for(int i = 0; i < words.length; i++){
+			codeText[i * 4] = (byte)(words[i] >>> 24);
+			codeText[(i * 4) + 1] = (byte)(words[i] >>> 16);
+			codeText[(i * 4) + 2] = (byte)(words[i] >>> 8);
+			codeText[(i * 4) + 3] = (byte)words[i];
+		}
+		return codeText;
+	}
+}
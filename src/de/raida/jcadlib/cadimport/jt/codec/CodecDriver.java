@@ -25,7 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.codec;
 
 import java.nio.ByteBuffer;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.reader.BitBuffer;
 
@@ -59,7 +58,20 @@ public class CodecDriver {
 	private int _bitsRead;
 
 	/** Out of band values */
-	private List<Integer> _outOfBandValues;
+	private int[] _outOfBandValues;
+
+	/** Byte buffer, wrapping the code text bytes */
+	private ByteBuffer _codeTextBuffer;
+
+	/** Next code text and the number of read bits (reused by getNextCodeText()) */
+	private int[] _nextCodeText;
+
+	/**
+	 * Constructor. The driver has to be reset, before it's used.
+	 */
+	public CodecDriver(){
+		_nextCodeText = new int[2];
+	}
 
 	/**
 	 * Constructor.
@@ -70,13 +82,35 @@ public class CodecDriver {
 	 * @param int32ProbabilityContexts Probability contexts
 	 * @param outOfBandValues          Out of band values
 	 */
-	public CodecDriver(byte[] codeTextBytes, Integer codeTextLengthInBits, Integer valueElementCount, Integer symbolCount, Int32ProbabilityContexts int32ProbabilityContexts, List<Integer> outOfBandValues){
+	public CodecDriver(byte[] codeTextBytes, Integer codeTextLengthInBits, Integer valueElementCount, Integer symbolCount, Int32ProbabilityContexts int32ProbabilityContexts, int[] outOfBandValues){
+		this();
+		reset(codeTextBytes, codeTextLengthInBits, valueElementCount, symbolCount, int32ProbabilityContexts, outOfBandValues);
+	}
+
+	/**
+	 * Prepares the driver for decoding the given code text. The bit buffer is
+	 * reused and the code text bytes are only wrapped again, if they changed.
+	 * @param codeTextBytes            Bytes to decompress (may be longer than the code text)
+	 * @param codeTextLengthInBits     Bits to interpret from code text bytes 
+	 * @param valueElementCount        Value element count
+	 * @param symbolCount              Symbol count
+	 * @param int32ProbabilityContexts Probability contexts
+	 * @param outOfBandValues          Out of band values
+	 */
+	public void reset(byte[] codeTextBytes, Integer codeTextLengthInBits, Integer valueElementCount, Integer symbolCount, Int32ProbabilityContexts int32ProbabilityContexts, int[] outOfBandValues){
+		if((_codeTextBuffer == null) || (_codeTextBytes != codeTextBytes)){
+			_codeTextBuffer = ByteBuffer.wrap(codeTextBytes);
+		}
 		_codeTextBytes = codeTextBytes;
 		_codeTextLengthInBits = codeTextLengthInBits;
 		_valueElementCount = valueElementCount;
 		_symbolCount = symbolCount;
 		_int32ProbabilityContexts = int32ProbabilityContexts;
-		_bitBuffer = new BitBuffer(ByteBuffer.wrap(_codeTextBytes), _codeTextLengthInBits.intValue());
+		if(_bitBuffer == null){
+			_bitBuffer = new BitBuffer(_codeTextBuffer, _codeTextLengthInBits.intValue());
+		} else {
+			_bitBuffer.reset(_codeTextBuffer, _codeTextLengthInBits.intValue());
+		}
 		_bitsRead = 0;
 		_outOfBandValues = outOfBandValues;
 	}
@@ -95,7 +129,8 @@ public class CodecDriver {
 	}
 
 	/**
-	 * Returns the next code text and the number of read bits.
+	 * Returns the next code text and the number of read bits. The returned
+	 * array is reused by the next call.
 	 * @return Next code text and the number of read bits
 	 */
 	public int[] getNextCodeText(){
@@ -108,7 +143,9 @@ public class CodecDriver {
 		}
 
 		_bitsRead += nBits;
-		return new int[]{uCodeText, nBits};
+		_nextCodeText[0] = uCodeText;
+		_nextCodeText[1] = nBits;
+		return _nextCodeText;
 	}
 
 	/**
@@ -137,9 +174,9 @@ public class CodecDriver {
 
 	/**
 	 * Returns the out-of-band values.
-	 * @return Out-of-band values
+	 * @return Out-of-band values or null
 	 */
-	public List<Integer> getOutOfBandValues(){
+	public int[] getOutOfBandValues(){
 		return _outOfBandValues;
 	}
 
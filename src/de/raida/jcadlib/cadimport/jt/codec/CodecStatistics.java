@@ -0,0 +1,219 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.codec;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of the compressed integer vectors (Int32CDP, Int32CDP2), aggregated
+ * per decoder, codec and predictor type: number of vectors, values and
+ * out-of-band values, encoded bytes, compression ratio, size of the probability
+ * context tables and decode time. The statistics may be collected over many files.
+ * Optionally, each vector is written as CSV line to a print stream.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class CodecStatistics {
+	/** Index of the number of vectors */
+	private final static int VECTOR_COUNT = 0;
+
+	/** Index of the number of values */
+	private final static int VALUE_COUNT = 1;
+
+	/** Index of the number of out-of-band values */
+	private final static int OUT_OF_BAND_COUNT = 2;
+
+	/** Index of the number of encoded bytes */
+	private final static int ENCODED_BYTES = 3;
+
+	/** Index of the number of probability context tables */
+	private final static int CONTEXT_COUNT = 4;
+
+	/** Index of the number of probability context table entries */
+	private final static int CONTEXT_ENTRY_COUNT = 5;
+
+	/** Index of the maximum number of probability context table entries of a vector */
+	private final static int MAXIMUM_CONTEXT_ENTRY_COUNT = 6;
+
+	/** Index of the decode time in nanoseconds */
+	private final static int DECODE_TIME = 7;
+
+	/** Number of aggregated values */
+	private final static int AGGREGATE_SIZE = 8;
+
+	/** Aggregated values per "decoder codec \t predictor" */
+	private TreeMap<String, long[]> _aggregates;
+
+	/** Optional stream for the CSV lines of the vectors */
+	private PrintStream _vectorOutput;
+
+	/** Start time of the current vector */
+	private long _startTime;
+
+	/** Number of out-of-band values of the current vector */
+	private int _outOfBandCount;
+
+	/** Number of probability context tables of the current vector */
+	private int _contextCount;
+
+	/** Number of probability context table entries of the current vector */
+	private int _contextEntryCount;
+
+	/**
+	 * Constructor.
+	 */
+	public CodecStatistics(){
+		_aggregates = new TreeMap<String, long[]>();
+	}
+
+	/**
+	 * Sets the stream, which receives a CSV line per vector.
+	 * @param vectorOutput Print stream or null
+	 */
+	public void setVectorOutput(PrintStream vectorOutput){
+		_vectorOutput = vectorOutput;
+		if(_vectorOutput != null){
+			_vectorOutput.println("codec;predictor;values;outOfBandValues;encodedBytes;contexts;contextEntries;decodeNanos");
+		}
+	}
+
+	/**
+	 * Begins the decoding of a vector.
+	 */
+	public void beginVector(){
+		_outOfBandCount = 0;
+		_contextCount = 0;
+		_contextEntryCount = 0;
+		_startTime = System.nanoTime();
+	}
+
+	/**
+	 * Adds the probability context tables, read for the current vector.
+	 * @param int32ProbabilityContexts Probability context tables
+	 */
+	public void addProbabilityContexts(Int32ProbabilityContexts int32ProbabilityContexts){
+		_contextCount += int32ProbabilityContexts.getProbabilityContextCount();
+		for(int i = 0; i < int32ProbabilityContexts.getProbabilityContextCount(); i++){
+			_contextEntryCount += int32ProbabilityContexts.getProbabilityContextEntryCount(i);
+		}
+	}
+
+	/**
+	 * Adds the out-of-band values, read for the current vector.
+	 * @param outOfBandCount Number of out-of-band values
+	 */
+	public void addOutOfBandValues(int outOfBandCount){
+		_outOfBandCount += outOfBandCount;
+	}
+
+	/**
+	 * Ends the decoding of the current vector.
+	 * @param codecName     Name of the decoder and codec, e.g. "Int32CDP2 arithmetic"
+	 * @param predictorType Predictor type
+	 * @param valueCount    Number of decoded values
+	 * @param encodedBytes  Number of read bytes
+	 */
+	public void endVector(String codecName, PredictorType predictorType, int valueCount, int encodedBytes){
+		long decodeTime = System.nanoTime() - _startTime;
+
+		String key = codecName + "\t" + predictorType;
+		long[] aggregate = _aggregates.get(key);
+		if(aggregate == null){
+			aggregate = new long[AGGREGATE_SIZE];
+			_aggregates.put(key, aggregate);
+		}
+		aggregate[VECTOR_COUNT]++;
+		aggregate[VALUE_COUNT] += valueCount;
+		aggregate[OUT_OF_BAND_COUNT] += _outOfBandCount;
+		aggregate[ENCODED_BYTES] += encodedBytes;
+		aggregate[CONTEXT_COUNT] += _contextCount;
+		aggregate[CONTEXT_ENTRY_COUNT] += _contextEntryCount;
+		aggregate[MAXIMUM_CONTEXT_ENTRY_COUNT] = Math.max(aggregate[MAXIMUM_CONTEXT_ENTRY_COUNT], _contextEntryCount);
+		aggregate[DECODE_TIME] += decodeTime;
+
+		if(_vectorOutput != null){
+			_vectorOutput.println(	codecName + ";" + predictorType + ";" + valueCount + ";" + _outOfBandCount + ";" + encodedBytes + ";" +
+									_contextCount + ";" + _contextEntryCount + ";" + decodeTime);
+		}
+	}
+
+	/**
+	 * Returns the number of decoded vectors.
+	 * @return Number of decoded vectors
+	 */
+	public long getVectorCount(){
+		long vectorCount = 0;
+		for(Iterator<long[]> iterator = _aggregates.values().iterator(); iterator.hasNext();){
+			vectorCount += iterator.next()[VECTOR_COUNT];
+		}
+		return vectorCount;
+	}
+
+	/**
+	 * Returns the report of the aggregated statistics: one line per decoder, codec
+	 * and predictor type, sorted by the number of encoded bytes. The ratio is the
+	 * size of the decoded 32 bit values, divided by the encoded size.
+	 * @return Report
+	 */
+	public String toString(){
+		long totalBytes = 0;
+		long totalTime = 0;
+		TreeMap<Long, String> sortedKeys = new TreeMap<Long, String>();
+		long index = 0;
+		for(Iterator<Map.Entry<String, long[]>> iterator = _aggregates.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<String, long[]> entry = iterator.next();
+			totalBytes += entry.getValue()[ENCODED_BYTES];
+			totalTime += entry.getValue()[DECODE_TIME];
+			sortedKeys.put((-entry.getValue()[ENCODED_BYTES] * _aggregates.size()) - index++, entry.getKey());
+		}
+
+		StringBuffer report = new StringBuffer();
+		report.append(String.format(Locale.US, "%-22s %-15s %10s %12s %10s %12s %6s %7s %9s %7s %10s %9s %6s%n",
+									"Codec", "Predictor", "Vectors", "Values", "OOB", "Encoded [KB]", "Bytes", "Ratio",
+									"Ctx/vec", "Ctx max", "Time [ms]", "ns/value", "Time"));
+		for(Iterator<String> iterator = sortedKeys.values().iterator(); iterator.hasNext();){
+			String key = iterator.next();
+			String[] keyParts = key.split("\t");
+			long[] aggregate = _aggregates.get(key);
+			report.append(String.format(Locale.US, "%-22s %-15s %10d %12d %10d %12.1f %5.1f%% %7.2f %9.1f %7d %10.3f %9.1f %5.1f%%%n",
+										keyParts[0], keyParts[1],
+										aggregate[VECTOR_COUNT], aggregate[VALUE_COUNT], aggregate[OUT_OF_BAND_COUNT],
+										aggregate[ENCODED_BYTES] / 1024.0,
+										(totalBytes > 0) ? ((aggregate[ENCODED_BYTES] * 100.0) / totalBytes) : 0.0,
+										(aggregate[ENCODED_BYTES] > 0) ? ((aggregate[VALUE_COUNT] * 4.0) / aggregate[ENCODED_BYTES]) : 0.0,
+										(double)aggregate[CONTEXT_ENTRY_COUNT] / aggregate[VECTOR_COUNT], aggregate[MAXIMUM_CONTEXT_ENTRY_COUNT],
+										aggregate[DECODE_TIME] / 1e6,
+										(aggregate[VALUE_COUNT] > 0) ? ((double)aggregate[DECODE_TIME] / aggregate[VALUE_COUNT]) : 0.0,
+										(totalTime > 0) ? ((aggregate[DECODE_TIME] * 100.0) / totalTime) : 0.0));
+		}
+		report.append(String.format(Locale.US, "Total: %d vectors, %.1f KB encoded, %.3f ms decode time%n", getVectorCount(), totalBytes / 1024.0, totalTime / 1e6));
+		return report.toString();
+	}
+}
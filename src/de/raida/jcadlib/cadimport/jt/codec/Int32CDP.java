@@ -25,14 +25,15 @@
 package de.raida.jcadlib.cadimport.jt.codec;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.arithmetic.ArithmeticDecoder;
 import de.raida.jcadlib.cadimport.jt.codec.bitlength.BitlengthDecoder;
 import de.raida.jcadlib.cadimport.jt.codec.huffman.HuffmanDecoder;
+import de.raida.jcadlib.cadimport.jt.reader.DecodeEvents;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
+import de.raida.jcadlib.cadimport.jt.reader.ScratchArena;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -80,6 +81,9 @@ public class Int32CDP {
 	/** Codec type: Arithmetic-Codec */
 	private final static int CODECTYPE_ARITHMETIC = 3;
 
+	/** Names of the codecs, indexed by their codec type */
+	private final static String[] CODEC_NAMES = {"null", "bitlength", "huffman", "arithmetic"};
+
 	/**
 	 * Constructor.
 	 */
@@ -92,25 +96,32 @@ public class Int32CDP {
 	 * @return                           Decoded symbols
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	private static List<Integer> decodeBytes(WorkingContext workingContext) throws UnsupportedCodecException {
+	private static int[] decodeBytes(WorkingContext workingContext) throws UnsupportedCodecException {
 		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 
 		int codecType = Helper.readU8(byteBuffer);
 		if((codecType < 0) || (codecType > 3)){
 			throw new IllegalArgumentException("Found invalid codec type: " + codecType);
 		}
+		if(workingContext.getImportStatistics() != null){
+			workingContext.getImportStatistics().addCodec(CODEC_NAMES[codecType]);
+		}
 
 		Int32ProbabilityContexts int32ProbabilityContexts = null;
 		Integer outOfBandValueCount = null;
 		Integer codeTextLength = null;
 		Integer valueElementCount = null;
-		List<Integer> outOfBandValues = null;
+		int[] outOfBandValues = null;
 		Integer symbolCount = null;
 
 		// Huffman or arithmetic codec
 		if((codecType == CODECTYPE_HUFFMAN) || (codecType == CODECTYPE_ARITHMETIC)){
 			int32ProbabilityContexts = Int32ProbabilityContexts.read(workingContext);
 			outOfBandValueCount = Helper.readI32(byteBuffer);
+			if(workingContext.getCodecStatistics() != null){
+				workingContext.getCodecStatistics().addProbabilityContexts(int32ProbabilityContexts);
+				workingContext.getCodecStatistics().addOutOfBandValues(outOfBandValueCount);
+			}
 			if(outOfBandValueCount > 0){
 				outOfBandValues = Int32CDP.decodeBytes(workingContext);
 			}
@@ -128,89 +139,119 @@ public class Int32CDP {
 
 		// Handle "null codec"
 		if(codecType == CODECTYPE_NULL){
-			List<Integer> decodedSymbols = new ArrayList<Integer>();
-
-			int intsToRead = Helper.readI32(byteBuffer);
-            for(int i = 0; i < intsToRead; i++){
-            	decodedSymbols.add(Helper.readI32(byteBuffer));
-            }
+			int intsToRead = Math.max(Helper.readI32(byteBuffer), 0);
+			int[] decodedSymbols = new int[intsToRead];
+			for(int i = 0; i < intsToRead; i++){
+				decodedSymbols[i] = Helper.readI32(byteBuffer);
+			}
 
-            return decodedSymbols;
+			return decodedSymbols;
 		}
 
 		// Read the compressed and encoded code text
 		int intsToRead = Helper.readI32(byteBuffer);
-		byte[] codeText = new byte[intsToRead * 4];
-		for(int i = 0; i < intsToRead; i++){
-			byte[] buffer = Helper.readBytes(byteBuffer, 4);
-			if(byteBuffer.order() == ByteOrder.LITTLE_ENDIAN){
-				codeText[i * 4] = buffer[3];
-				codeText[(i * 4) + 1] = buffer[2];
-				codeText[(i * 4) + 2] = buffer[1];
-				codeText[(i * 4) + 3] = buffer[0];
-			} else {
-				codeText[i * 4] = buffer[0];
-				codeText[(i * 4) + 1] = buffer[1];
-				codeText[(i * 4) + 2] = buffer[2];
-				codeText[(i * 4) + 3] = buffer[3];
-			}
-		}
+		ScratchArena scratchArena = workingContext.getScratchArena();
+		byte[] codeText = scratchArena.borrowBytes(intsToRead * 4);
+		try {
+			Helper.readCodeText(byteBuffer, intsToRead, codeText);
 
-		CodecDriver codecDriver = new CodecDriver(codeText, codeTextLength, valueElementCount, symbolCount, int32ProbabilityContexts, outOfBandValues);
+			CodecDriver codecDriver = scratchArena.getCodecDriver();
+			codecDriver.reset(codeText, codeTextLength, valueElementCount, symbolCount, int32ProbabilityContexts, outOfBandValues);
 
-		// Decode the bytes
-		List<Integer> decodedSymbols = new ArrayList<Integer>();
-		switch(codecType){
-			case CODECTYPE_BITLENGTH:
-				decodedSymbols = BitlengthDecoder.decode(codecDriver);
-				break;
+			// Decode the symbols straight into the result
+			if(valueElementCount < 0){
+				throw new IllegalArgumentException("Found invalid value element count: " + valueElementCount);
+			}
+			int[] decodedSymbols = new int[valueElementCount];
+			int decodedSymbolCount = 0;
+			switch(codecType){
+				case CODECTYPE_BITLENGTH:
+					decodedSymbolCount = BitlengthDecoder.decode(codecDriver, decodedSymbols);
+					break;
+
+				case CODECTYPE_HUFFMAN:
+					decodedSymbolCount = HuffmanDecoder.decode(codecDriver, decodedSymbols);
+					break;
+
+				case CODECTYPE_ARITHMETIC:
+					decodedSymbolCount = ArithmeticDecoder.decode(codecDriver, decodedSymbols);
+					break;
+			}
 
-			case CODECTYPE_HUFFMAN:
-				decodedSymbols = HuffmanDecoder.decode(codecDriver);
-				break;
+			if(decodedSymbolCount != valueElementCount){
+				throw new IllegalArgumentException("Codec produced wrong number of symbols: " + decodedSymbolCount + " / " + valueElementCount);
+			}
 
-			case CODECTYPE_ARITHMETIC:
-				decodedSymbols = ArithmeticDecoder.decode(codecDriver);
-				break;
-		}
+			return decodedSymbols;
 
-		if(decodedSymbols.size() != valueElementCount){
-			throw new IllegalArgumentException("Codec produced wrong number of symbols: " + decodedSymbols.size() + " / " + valueElementCount);
+		} finally {
+			scratchArena.returnBytes(codeText);
 		}
+	}
 
-		return decodedSymbols;
+	/**
+	 * Returns the name of the codec, whose vector starts at the given position.
+	 * @param  byteBuffer Byte buffer, holding the vector
+	 * @param  position   Position of the vector
+	 * @return            Name of the codec
+	 */
+	private static String getCodecName(ByteBuffer byteBuffer, int position){
+		int codecType = byteBuffer.get(position) & 0xFF;
+		return "Int32CDP " + ((codecType < CODEC_NAMES.length) ? CODEC_NAMES[codecType] : String.valueOf(codecType));
 	}
 
 	/**
-	 * Decodes some values.
+	 * Decodes some values into an array, without boxing them.
 	 * @param  workingContext            Working context
 	 * @param  predictorType             Predictor type
 	 * @return                           Decoded values
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	public static List<Integer> readVecI32(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
-		List<Integer> decodedSymbols = decodeBytes(workingContext);
-		List<Integer> unpackedSymbols = unpackResiduals(decodedSymbols, predictorType);
-		return unpackedSymbols;
-		
+	public static int[] readVecI32Array(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
+		return readVec(workingContext, predictorType, false);
 	}
 
 	/**
-	 * Decodes some values.
+	 * Decodes some unsigned values into an array, without boxing them.
 	 * @param  workingContext            Working context
 	 * @param  predictorType             Predictor type
 	 * @return                           Decoded values
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	public static List<Integer> readVecU32(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
-		List<Integer> decodedSymbols = decodeBytes(workingContext);
-		List<Integer> unpackedList = unpackResiduals(decodedSymbols, predictorType);
+	public static int[] readVecU32Array(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
+		return readVec(workingContext, predictorType, true);
+	}
 
-		for(int i = 0; i < unpackedList.size(); i++){
-			unpackedList.set(i, (unpackedList.get(i)& 0xffff));
+	/**
+	 * Decodes some values and unpacks the residuals in place.
+	 * @param  workingContext            Working context
+	 * @param  predictorType             Predictor type
+	 * @param  unsigned                  Mask the values to 16 bits?
+	 * @return                           Decoded values
+	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
+	 */
+	private static int[] readVec(WorkingContext workingContext, PredictorType predictorType, boolean unsigned) throws UnsupportedCodecException {
+		Object event = DecodeEvents.beginVectorDecode();
+		int position = workingContext.getByteBuffer().position();
+		workingContext.beginPhase(ImportPhase.ENTROPY_DECODE);
+		if(workingContext.getCodecStatistics() != null){
+			workingContext.getCodecStatistics().beginVector();
 		}
-
-		return unpackedList;
+		int[] values = decodeBytes(workingContext);
+		unpackResiduals(values, predictorType);
+		if(unsigned){
+			for(int i = 0; i < values.length; i++){
+				values[i] &= 0xffff;
+			}
+		}
+		workingContext.endPhase(ImportPhase.ENTROPY_DECODE);
+		if(event != null){
+			DecodeEvents.commitVectorDecode(event, getCodecName(workingContext.getByteBuffer(), position), predictorType, values.length, workingContext.getByteBuffer().position() - position);
+		}
+		if(workingContext.getCodecStatistics() != null){
+			workingContext.getCodecStatistics().endVector(getCodecName(workingContext.getByteBuffer(), position), predictorType, values.length, workingContext.getByteBuffer().position() - position);
+		}
+		return values;
 	}
 
 	/**
@@ -220,49 +261,117 @@ public class Int32CDP {
 	 * @return               List of unpackages integer values
 	 */
 	public static List<Integer> unpackResiduals(List<Integer> residuals, PredictorType predictorType){
-		int iPredicted;
-		int len = residuals.size();
+		int[] values = Helper.convertToIntArray(residuals);
+		unpackResiduals(values, predictorType);
+		return Helper.convertToIntegerList(values);
+	}
+
+	/**
+	 * Unpacks the decoded symbols in place. Each predictor has its own loop, so
+	 * that the predictor type isn't dispatched per value.
+	 * @param values        Decoded symbols, replaced by the unpacked values
+	 * @param predictorType Predictor type
+	 */
+	public static void unpackResiduals(int[] values, PredictorType predictorType){
+		// The first four values are not handeled
+		int len = values.length;
+		switch(predictorType){
+			case PredLag1:
+				if(len > 4){
+					int sum = values[3];
+					for(int i = 4; i < len; i++){
+						sum += values[i];
+						values[i] = sum;
+					}
+				}
+				break;
 
-		List<Integer> indexList = new ArrayList<Integer>();
+			case PredLag2:
+				for(int i = 4; i < len; i++){
+					values[i] += values[i - 2];
+				}
+				break;
 
-		for(int i = 0; i < len; i++){
-			if(predictorType == PredictorType.PredNULL){
-				indexList.add(residuals.get(i));
+			case PredStride1:
+				for(int i = 4; i < len; i++){
+					values[i] += (values[i - 1] << 1) - values[i - 2];
+				}
+				break;
 
-			} else {
-				// The first four values are not handeled
-				if(i < 4){
-					indexList.add(residuals.get(i));
-				} else {
-					// Get a predicted value
-					iPredicted = predictValue(indexList, i, predictorType);
-	
-					// Decode the residual as the current value XOR predicted
-					if((predictorType == PredictorType.PredXor1) || (predictorType == PredictorType.PredXor2)){
-						indexList.add(residuals.get(i) ^ iPredicted);
-	
-					// Decode the residual as the current value plus predicted
-					} else {
-						indexList.add(residuals.get(i) + iPredicted);
-					}
+			case PredStride2:
+				for(int i = 4; i < len; i++){
+					values[i] += (values[i - 2] << 1) - values[i - 4];
 				}
-			}
+				break;
+
+			case PredStripIndex:
+				for(int i = 4; i < len; i++){
+					int v2 = values[i - 2];
+					int delta = v2 - values[i - 4];
+					values[i] += ((delta < 8) && (delta > -8)) ? (v2 + delta) : (v2 + 2);
+				}
+				break;
+
+			case PredRamp:
+				for(int i = 4; i < len; i++){
+					values[i] += i;
+				}
+				break;
+
+			case PredXor1:
+				for(int i = 4; i < len; i++){
+					values[i] ^= values[i - 1];
+				}
+				break;
+
+			case PredXor2:
+				for(int i = 4; i < len; i++){
+					values[i] ^= values[i - 2];
+				}
+				break;
+
+			case PredNULL:
+			default:
+				break;
 		}
+	}
 
-		return indexList;
+	/**
+	 * Packs the given values into residuals, the inverse of unpackResiduals().
+	 * @param  values        Values to pack
+	 * @param  predictorType Predictor type
+	 * @return               Residuals
+	 */
+	public static int[] packResiduals(int[] values, PredictorType predictorType){
+		int[] residuals = new int[values.length];
+		for(int i = 0; i < values.length; i++){
+			// The first four values are not handeled
+			if((predictorType == PredictorType.PredNULL) || (i < 4)){
+				residuals[i] = values[i];
+
+			// Encode the residual as the current value XOR predicted
+			} else if((predictorType == PredictorType.PredXor1) || (predictorType == PredictorType.PredXor2)){
+				residuals[i] = values[i] ^ predictValue(values, i, predictorType);
+
+			// Encode the residual as the current value minus predicted
+			} else {
+				residuals[i] = values[i] - predictValue(values, i, predictorType);
+			}
+		}
+		return residuals;
 	}
 
 	/**
-	 * Calculates the predictzion value.
-	 * @param values        Unpacked values
-	 * @param index         Index of the position for which the prediction value shall be calculated
-	 * @param predictorType Predictor type
-	 * @return              Predicted value
+	 * Calculates the prediction value from already known values.
+	 * @param  values        Known values
+	 * @param  index         Index of the position for which the prediction value shall be calculated
+	 * @param  predictorType Predictor type
+	 * @return               Predicted value
 	 */
-	private static int predictValue(List<Integer> values, int index, PredictorType predictorType){
-		int v1 = values.get(index - 1);
-		int v2 = values.get(index - 2);
-		int v4 = values.get(index - 4);
+	private static int predictValue(int[] values, int index, PredictorType predictorType){
+		int v1 = values[index - 1];
+		int v2 = values[index - 2];
+		int v4 = values[index - 4];
 
 		switch(predictorType){
 			default:
@@ -275,7 +384,7 @@ public class Int32CDP {
 				return v2;
 
 			case PredStride1:
-            	return (v1 + (v1 - v2));
+				return (v1 + (v1 - v2));
 
 			case PredStride2:
 				return (v2 + (v2 - v4));
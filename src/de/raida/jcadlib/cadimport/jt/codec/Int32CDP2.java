@@ -25,13 +25,13 @@
 package de.raida.jcadlib.cadimport.jt.codec;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.arithmetic.ArithmeticDecoder;
 import de.raida.jcadlib.cadimport.jt.codec.bitlength.BitlengthDecoder;
+import de.raida.jcadlib.cadimport.jt.reader.DecodeEvents;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
+import de.raida.jcadlib.cadimport.jt.reader.ScratchArena;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -94,6 +94,9 @@ public class Int32CDP2 {
 	/** Codec type: Chopper-Codec */
 	private final static int CODECTYPE_CHOPPER    = 4;
 
+	/** Names of the codecs, indexed by their codec type */
+	private final static String[] CODEC_NAMES = {"null", "bitlength", null, "arithmetic", "chopper"};
+
 	/**
 	 * Constructor.
 	 */
@@ -106,130 +109,208 @@ public class Int32CDP2 {
 	 * @return                           Decoded symbols
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	private static List<Integer> decodeBytes(WorkingContext workingContext) throws UnsupportedCodecException {
-		ByteBuffer byteBuffer = workingContext.getByteBuffer();
-
-		int valueCount = Helper.readI32(byteBuffer);
+	private static int[] decodeBytes(WorkingContext workingContext) throws UnsupportedCodecException {
+		int valueCount = Helper.readI32(workingContext.getByteBuffer());
 		if(valueCount <= 0){
-			return new ArrayList<Integer>();
+			return new int[0];
+		}
+
+		int[] decodedSymbols = new int[valueCount];
+		decodeValues(workingContext, valueCount, decodedSymbols);
+		return decodedSymbols;
+	}
+
+	/**
+	 * Decodes the following compressed bytes into the given array, which is
+	 * used by the chopper to decode its fields without allocating a list per field.
+	 * @param  workingContext            Working context
+	 * @param  decodedSymbols            Array to fill with the expected number of symbols
+	 * @param  expectedValueCount        Expected number of symbols
+	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
+	 */
+	private static void decodeBytes(WorkingContext workingContext, int[] decodedSymbols, int expectedValueCount) throws UnsupportedCodecException {
+		int valueCount = Math.max(Helper.readI32(workingContext.getByteBuffer()), 0);
+		if(valueCount != expectedValueCount){
+			throw new IllegalArgumentException("Codec produced wrong number of symbols: " + valueCount + " / " + expectedValueCount);
+		}
+		if(valueCount > 0){
+			decodeValues(workingContext, valueCount, decodedSymbols);
 		}
+	}
+
+	/**
+	 * Decodes the values of a packet, whose value count has already been read.
+	 * @param  workingContext            Working context
+	 * @param  valueCount                Number of values
+	 * @param  decodedSymbols            Array to fill with the decoded symbols
+	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
+	 */
+	private static void decodeValues(WorkingContext workingContext, int valueCount, int[] decodedSymbols) throws UnsupportedCodecException {
+		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 
 		int codecType = Helper.readU8(byteBuffer);
 		if((codecType != 0) && (codecType != 1) && (codecType != 3) && (codecType != 4)){
 			throw new IllegalArgumentException("Found invalid codec type: " + codecType);
 		}
+		if(workingContext.getImportStatistics() != null){
+			workingContext.getImportStatistics().addCodec(CODEC_NAMES[codecType]);
+		}
 
 		if(codecType == CODECTYPE_CHOPPER){
 			int chopBits = Helper.readU8(byteBuffer);
 			if(chopBits == 0){
-				return decodeBytes(workingContext);
+				decodeBytes(workingContext, decodedSymbols, valueCount);
 
 			} else {
 				int valueBias = Helper.readI32(byteBuffer);
 				int valueSpanBits = Helper.readU8(byteBuffer);
-				List<Integer> choppedMSBData = decodeBytes(workingContext);
-				List<Integer> choppedLSBData = decodeBytes(workingContext);
 
-				List<Integer> decodedSymbols = new ArrayList<Integer>();
-				for(int i = 0; i < choppedMSBData.size(); i++){
-					decodedSymbols.add((choppedLSBData.get(i) | (choppedMSBData.get(i) << (valueSpanBits - chopBits))) + valueBias);
+				// The MSB field is decoded straight into the result, the LSB field into
+				// a scratch array, which nested choppers borrow from the arena as well
+				decodeBytes(workingContext, decodedSymbols, valueCount);
+				ScratchArena scratchArena = workingContext.getScratchArena();
+				int[] choppedLSBData = scratchArena.borrowInts(valueCount);
+				try {
+					decodeBytes(workingContext, choppedLSBData, valueCount);
+
+					int msbShift = valueSpanBits - chopBits;
+					for(int i = 0; i < valueCount; i++){
+						decodedSymbols[i] = (choppedLSBData[i] | (decodedSymbols[i] << msbShift)) + valueBias;
+					}
+
+				} finally {
+					scratchArena.returnInts(choppedLSBData);
 				}
-				return decodedSymbols;
 			}
+			return;
 		}
 
 		// Handle "null codec"
 		if(codecType == CODECTYPE_NULL){
-			List<Integer> decodedSymbols = new ArrayList<Integer>();
-
 			int intsToRead = Helper.readI32(byteBuffer) / 4;
-            for(int i = 0; i < intsToRead; i++){
-            	decodedSymbols.add(Helper.readI32(byteBuffer));
-            }
-
-            return decodedSymbols;
+			if(intsToRead != valueCount){
+				throw new IllegalArgumentException("Codec produced wrong number of symbols: " + intsToRead + " / " + valueCount);
+			}
+			for(int i = 0; i < intsToRead; i++){
+				decodedSymbols[i] = Helper.readI32(byteBuffer);
+			}
+			return;
 		}
 
 		int codeTextLength = Helper.readI32(byteBuffer);
 		int intsToRead = (int)((codeTextLength / 32.0) + 0.99);
 
-		byte[] codeTextWords = new byte[intsToRead * 4];
-		for(int i = 0; i < intsToRead; i++){
-			byte[] buffer = Helper.readBytes(byteBuffer, 4);
-			if(byteBuffer.order() == ByteOrder.LITTLE_ENDIAN){
-				codeTextWords[i * 4] = buffer[3];
-				codeTextWords[(i * 4) + 1] = buffer[2];
-				codeTextWords[(i * 4) + 2] = buffer[1];
-				codeTextWords[(i * 4) + 3] = buffer[0];
-			} else {
-				codeTextWords[i * 4] = buffer[0];
-				codeTextWords[(i * 4) + 1] = buffer[1];
-				codeTextWords[(i * 4) + 2] = buffer[2];
-				codeTextWords[(i * 4) + 3] = buffer[3];
-			}
-		}
+		ScratchArena scratchArena = workingContext.getScratchArena();
+		byte[] codeTextWords = scratchArena.borrowBytes(intsToRead * 4);
+		try {
+			Helper.readCodeText(byteBuffer, intsToRead, codeTextWords);
 
-		Int32ProbabilityContexts int32ProbabilityContexts = null;
-		List<Integer> outOfBandValues = null;
+			Int32ProbabilityContexts int32ProbabilityContexts = null;
+			int[] outOfBandValues = null;
 
-		if(codecType == CODECTYPE_ARITHMETIC){
-			int32ProbabilityContexts = Int32ProbabilityContexts.read(workingContext);
-			outOfBandValues = Int32CDP2.decodeBytes(workingContext);
-			if((codeTextLength == 0) && (outOfBandValues.size() == valueCount)){
-				return outOfBandValues;
+			if(codecType == CODECTYPE_ARITHMETIC){
+				int32ProbabilityContexts = Int32ProbabilityContexts.read(workingContext);
+				int[] outOfBandData = Int32CDP2.decodeBytes(workingContext);
+				if(workingContext.getCodecStatistics() != null){
+					workingContext.getCodecStatistics().addProbabilityContexts(int32ProbabilityContexts);
+					workingContext.getCodecStatistics().addOutOfBandValues(outOfBandData.length);
+				}
+				if((codeTextLength == 0) && (outOfBandData.length == valueCount)){
+					System.arraycopy(outOfBandData, 0, decodedSymbols, 0, valueCount);
+					return;
+				}
+				outOfBandValues = outOfBandData;
 			}
-		}
 
-		CodecDriver codecDriver = new CodecDriver(codeTextWords, codeTextLength, valueCount, null, int32ProbabilityContexts, outOfBandValues);
+			CodecDriver codecDriver = scratchArena.getCodecDriver();
+			codecDriver.reset(codeTextWords, codeTextLength, valueCount, null, int32ProbabilityContexts, outOfBandValues);
 
-		// Decode the bytes
-		List<Integer> decodedSymbols = new ArrayList<Integer>();
-		switch(codecType){
-			case CODECTYPE_BITLENGTH:
-				decodedSymbols = BitlengthDecoder.decode2(codecDriver);
-				break;
+			// Decode the symbols straight into the result
+			int symbolCount = 0;
+			switch(codecType){
+				case CODECTYPE_BITLENGTH:
+					symbolCount = BitlengthDecoder.decode2(codecDriver, decodedSymbols);
+					break;
 
-			case CODECTYPE_ARITHMETIC:
-				decodedSymbols = ArithmeticDecoder.decode(codecDriver);
-				break;
-		}
+				case CODECTYPE_ARITHMETIC:
+					symbolCount = ArithmeticDecoder.decode(codecDriver, decodedSymbols);
+					break;
+			}
 
-		if(decodedSymbols.size() != valueCount){
-			throw new IllegalArgumentException("Codec produced wrong number of symbols: " + decodedSymbols.size() + " / " + valueCount);
+			if(symbolCount != valueCount){
+				throw new IllegalArgumentException("Codec produced wrong number of symbols: " + symbolCount + " / " + valueCount);
+			}
+
+		} finally {
+			scratchArena.returnBytes(codeTextWords);
 		}
+	}
 
-		return decodedSymbols;
+	/**
+	 * Returns the name of the codec, whose vector starts at the given position.
+	 * @param  byteBuffer Byte buffer, holding the vector
+	 * @param  position   Position of the vector
+	 * @return            Name of the codec
+	 */
+	private static String getCodecName(ByteBuffer byteBuffer, int position){
+		if(byteBuffer.getInt(position) <= 0){
+			return "Int32CDP2 empty";
+		}
+		int codecType = byteBuffer.get(position + 4) & 0xFF;
+		return "Int32CDP2 " + (((codecType < CODEC_NAMES.length) && (CODEC_NAMES[codecType] != null)) ? CODEC_NAMES[codecType] : String.valueOf(codecType));
 	}
 
 	/**
-	 * Decodes some values.
+	 * Decodes some values into an array, without boxing them.
 	 * @param  workingContext            Working context
 	 * @param  predictorType             Predictor type
 	 * @return                           Decoded values
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	public static List<Integer> readVecI32(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
-		List<Integer> decodedSymbols = decodeBytes(workingContext);
-		List<Integer> unpackedSymbols = Int32CDP.unpackResiduals(decodedSymbols, predictorType);
-		return unpackedSymbols;
+	public static int[] readVecI32Array(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
+		return readVec(workingContext, predictorType, false);
 	}
 
 	/**
-	 * Decodes some values.
+	 * Decodes some unsigned values into an array, without boxing them.
 	 * @param  workingContext            Working context
 	 * @param  predictorType             Predictor type
 	 * @return                           Decoded values
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
-	public static List<Integer> readVecU32(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
-		List<Integer> decodedSymbols = decodeBytes(workingContext);
-		List<Integer> unpackedList = Int32CDP.unpackResiduals(decodedSymbols, predictorType);
+	public static int[] readVecU32Array(WorkingContext workingContext, PredictorType predictorType) throws UnsupportedCodecException {
+		return readVec(workingContext, predictorType, true);
+	}
 
-		for(int i = 0; i < unpackedList.size(); i++){
-			unpackedList.set(i, (unpackedList.get(i)& 0xffff));
+	/**
+	 * Decodes some values and unpacks the residuals in place.
+	 * @param  workingContext            Working context
+	 * @param  predictorType             Predictor type
+	 * @param  unsigned                  Mask the values to 16 bits?
+	 * @return                           Decoded values
+	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
+	 */
+	private static int[] readVec(WorkingContext workingContext, PredictorType predictorType, boolean unsigned) throws UnsupportedCodecException {
+		Object event = DecodeEvents.beginVectorDecode();
+		int position = workingContext.getByteBuffer().position();
+		workingContext.beginPhase(ImportPhase.ENTROPY_DECODE);
+		if(workingContext.getCodecStatistics() != null){
+			workingContext.getCodecStatistics().beginVector();
 		}
-
-		return unpackedList;
+		int[] values = decodeBytes(workingContext);
+		Int32CDP.unpackResiduals(values, predictorType);
+		if(unsigned){
+			for(int i = 0; i < values.length; i++){
+				values[i] &= 0xffff;
+			}
+		}
+		workingContext.endPhase(ImportPhase.ENTROPY_DECODE);
+		if(event != null){
+			DecodeEvents.commitVectorDecode(event, getCodecName(workingContext.getByteBuffer(), position), predictorType, values.length, workingContext.getByteBuffer().position() - position);
+		}
+		if(workingContext.getCodecStatistics() != null){
+			workingContext.getCodecStatistics().endVector(getCodecName(workingContext.getByteBuffer(), position), predictorType, values.length, workingContext.getByteBuffer().position() - position);
+		}
+		return values;
 	}
-
 }
@@ -30,6 +30,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.codec.arithmetic.AccumulatedProbabilityCounts;
+import de.raida.jcadlib.cadimport.jt.codec.huffman.HuffTreeNode;
+import de.raida.jcadlib.cadimport.jt.codec.huffman.HuffmanDecoder;
 import de.raida.jcadlib.cadimport.jt.reader.BitBuffer;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
@@ -44,6 +47,8 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  * most frequently occurring values. It is central to the operation of the
  * arithmetic CODEC, and gives all the information necessary to reconstruct the
  * Huffman codes for the Huffman CODEC.
+ * <br>Parsed tables are cached by their raw bytes (see ProbabilityContextCache) and
+ * compile their decoding structures on first use, so they must not be modified.
  * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @version 1.0
@@ -52,6 +57,12 @@ public class Int32ProbabilityContexts {
 	/** List of Int32ProbabilityContextTableEntry objects */
 	private ArrayList<Int32ProbabilityContextTableEntry>[] _int32ProbabilityContextTableEntries;
 
+	/** Compiled accumulated counts for the arithmetic codec or null, if not compiled yet */
+	private volatile AccumulatedProbabilityCounts _accumulatedProbabilityCounts;
+
+	/** Compiled Huffman trees (one per context) or null, if not compiled yet */
+	private volatile ArrayList<HuffTreeNode> _huffmanRootNodes;
+
 	/**
 	 * Constructor.
 	 * @param int32ProbabilityContextTableEntries List of Int32ProbabilityContextTableEntry objects
@@ -111,12 +122,113 @@ public class Int32ProbabilityContexts {
 	}
 
 	/**
-	 * Reads a Int32ProbabilityContexts object.
+	 * Returns the accumulated counts for the arithmetic codec, which are compiled
+	 * on the first call.
+	 * @return Accumulated probability counts
+	 */
+	public AccumulatedProbabilityCounts getAccumulatedProbabilityCounts(){
+		AccumulatedProbabilityCounts accumulatedProbabilityCounts = _accumulatedProbabilityCounts;
+		if(accumulatedProbabilityCounts == null){
+			accumulatedProbabilityCounts = new AccumulatedProbabilityCounts(this);
+			_accumulatedProbabilityCounts = accumulatedProbabilityCounts;
+		}
+		return accumulatedProbabilityCounts;
+	}
+
+	/**
+	 * Returns the Huffman trees (one per context), which are built on the first call.
+	 * @return Root nodes of the Huffman trees
+	 */
+	public ArrayList<HuffTreeNode> getHuffmanRootNodes(){
+		ArrayList<HuffTreeNode> huffmanRootNodes = _huffmanRootNodes;
+		if(huffmanRootNodes == null){
+			huffmanRootNodes = HuffmanDecoder.buildHuffmanTrees(this);
+			_huffmanRootNodes = huffmanRootNodes;
+		}
+		return huffmanRootNodes;
+	}
+
+	/**
+	 * Reads a Int32ProbabilityContexts object. Tables with the same raw bytes as
+	 * a previously read one are taken from the shared ProbabilityContextCache,
+	 * unless the cache is disabled.
 	 * @param  workingContext Working context
 	 * @return                Int32ProbabilityContexts instance
 	 */
-	@SuppressWarnings("unchecked")
 	public static Int32ProbabilityContexts read(WorkingContext workingContext){
+		ProbabilityContextCache probabilityContextCache = ProbabilityContextCache.getSharedInstance();
+		if(!probabilityContextCache.isEnabled()){
+			return readTables(workingContext);
+		}
+
+		ByteBuffer byteBuffer = workingContext.getByteBuffer();
+		int position = byteBuffer.position();
+		int length = getByteLength(byteBuffer, workingContext.getJTFileVersion());
+		String key = ProbabilityContextCache.createKey(byteBuffer, position, length, workingContext.getJTFileVersion());
+		Int32ProbabilityContexts int32ProbabilityContexts = probabilityContextCache.get(key);
+		if(int32ProbabilityContexts != null){
+			JTImporter.updateProgress(length);
+			byteBuffer.position(position + length);
+			return int32ProbabilityContexts;
+		}
+
+		int32ProbabilityContexts = readTables(workingContext);
+		if((byteBuffer.position() - position) != length){
+			throw new IllegalStateException("Probability context length mismatch: " + (byteBuffer.position() - position) + " / " + length);
+		}
+		probabilityContextCache.put(key, int32ProbabilityContexts);
+		return int32ProbabilityContexts;
+	}
+
+	/**
+	 * Returns the length of the tables at the current position of the byte buffer,
+	 * by reading only the headers of the tables. The position isn't changed.
+	 * @param  byteBuffer    Byte buffer to read from
+	 * @param  jtFileVersion Version of the JT file
+	 * @return               Length of the tables in bytes
+	 */
+	private static int getByteLength(ByteBuffer byteBuffer, float jtFileVersion){
+		int position = byteBuffer.position();
+		BitBuffer bitBuffer = new BitBuffer(byteBuffer);
+		bitBuffer.setByteOrder(ByteOrder.BIG_ENDIAN);
+
+		if(jtFileVersion < 9.0){
+			int probabilityContextTableCount = byteBuffer.get(position) & 0xFF;
+			if((probabilityContextTableCount != 1) && (probabilityContextTableCount != 2)){
+				throw new IllegalArgumentException("Found invalid table count: " + probabilityContextTableCount);
+			}
+
+			bitBuffer.setPosition((long)(position + 1) << 3);
+			for(int i = 0; i < probabilityContextTableCount; i++){
+				long probabilityContextTableEntryCount = Helper.convertSignedIntToUnsigned(bitBuffer.readAsUnsignedInt(32));
+				int entryBits = 0;
+				if(i == 0){
+					entryBits += bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6);
+					bitBuffer.readAsUnsignedInt(32);
+				} else {
+					entryBits += bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6);
+				}
+				bitBuffer.setPosition(bitBuffer.getPosition() + (probabilityContextTableEntryCount * entryBits));
+			}
+
+		} else {
+			bitBuffer.setPosition((long)position << 3);
+			int probabilityContextTableEntryCount = bitBuffer.readAsUnsignedInt(16);
+			int entryBits = bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6) + bitBuffer.readAsUnsignedInt(6);
+			bitBuffer.readAsUnsignedInt(32);
+			bitBuffer.setPosition(bitBuffer.getPosition() + ((long)probabilityContextTableEntryCount * entryBits));
+		}
+
+		return (int)(((bitBuffer.getPosition() + 7) >> 3) - position);
+	}
+
+	/**
+	 * Parses the tables of a Int32ProbabilityContexts object.
+	 * @param  workingContext Working context
+	 * @return                Int32ProbabilityContexts instance
+	 */
+	@SuppressWarnings("unchecked")
+	private static Int32ProbabilityContexts readTables(WorkingContext workingContext){
 		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 
 		if(workingContext.getJTFileVersion() < 9.0){
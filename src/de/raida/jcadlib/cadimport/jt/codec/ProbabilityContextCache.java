@@ -0,0 +1,269 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.codec;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * In-memory cache for probability context tables, shared by all importers. JT
+ * files often repeat identical tables from vector to vector and shape to shape,
+ * so the tables are identified by their raw bytes and parsed only once. The
+ * cached tables also keep their compiled decoding structures (accumulated counts,
+ * Huffman trees). The size of the cache is limited by an estimation of the bytes,
+ * held by the keys and the tables. The least recently used tables are evicted, as
+ * soon as the maximum byte size is exceeded. A maximum byte size of 0 disables the
+ * cache. All methods are synchronized, so the cache can be used by concurrent
+ * imports.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ProbabilityContextCache {
+	/** Default maximum byte size of the shared instance (8 MB) */
+	public final static long DEFAULT_MAXIMUM_BYTE_SIZE = 8L * 1024L * 1024L;
+
+	/** Estimated bytes of a cache entry, without the key characters and the tables */
+	private final static int ENTRY_OVERHEAD_BYTES = 96;
+
+	/** Estimated bytes of a table entry, including its share of the compiled structures */
+	private final static int TABLE_ENTRY_BYTES = 64;
+
+	/** Estimated bytes of the compiled lookup table of one context (at most 4096 ints) */
+	private final static int LOOKUP_TABLE_BYTES = 4096 * 4;
+
+	/** Shared instance */
+	private static ProbabilityContextCache _sharedInstance;
+
+	/** Cached tables in access order: raw bytes -> tables */
+	private LinkedHashMap<String, Int32ProbabilityContexts> _entries;
+
+	/** Estimated byte sizes of the cached tables: raw bytes -> byte size */
+	private HashMap<String, Long> _byteSizes;
+
+	/** Maximum byte size */
+	private long _maximumByteSize;
+
+	/** Estimated byte size of all cached tables */
+	private long _byteSize;
+
+	/** Number of cache hits */
+	private long _hitCount;
+
+	/** Number of cache misses */
+	private long _missCount;
+
+	/**
+	 * Constructor.
+	 * @param maximumByteSize Maximum byte size (0 disables the cache)
+	 */
+	public ProbabilityContextCache(long maximumByteSize){
+		if(maximumByteSize < 0){
+			throw new IllegalArgumentException("Found invalid maximum byte size: " + maximumByteSize);
+		}
+		_entries = new LinkedHashMap<String, Int32ProbabilityContexts>(16, 0.75f, true);
+		_byteSizes = new HashMap<String, Long>();
+		_maximumByteSize = maximumByteSize;
+	}
+
+	/**
+	 * Returns the cache, shared by the whole process.
+	 * @return Shared probability context cache
+	 */
+	public static synchronized ProbabilityContextCache getSharedInstance(){
+		if(_sharedInstance == null){
+			_sharedInstance = new ProbabilityContextCache(DEFAULT_MAXIMUM_BYTE_SIZE);
+		}
+		return _sharedInstance;
+	}
+
+	/**
+	 * Creates the key of the tables, stored at the given position. The key holds
+	 * the raw bytes, so its hash code is the hash of the raw bits.
+	 * @param  byteBuffer    Byte buffer, holding the tables
+	 * @param  position      Position of the tables
+	 * @param  length        Length of the tables in bytes
+	 * @param  jtFileVersion Version of the JT file (the layout of the tables differs)
+	 * @return               Key of the tables
+	 */
+	public static String createKey(ByteBuffer byteBuffer, int position, int length, float jtFileVersion){
+		char[] key = new char[length + 1];
+		key[0] = (jtFileVersion < 9.0) ? '8' : '9';
+		for(int i = 0; i < length; i++){
+			key[i + 1] = (char)(byteBuffer.get(position + i) & 0xFF);
+		}
+		return new String(key);
+	}
+
+	/**
+	 * Returns whether the cache is enabled, i.e. the maximum byte size is greater
+	 * than 0. Callers may skip creating the key, if the cache is disabled.
+	 * @return Is the cache enabled?
+	 */
+	public synchronized boolean isEnabled(){
+		return (_maximumByteSize > 0);
+	}
+
+	/**
+	 * Returns the cached tables.
+	 * @param  key Key of the tables
+	 * @return     Cached tables or<br>
+	 *             <b>null</b> if the tables aren't cached
+	 */
+	public synchronized Int32ProbabilityContexts get(String key){
+		Int32ProbabilityContexts int32ProbabilityContexts = _entries.get(key);
+		if(int32ProbabilityContexts == null){
+			_missCount++;
+		} else {
+			_hitCount++;
+		}
+		return int32ProbabilityContexts;
+	}
+
+	/**
+	 * Adds the given tables to the cache and evicts the least recently used tables,
+	 * until the maximum byte size is kept. Tables, which alone exceed the maximum
+	 * byte size, aren't cached.
+	 * @param key                      Key of the tables
+	 * @param int32ProbabilityContexts Parsed tables
+	 */
+	public synchronized void put(String key, Int32ProbabilityContexts int32ProbabilityContexts){
+		long byteSize = estimateByteSize(key, int32ProbabilityContexts);
+		if(byteSize > _maximumByteSize){
+			return;
+		}
+		remove(key);
+		_entries.put(key, int32ProbabilityContexts);
+		_byteSizes.put(key, byteSize);
+		_byteSize += byteSize;
+		evict();
+	}
+
+	/**
+	 * Sets the maximum byte size and evicts the least recently used tables, until
+	 * the new maximum byte size is kept.
+	 * @param maximumByteSize Maximum byte size (0 disables the cache)
+	 */
+	public synchronized void setMaximumByteSize(long maximumByteSize){
+		if(maximumByteSize < 0){
+			throw new IllegalArgumentException("Found invalid maximum byte size: " + maximumByteSize);
+		}
+		_maximumByteSize = maximumByteSize;
+		evict();
+	}
+
+	/**
+	 * Returns the maximum byte size.
+	 * @return Maximum byte size
+	 */
+	public synchronized long getMaximumByteSize(){
+		return _maximumByteSize;
+	}
+
+	/**
+	 * Returns the estimated byte size of all cached tables.
+	 * @return Estimated byte size of all cached tables
+	 */
+	public synchronized long getByteSize(){
+		return _byteSize;
+	}
+
+	/**
+	 * Removes all tables and resets the statistics.
+	 */
+	public synchronized void clear(){
+		_entries.clear();
+		_byteSizes.clear();
+		_byteSize = 0;
+		_hitCount = 0;
+		_missCount = 0;
+	}
+
+	/**
+	 * Returns the number of cached tables.
+	 * @return Number of cached tables
+	 */
+	public synchronized int getEntryCount(){
+		return _entries.size();
+	}
+
+	/**
+	 * Returns the number of cache hits.
+	 * @return Number of cache hits
+	 */
+	public synchronized long getHitCount(){
+		return _hitCount;
+	}
+
+	/**
+	 * Returns the number of cache misses.
+	 * @return Number of cache misses
+	 */
+	public synchronized long getMissCount(){
+		return _missCount;
+	}
+
+	/**
+	 * Evicts the least recently used tables, until the maximum byte size is kept.
+	 */
+	private void evict(){
+		Iterator<String> iterator = _entries.keySet().iterator();
+		while((_byteSize > _maximumByteSize) && iterator.hasNext()){
+			String key = iterator.next();
+			_byteSize -= _byteSizes.remove(key);
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Removes the tables with the given key, if they are cached.
+	 * @param key Key of the tables
+	 */
+	private void remove(String key){
+		Long byteSize = _byteSizes.remove(key);
+		if(byteSize != null){
+			_entries.remove(key);
+			_byteSize -= byteSize;
+		}
+	}
+
+	/**
+	 * Estimates the bytes, held by the given key and tables. The key stores one
+	 * char (2 bytes) per raw byte. The compiled lookup tables are counted with
+	 * their maximum size, as they are built lazily after the tables are cached.
+	 * @param  key                      Key of the tables
+	 * @param  int32ProbabilityContexts Parsed tables
+	 * @return                          Estimated byte size
+	 */
+	private static long estimateByteSize(String key, Int32ProbabilityContexts int32ProbabilityContexts){
+		long byteSize = ENTRY_OVERHEAD_BYTES + (2L * key.length());
+		for(int i = 0; i < int32ProbabilityContexts.getProbabilityContextCount(); i++){
+			byteSize += LOOKUP_TABLE_BYTES + ((long)TABLE_ENTRY_BYTES * int32ProbabilityContexts.getProbabilityContextEntryCount(i));
+		}
+		return byteSize;
+	}
+}
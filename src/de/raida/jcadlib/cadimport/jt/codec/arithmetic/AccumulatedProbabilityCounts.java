@@ -24,46 +24,87 @@
 
 package de.raida.jcadlib.cadimport.jt.codec.arithmetic;
 
-import java.util.ArrayList;
-import java.util.TreeMap;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContextTableEntry;
 import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContexts;
 
 /**
- * Accumulated probabilities.
+ * Accumulated probabilities, compiled once per probability context table into
+ * arrays of accumulated counts and, for small totals, a direct lookup table from
+ * the rescaled code to the table entry.
  * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @version 1.0
  */
 public class AccumulatedProbabilityCounts {
-	/** Probability contexts */
-	private Int32ProbabilityContexts _int32ProbabilityContexts;
+	/** Maximum total symbol count of a context, for which a lookup table is created */
+	private final static int MAXIMUM_LOOKUP_SIZE = 4096;
+
+	/** Total symbol counts per context */
+	private final int[] _symbolsCounts;
 
-	/** Symbols counts */
-	private ArrayList<Integer> _symbolsCounts;
+	/** Strictly increasing accumulated occurrence counts per context */
+	private final int[][] _accumulatedCounts;
 
-	/** Accumulated occurence counts */
-	private ArrayList<TreeMap<Integer, Integer>> _entryByAccumCountPerContext;
+	/** Table entries, belonging to the accumulated counts, per context */
+	private final Int32ProbabilityContextTableEntry[][] _entries;
+
+	/** Index in the accumulated counts by rescaled code per context or null, if the total is too big */
+	private final int[][] _lookupTables;
 
 	/**
 	 * Constructor.
 	 * @param int32ProbabilityContexts Probability contexts
 	 */
 	public AccumulatedProbabilityCounts(Int32ProbabilityContexts int32ProbabilityContexts){
-		_int32ProbabilityContexts = int32ProbabilityContexts;
-		_symbolsCounts = new ArrayList<Integer>();
-		_entryByAccumCountPerContext = new ArrayList<TreeMap<Integer,Integer>>();
+		int contextCount = int32ProbabilityContexts.getProbabilityContextCount();
+		_symbolsCounts = new int[contextCount];
+		_accumulatedCounts = new int[contextCount][];
+		_entries = new Int32ProbabilityContextTableEntry[contextCount][];
+		_lookupTables = new int[contextCount][];
+
+		for(int i = 0 ; i < contextCount; i++){
+			int entryCount = int32ProbabilityContexts.getProbabilityContextEntryCount(i);
+			int[] accumulatedCounts = new int[entryCount];
+			Int32ProbabilityContextTableEntry[] entries = new Int32ProbabilityContextTableEntry[entryCount];
 
-		for(int i = 0 ; i < _int32ProbabilityContexts.getProbabilityContextCount(); i++){
+			// Entries without occurrences share the accumulated count of their
+			// predecessor, the last of them is the one to use
 			int accumulatedCount = 0;
-			_entryByAccumCountPerContext.add(new TreeMap<Integer, Integer>());
-			for(int j = 0 ; j < _int32ProbabilityContexts.getProbabilityContextEntryCount(i); j++){
-				Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = _int32ProbabilityContexts.getProbabilityContextEntry(i, j);
+			int count = 0;
+			for(int j = 0 ; j < entryCount; j++){
+				Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = int32ProbabilityContexts.getProbabilityContextEntry(i, j);
 				accumulatedCount += int32ProbabilityContextTableEntry.getOccurrenceCount();
-				_entryByAccumCountPerContext.get(i).put((accumulatedCount - 1), j);
+				if((count > 0) && (accumulatedCounts[count - 1] == accumulatedCount)){
+					entries[count - 1] = int32ProbabilityContextTableEntry;
+				} else {
+					accumulatedCounts[count] = accumulatedCount;
+					entries[count] = int32ProbabilityContextTableEntry;
+					count++;
+				}
 			}
-			_symbolsCounts.add(accumulatedCount);
+
+			if(count < entryCount){
+				int[] trimmedCounts = new int[count];
+				Int32ProbabilityContextTableEntry[] trimmedEntries = new Int32ProbabilityContextTableEntry[count];
+				System.arraycopy(accumulatedCounts, 0, trimmedCounts, 0, count);
+				System.arraycopy(entries, 0, trimmedEntries, 0, count);
+				accumulatedCounts = trimmedCounts;
+				entries = trimmedEntries;
+			}
+
+			if((accumulatedCount > 0) && (accumulatedCount <= MAXIMUM_LOOKUP_SIZE)){
+				int[] lookupTable = new int[accumulatedCount];
+				for(int k = 0, code = 0; k < count; k++){
+					for(; code < accumulatedCounts[k]; code++){
+						lookupTable[code] = k;
+					}
+				}
+				_lookupTables[i] = lookupTable;
+			}
+
+			_symbolsCounts[i] = accumulatedCount;
+			_accumulatedCounts[i] = accumulatedCounts;
+			_entries[i] = entries;
 		}
 	}
 
@@ -75,16 +116,35 @@ public class AccumulatedProbabilityCounts {
 	 * @return                Matching probability context table entry
 	 */
 	public Int32ProbabilityContextTableEntry getEntryAndSymbolRangeByRescaledCode(int contextIndex, int rescaledCode, int[] newSymbolRange){
-		TreeMap<Integer, Integer> treeMap = _entryByAccumCountPerContext.get(contextIndex);
-		
-		int key = treeMap.higherKey(rescaledCode - 1);
-		int value = _entryByAccumCountPerContext.get(contextIndex).get(key);
+		int[] accumulatedCounts = _accumulatedCounts[contextIndex];
+		int[] lookupTable = _lookupTables[contextIndex];
+
+		// Find the first accumulated count, which is greater than the code
+		int index;
+		if((lookupTable != null) && (rescaledCode >= 0) && (rescaledCode < lookupTable.length)){
+			index = lookupTable[rescaledCode];
+		} else {
+			int low = 0;
+			int high = accumulatedCounts.length;
+			while(low < high){
+				int middle = (low + high) >>> 1;
+				if(accumulatedCounts[middle] > rescaledCode){
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			if(low == accumulatedCounts.length){
+				throw new IllegalArgumentException("Found invalid rescaled code: " + rescaledCode + " / " + _symbolsCounts[contextIndex]);
+			}
+			index = low;
+		}
 
-		Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = _int32ProbabilityContexts.getProbabilityContextEntry(contextIndex, value);
+		Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = _entries[contextIndex][index];
 
-		newSymbolRange[0] = (key + 1 - int32ProbabilityContextTableEntry.getOccurrenceCount());
-		newSymbolRange[1] = key + 1;
-		newSymbolRange[2] = _symbolsCounts.get(contextIndex);
+		newSymbolRange[0] = accumulatedCounts[index] - int32ProbabilityContextTableEntry.getOccurrenceCount();
+		newSymbolRange[1] = accumulatedCounts[index];
+		newSymbolRange[2] = _symbolsCounts[contextIndex];
 
 		return int32ProbabilityContextTableEntry;
 	}
@@ -95,6 +155,6 @@ public class AccumulatedProbabilityCounts {
 	 * @return              Total symbol count of the given context
 	 */
 	public int getTotalSymbolCount(int contextIndex){
-		return _symbolsCounts.get(contextIndex);
+		return _symbolsCounts[contextIndex];
 	}
 }
@@ -0,0 +1,214 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.codec.arithmetic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.raida.jcadlib.cadimport.jt.codec.CodeTextWriter;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContextTableEntry;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContexts;
+
+/**
+ * Class for encoding values with the arithmetic codec. It writes exactly the code
+ * texts, which are expected by ArithmeticDecoder.decode(). Only the first probability
+ * context is used, values without an own entry are replaced by the 'escape' symbol
+ * and returned as 'out-of-band' values.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ArithmeticEncoder {
+	/** Symbol of the 'escape' entry */
+	public final static int ESCAPE_SYMBOL = -2;
+
+	/** Maximum sum of all occurrence counts, so that each symbol keeps a range in the 16 bit coder */
+	public final static int MAXIMUM_TOTAL_COUNT = 0x3fff;
+
+	/**
+	 * Creates a probability context with the most frequent values. If there are more
+	 * different values than entries, the remaining values are covered by an 'escape' entry.
+	 * @param  values            Values to encode
+	 * @param  maximumEntryCount Maximum number of entries (at least 2)
+	 * @return                   Probability contexts with a single table
+	 */
+	@SuppressWarnings("unchecked")
+	public static Int32ProbabilityContexts createProbabilityContexts(int[] values, int maximumEntryCount){
+		if(maximumEntryCount < 2){
+			throw new IllegalArgumentException("Found invalid maximum number of entries: " + maximumEntryCount);
+		}
+
+		// Count the occurrences of each value
+		HashMap<Integer, int[]> occurrenceCounts = new HashMap<Integer, int[]>();
+		for(int i = 0; i < values.length; i++){
+			int[] occurrenceCount = occurrenceCounts.get(values[i]);
+			if(occurrenceCount == null){
+				occurrenceCounts.put(values[i], new int[]{1});
+			} else {
+				occurrenceCount[0]++;
+			}
+		}
+
+		List<Map.Entry<Integer, int[]>> sortedCounts = new ArrayList<Map.Entry<Integer, int[]>>(occurrenceCounts.entrySet());
+		Collections.sort(sortedCounts, new Comparator<Map.Entry<Integer, int[]>>(){
+			/**
+			 * Compares two counted values: most frequent first, then by value.
+			 * @param  entry1 First counted value
+			 * @param  entry2 Second counted value
+			 * @return        Comparison result
+			 */
+			public int compare(Map.Entry<Integer, int[]> entry1, Map.Entry<Integer, int[]> entry2){
+				if(entry1.getValue()[0] != entry2.getValue()[0]){
+					return (entry1.getValue()[0] > entry2.getValue()[0]) ? -1 : 1;
+				}
+				return entry1.getKey().compareTo(entry2.getKey());
+			}
+		});
+
+		// Keep the most frequent values, all others are escaped
+		int valueEntryCount = sortedCounts.size();
+		long escapeCount = 0;
+		if(valueEntryCount > maximumEntryCount){
+			valueEntryCount = maximumEntryCount - 1;
+			for(int i = valueEntryCount; i < sortedCounts.size(); i++){
+				escapeCount += sortedCounts.get(i).getValue()[0];
+			}
+		}
+
+		// Scale the occurrence counts down to the precision of the coder
+		int entryCount = valueEntryCount + ((escapeCount > 0) ? 1 : 0);
+		double scale = Math.min(1.0, (MAXIMUM_TOTAL_COUNT - entryCount) / (double)Math.max(1, values.length));
+		int minimumValue = Integer.MAX_VALUE;
+		for(int i = 0; i < valueEntryCount; i++){
+			minimumValue = Math.min(minimumValue, sortedCounts.get(i).getKey());
+		}
+		if(minimumValue == Integer.MAX_VALUE){
+			minimumValue = 0;
+		}
+
+		ArrayList<Int32ProbabilityContextTableEntry>[] int32ProbabilityContextTableEntries = (ArrayList<Int32ProbabilityContextTableEntry>[])new ArrayList<?>[1];
+		int32ProbabilityContextTableEntries[0] = new ArrayList<Int32ProbabilityContextTableEntry>();
+		if(escapeCount > 0){
+			int32ProbabilityContextTableEntries[0].add(new Int32ProbabilityContextTableEntry(ESCAPE_SYMBOL, Math.max(1, (int)(escapeCount * scale)), minimumValue, 0));
+		}
+		for(int i = 0; i < valueEntryCount; i++){
+			Map.Entry<Integer, int[]> entry = sortedCounts.get(i);
+			int32ProbabilityContextTableEntries[0].add(new Int32ProbabilityContextTableEntry(i, Math.max(1, (int)(entry.getValue()[0] * scale)), entry.getKey(), 0));
+		}
+
+		return new Int32ProbabilityContexts(int32ProbabilityContextTableEntries);
+	}
+
+	/**
+	 * Encodes the given values by the arithmetic algorithm, using the first
+	 * probability context.
+	 * @param  values                   Values to encode
+	 * @param  int32ProbabilityContexts Probability contexts
+	 * @param  codeTextWriter           Writer for the code text
+	 * @return                          'Out-Of-Band' values
+	 */
+	public static List<Integer> encode(int[] values, Int32ProbabilityContexts int32ProbabilityContexts, CodeTextWriter codeTextWriter){
+		// Accumulate the occurrence counts
+		int entryCount = int32ProbabilityContexts.getProbabilityContextEntryCount(0);
+		int[] lowCounts = new int[entryCount];
+		int[] highCounts = new int[entryCount];
+		int escapeIndex = -1;
+		HashMap<Integer, Integer> entryIndices = new HashMap<Integer, Integer>();
+		int totalCount = 0;
+		for(int i = 0; i < entryCount; i++){
+			Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = int32ProbabilityContexts.getProbabilityContextEntry(0, i);
+			lowCounts[i] = totalCount;
+			totalCount += int32ProbabilityContextTableEntry.getOccurrenceCount();
+			highCounts[i] = totalCount;
+
+			if(int32ProbabilityContextTableEntry.getSymbol() == ESCAPE_SYMBOL){
+				escapeIndex = i;
+			} else {
+				entryIndices.put(int32ProbabilityContextTableEntry.getAssociatedValue(), i);
+			}
+		}
+
+		if((totalCount <= 0) || (totalCount > MAXIMUM_TOTAL_COUNT)){
+			throw new IllegalArgumentException("Found invalid total occurrence count: " + totalCount);
+		}
+
+		List<Integer> outOfBandValues = new ArrayList<Integer>();
+		int low = 0x0000;
+		int high = 0xffff;
+		int underflowBits = 0;
+
+		for(int i = 0; i < values.length; i++){
+			Integer entryIndex = entryIndices.get(values[i]);
+			if(entryIndex == null){
+				if(escapeIndex == -1){
+					throw new IllegalArgumentException("Value isn't part of the probability context: " + values[i]);
+				}
+				entryIndex = escapeIndex;
+				outOfBandValues.add(values[i]);
+			}
+
+			int range = high - low + 1;
+			high = low + ((range * highCounts[entryIndex]) / totalCount - 1);
+			low  = low + ((range * lowCounts[entryIndex]) / totalCount);
+
+			for(;;){
+				if(((high ^ low) & 0x8000) == 0){
+					// Shift out the most significant bit and the pending underflow bits
+					int bit = (high >> 15) & 1;
+					codeTextWriter.write(bit, 1);
+					for(; underflowBits > 0; underflowBits--){
+						codeTextWriter.write(bit ^ 1, 1);
+					}
+
+				} else if(((low & 0x4000) > 0) && ((high & 0x4000) == 0)){
+					underflowBits++;
+					low  &= 0x3fff;
+					high |= 0x4000;
+
+				} else {
+					// Nothing to shift out any more
+					break;
+				}
+
+				low  = (low << 1) & 0xffff;
+				high = ((high << 1) | 1) & 0xffff;
+			}
+		}
+
+		// Flush the bits, which select a code inside the final range
+		underflowBits++;
+		int bit = (low >> 14) & 1;
+		codeTextWriter.write(bit, 1);
+		for(; underflowBits > 0; underflowBits--){
+			codeTextWriter.write(bit ^ 1, 1);
+		}
+
+		return outOfBandValues;
+	}
+}
@@ -24,9 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.codec.bitlength;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.CodecDriver;
 import de.raida.jcadlib.cadimport.jt.reader.BitBuffer;
 
@@ -38,15 +35,20 @@ import de.raida.jcadlib.cadimport.jt.reader.BitBuffer;
  */
 public class BitlengthDecoder {
 	/**
-	 * Decodes the given bytes by the bitlength algorithm.
-	 * @param  codecDriver Codec driver
-	 * @return             Decoded symbols
+	 * Decodes the given bytes by the bitlength algorithm of JT v8 into the given array.
+	 * @param  codecDriver    Codec driver
+	 * @param  decodedSymbols Array to fill with the decoded symbols
+	 * @return                Number of decoded symbols
 	 */
-	public static List<Integer> decode(CodecDriver codecDriver){
+	public static int decode(CodecDriver codecDriver, int[] decodedSymbols){
 		BitBuffer encodedBits = codecDriver.getBitBuffer();
 		int bitFieldWith = 0;
-		ArrayList<Integer> decodedSymbols = new ArrayList<Integer>();
+		int decodedSymbolCount = 0;
 		while((encodedBits.getSize() - encodedBits.getPosition()) > 0){
+			if(decodedSymbolCount == decodedSymbols.length){
+				throw new IllegalArgumentException("Codec produced too many symbols: " + (decodedSymbolCount + 1) + " / " + decodedSymbols.length);
+			}
+
 			if(encodedBits.readAsUnsignedInt(1) == 0){
 				// Decode symbol with same bit field length
 				int decodedSymbol = -1;
@@ -57,7 +59,7 @@ public class BitlengthDecoder {
                     decodedSymbol <<= (32 - bitFieldWith);
                     decodedSymbol >>= (32 - bitFieldWith);
 				}
-				decodedSymbols.add(decodedSymbol);
+				decodedSymbols[decodedSymbolCount++] = decodedSymbol;
 
 			} else {
 				// Adjust bit field length
@@ -79,23 +81,27 @@ public class BitlengthDecoder {
                     decodedSymbol <<= (32 - bitFieldWith);
                     decodedSymbol >>= (32 - bitFieldWith);
 				}
-				decodedSymbols.add(decodedSymbol);
+				decodedSymbols[decodedSymbolCount++] = decodedSymbol;
 			}
 		}
 
-		return decodedSymbols;
+		return decodedSymbolCount;
 	}
 
 	/**
-	 * Decodes the given bytes by the bitlength algorithm.
-	 * @param  codecDriver Codec driver
-	 * @return             Decoded symbols
+	 * Decodes the given bytes by the bitlength algorithm of JT v9 into the given array.
+	 * @param  codecDriver    Codec driver
+	 * @param  decodedSymbols Array to fill with the expected number of symbols
+	 * @return                Number of decoded symbols
 	 */
-	public static List<Integer> decode2(CodecDriver codecDriver){
+	public static int decode2(CodecDriver codecDriver, int[] decodedSymbols){
 		BitBuffer encodedBits = codecDriver.getBitBuffer();
-		ArrayList<Integer> decodedSymbols = new ArrayList<Integer>();
+		int decodedSymbolCount = 0;
 
 		int expectedValues = codecDriver.getValueElementCount();
+		if(expectedValues > decodedSymbols.length){
+			throw new IllegalArgumentException("Found too small symbol array: " + decodedSymbols.length + " / " + expectedValues);
+		}
 		int totalNumberOfBits = codecDriver.getCodeTextLengthInBits();
 
 		// Handle fixed width
@@ -109,10 +115,11 @@ public class BitlengthDecoder {
 			int bitFieldWith = getBitFieldWidth(maxSymbol - minSymbol);
 
 			// Read each fixed-width field and output the value
-			while((encodedBits.getPosition() < totalNumberOfBits) || (decodedSymbols.size() < expectedValues)){
-				int decodedSymbol = encodedBits.readAsUnsignedInt(bitFieldWith);
-				decodedSymbol += minSymbol;
-				decodedSymbols.add(decodedSymbol);
+			while((encodedBits.getPosition() < totalNumberOfBits) || (decodedSymbolCount < expectedValues)){
+				if(decodedSymbolCount == expectedValues){
+					throw new IllegalArgumentException("BithlengthCodec2 didn't consume all bits!");
+				}
+				decodedSymbols[decodedSymbolCount++] = encodedBits.readAsUnsignedInt(bitFieldWith) + minSymbol;
 			}
 
 		// Handle variable width
@@ -140,8 +147,11 @@ public class BitlengthDecoder {
 				cRunLen = encodedBits.readAsUnsignedInt(cBlkLenBits);
 
 				// Read in the data bits for the run
+				if((i + cRunLen) > expectedValues){
+					throw new IllegalArgumentException("BithlengthCodec2 didn't consume all bits!");
+				}
 				for(int j = i ; j < i + cRunLen ; j++){
-					decodedSymbols.add(encodedBits.readAsSignedInt(cCurFieldWidth) + iMean);
+					decodedSymbols[decodedSymbolCount++] = encodedBits.readAsSignedInt(cCurFieldWidth) + iMean;
 				}
 
 				// Advance to the end of the run
@@ -149,10 +159,10 @@ public class BitlengthDecoder {
 			}
 		}
 
-		if((encodedBits.getPosition() != totalNumberOfBits) || (decodedSymbols.size() != expectedValues)){
+		if((encodedBits.getPosition() != totalNumberOfBits) || (decodedSymbolCount != expectedValues)){
 			throw new IllegalArgumentException("BithlengthCodec2 didn't consume all bits!");
 		}
-		return decodedSymbols;
+		return decodedSymbolCount;
 	}
 
 	/**
@@ -0,0 +1,136 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.codec.bitlength;
+
+import de.raida.jcadlib.cadimport.jt.codec.CodeTextWriter;
+
+/**
+ * Class for encoding values with the bitlength codec. It writes exactly the
+ * code texts, which are expected by BitlengthDecoder.decode() (JT v8) and
+ * BitlengthDecoder.decode2() (JT v9).
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class BitlengthEncoder {
+	/**
+	 * Encodes the given values by the bitlength algorithm of JT v8. The field width
+	 * is adjusted in steps of two bits to the width, needed by each value.
+	 * @param values         Values to encode
+	 * @param codeTextWriter Writer for the code text
+	 */
+	public static void encode(int[] values, CodeTextWriter codeTextWriter){
+		int bitFieldWidth = 0;
+		for(int i = 0; i < values.length; i++){
+			int newBitFieldWidth = getSignedBitFieldWidth(values[i]);
+			newBitFieldWidth += (newBitFieldWidth & 1);
+
+			if(newBitFieldWidth == bitFieldWidth){
+				codeTextWriter.write(0, 1);
+
+			} else {
+				// Adjust bit field length: direction, repeated while the adjustment goes on
+				int adjustmentBit = (newBitFieldWidth > bitFieldWidth) ? 1 : 0;
+				int adjustmentCount = Math.abs(newBitFieldWidth - bitFieldWidth) >> 1;
+				codeTextWriter.write(1, 1);
+				codeTextWriter.write(adjustmentBit, 1);
+				for(int j = 1; j < adjustmentCount; j++){
+					codeTextWriter.write(adjustmentBit, 1);
+				}
+				codeTextWriter.write(adjustmentBit ^ 1, 1);
+				bitFieldWidth = newBitFieldWidth;
+			}
+
+			codeTextWriter.write(values[i], bitFieldWidth);
+		}
+	}
+
+	/**
+	 * Encodes the given values by the bitlength algorithm of JT v9, using fixed
+	 * width fields relative to the minimum value.
+	 * @param values         Values to encode
+	 * @param codeTextWriter Writer for the code text
+	 */
+	public static void encode2(int[] values, CodeTextWriter codeTextWriter){
+		int minSymbol = 0;
+		int maxSymbol = 0;
+		for(int i = 0; i < values.length; i++){
+			if((i == 0) || (values[i] < minSymbol)){
+				minSymbol = values[i];
+			}
+			if((i == 0) || (values[i] > maxSymbol)){
+				maxSymbol = values[i];
+			}
+		}
+
+		if(((long)maxSymbol - minSymbol) > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Value range is too big for fixed width fields: " + minSymbol + " - " + maxSymbol);
+		}
+
+		int numberOfBitsFromMinSymbol = getSignedBitFieldWidth(minSymbol);
+		int numberOfBitsFromMaxSymbol = getSignedBitFieldWidth(maxSymbol);
+		int bitFieldWidth = getBitFieldWidth(maxSymbol - minSymbol);
+
+		codeTextWriter.write(0, 1);
+		codeTextWriter.write(numberOfBitsFromMinSymbol, 6);
+		codeTextWriter.write(numberOfBitsFromMaxSymbol, 6);
+		codeTextWriter.write(minSymbol, numberOfBitsFromMinSymbol);
+		codeTextWriter.write(maxSymbol, numberOfBitsFromMaxSymbol);
+		for(int i = 0; i < values.length; i++){
+			codeTextWriter.write(values[i] - minSymbol, bitFieldWidth);
+		}
+	}
+
+	/**
+	 * Returns the number of bits, needed to store the given value as signed value.
+	 * @param  value Value
+	 * @return       Number of bits (0 for the value "0")
+	 */
+	private static int getSignedBitFieldWidth(int value){
+		if(value == 0){
+			return 0;
+		}
+
+		int bitFieldWidth = 1;
+		while((bitFieldWidth < 32) && ((value < -(1L << (bitFieldWidth - 1))) || (value > ((1L << (bitFieldWidth - 1)) - 1)))){
+			bitFieldWidth++;
+		}
+		return bitFieldWidth;
+	}
+
+	/**
+	 * Returns the bit field width, which has to be used for the given positive value
+	 * (see BitlengthDecoder).
+	 * @param  symbol Symbol
+	 * @return        Bit field width
+	 */
+	private static int getBitFieldWidth(int symbol){
+		int bitFieldWidth = 0;
+		while((bitFieldWidth < 31) && ((1L << bitFieldWidth) <= symbol)){
+			bitFieldWidth++;
+		}
+		return bitFieldWidth;
+	}
+}
@@ -28,26 +28,54 @@ import javax.vecmath.Point3d;
 
 /**
  * Class for decoding normals.
+ * <br>Besides the single normal, the codec decodes whole code arrays into flat
+ * coordinate arrays, directly from the lookup tables and without any allocation
+ * per normal. For small numbers of bits, all normals of the (sextant, octant,
+ * theta, psi) codes are precomputed once, so decoding is a plain table copy.
  * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
  * @version 1.0
  */
 public class DeeringNormalCodec {
+	/** Maximum number of bits, for which all normals are precomputed (6 * 8 * 33 * 33 normals) */
+	private final static int PRECOMPUTED_TABLE_MAXIMUM_BITS = 5;
+
 	/** Number of bits */
 	private long _numberOfBits;
 
 	/** Deering normal lookup table */
 	private static DeeringNormalLookupTable _deeringNormalLookupTable;
 
+	/** Precomputed normals per number of bits: x, y, z of all codes */
+	private static double[][] _precomputedNormals = new double[PRECOMPUTED_TABLE_MAXIMUM_BITS + 1][];
+
+	/** CosTheta's of the lookup table */
+	private double[] _cosTheta;
+
+	/** SinTheta's of the lookup table */
+	private double[] _sinTheta;
+
+	/** CosPsi's of the lookup table */
+	private double[] _cosPsi;
+
+	/** SinPsi's of the lookup table */
+	private double[] _sinPsi;
+
 	/**
 	 * Constructor.
 	 * @param numberOfBits Number of bits
 	 */
 	public DeeringNormalCodec(long numberOfBits){
-		if(_deeringNormalLookupTable == null){
-			_deeringNormalLookupTable = new DeeringNormalLookupTable();
+		synchronized(DeeringNormalCodec.class){
+			if(_deeringNormalLookupTable == null){
+				_deeringNormalLookupTable = new DeeringNormalLookupTable();
+			}
 		}
 		_numberOfBits = numberOfBits;
+		_cosTheta = _deeringNormalLookupTable.getCosThetaTable();
+		_sinTheta = _deeringNormalLookupTable.getSinThetaTable();
+		_cosPsi = _deeringNormalLookupTable.getCosPsiTable();
+		_sinPsi = _deeringNormalLookupTable.getSinPsiTable();
 	}
 
 	/**
@@ -59,14 +87,143 @@ public class DeeringNormalCodec {
 	 * @return         Normal vector
 	 */
 	public Point3d convertCodeToVec(long sextant, long octant, long theta, long psi){
+		double[] normal = new double[3];
+		decode(sextant, octant, theta, psi, normal);
+		return new Point3d(normal[0], normal[1], normal[2]);
+	}
+
+	/**
+	 * Decodes the normals of the given code arrays. The results are identical
+	 * to convertCodeToVec().
+	 * @param sextants Sextant codes
+	 * @param octants  Octant codes
+	 * @param thetas   Theta codes
+	 * @param psis     Psi codes
+	 * @param normals  Array, receiving x, y and z of each normal (at least 3 * number of codes)
+	 */
+	public void decode(int[] sextants, int[] octants, int[] thetas, int[] psis, double[] normals){
+		double[] precomputedNormals = getPrecomputedNormals();
+		double[] normal = new double[3];
+		for(int i = 0, j = 0; i < psis.length; i++, j += 3){
+			int index = getPrecomputedIndex(sextants[i], octants[i], thetas[i], psis[i]);
+			if(index >= 0){
+				normals[j] = precomputedNormals[index];
+				normals[j + 1] = precomputedNormals[index + 1];
+				normals[j + 2] = precomputedNormals[index + 2];
+			} else {
+				decode(sextants[i], octants[i], thetas[i], psis[i], normal);
+				normals[j] = normal[0];
+				normals[j + 1] = normal[1];
+				normals[j + 2] = normal[2];
+			}
+		}
+	}
+
+	/**
+	 * Decodes the normals of the given code arrays with single precision.
+	 * @param sextants Sextant codes
+	 * @param octants  Octant codes
+	 * @param thetas   Theta codes
+	 * @param psis     Psi codes
+	 * @param normals  Array, receiving x, y and z of each normal (at least 3 * number of codes)
+	 */
+	public void decode(int[] sextants, int[] octants, int[] thetas, int[] psis, float[] normals){
+		double[] precomputedNormals = getPrecomputedNormals();
+		double[] normal = new double[3];
+		for(int i = 0, j = 0; i < psis.length; i++, j += 3){
+			int index = getPrecomputedIndex(sextants[i], octants[i], thetas[i], psis[i]);
+			if(index >= 0){
+				normals[j] = (float)precomputedNormals[index];
+				normals[j + 1] = (float)precomputedNormals[index + 1];
+				normals[j + 2] = (float)precomputedNormals[index + 2];
+			} else {
+				decode(sextants[i], octants[i], thetas[i], psis[i], normal);
+				normals[j] = (float)normal[0];
+				normals[j + 1] = (float)normal[1];
+				normals[j + 2] = (float)normal[2];
+			}
+		}
+	}
+
+	/**
+	 * Returns the precomputed normals of the number of bits. They are computed
+	 * once per number of bits and shared by all codecs.
+	 * @return Precomputed normals or<br>
+	 *         <b>null</b> if there are too many bits
+	 */
+	private double[] getPrecomputedNormals(){
+		if((_numberOfBits < 1) || (_numberOfBits > PRECOMPUTED_TABLE_MAXIMUM_BITS)){
+			return null;
+		}
+
+		synchronized(DeeringNormalCodec.class){
+			double[] precomputedNormals = _precomputedNormals[(int)_numberOfBits];
+			if(precomputedNormals == null){
+				// theta is incremented for odd sextants, so it reaches 2^bits
+				int codeCount = (1 << _numberOfBits) + 1;
+				precomputedNormals = new double[6 * 8 * codeCount * codeCount * 3];
+				double[] normal = new double[3];
+				int index = 0;
+				for(int sextant = 0; sextant < 6; sextant++){
+					for(int octant = 0; octant < 8; octant++){
+						for(int theta = 0; theta < codeCount; theta++){
+							for(int psi = 0; psi < codeCount; psi++){
+								decode(sextant, octant, theta - (sextant & 1), psi, normal);
+								precomputedNormals[index++] = normal[0];
+								precomputedNormals[index++] = normal[1];
+								precomputedNormals[index++] = normal[2];
+							}
+						}
+					}
+				}
+				_precomputedNormals[(int)_numberOfBits] = precomputedNormals;
+			}
+			return precomputedNormals;
+		}
+	}
+
+	/**
+	 * Returns the index of the given code in the precomputed normals.
+	 * @param  sextant Sextant
+	 * @param  octant  Octant
+	 * @param  theta   Theta
+	 * @param  psi     Psi
+	 * @return         Index of x or<br>
+	 *                 <b>-1</b> if the normals aren't precomputed or the code is out of range
+	 */
+	private int getPrecomputedIndex(int sextant, int octant, int theta, int psi){
+		if((_numberOfBits < 1) || (_numberOfBits > PRECOMPUTED_TABLE_MAXIMUM_BITS)){
+			return -1;
+		}
+
+		int codeCount = (1 << _numberOfBits) + 1;
+		theta += (sextant & 1);
+		if((sextant < 0) || (sextant > 5) || (octant < 0) || (octant > 7) || (theta < 0) || (theta >= codeCount) || (psi < 0) || (psi >= codeCount)){
+			return -1;
+		}
+		return ((((((sextant * 8) + octant) * codeCount) + theta) * codeCount) + psi) * 3;
+	}
+
+	/**
+	 * Decodes a single normal from the lookup tables.
+	 * @param sextant Sextant
+	 * @param octant  Octant
+	 * @param theta   Theta
+	 * @param psi     Psi
+	 * @param normal  Array, receiving x, y and z
+	 */
+	private void decode(long sextant, long octant, long theta, long psi, double[] normal){
 		theta += (sextant & 1);
 
-		DeeringLookupEntry lookupEntry = _deeringNormalLookupTable.lookupThetaPsi(theta, psi, _numberOfBits);
+		long offset = 8 - _numberOfBits;
+		int offTheta = (int)((theta << offset) & 0xFFFFFFFFL);
+		int offPsi = (int)((psi << offset) & 0xFFFFFFFFL);
+		double cosPsi = _cosPsi[offPsi];
 
 		double x, y, z;
-		double xx = x = lookupEntry.getCosTheta() * lookupEntry.getCosPsi();
-		double yy = y = lookupEntry.getSinPsi();
-		double zz = z = lookupEntry.getSinTheta() * lookupEntry.getCosPsi();
+		double xx = x = _cosTheta[offTheta] * cosPsi;
+		double yy = y = _sinPsi[offPsi];
+		double zz = z = _sinTheta[offTheta] * cosPsi;
 
 		switch((int)sextant){
 			case 0:
@@ -95,18 +252,20 @@ public class DeeringNormalCodec {
 				break;
 		}
 
-        if((octant & 0x4) == 0){
-        	x = -x;
-        }
+		if((octant & 0x4) == 0){
+			x = -x;
+		}
 
-        if((octant & 0x2) == 0){
-        	y = -y;
-        }
+		if((octant & 0x2) == 0){
+			y = -y;
+		}
 
-        if((octant & 0x1) == 0){
-        	z = -z;
-        }
+		if((octant & 0x1) == 0){
+			z = -z;
+		}
 
-        return new Point3d(x, y, z);
+		normal[0] = x;
+		normal[1] = y;
+		normal[2] = z;
 	}
 }
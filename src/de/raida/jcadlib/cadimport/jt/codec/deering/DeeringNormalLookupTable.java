@@ -65,6 +65,38 @@ public class DeeringNormalLookupTable {
 		}
 	}
 
+	/**
+	 * Returns the table of the CosTheta's.
+	 * @return Table of the CosTheta's (must not be modified)
+	 */
+	double[] getCosThetaTable(){
+		return _cosTheta;
+	}
+
+	/**
+	 * Returns the table of the SinTheta's.
+	 * @return Table of the SinTheta's (must not be modified)
+	 */
+	double[] getSinThetaTable(){
+		return _sinTheta;
+	}
+
+	/**
+	 * Returns the table of the CosPsi's.
+	 * @return Table of the CosPsi's (must not be modified)
+	 */
+	double[] getCosPsiTable(){
+		return _cosPsi;
+	}
+
+	/**
+	 * Returns the table of the SinPsi's.
+	 * @return Table of the SinPsi's (must not be modified)
+	 */
+	double[] getSinPsiTable(){
+		return _sinPsi;
+	}
+
 	/**
 	 * Returns a deering lookup entry.
 	 * @param  theta        Theta
@@ -89,6 +89,7 @@ public class DualVFMesh {
 		_viVtxFaceIndices.clear();
 		_viFaceVtxIndices.clear();
 		_viFaceAttrIndices.clear();
+		_vvbAttrMasks.clear();
 	}
 
 	/**
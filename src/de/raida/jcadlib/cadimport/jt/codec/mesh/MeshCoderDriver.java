@@ -25,6 +25,7 @@
 package de.raida.jcadlib.cadimport.jt.codec.mesh;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -35,34 +36,34 @@ import java.util.List;
  */
 public class MeshCoderDriver {
 	/**  */
-	private List<Integer> _vviOutValSyms;
+	private int[] _vviOutValSyms;
 
 	/**  */
-	private List<List<Integer>> _viOutDegSyms;
+	private int[][] _viOutDegSyms;
 
 	/**  */
-	private List<Integer> _viOutFGrpSyms;
+	private int[] _viOutFGrpSyms;
 
 	/**  */
-	private List<Integer> _vuOutFaceFlags;
+	private int[] _vuOutFaceFlags;
 
 	/**  */
-	private List<List<Integer>> _vvuOutAttrMasks;
+	private int[][] _vvuOutAttrMasks;
 
 	/**  */
-	private List<Integer> _faceAttributeMask8_30;
+	private int[] _faceAttributeMask8_30;
 
 	/**  */
-	private List<Integer> _faceAttributeMask8_4;
+	private int[] _faceAttributeMask8_4;
 
 	/**  */
 	private long[] _vuOutAttrMasksLrg;
 
 	/**  */
-	private List<Integer> _viOutSplitVtxSyms;
+	private int[] _viOutSplitVtxSyms;
 
 	/**  */
-	private List<Integer> _viOutSplitPosSyms;
+	private int[] _viOutSplitPosSyms;
 
 	/**  */
 	private int[] _iValReadPos;
@@ -110,10 +111,10 @@ public class MeshCoderDriver {
 	 * @param viOutSplitVtxSyms
 	 * @param viOutSplitPosSyms
 	 */
-	public void setInputData(List<Integer> vviOutValSyms, List<List<Integer>> viOutDegSyms,
-			List<Integer> viOutFGrpSyms, List<Integer> vuOutFaceFlags, List<List<Integer>> vvuOutAttrMasks,
-			List<Integer> faceAttributeMask8_30, List<Integer> faceAttributeMask8_4,
-			long[] vuOutAttrMasksLrg, List<Integer> viOutSplitVtxSyms, List<Integer> viOutSplitPosSyms){
+	public void setInputData(int[] vviOutValSyms, int[][] viOutDegSyms,
+			int[] viOutFGrpSyms, int[] vuOutFaceFlags, int[][] vvuOutAttrMasks,
+			int[] faceAttributeMask8_30, int[] faceAttributeMask8_4,
+			long[] vuOutAttrMasksLrg, int[] viOutSplitVtxSyms, int[] viOutSplitPosSyms){
 		_vviOutValSyms = vviOutValSyms;
 		_viOutDegSyms = viOutDegSyms;
 		_viOutFGrpSyms = viOutFGrpSyms;
@@ -127,18 +128,33 @@ public class MeshCoderDriver {
 	}
 
 	/**
-	 * Decodes the mesh.
+	 * Decodes the mesh. The decoder and its dual mesh are kept for the next
+	 * decoding, the input data is released.
 	 * @return List of lists: vertex and normal indices
 	 */
 	public List<List<Integer>> decode(){
+		try {
+			return decodeMesh();
+		} finally {
+			setInputData(null, null, null, null, null, null, null, null, null, null);
+		}
+	}
+
+	/**
+	 * Decodes the mesh from the input data.
+	 * @return List of lists: vertex and normal indices
+	 */
+	private List<List<Integer>> decodeMesh(){
 		// Allocate a coder
 		if(_pMeshDecoder == null){
 			_pMeshDecoder = new MeshDecoder(this);
+			_iValReadPos = new int[8];
+			_iAttrMaskReadPos = new int[8];
 		}
 
 		// Reset the symbol counters
-		_iValReadPos = new int[8];
-		_iAttrMaskReadPos = new int[8];
+		Arrays.fill(_iValReadPos, 0);
+		Arrays.fill(_iAttrMaskReadPos, 0);
 		_iDegReadPos = 0;
 		_iVGrpReadPos = 0;
 		_iFFlagReadPos = 0;
@@ -151,18 +167,18 @@ public class MeshCoderDriver {
 
 		// Assert that ALL symbols have been consumed
 		for(int i = 0; i < 8; i++){
-			if(	(_iValReadPos[i] != _viOutDegSyms.get(i).size()) ||
-				(_iAttrMaskReadPos[i] != _vvuOutAttrMasks.get(i).size())){
+			if(	(_iValReadPos[i] != _viOutDegSyms[i].length) ||
+				(_iAttrMaskReadPos[i] != _vvuOutAttrMasks[i].length)){
 				throw new IllegalArgumentException("ERROR: Not all symbols have been consumed!");
 			}
 		}
 
-		if(	(_iDegReadPos != _vviOutValSyms.size()) ||
-			(_iVGrpReadPos != _viOutFGrpSyms.size()) ||
-			(_iFFlagReadPos != _vuOutFaceFlags.size()) ||
+		if(	(_iDegReadPos != _vviOutValSyms.length) ||
+			(_iVGrpReadPos != _viOutFGrpSyms.length) ||
+			(_iFFlagReadPos != _vuOutFaceFlags.length) ||
 			(_iAttrMaskLrgReadPos != _vuOutAttrMasksLrg.length) ||
-			(_iSplitFaceReadPos != _viOutSplitVtxSyms.size()) ||
-			(_iSplitPosReadPos != _viOutSplitPosSyms.size())){
+			(_iSplitFaceReadPos != _viOutSplitVtxSyms.length) ||
+			(_iSplitPosReadPos != _viOutSplitPosSyms.length)){
 			throw new IllegalArgumentException("ERROR: Not all symbols have been consumed!");
 		}
 
@@ -201,8 +217,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextDegSymbol(int iCCntx){
 		int eSym = -1;
-		if(_iValReadPos[iCCntx] < _viOutDegSyms.get(iCCntx).size()){
-			eSym = _viOutDegSyms.get(iCCntx).get(_iValReadPos[iCCntx]++);
+		if(_iValReadPos[iCCntx] < _viOutDegSyms[iCCntx].length){
+			eSym = _viOutDegSyms[iCCntx][_iValReadPos[iCCntx]++];
 		}
 		return eSym;
 	}
@@ -213,8 +229,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextValSymbol(){
 		int eSym = -1;
-		if(_iDegReadPos < _vviOutValSyms.size()){
-			eSym = _vviOutValSyms.get(_iDegReadPos++);
+		if(_iDegReadPos < _vviOutValSyms.length){
+			eSym = _vviOutValSyms[_iDegReadPos++];
 		}
 		return eSym;
 	}
@@ -225,8 +241,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextFGrpSymbol(){
 		int eSym = -1;
-		if(_iVGrpReadPos < _viOutFGrpSyms.size()){
-			eSym = _viOutFGrpSyms.get(_iVGrpReadPos++);
+		if(_iVGrpReadPos < _viOutFGrpSyms.length){
+			eSym = _viOutFGrpSyms[_iVGrpReadPos++];
 		}
 		return eSym;
 	}
@@ -237,8 +253,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextVtxFlagSymbol(){
 		int eSym = 0;
-		if(_iFFlagReadPos < _vuOutFaceFlags.size()){
-			eSym = _vuOutFaceFlags.get(_iFFlagReadPos++);
+		if(_iFFlagReadPos < _vuOutFaceFlags.length){
+			eSym = _vuOutFaceFlags[_iFFlagReadPos++];
 		}
 		return eSym;
 	}
@@ -251,12 +267,12 @@ public class MeshCoderDriver {
 	public long _nextAttrMaskSymbol(int iCCntx){
 		long eSym = 0;
 		int readpos = _iAttrMaskReadPos[iCCntx];
-		if (readpos < _vvuOutAttrMasks.get(iCCntx).size()){
-			eSym = _vvuOutAttrMasks.get(iCCntx).get(readpos);
+		if (readpos < _vvuOutAttrMasks[iCCntx].length){
+			eSym = _vvuOutAttrMasks[iCCntx][readpos];
 		}
 		if(iCCntx == 7){
-			eSym |= (	(((long)_faceAttributeMask8_4.get(readpos)) << 30) +
-						(((long)_faceAttributeMask8_30.get(readpos)) << 30)
+			eSym |= (	(((long)_faceAttributeMask8_4[readpos]) << 30) +
+						(((long)_faceAttributeMask8_30[readpos]) << 30)
 					);
 		}
 		_iAttrMaskReadPos[iCCntx]++;
@@ -289,8 +305,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextSplitFaceSymbol(){
 		int eSym = -1;
-		if(_iSplitFaceReadPos < _viOutSplitVtxSyms.size()){
-			eSym = _viOutSplitVtxSyms.get(_iSplitFaceReadPos++);
+		if(_iSplitFaceReadPos < _viOutSplitVtxSyms.length){
+			eSym = _viOutSplitVtxSyms[_iSplitFaceReadPos++];
 		}
 		return eSym;
 	}
@@ -301,8 +317,8 @@ public class MeshCoderDriver {
 	 */
 	public int _nextSplitPosSymbol(){
 		int eSym = -1;
-		if(_iSplitPosReadPos < _viOutSplitPosSyms.size()){
-			eSym = _viOutSplitPosSyms.get(_iSplitPosReadPos++);
+		if(_iSplitPosReadPos < _viOutSplitPosSyms.length){
+			eSym = _viOutSplitPosSyms[_iSplitPosReadPos++];
 		}
 		return eSym;
 	}
@@ -116,7 +116,7 @@ public class MeshDecoder {
 	 */
 	private void clear(){
 		_viActiveFaces.clear();
-		_vbRemovedActiveFaces.setLength(0);
+		_vbRemovedActiveFaces.clear();
 		_iFaceAttrCtr = 0;
 	}
 
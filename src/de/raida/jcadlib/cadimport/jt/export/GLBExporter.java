@@ -0,0 +1,815 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt.export;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.vecmath.Matrix4d;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+import de.raida.jcadlib.cadimport.jt.GeometryVisitor;
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.model.JTNode;
+import de.raida.jcadlib.cadimport.jt.model.LSGNode;
+import de.raida.jcadlib.cadimport.jt.model.lsg.GeometricTransformAttributeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.MaterialAttributeElement;
+
+/**
+ * Writes the geometry of the importer as binary glTF 2.0 (GLB), while the file
+ * is imported. The exporter is a geometry visitor:
+ * <ul>
+ * <li>The LSG nodes become the node hierarchy, with their transformations.</li>
+ * <li>Each shape segment is written once, every further instance only references
+ *     the mesh.</li>
+ * <li>MaterialAttributeElements become PBR materials.</li>
+ * </ul>
+ * The vertex data is streamed into a temporary file next to the GLB file, only the
+ * JSON part is held in memory. close() joins both into the GLB file. Optionally,
+ * the vertex data is quantized (KHR_mesh_quantization): positions as 16 bit
+ * integers, which are scaled back by the mesh node, normals and colors as
+ * normalized 8 bit integers.
+ * <br>Usage: GLBExporter &lt;JT file&gt; &lt;GLB file&gt; [-quantize]
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class GLBExporter implements GeometryVisitor, Closeable {
+	/** Magic number of a GLB file: "glTF" */
+	private final static int GLB_MAGIC = 0x46546C67;
+
+	/** Chunk type: JSON */
+	private final static int CHUNK_TYPE_JSON = 0x4E4F534A;
+
+	/** Chunk type: binary buffer */
+	private final static int CHUNK_TYPE_BIN = 0x004E4942;
+
+	/** Buffer view target: vertex attributes */
+	private final static int TARGET_ARRAY_BUFFER = 34962;
+
+	/** Buffer view target: indices */
+	private final static int TARGET_ELEMENT_ARRAY_BUFFER = 34963;
+
+	/** Component type: signed byte */
+	private final static int COMPONENT_TYPE_BYTE = 5120;
+
+	/** Component type: unsigned byte */
+	private final static int COMPONENT_TYPE_UNSIGNED_BYTE = 5121;
+
+	/** Component type: signed short */
+	private final static int COMPONENT_TYPE_SHORT = 5122;
+
+	/** Component type: unsigned short */
+	private final static int COMPONENT_TYPE_UNSIGNED_SHORT = 5123;
+
+	/** Component type: unsigned int */
+	private final static int COMPONENT_TYPE_UNSIGNED_INT = 5125;
+
+	/** Component type: float */
+	private final static int COMPONENT_TYPE_FLOAT = 5126;
+
+	/** Primitive mode: points */
+	private final static int MODE_POINTS = 0;
+
+	/** Primitive mode: lines */
+	private final static int MODE_LINES = 1;
+
+	/** Primitive mode: triangles */
+	private final static int MODE_TRIANGLES = 4;
+
+	/** Size of the write buffer in bytes */
+	private final static int BUFFER_SIZE = 1 << 20;
+
+	/** Maximum absolute value of a quantized position */
+	private final static int QUANTIZATION_RANGE = 32767;
+
+	/** GLB file */
+	private File _glbFile;
+
+	/** Temporary file with the binary buffer */
+	private File _binaryFile;
+
+	/** Temporary file with the binary buffer */
+	private RandomAccessFile _binaryRandomAccessFile;
+
+	/** Channel of the binary buffer */
+	private FileChannel _binaryChannel;
+
+	/** Write buffer */
+	private ByteBuffer _buffer;
+
+	/** Number of bytes, already written to the binary file */
+	private long _flushedLength;
+
+	/** Quantize the vertex data? */
+	private boolean _quantizationEnabled;
+
+	/** JSON of the buffer views */
+	private StringBuffer _bufferViews;
+
+	/** Number of buffer views */
+	private int _bufferViewCount;
+
+	/** JSON of the accessors */
+	private StringBuffer _accessors;
+
+	/** Number of accessors */
+	private int _accessorCount;
+
+	/** JSON of the meshes */
+	private StringBuffer _meshes;
+
+	/** Number of meshes */
+	private int _meshCount;
+
+	/** JSON of the materials */
+	private StringBuffer _materials;
+
+	/** Material indices: material key -> index */
+	private HashMap<String, Integer> _materialIndices;
+
+	/** Written geometries: segment ID -> [attributes JSON, indices accessor, mode, dequantization matrix] */
+	private HashMap<String, Object[]> _geometries;
+
+	/** Mesh indices: segment ID + material index -> mesh index */
+	private HashMap<String, Integer> _meshIndices;
+
+	/** Node indices of the LSG nodes */
+	private IdentityHashMap<LSGNode, Integer> _nodeIndices;
+
+	/** Nodes: [name, matrix or null, mesh index or null, child node indices] */
+	private List<Object[]> _nodes;
+
+	/** Indices of the root nodes */
+	private List<Integer> _rootNodes;
+
+	/**
+	 * Constructor.
+	 * @param  glbFile     GLB file to write
+	 * @throws IOException Thrown if the temporary file couldn't be created
+	 */
+	public GLBExporter(File glbFile) throws IOException {
+		_glbFile = glbFile;
+		_binaryFile = File.createTempFile(glbFile.getName(), ".bin", glbFile.getAbsoluteFile().getParentFile());
+		_binaryRandomAccessFile = new RandomAccessFile(_binaryFile, "rw");
+		_binaryChannel = _binaryRandomAccessFile.getChannel();
+		_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		_bufferViews = new StringBuffer();
+		_accessors = new StringBuffer();
+		_meshes = new StringBuffer();
+		_materials = new StringBuffer();
+		_materialIndices = new HashMap<String, Integer>();
+		_geometries = new HashMap<String, Object[]>();
+		_meshIndices = new HashMap<String, Integer>();
+		_nodeIndices = new IdentityHashMap<LSGNode, Integer>();
+		_nodes = new ArrayList<Object[]>();
+		_rootNodes = new ArrayList<Integer>();
+	}
+
+	/**
+	 * Sets whether the vertex data is quantized (KHR_mesh_quantization). Has to be
+	 * called before the first shape.
+	 * @param quantizationEnabled Quantize the vertex data?
+	 */
+	public void setQuantizationEnabled(boolean quantizationEnabled){
+		if(_geometries.size() > 0){
+			throw new IllegalStateException("Quantization can't be changed after the first shape!");
+		}
+		_quantizationEnabled = quantizationEnabled;
+	}
+
+	/**
+	 * Adds the given shape instance: the geometry is written at the first instance
+	 * of the segment, each instance gets a node inside the LSG hierarchy.
+	 * @param  shapeNode      Shape node of the LSG
+	 * @param  segmentID      ID of the shape segment
+	 * @param  decodedShape   Decoded shape
+	 * @param  transformation Transformation into the world coordinate system
+	 * @param  color          Color of the shape
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the geometry couldn't be written
+	 */
+	public void visitShape(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName) throws IOException {
+		if(_binaryChannel == null){
+			throw new IllegalStateException("GLB exporter has already been closed!");
+		}
+
+		Object[] geometry = _geometries.get(segmentID);
+		if(geometry == null){
+			geometry = writeGeometry(decodedShape);
+			_geometries.put(segmentID, geometry);
+		}
+		if(geometry.length == 0){
+			return;
+		}
+
+		int materialIndex = getMaterialIndex(shapeNode, color);
+		String meshKey = segmentID + "\t" + materialIndex;
+		Integer meshIndex = _meshIndices.get(meshKey);
+		if(meshIndex == null){
+			meshIndex = _meshCount++;
+			_meshIndices.put(meshKey, meshIndex);
+			_meshes.append((meshIndex == 0) ? "" : ",");
+			_meshes.append("{\"name\":");
+			JSONHelper.appendString(_meshes, layerName);
+			_meshes.append(",\"primitives\":[{\"attributes\":" + geometry[0]);
+			if((Integer)geometry[1] >= 0){
+				_meshes.append(",\"indices\":" + geometry[1]);
+			}
+			_meshes.append(",\"material\":" + materialIndex + ",\"mode\":" + geometry[2] + "}]}");
+		}
+
+		// The mesh is attached to the shape node, a quantized mesh to a child node, which scales it back
+		Object[] shapeNodeData = _nodes.get(getNodeIndex(shapeNode, transformation));
+		if((geometry[3] == null) && (shapeNodeData[2] == null)){
+			shapeNodeData[2] = meshIndex;
+		} else {
+			@SuppressWarnings("unchecked")
+			List<Integer> childNodes = (List<Integer>)shapeNodeData[3];
+			childNodes.add(addNode(null, (Matrix4d)geometry[3], meshIndex));
+		}
+	}
+
+	/**
+	 * Writes the vertex data and the indices of the given shape.
+	 * @param  decodedShape Decoded shape
+	 * @return              [attributes JSON, indices accessor or -1, mode, dequantization matrix or null] or<br>
+	 *                      <b>empty array</b> if the shape has no vertices
+	 * @throws IOException  Thrown if the data couldn't be written
+	 */
+	private Object[] writeGeometry(DecodedShape decodedShape) throws IOException {
+		double[] vertices = decodedShape.getVertices();
+		int vertexCount = (vertices == null) ? 0 : (vertices.length / 3);
+		if(vertexCount == 0){
+			return new Object[0];
+		}
+
+		double[] minimum = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+		double[] maximum = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+		for(int i = 0; i < (vertexCount * 3); i++){
+			minimum[i % 3] = Math.min(minimum[i % 3], vertices[i]);
+			maximum[i % 3] = Math.max(maximum[i % 3], vertices[i]);
+		}
+
+		// Positions
+		StringBuffer attributes = new StringBuffer();
+		Matrix4d dequantization = null;
+		if(_quantizationEnabled){
+			double[] center = new double[3];
+			double extent = 0;
+			for(int i = 0; i < 3; i++){
+				center[i] = (minimum[i] + maximum[i]) / 2;
+				extent = Math.max(extent, (maximum[i] - minimum[i]) / 2);
+			}
+			double scale = (extent > 0) ? (extent / QUANTIZATION_RANGE) : 1;
+
+			// A uniform scale keeps the normals of the mesh node undistorted
+			dequantization = new Matrix4d(	scale, 0, 0, center[0],
+											0, scale, 0, center[1],
+											0, 0, scale, center[2],
+											0, 0, 0, 1);
+
+			int[] quantizedMinimum = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+			int[] quantizedMaximum = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+			long offset = alignBinary();
+			for(int i = 0; i < vertexCount; i++){
+				ensureCapacity(8);
+				for(int j = 0; j < 3; j++){
+					int quantizedValue = (int)Math.round((vertices[(i * 3) + j] - center[j]) / scale);
+					quantizedValue = Math.max(-QUANTIZATION_RANGE, Math.min(QUANTIZATION_RANGE, quantizedValue));
+					quantizedMinimum[j] = Math.min(quantizedMinimum[j], quantizedValue);
+					quantizedMaximum[j] = Math.max(quantizedMaximum[j], quantizedValue);
+					_buffer.putShort((short)quantizedValue);
+				}
+				_buffer.putShort((short)0);
+			}
+			int bufferView = addBufferView(offset, 8, TARGET_ARRAY_BUFFER);
+			attributes.append("{\"POSITION\":" + addAccessor(bufferView, COMPONENT_TYPE_SHORT, false, vertexCount, "VEC3",
+															"[" + quantizedMinimum[0] + "," + quantizedMinimum[1] + "," + quantizedMinimum[2] + "]",
+															"[" + quantizedMaximum[0] + "," + quantizedMaximum[1] + "," + quantizedMaximum[2] + "]"));
+
+		} else {
+			long offset = alignBinary();
+			for(int i = 0; i < (vertexCount * 3); i++){
+				ensureCapacity(4);
+				_buffer.putFloat((float)vertices[i]);
+			}
+			int bufferView = addBufferView(offset, 0, TARGET_ARRAY_BUFFER);
+			attributes.append("{\"POSITION\":" + addAccessor(bufferView, COMPONENT_TYPE_FLOAT, false, vertexCount, "VEC3",
+															"[" + (float)minimum[0] + "," + (float)minimum[1] + "," + (float)minimum[2] + "]",
+															"[" + (float)maximum[0] + "," + (float)maximum[1] + "," + (float)maximum[2] + "]"));
+		}
+
+		// Normals (unit length)
+		double[] normals = decodedShape.getNormals();
+		if((decodedShape.getType() == DecodedShape.TYPE_TRIANGLES) && (normals != null) && (normals.length == vertices.length)){
+			long offset = alignBinary();
+			for(int i = 0; i < vertexCount; i++){
+				double x = normals[i * 3];
+				double y = normals[(i * 3) + 1];
+				double z = normals[(i * 3) + 2];
+				double length = Math.sqrt((x * x) + (y * y) + (z * z));
+				if(length > 0){
+					x /= length;
+					y /= length;
+					z /= length;
+				} else {
+					z = 1;
+				}
+
+				if(_quantizationEnabled){
+					ensureCapacity(4);
+					_buffer.put((byte)Math.round(x * 127));
+					_buffer.put((byte)Math.round(y * 127));
+					_buffer.put((byte)Math.round(z * 127));
+					_buffer.put((byte)0);
+				} else {
+					ensureCapacity(12);
+					_buffer.putFloat((float)x);
+					_buffer.putFloat((float)y);
+					_buffer.putFloat((float)z);
+				}
+			}
+			int bufferView = addBufferView(offset, _quantizationEnabled ? 4 : 0, TARGET_ARRAY_BUFFER);
+			attributes.append(",\"NORMAL\":" + addAccessor(bufferView, _quantizationEnabled ? COMPONENT_TYPE_BYTE : COMPONENT_TYPE_FLOAT, _quantizationEnabled, vertexCount, "VEC3", null, null));
+		}
+
+		// Vertex colors
+		double[] colors = decodedShape.getColors();
+		if((colors != null) && (colors.length == vertices.length)){
+			long offset = alignBinary();
+			for(int i = 0; i < (vertexCount * 3); i++){
+				double colorValue = Math.max(0, Math.min(1, colors[i]));
+				if(_quantizationEnabled){
+					ensureCapacity(2);
+					_buffer.put((byte)Math.round(colorValue * 255));
+					if((i % 3) == 2){
+						_buffer.put((byte)255);
+					}
+				} else {
+					ensureCapacity(4);
+					_buffer.putFloat((float)colorValue);
+				}
+			}
+			int bufferView = addBufferView(offset, _quantizationEnabled ? 4 : 0, TARGET_ARRAY_BUFFER);
+			attributes.append(",\"COLOR_0\":" + addAccessor(bufferView, _quantizationEnabled ? COMPONENT_TYPE_UNSIGNED_BYTE : COMPONENT_TYPE_FLOAT, _quantizationEnabled, vertexCount, _quantizationEnabled ? "VEC4" : "VEC3", null, null));
+		}
+		attributes.append("}");
+
+		// Indices: triangles, line segments of the polylines or none for points
+		int[] indices = null;
+		int mode = MODE_POINTS;
+		if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+			indices = decodedShape.getIndices();
+			mode = MODE_TRIANGLES;
+
+		} else if(decodedShape.getType() == DecodedShape.TYPE_POLYLINES){
+			int[] vertexIndices = decodedShape.getIndices();
+			int[] primitiveIndices = decodedShape.getPrimitiveIndices();
+			int segmentCount = 0;
+			for(int i = 0; i < (primitiveIndices.length - 1); i++){
+				segmentCount += Math.max(0, primitiveIndices[i + 1] - primitiveIndices[i] - 1);
+			}
+			indices = new int[segmentCount * 2];
+			int index = 0;
+			for(int i = 0; i < (primitiveIndices.length - 1); i++){
+				for(int j = primitiveIndices[i]; j < (primitiveIndices[i + 1] - 1); j++){
+					indices[index++] = vertexIndices[j];
+					indices[index++] = vertexIndices[j + 1];
+				}
+			}
+			mode = MODE_LINES;
+		}
+
+		int indicesAccessor = -1;
+		if((indices != null) && (indices.length > 0)){
+			boolean shortIndices = (vertexCount < 65535);
+			long offset = alignBinary();
+			for(int i = 0; i < indices.length; i++){
+				ensureCapacity(4);
+				if(shortIndices){
+					_buffer.putShort((short)indices[i]);
+				} else {
+					_buffer.putInt(indices[i]);
+				}
+			}
+			int bufferView = addBufferView(offset, 0, TARGET_ELEMENT_ARRAY_BUFFER);
+			indicesAccessor = addAccessor(bufferView, shortIndices ? COMPONENT_TYPE_UNSIGNED_SHORT : COMPONENT_TYPE_UNSIGNED_INT, false, indices.length, "SCALAR", null, null);
+		}
+
+		return new Object[]{attributes.toString(), indicesAccessor, mode, dequantization};
+	}
+
+	/**
+	 * Returns the index of the material of the given shape node. The material is
+	 * taken from the first MaterialAttributeElement of the node or its parents,
+	 * otherwise from the given color.
+	 * @param  shapeNode Shape node
+	 * @param  color     Color of the shape
+	 * @return           Index of the material
+	 */
+	private int getMaterialIndex(LSGNode shapeNode, Color color){
+		MaterialAttributeElement materialAttributeElement = null;
+		for(LSGNode lsgNode = shapeNode; (lsgNode != null) && (materialAttributeElement == null); lsgNode = lsgNode.getParentLSGNode()){
+			for(Iterator<JTNode> iterator = lsgNode.getAttributeNodes().iterator(); iterator.hasNext();){
+				JTNode jtNode = iterator.next();
+				if(jtNode instanceof MaterialAttributeElement){
+					materialAttributeElement = (MaterialAttributeElement)jtNode;
+					break;
+				}
+			}
+		}
+
+		float[] baseColor = color.getRGBComponents(null);
+		float[] emissiveColor = new float[3];
+		float roughness = 1;
+		if(materialAttributeElement != null){
+			baseColor = materialAttributeElement.getDiffuseColor().getRGBComponents(null);
+			emissiveColor = materialAttributeElement.getEmissionColor().getRGBColorComponents(null);
+
+			// Map the Phong shininess (0 - 128) to the roughness
+			roughness = 1 - (float)Math.sqrt(Math.max(0, Math.min(1, materialAttributeElement.getShininess() / 128.0)));
+		}
+
+		String materialKey = String.format(Locale.US, "[%.4f,%.4f,%.4f,%.4f],%.4f,[%.4f,%.4f,%.4f]",
+											baseColor[0], baseColor[1], baseColor[2], baseColor[3], roughness,
+											emissiveColor[0], emissiveColor[1], emissiveColor[2]);
+		Integer materialIndex = _materialIndices.get(materialKey);
+		if(materialIndex == null){
+			materialIndex = _materialIndices.size();
+			_materialIndices.put(materialKey, materialIndex);
+			_materials.append((materialIndex == 0) ? "" : ",");
+			_materials.append(String.format(Locale.US, "{\"pbrMetallicRoughness\":{\"baseColorFactor\":[%.4f,%.4f,%.4f,%.4f],\"metallicFactor\":0.0,\"roughnessFactor\":%.4f}," +
+														"\"emissiveFactor\":[%.4f,%.4f,%.4f],\"doubleSided\":true%s}",
+														baseColor[0], baseColor[1], baseColor[2], baseColor[3], roughness,
+														emissiveColor[0], emissiveColor[1], emissiveColor[2], (baseColor[3] < 1) ? ",\"alphaMode\":\"BLEND\"" : ""));
+		}
+		return materialIndex;
+	}
+
+	/**
+	 * Returns the index of the node of the given LSG node. Missing nodes of the
+	 * path to the root are created. Like in the importer, each node gets the
+	 * transformations of its GeometricTransformAttributeElements, except the root.
+	 * The root gets the transformation of a referencing file.
+	 * @param  lsgNode        LSG node
+	 * @param  transformation Transformation of the LSG node into the world coordinate system
+	 * @return                Index of the node
+	 */
+	@SuppressWarnings("unchecked")
+	private int getNodeIndex(LSGNode lsgNode, Matrix4d transformation){
+		List<LSGNode> path = new ArrayList<LSGNode>();
+		for(LSGNode pathNode = lsgNode; pathNode != null; pathNode = pathNode.getParentLSGNode()){
+			path.add(0, pathNode);
+		}
+
+		Integer parentNodeIndex = null;
+		for(int i = 0; i < path.size(); i++){
+			LSGNode pathNode = path.get(i);
+			Integer nodeIndex = _nodeIndices.get(pathNode);
+			if(nodeIndex == null){
+				Matrix4d matrix = (i == 0) ? getBaseTransformation(path, transformation) : getLocalTransformation(pathNode);
+				nodeIndex = addNode(JTImporter.getNodeName(pathNode), matrix, null);
+				_nodeIndices.put(pathNode, nodeIndex);
+				if(parentNodeIndex == null){
+					_rootNodes.add(nodeIndex);
+				} else {
+					((List<Integer>)_nodes.get(parentNodeIndex)[3]).add(nodeIndex);
+				}
+			}
+			parentNodeIndex = nodeIndex;
+		}
+		return parentNodeIndex;
+	}
+
+	/**
+	 * Returns the transformation of the root node: the part of the world
+	 * transformation, which isn't defined by the nodes below the root.
+	 * @param  path           Path from the root to the LSG node
+	 * @param  transformation Transformation of the LSG node into the world coordinate system
+	 * @return                Transformation of the root or<br>
+	 *                        <b>null</b> if it's the identity
+	 */
+	private static Matrix4d getBaseTransformation(List<LSGNode> path, Matrix4d transformation){
+		Matrix4d pathTransformation = new Matrix4d();
+		pathTransformation.setIdentity();
+		for(int i = 1; i < path.size(); i++){
+			Matrix4d localTransformation = getLocalTransformation(path.get(i));
+			if(localTransformation != null){
+				pathTransformation.mul(localTransformation);
+			}
+		}
+		if(pathTransformation.epsilonEquals(transformation, 1e-9)){
+			return null;
+		}
+
+		pathTransformation.invert();
+		Matrix4d baseTransformation = (Matrix4d)transformation.clone();
+		baseTransformation.mul(pathTransformation);
+		return baseTransformation;
+	}
+
+	/**
+	 * Returns the transformation of the given LSG node.
+	 * @param  lsgNode LSG node
+	 * @return         Transformation or<br>
+	 *                 <b>null</b> if the node has no GeometricTransformAttributeElement
+	 */
+	private static Matrix4d getLocalTransformation(LSGNode lsgNode){
+		Matrix4d transformation = null;
+		for(Iterator<JTNode> iterator = lsgNode.getAttributeNodes().iterator(); iterator.hasNext();){
+			JTNode jtNode = iterator.next();
+			if(jtNode instanceof GeometricTransformAttributeElement){
+				Matrix4d attributeTransformation = (Matrix4d)((GeometricTransformAttributeElement)jtNode).getTransformationMatrix().clone();
+				if(transformation != null){
+					attributeTransformation.mul(transformation);
+				}
+				transformation = attributeTransformation;
+			}
+		}
+		return transformation;
+	}
+
+	/**
+	 * Adds a node.
+	 * @param  name      Name or null
+	 * @param  matrix    Transformation or null
+	 * @param  meshIndex Index of the mesh or null
+	 * @return           Index of the node
+	 */
+	private int addNode(String name, Matrix4d matrix, Integer meshIndex){
+		_nodes.add(new Object[]{name, matrix, meshIndex, new ArrayList<Integer>()});
+		return _nodes.size() - 1;
+	}
+
+	/**
+	 * Adds a buffer view, which ends at the current end of the binary buffer.
+	 * @param  offset     Offset of the buffer view
+	 * @param  byteStride Byte stride or 0, if the elements are tightly packed
+	 * @param  target     Target
+	 * @return            Index of the buffer view
+	 */
+	private int addBufferView(long offset, int byteStride, int target){
+		_bufferViews.append((_bufferViewCount == 0) ? "" : ",");
+		_bufferViews.append("{\"buffer\":0,\"byteOffset\":" + offset + ",\"byteLength\":" + (getBinaryLength() - offset));
+		if(byteStride > 0){
+			_bufferViews.append(",\"byteStride\":" + byteStride);
+		}
+		_bufferViews.append(",\"target\":" + target + "}");
+		return _bufferViewCount++;
+	}
+
+	/**
+	 * Adds an accessor.
+	 * @param  bufferView    Index of the buffer view
+	 * @param  componentType Component type
+	 * @param  normalized    Are the integer values normalized?
+	 * @param  count         Number of elements
+	 * @param  type          Element type
+	 * @param  minimum       JSON array of the minimum or null
+	 * @param  maximum       JSON array of the maximum or null
+	 * @return               Index of the accessor
+	 */
+	private int addAccessor(int bufferView, int componentType, boolean normalized, int count, String type, String minimum, String maximum){
+		_accessors.append((_accessorCount == 0) ? "" : ",");
+		_accessors.append("{\"bufferView\":" + bufferView + ",\"componentType\":" + componentType);
+		if(normalized){
+			_accessors.append(",\"normalized\":true");
+		}
+		_accessors.append(",\"count\":" + count + ",\"type\":\"" + type + "\"");
+		if(minimum != null){
+			_accessors.append(",\"min\":" + minimum + ",\"max\":" + maximum);
+		}
+		_accessors.append("}");
+		return _accessorCount++;
+	}
+
+	/**
+	 * Returns the current length of the binary buffer.
+	 * @return Length in bytes
+	 */
+	private long getBinaryLength(){
+		return _flushedLength + _buffer.position();
+	}
+
+	/**
+	 * Pads the binary buffer to a multiple of 4 bytes.
+	 * @return             Length of the binary buffer
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private long alignBinary() throws IOException {
+		ensureCapacity(4);
+		while((getBinaryLength() % 4) != 0){
+			_buffer.put((byte)0);
+		}
+		return getBinaryLength();
+	}
+
+	/**
+	 * Flushes the write buffer, if less than the given number of bytes are free.
+	 * @param  byteCount   Number of bytes to write next
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void ensureCapacity(int byteCount) throws IOException {
+		if(_buffer.remaining() < byteCount){
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the write buffer to the binary file.
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void flush() throws IOException {
+		_buffer.flip();
+		while(_buffer.hasRemaining()){
+			_flushedLength += _binaryChannel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	/**
+	 * Writes the GLB file and deletes the temporary file.
+	 * @throws IOException Thrown if the GLB file couldn't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(_binaryChannel == null){
+			return;
+		}
+
+		try {
+			alignBinary();
+			flush();
+			long binaryLength = _flushedLength;
+
+			// JSON part
+			StringBuffer json = new StringBuffer();
+			json.append("{\"asset\":{\"version\":\"2.0\",\"generator\":\"JTImporter GLBExporter\"}");
+			if(_quantizationEnabled){
+				json.append(",\"extensionsUsed\":[\"KHR_mesh_quantization\"],\"extensionsRequired\":[\"KHR_mesh_quantization\"]");
+			}
+			json.append(",\"scene\":0,\"scenes\":[{\"nodes\":" + _rootNodes + "}]");
+			if(_nodes.size() > 0){
+				json.append(",\"nodes\":[");
+				for(int i = 0; i < _nodes.size(); i++){
+					appendNode(json, _nodes.get(i), i == 0);
+				}
+				json.append("]");
+			}
+			if(_meshCount > 0){
+				json.append(",\"meshes\":[" + _meshes + "]");
+				json.append(",\"materials\":[" + _materials + "]");
+				json.append(",\"accessors\":[" + _accessors + "]");
+				json.append(",\"bufferViews\":[" + _bufferViews + "]");
+				json.append(",\"buffers\":[{\"byteLength\":" + binaryLength + "}]");
+			}
+			json.append("}");
+
+			byte[] jsonBytes = json.toString().getBytes("UTF-8");
+			int jsonLength = (jsonBytes.length + 3) & ~3;
+			long glbLength = 12 + 8 + jsonLength + ((_meshCount > 0) ? (8 + binaryLength) : 0);
+			if(glbLength > 0xFFFFFFFFL){
+				throw new IllegalStateException("GLB file exceeds 4 GB: " + glbLength + " bytes");
+			}
+
+			RandomAccessFile glbRandomAccessFile = new RandomAccessFile(_glbFile, "rw");
+			try {
+				glbRandomAccessFile.setLength(0);
+				FileChannel glbChannel = glbRandomAccessFile.getChannel();
+
+				ByteBuffer header = ByteBuffer.allocate(12 + 8 + jsonLength + 8);
+				header.order(ByteOrder.LITTLE_ENDIAN);
+				header.putInt(GLB_MAGIC);
+				header.putInt(2);
+				header.putInt((int)glbLength);
+				header.putInt(jsonLength);
+				header.putInt(CHUNK_TYPE_JSON);
+				header.put(jsonBytes);
+				for(int i = jsonBytes.length; i < jsonLength; i++){
+					header.put((byte)' ');
+				}
+				if(_meshCount > 0){
+					header.putInt((int)binaryLength);
+					header.putInt(CHUNK_TYPE_BIN);
+				}
+				header.flip();
+				while(header.hasRemaining()){
+					glbChannel.write(header);
+				}
+
+				// Binary part
+				long position = 0;
+				while((_meshCount > 0) && (position < binaryLength)){
+					position += _binaryChannel.transferTo(position, binaryLength - position, glbChannel);
+				}
+			} finally {
+				glbRandomAccessFile.close();
+			}
+
+		} finally {
+			_binaryRandomAccessFile.close();
+			_binaryChannel = null;
+			_binaryFile.delete();
+		}
+	}
+
+	/**
+	 * Appends the JSON of the given node.
+	 * @param json  JSON text
+	 * @param node  Node: [name, matrix or null, mesh index or null, child node indices]
+	 * @param first Is it the first node?
+	 */
+	@SuppressWarnings("unchecked")
+	private static void appendNode(StringBuffer json, Object[] node, boolean first){
+		json.append(first ? "{" : ",{");
+		String separator = "";
+		if(node[0] != null){
+			json.append("\"name\":");
+			JSONHelper.appendString(json, (String)node[0]);
+			separator = ",";
+		}
+		if(node[1] != null){
+			Matrix4d matrix = (Matrix4d)node[1];
+			json.append(separator + "\"matrix\":[" +	matrix.m00 + "," + matrix.m10 + "," + matrix.m20 + "," + matrix.m30 + "," +
+														matrix.m01 + "," + matrix.m11 + "," + matrix.m21 + "," + matrix.m31 + "," +
+														matrix.m02 + "," + matrix.m12 + "," + matrix.m22 + "," + matrix.m32 + "," +
+														matrix.m03 + "," + matrix.m13 + "," + matrix.m23 + "," + matrix.m33 + "]");
+			separator = ",";
+		}
+		if(node[2] != null){
+			json.append(separator + "\"mesh\":" + node[2]);
+			separator = ",";
+		}
+		List<Integer> childNodes = (List<Integer>)node[3];
+		if(childNodes.size() > 0){
+			json.append(separator + "\"children\":" + childNodes);
+		}
+		json.append("}");
+	}
+
+	/**
+	 * Main entry point.
+	 * @param  arguments Arguments of the command line: &lt;JT file&gt; &lt;GLB file&gt; [-quantize]
+	 * @throws Exception Thrown if the file couldn't be converted
+	 */
+	public static void main(String[] arguments) throws Exception {
+		if(arguments.length < 2){
+			System.out.println("Usage: GLBExporter <JT file> <GLB file> [-quantize]");
+			return;
+		}
+
+		GLBExporter glbExporter = new GLBExporter(new File(arguments[1]));
+		try {
+			glbExporter.setQuantizationEnabled((arguments.length > 2) && arguments[2].equals("-quantize"));
+
+			JTImporter jtImporter = new JTImporter();
+			jtImporter.setGeometryVisitor(glbExporter);
+			jtImporter.setGeometryRetained(false);
+			jtImporter.loadFile(new File(arguments[0]).toURI().toURL());
+			for(Iterator<String[]> iterator = jtImporter.getLoadInformation().iterator(); iterator.hasNext();){
+				String[] loadInformation = iterator.next();
+				System.out.println(loadInformation[0] + ": " + loadInformation[1]);
+			}
+		} finally {
+			glbExporter.close();
+		}
+	}
+}
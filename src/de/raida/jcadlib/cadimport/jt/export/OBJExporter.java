@@ -0,0 +1,653 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt.export;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.vecmath.Matrix4d;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+import de.raida.jcadlib.cadimport.jt.GeometryVisitor;
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.model.LSGNode;
+
+/**
+ * Writes the geometry of the importer as Wavefront OBJ, while the file is
+ * imported. Each shape instance becomes an object with its vertices (in the world
+ * coordinate system), normals and triangles, polylines or points.
+ * <br>Formatting the ASCII text is much slower than decoding, so each shape is cut
+ * into chunks of CHUNK_SIZE lines, which are formatted by a pool of threads. The
+ * chunks are written in the order of their submission through a direct buffer.
+ * The number of chunks in flight is limited, so the memory doesn't depend on the
+ * size of the model (together with JTImporter.setGeometryRetained(false)).
+ * <br>Usage: OBJExporter &lt;JT file&gt; &lt;OBJ file&gt; [-threads N]
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class OBJExporter implements GeometryVisitor, Closeable {
+	/** Size of the write buffer in bytes */
+	private final static int BUFFER_SIZE = 1 << 22;
+
+	/** Number of lines per chunk */
+	private final static int CHUNK_SIZE = 16384;
+
+	/** Number of chunks per thread, which may be in flight */
+	private final static int PENDING_CHUNKS_PER_THREAD = 4;
+
+	/** Number of decimal places of the coordinates */
+	private final static int DECIMAL_PLACES = 6;
+
+	/** Factor of the decimal places */
+	private final static double DECIMAL_FACTOR = Math.pow(10, DECIMAL_PLACES);
+
+	/** OBJ file */
+	private RandomAccessFile _randomAccessFile;
+
+	/** Channel of the OBJ file */
+	private FileChannel _fileChannel;
+
+	/** Write buffer */
+	private ByteBuffer _buffer;
+
+	/** Executor service, formatting the chunks (null, if the chunks are formatted by the calling thread) */
+	private ExecutorService _executorService;
+
+	/** Formatted chunks in the order of their submission */
+	private LinkedList<Future<byte[]>> _pendingChunks;
+
+	/** Maximum number of chunks in flight */
+	private int _maximumPendingChunkCount;
+
+	/** Number of written vertices (the indices of the OBJ file are global) */
+	private long _vertexCount;
+
+	/** Number of written normals */
+	private long _normalCount;
+
+	/** Number of written triangles */
+	private long _triangleCount;
+
+	/** Number of written objects */
+	private int _objectCount;
+
+	/**
+	 * Constructor.
+	 * @param  objFile     OBJ file to write
+	 * @param  threadCount Number of threads, formatting the text (0 to format by the calling thread)
+	 * @throws IOException Thrown if the file couldn't be created
+	 */
+	public OBJExporter(File objFile, int threadCount) throws IOException {
+		_randomAccessFile = new RandomAccessFile(objFile, "rw");
+		_randomAccessFile.setLength(0);
+		_fileChannel = _randomAccessFile.getChannel();
+		_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_pendingChunks = new LinkedList<Future<byte[]>>();
+		_maximumPendingChunkCount = Math.max(1, threadCount) * PENDING_CHUNKS_PER_THREAD;
+
+		if(threadCount > 0){
+			_executorService = Executors.newFixedThreadPool(threadCount, new ThreadFactory(){
+				/**
+				 * Creates a daemon thread.
+				 * @param  runnable Runnable to execute
+				 * @return          New thread
+				 */
+				public Thread newThread(Runnable runnable){
+					Thread thread = new Thread(runnable, "OBJ formatter");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		submit(toBytes("# Converted from JT\n"));
+	}
+
+	/**
+	 * Writes the given shape instance as object.
+	 * @param  shapeNode      Shape node of the LSG
+	 * @param  segmentID      ID of the shape segment
+	 * @param  decodedShape   Decoded shape
+	 * @param  transformation Transformation into the world coordinate system
+	 * @param  color          Color of the shape
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the shape couldn't be written
+	 */
+	public void visitShape(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName) throws IOException {
+		if(_fileChannel == null){
+			throw new IllegalStateException("OBJ exporter has already been closed!");
+		}
+
+		final double[] vertices = decodedShape.getVertices();
+		final int vertexCount = (vertices == null) ? 0 : (vertices.length / 3);
+		if(vertexCount == 0){
+			return;
+		}
+
+		// The transformation may be reused by the importer, the chunks are formatted later
+		final Matrix4d worldTransformation = (Matrix4d)transformation.clone();
+		final double[] colors = ((decodedShape.getColors() != null) && (decodedShape.getColors().length == vertices.length)) ? decodedShape.getColors() : null;
+		final double[] normals = ((decodedShape.getType() == DecodedShape.TYPE_TRIANGLES) && (decodedShape.getNormals() != null) && (decodedShape.getNormals().length == vertices.length)) ? decodedShape.getNormals() : null;
+
+		String objectName = null;
+		for(LSGNode lsgNode = shapeNode; (lsgNode != null) && (objectName == null); lsgNode = lsgNode.getParentLSGNode()){
+			objectName = JTImporter.getNodeName(lsgNode);
+		}
+		_objectCount++;
+		submit(toBytes("o " + ((objectName == null) ? "Shape" : objectName.replaceAll("\\s", "_")) + "_" + _objectCount + "\n"));
+
+		// Vertices (with the optional vertex colors)
+		for(int i = 0; i < vertexCount; i += CHUNK_SIZE){
+			final int start = i;
+			final int end = Math.min(vertexCount, i + CHUNK_SIZE);
+			submit(new Callable<byte[]>(){
+				/**
+				 * Formats the vertices of the chunk.
+				 * @return             Formatted text
+				 * @throws IOException Thrown if the text couldn't be encoded
+				 */
+				public byte[] call() throws IOException {
+					return formatVertices(vertices, colors, worldTransformation, start, end);
+				}
+			});
+		}
+
+		// Normals
+		final long vertexOffset = _vertexCount + 1;
+		final long normalOffset = _normalCount + 1;
+		_vertexCount += vertexCount;
+		if(normals != null){
+			final double[] normalMatrix = getNormalMatrix(worldTransformation);
+			for(int i = 0; i < vertexCount; i += CHUNK_SIZE){
+				final int start = i;
+				final int end = Math.min(vertexCount, i + CHUNK_SIZE);
+				submit(new Callable<byte[]>(){
+					/**
+					 * Formats the normals of the chunk.
+					 * @return             Formatted text
+					 * @throws IOException Thrown if the text couldn't be encoded
+					 */
+					public byte[] call() throws IOException {
+						return formatNormals(normals, normalMatrix, start, end);
+					}
+				});
+			}
+			_normalCount += vertexCount;
+		}
+
+		// Triangles, polylines or points
+		final int[] indices = decodedShape.getIndices();
+		if(decodedShape.getType() == DecodedShape.TYPE_TRIANGLES){
+			if(indices == null){
+				return;
+			}
+			int triangleCount = indices.length / 3;
+			for(int i = 0; i < triangleCount; i += CHUNK_SIZE){
+				final int start = i;
+				final int end = Math.min(triangleCount, i + CHUNK_SIZE);
+				submit(new Callable<byte[]>(){
+					/**
+					 * Formats the triangles of the chunk.
+					 * @return             Formatted text
+					 * @throws IOException Thrown if the text couldn't be encoded
+					 */
+					public byte[] call() throws IOException {
+						return formatTriangles(indices, vertexOffset, (normals == null) ? -1 : normalOffset, start, end);
+					}
+				});
+			}
+			_triangleCount += triangleCount;
+
+		} else if(decodedShape.getType() == DecodedShape.TYPE_POLYLINES){
+			final int[] primitiveIndices = decodedShape.getPrimitiveIndices();
+			if((indices == null) || (primitiveIndices == null)){
+				return;
+			}
+			int start = 0;
+			while(start < (primitiveIndices.length - 1)){
+				// Cut after the polyline, which exceeds the chunk size
+				int end = start;
+				int lineCount = 0;
+				while((end < (primitiveIndices.length - 1)) && (lineCount < CHUNK_SIZE)){
+					lineCount += primitiveIndices[end + 1] - primitiveIndices[end];
+					end++;
+				}
+				final int firstPolyline = start;
+				final int lastPolyline = end;
+				submit(new Callable<byte[]>(){
+					/**
+					 * Formats the polylines of the chunk.
+					 * @return             Formatted text
+					 * @throws IOException Thrown if the text couldn't be encoded
+					 */
+					public byte[] call() throws IOException {
+						return formatPolylines(indices, primitiveIndices, vertexOffset, firstPolyline, lastPolyline);
+					}
+				});
+				start = end;
+			}
+
+		} else {
+			for(int i = 0; i < vertexCount; i += CHUNK_SIZE){
+				final int start = i;
+				final int end = Math.min(vertexCount, i + CHUNK_SIZE);
+				submit(new Callable<byte[]>(){
+					/**
+					 * Formats the points of the chunk.
+					 * @return             Formatted text
+					 * @throws IOException Thrown if the text couldn't be encoded
+					 */
+					public byte[] call() throws IOException {
+						return formatPoints(vertexOffset, start, end);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of written triangles.
+	 * @return Number of written triangles
+	 */
+	public long getTriangleCount(){
+		return _triangleCount;
+	}
+
+	/**
+	 * Formats the given vertices as "v x y z [r g b]" lines.
+	 * @param  vertices       Vertices in the local coordinate system
+	 * @param  colors         Vertex colors or null
+	 * @param  transformation Transformation into the world coordinate system
+	 * @param  start          Index of the first vertex
+	 * @param  end            Index behind the last vertex
+	 * @return                Formatted text
+	 * @throws IOException    Thrown if the text couldn't be encoded
+	 */
+	private static byte[] formatVertices(double[] vertices, double[] colors, Matrix4d transformation, int start, int end) throws IOException {
+		StringBuffer text = new StringBuffer((end - start) * ((colors == null) ? 40 : 64));
+		for(int i = start; i < end; i++){
+			double x = vertices[i * 3];
+			double y = vertices[(i * 3) + 1];
+			double z = vertices[(i * 3) + 2];
+			text.append("v ");
+			appendNumber(text, (transformation.m00 * x) + (transformation.m01 * y) + (transformation.m02 * z) + transformation.m03);
+			text.append(' ');
+			appendNumber(text, (transformation.m10 * x) + (transformation.m11 * y) + (transformation.m12 * z) + transformation.m13);
+			text.append(' ');
+			appendNumber(text, (transformation.m20 * x) + (transformation.m21 * y) + (transformation.m22 * z) + transformation.m23);
+			if(colors != null){
+				for(int j = 0; j < 3; j++){
+					text.append(' ');
+					appendNumber(text, Math.max(0, Math.min(1, colors[(i * 3) + j])));
+				}
+			}
+			text.append('\n');
+		}
+		return toBytes(text);
+	}
+
+	/**
+	 * Formats the given normals as "vn x y z" lines.
+	 * @param  normals      Normals in the local coordinate system
+	 * @param  normalMatrix Transformation of the normals (3x3, row by row)
+	 * @param  start        Index of the first normal
+	 * @param  end          Index behind the last normal
+	 * @return              Formatted text
+	 * @throws IOException  Thrown if the text couldn't be encoded
+	 */
+	private static byte[] formatNormals(double[] normals, double[] normalMatrix, int start, int end) throws IOException {
+		StringBuffer text = new StringBuffer((end - start) * 40);
+		for(int i = start; i < end; i++){
+			double x = normals[i * 3];
+			double y = normals[(i * 3) + 1];
+			double z = normals[(i * 3) + 2];
+			double nx = (normalMatrix[0] * x) + (normalMatrix[1] * y) + (normalMatrix[2] * z);
+			double ny = (normalMatrix[3] * x) + (normalMatrix[4] * y) + (normalMatrix[5] * z);
+			double nz = (normalMatrix[6] * x) + (normalMatrix[7] * y) + (normalMatrix[8] * z);
+			double length = Math.sqrt((nx * nx) + (ny * ny) + (nz * nz));
+			if(length > 0){
+				nx /= length;
+				ny /= length;
+				nz /= length;
+			}
+			text.append("vn ");
+			appendNumber(text, nx);
+			text.append(' ');
+			appendNumber(text, ny);
+			text.append(' ');
+			appendNumber(text, nz);
+			text.append('\n');
+		}
+		return toBytes(text);
+	}
+
+	/**
+	 * Formats the given triangles as "f v//n v//n v//n" or "f v v v" lines.
+	 * @param  indices      Vertex indices of the triangles
+	 * @param  vertexOffset Global index of the first vertex of the shape
+	 * @param  normalOffset Global index of the first normal of the shape or -1, if the shape has no normals
+	 * @param  start        Index of the first triangle
+	 * @param  end          Index behind the last triangle
+	 * @return              Formatted text
+	 * @throws IOException  Thrown if the text couldn't be encoded
+	 */
+	private static byte[] formatTriangles(int[] indices, long vertexOffset, long normalOffset, int start, int end) throws IOException {
+		StringBuffer text = new StringBuffer((end - start) * ((normalOffset < 0) ? 24 : 48));
+		for(int i = start; i < end; i++){
+			text.append('f');
+			for(int j = 0; j < 3; j++){
+				int index = indices[(i * 3) + j];
+				text.append(' ').append(vertexOffset + index);
+				if(normalOffset >= 0){
+					text.append("//").append(normalOffset + index);
+				}
+			}
+			text.append('\n');
+		}
+		return toBytes(text);
+	}
+
+	/**
+	 * Formats the given polylines as "l v v ..." lines.
+	 * @param  indices          Vertex indices of the polylines
+	 * @param  primitiveIndices Index of the first vertex index of each polyline (and the end of the last one)
+	 * @param  vertexOffset     Global index of the first vertex of the shape
+	 * @param  start            Index of the first polyline
+	 * @param  end              Index behind the last polyline
+	 * @return                  Formatted text
+	 * @throws IOException      Thrown if the text couldn't be encoded
+	 */
+	private static byte[] formatPolylines(int[] indices, int[] primitiveIndices, long vertexOffset, int start, int end) throws IOException {
+		StringBuffer text = new StringBuffer();
+		for(int i = start; i < end; i++){
+			if((primitiveIndices[i + 1] - primitiveIndices[i]) < 2){
+				continue;
+			}
+			text.append('l');
+			for(int j = primitiveIndices[i]; j < primitiveIndices[i + 1]; j++){
+				text.append(' ').append(vertexOffset + indices[j]);
+			}
+			text.append('\n');
+		}
+		return toBytes(text);
+	}
+
+	/**
+	 * Formats the given points as "p v" lines.
+	 * @param  vertexOffset Global index of the first vertex of the shape
+	 * @param  start        Index of the first point
+	 * @param  end          Index behind the last point
+	 * @return              Formatted text
+	 * @throws IOException  Thrown if the text couldn't be encoded
+	 */
+	private static byte[] formatPoints(long vertexOffset, int start, int end) throws IOException {
+		StringBuffer text = new StringBuffer((end - start) * 12);
+		for(int i = start; i < end; i++){
+			text.append("p ").append(vertexOffset + i).append('\n');
+		}
+		return toBytes(text);
+	}
+
+	/**
+	 * Appends the given number with DECIMAL_PLACES decimal places, without
+	 * trailing zeros. Unlike String.valueOf(), it never uses the exponent notation,
+	 * which isn't understood by all OBJ readers, and is much faster than String.format().
+	 * @param text  Text to append to
+	 * @param value Number
+	 */
+	private static void appendNumber(StringBuffer text, double value){
+		if(Double.isNaN(value) || Double.isInfinite(value)){
+			text.append('0');
+			return;
+		}
+
+		long scaledValue = Math.round(Math.abs(value) * DECIMAL_FACTOR);
+		if((scaledValue < 0) || (scaledValue == Long.MAX_VALUE)){
+			text.append(new BigDecimal(value).toPlainString());
+			return;
+		}
+		if((value < 0) && (scaledValue != 0)){
+			text.append('-');
+		}
+
+		long integerPart = scaledValue / (long)DECIMAL_FACTOR;
+		long fractionPart = scaledValue % (long)DECIMAL_FACTOR;
+		text.append(integerPart);
+		if(fractionPart != 0){
+			text.append('.');
+			int digits = DECIMAL_PLACES;
+			while((fractionPart % 10) == 0){
+				fractionPart /= 10;
+				digits--;
+			}
+			String fraction = String.valueOf(fractionPart);
+			for(int i = fraction.length(); i < digits; i++){
+				text.append('0');
+			}
+			text.append(fraction);
+		}
+	}
+
+	/**
+	 * Returns the transformation of the normals: the inverse transposed of the
+	 * rotational part, computed as cofactor matrix (the length doesn't matter, the
+	 * normals are normalized). The sign of the determinant keeps the direction for
+	 * mirroring transformations.
+	 * @param  transformation Transformation of the vertices
+	 * @return                Transformation of the normals (3x3, row by row)
+	 */
+	private static double[] getNormalMatrix(Matrix4d transformation){
+		double[] normalMatrix = new double[]{
+			(transformation.m11 * transformation.m22) - (transformation.m12 * transformation.m21),
+			(transformation.m12 * transformation.m20) - (transformation.m10 * transformation.m22),
+			(transformation.m10 * transformation.m21) - (transformation.m11 * transformation.m20),
+			(transformation.m02 * transformation.m21) - (transformation.m01 * transformation.m22),
+			(transformation.m00 * transformation.m22) - (transformation.m02 * transformation.m20),
+			(transformation.m01 * transformation.m20) - (transformation.m00 * transformation.m21),
+			(transformation.m01 * transformation.m12) - (transformation.m02 * transformation.m11),
+			(transformation.m02 * transformation.m10) - (transformation.m00 * transformation.m12),
+			(transformation.m00 * transformation.m11) - (transformation.m01 * transformation.m10)};
+		double determinant = (transformation.m00 * normalMatrix[0]) + (transformation.m01 * normalMatrix[1]) + (transformation.m02 * normalMatrix[2]);
+		if(determinant < 0){
+			for(int i = 0; i < normalMatrix.length; i++){
+				normalMatrix[i] = -normalMatrix[i];
+			}
+		}
+		return normalMatrix;
+	}
+
+	/**
+	 * Returns the given text as ASCII bytes.
+	 * @param  text        Text
+	 * @return             ASCII bytes
+	 * @throws IOException Thrown if the text couldn't be encoded
+	 */
+	private static byte[] toBytes(CharSequence text) throws IOException {
+		return text.toString().getBytes("US-ASCII");
+	}
+
+	/**
+	 * Submits the given text, which is already formatted.
+	 * @param  text        Formatted text
+	 * @throws IOException Thrown if a previous chunk couldn't be written
+	 */
+	private void submit(final byte[] text) throws IOException {
+		submit(new Callable<byte[]>(){
+			/**
+			 * Returns the formatted text.
+			 * @return Formatted text
+			 */
+			public byte[] call(){
+				return text;
+			}
+		});
+	}
+
+	/**
+	 * Submits the given chunk for formatting. Waits for the oldest chunks and
+	 * writes them, if too many chunks are in flight.
+	 * @param  chunk       Chunk, formatting the text
+	 * @throws IOException Thrown if a chunk couldn't be formatted or written
+	 */
+	private void submit(Callable<byte[]> chunk) throws IOException {
+		if(_executorService == null){
+			try {
+				write(chunk.call());
+			} catch(IOException exception){
+				throw exception;
+			} catch(Exception exception){
+				throw new IllegalStateException("OBJ chunk couldn't be formatted!", exception);
+			}
+			return;
+		}
+
+		_pendingChunks.add(_executorService.submit(chunk));
+		while(_pendingChunks.size() > _maximumPendingChunkCount){
+			writeNextChunk();
+		}
+	}
+
+	/**
+	 * Waits for the oldest chunk in flight and writes it.
+	 * @throws IOException Thrown if the chunk couldn't be formatted or written
+	 */
+	private void writeNextChunk() throws IOException {
+		Future<byte[]> future = _pendingChunks.removeFirst();
+		try {
+			write(future.get());
+		} catch(InterruptedException exception){
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while formatting the OBJ chunks!", exception);
+		} catch(ExecutionException exception){
+			if(exception.getCause() instanceof IOException){
+				throw (IOException)exception.getCause();
+			}
+			throw new IllegalStateException("OBJ chunk couldn't be formatted!", exception.getCause());
+		}
+	}
+
+	/**
+	 * Writes the given text through the write buffer.
+	 * @param  text        Formatted text
+	 * @throws IOException Thrown if the text couldn't be written
+	 */
+	private void write(byte[] text) throws IOException {
+		int offset = 0;
+		while(offset < text.length){
+			if(!_buffer.hasRemaining()){
+				flush();
+			}
+			int length = Math.min(_buffer.remaining(), text.length - offset);
+			_buffer.put(text, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Writes the write buffer to the file.
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void flush() throws IOException {
+		_buffer.flip();
+		while(_buffer.hasRemaining()){
+			_fileChannel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	/**
+	 * Waits for the chunks in flight, writes them and closes the file.
+	 * @throws IOException Thrown if the file couldn't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(_fileChannel == null){
+			return;
+		}
+
+		try {
+			while(_pendingChunks.size() > 0){
+				writeNextChunk();
+			}
+			flush();
+
+		} finally {
+			if(_executorService != null){
+				_executorService.shutdownNow();
+			}
+			_pendingChunks.clear();
+			_randomAccessFile.close();
+			_fileChannel = null;
+		}
+	}
+
+	/**
+	 * Main entry point.
+	 * @param  arguments Arguments of the command line: &lt;JT file&gt; &lt;OBJ file&gt; [-threads N]
+	 * @throws Exception Thrown if the file couldn't be converted
+	 */
+	public static void main(String[] arguments) throws Exception {
+		if(arguments.length < 2){
+			System.out.println("Usage: OBJExporter <JT file> <OBJ file> [-threads N]");
+			return;
+		}
+
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		if((arguments.length > 3) && arguments[2].equals("-threads")){
+			threadCount = Integer.parseInt(arguments[3]);
+		}
+
+		OBJExporter objExporter = new OBJExporter(new File(arguments[1]), threadCount);
+		try {
+			JTImporter jtImporter = new JTImporter();
+			jtImporter.setGeometryVisitor(objExporter);
+			jtImporter.setGeometryRetained(false);
+			jtImporter.loadFile(new File(arguments[0]).toURI().toURL());
+			for(Iterator<String[]> iterator = jtImporter.getLoadInformation().iterator(); iterator.hasNext();){
+				String[] loadInformation = iterator.next();
+				System.out.println(loadInformation[0] + ": " + loadInformation[1]);
+			}
+		} finally {
+			objExporter.close();
+		}
+		System.out.println(objExporter.getTriangleCount() + " triangles written");
+	}
+}
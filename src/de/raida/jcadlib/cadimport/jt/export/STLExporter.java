@@ -0,0 +1,261 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+
+package de.raida.jcadlib.cadimport.jt.export;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import javax.vecmath.Matrix4d;
+
+import de.raida.jcadlib.cadimport.jt.DecodedShape;
+import de.raida.jcadlib.cadimport.jt.GeometryVisitor;
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.model.LSGNode;
+
+/**
+ * Writes the triangles of the importer as binary STL, while the file is imported.
+ * Each shape instance is transformed into the world coordinate system and written
+ * through a direct buffer, so together with JTImporter.setGeometryRetained(false)
+ * the memory only depends on the biggest shape, not on the number of triangles.
+ * The number of triangles in the header is written by close().
+ * <br>Usage: STLExporter &lt;JT file&gt; &lt;STL file&gt;
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class STLExporter implements GeometryVisitor, Closeable {
+	/** Size of the write buffer in bytes */
+	private final static int BUFFER_SIZE = 1 << 22;
+
+	/** Size of the header in bytes */
+	private final static int HEADER_SIZE = 80;
+
+	/** Size of a triangle in bytes */
+	private final static int TRIANGLE_SIZE = 50;
+
+	/** Maximum number of triangles of a binary STL file (unsigned 32 bit) */
+	private final static long MAXIMUM_TRIANGLE_COUNT = 0xFFFFFFFFL;
+
+	/** STL file */
+	private RandomAccessFile _randomAccessFile;
+
+	/** Channel of the STL file */
+	private FileChannel _fileChannel;
+
+	/** Write buffer */
+	private ByteBuffer _buffer;
+
+	/** Vertices of the current shape in the world coordinate system */
+	private float[] _worldVertices;
+
+	/** Number of written triangles */
+	private long _triangleCount;
+
+	/**
+	 * Constructor.
+	 * @param  stlFile     STL file to write
+	 * @throws IOException Thrown if the file couldn't be created
+	 */
+	public STLExporter(File stlFile) throws IOException {
+		_randomAccessFile = new RandomAccessFile(stlFile, "rw");
+		_randomAccessFile.setLength(0);
+		_fileChannel = _randomAccessFile.getChannel();
+		_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_buffer.order(ByteOrder.LITTLE_ENDIAN);
+		_worldVertices = new float[0];
+
+		// Header and number of triangles (updated by close())
+		byte[] header = new byte[HEADER_SIZE];
+		byte[] text = "Converted from JT".getBytes("US-ASCII");
+		System.arraycopy(text, 0, header, 0, text.length);
+		_buffer.put(header);
+		_buffer.putInt(0);
+	}
+
+	/**
+	 * Writes the triangles of the given shape instance. Polylines and points are
+	 * ignored.
+	 * @param  shapeNode      Shape node of the LSG
+	 * @param  segmentID      ID of the shape segment
+	 * @param  decodedShape   Decoded shape
+	 * @param  transformation Transformation into the world coordinate system
+	 * @param  color          Color of the shape
+	 * @param  layerName      Layer name
+	 * @throws IOException    Thrown if the triangles couldn't be written
+	 */
+	public void visitShape(LSGNode shapeNode, String segmentID, DecodedShape decodedShape, Matrix4d transformation, Color color, String layerName) throws IOException {
+		if(_fileChannel == null){
+			throw new IllegalStateException("STL exporter has already been closed!");
+		}
+		if((decodedShape.getType() != DecodedShape.TYPE_TRIANGLES) || (decodedShape.getVertices() == null) || (decodedShape.getIndices() == null)){
+			return;
+		}
+
+		// Transform each vertex once, the triangles share them
+		double[] vertices = decodedShape.getVertices();
+		if(_worldVertices.length < vertices.length){
+			_worldVertices = new float[vertices.length];
+		}
+		float[] worldVertices = _worldVertices;
+		for(int i = 0; (i + 2) < vertices.length; i += 3){
+			double x = vertices[i];
+			double y = vertices[i + 1];
+			double z = vertices[i + 2];
+			worldVertices[i] = (float)((transformation.m00 * x) + (transformation.m01 * y) + (transformation.m02 * z) + transformation.m03);
+			worldVertices[i + 1] = (float)((transformation.m10 * x) + (transformation.m11 * y) + (transformation.m12 * z) + transformation.m13);
+			worldVertices[i + 2] = (float)((transformation.m20 * x) + (transformation.m21 * y) + (transformation.m22 * z) + transformation.m23);
+		}
+
+		int[] indices = decodedShape.getIndices();
+		ByteBuffer buffer = _buffer;
+		for(int i = 0; (i + 2) < indices.length; i += 3){
+			if(buffer.remaining() < TRIANGLE_SIZE){
+				flush();
+			}
+
+			int index1 = indices[i] * 3;
+			int index2 = indices[i + 1] * 3;
+			int index3 = indices[i + 2] * 3;
+
+			// Facet normal
+			float ux = worldVertices[index2] - worldVertices[index1];
+			float uy = worldVertices[index2 + 1] - worldVertices[index1 + 1];
+			float uz = worldVertices[index2 + 2] - worldVertices[index1 + 2];
+			float vx = worldVertices[index3] - worldVertices[index1];
+			float vy = worldVertices[index3 + 1] - worldVertices[index1 + 1];
+			float vz = worldVertices[index3 + 2] - worldVertices[index1 + 2];
+			float nx = (uy * vz) - (uz * vy);
+			float ny = (uz * vx) - (ux * vz);
+			float nz = (ux * vy) - (uy * vx);
+			float length = (float)Math.sqrt((nx * nx) + (ny * ny) + (nz * nz));
+			if(length > 0){
+				nx /= length;
+				ny /= length;
+				nz /= length;
+			}
+			buffer.putFloat(nx);
+			buffer.putFloat(ny);
+			buffer.putFloat(nz);
+
+			buffer.putFloat(worldVertices[index1]);
+			buffer.putFloat(worldVertices[index1 + 1]);
+			buffer.putFloat(worldVertices[index1 + 2]);
+			buffer.putFloat(worldVertices[index2]);
+			buffer.putFloat(worldVertices[index2 + 1]);
+			buffer.putFloat(worldVertices[index2 + 2]);
+			buffer.putFloat(worldVertices[index3]);
+			buffer.putFloat(worldVertices[index3 + 1]);
+			buffer.putFloat(worldVertices[index3 + 2]);
+			buffer.putShort((short)0);
+			_triangleCount++;
+		}
+		if(_triangleCount > MAXIMUM_TRIANGLE_COUNT){
+			throw new IllegalStateException("Binary STL files are limited to " + MAXIMUM_TRIANGLE_COUNT + " triangles!");
+		}
+	}
+
+	/**
+	 * Returns the number of written triangles.
+	 * @return Number of written triangles
+	 */
+	public long getTriangleCount(){
+		return _triangleCount;
+	}
+
+	/**
+	 * Writes the write buffer to the file.
+	 * @throws IOException Thrown if the buffer couldn't be written
+	 */
+	private void flush() throws IOException {
+		_buffer.flip();
+		while(_buffer.hasRemaining()){
+			_fileChannel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	/**
+	 * Writes the remaining triangles and the number of triangles and closes the file.
+	 * @throws IOException Thrown if the file couldn't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(_fileChannel == null){
+			return;
+		}
+
+		try {
+			flush();
+			ByteBuffer triangleCount = ByteBuffer.allocate(4);
+			triangleCount.order(ByteOrder.LITTLE_ENDIAN);
+			triangleCount.putInt((int)_triangleCount);
+			triangleCount.flip();
+			long position = HEADER_SIZE;
+			while(triangleCount.hasRemaining()){
+				position += _fileChannel.write(triangleCount, position);
+			}
+
+		} finally {
+			_randomAccessFile.close();
+			_fileChannel = null;
+			_worldVertices = null;
+		}
+	}
+
+	/**
+	 * Main entry point.
+	 * @param  arguments Arguments of the command line: &lt;JT file&gt; &lt;STL file&gt;
+	 * @throws Exception Thrown if the file couldn't be converted
+	 */
+	public static void main(String[] arguments) throws Exception {
+		if(arguments.length < 2){
+			System.out.println("Usage: STLExporter <JT file> <STL file>");
+			return;
+		}
+
+		STLExporter stlExporter = new STLExporter(new File(arguments[1]));
+		try {
+			JTImporter jtImporter = new JTImporter();
+			jtImporter.setGeometryVisitor(stlExporter);
+			jtImporter.setGeometryRetained(false);
+			jtImporter.loadFile(new File(arguments[0]).toURI().toURL());
+			for(Iterator<String[]> iterator = jtImporter.getLoadInformation().iterator(); iterator.hasNext();){
+				String[] loadInformation = iterator.next();
+				System.out.println(loadInformation[0] + ": " + loadInformation[1]);
+			}
+		} finally {
+			stlExporter.close();
+		}
+		System.out.println(stlExporter.getTriangleCount() + " triangles written");
+	}
+}
@@ -0,0 +1,486 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import de.raida.jcadlib.cadimport.jt.codec.CodeTextWriter;
+import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContextTableEntry;
+import de.raida.jcadlib.cadimport.jt.codec.Int32ProbabilityContexts;
+import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
+import de.raida.jcadlib.cadimport.jt.codec.arithmetic.ArithmeticEncoder;
+import de.raida.jcadlib.cadimport.jt.codec.bitlength.BitlengthEncoder;
+import de.raida.jcadlib.cadimport.jt.model.GUID;
+
+/**
+ * Growable buffer for writing the data types of a JT file, the counterpart of the
+ * Helper.read*() methods. Compressed integer vectors are written as Int32
+ * Compressed Data Packets (JT version 8) or Int32 Compressed Data Packets Mk. 2
+ * (JT version 9), using the codec given to the constructor.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class DataWriter {
+	/** Codec type: null codec */
+	public final static int CODECTYPE_NULL       = 0;
+
+	/** Codec type: bitlength codec */
+	public final static int CODECTYPE_BITLENGTH  = 1;
+
+	/** Codec type: arithmetic codec */
+	public final static int CODECTYPE_ARITHMETIC = 3;
+
+	/** Maximum number of entries of a probability context */
+	private final static int MAXIMUM_ENTRY_COUNT = 256;
+
+	/** Byte buffer, holding the written bytes */
+	private ByteBuffer _byteBuffer;
+
+	/** Version of the JT file */
+	private float _jtFileVersion;
+
+	/** Codec type of the compressed integer vectors */
+	private int _codecType;
+
+	/**
+	 * Constructor.
+	 * @param byteOrder     Byte order
+	 * @param jtFileVersion Version of the JT file
+	 * @param codecType     Codec type of the compressed integer vectors
+	 */
+	public DataWriter(ByteOrder byteOrder, float jtFileVersion, int codecType){
+		if((codecType != CODECTYPE_NULL) && (codecType != CODECTYPE_BITLENGTH) && (codecType != CODECTYPE_ARITHMETIC)){
+			throw new IllegalArgumentException("Found invalid codec type: " + codecType);
+		}
+		_byteBuffer = ByteBuffer.allocate(1024);
+		_byteBuffer.order(byteOrder);
+		_jtFileVersion = jtFileVersion;
+		_codecType = codecType;
+	}
+
+	/**
+	 * Returns the version of the JT file.
+	 * @return Version of the JT file
+	 */
+	public float getJTFileVersion(){
+		return _jtFileVersion;
+	}
+
+	/**
+	 * Returns the number of written bytes.
+	 * @return Number of written bytes
+	 */
+	public int getPosition(){
+		return _byteBuffer.position();
+	}
+
+	/**
+	 * Discards all written bytes.
+	 */
+	public void clear(){
+		_byteBuffer.clear();
+	}
+
+	/**
+	 * Returns the written bytes.
+	 * @return Byte buffer, positioned at the first and limited to the last written byte
+	 */
+	public ByteBuffer getByteBuffer(){
+		ByteBuffer byteBuffer = _byteBuffer.duplicate();
+		byteBuffer.order(_byteBuffer.order());
+		byteBuffer.flip();
+		return byteBuffer;
+	}
+
+	/**
+	 * Overwrites an already written I32 value.
+	 * @param position Position of the value
+	 * @param value    New value
+	 */
+	public void setI32(int position, int value){
+		_byteBuffer.putInt(position, value);
+	}
+
+	/**
+	 * Writes an U8 value.
+	 * @param value Value to write
+	 */
+	public void writeU8(int value){
+		ensureCapacity(1);
+		_byteBuffer.put((byte)value);
+	}
+
+	/**
+	 * Writes an I16 or U16 value.
+	 * @param value Value to write
+	 */
+	public void writeI16(int value){
+		ensureCapacity(2);
+		_byteBuffer.putShort((short)value);
+	}
+
+	/**
+	 * Writes an I32 value.
+	 * @param value Value to write
+	 */
+	public void writeI32(int value){
+		ensureCapacity(4);
+		_byteBuffer.putInt(value);
+	}
+
+	/**
+	 * Writes an U32 value.
+	 * @param value Value to write
+	 */
+	public void writeU32(long value){
+		writeI32((int)value);
+	}
+
+	/**
+	 * Writes an U64 value.
+	 * @param value Value to write
+	 */
+	public void writeU64(long value){
+		ensureCapacity(8);
+		_byteBuffer.putLong(value);
+	}
+
+	/**
+	 * Writes a F32 value.
+	 * @param value Value to write
+	 */
+	public void writeF32(float value){
+		ensureCapacity(4);
+		_byteBuffer.putFloat(value);
+	}
+
+	/**
+	 * Writes a F64 value.
+	 * @param value Value to write
+	 */
+	public void writeF64(double value){
+		ensureCapacity(8);
+		_byteBuffer.putDouble(value);
+	}
+
+	/**
+	 * Writes the given bytes.
+	 * @param bytes  Bytes to write
+	 * @param offset Offset of the first byte
+	 * @param length Number of bytes
+	 */
+	public void writeBytes(byte[] bytes, int offset, int length){
+		ensureCapacity(length);
+		_byteBuffer.put(bytes, offset, length);
+	}
+
+	/**
+	 * Writes a GUID.
+	 * @param guid GUID to write
+	 */
+	public void writeGUID(GUID guid){
+		long mostSignificantBits = guid.getMostSignificantBits();
+		writeU32(mostSignificantBits >>> 32);
+		writeI16((int)(mostSignificantBits >>> 16) & 0xFFFF);
+		writeI16((int)mostSignificantBits & 0xFFFF);
+		for(int shift = 56; shift >= 0; shift -= 8){
+			writeU8((int)(guid.getLeastSignificantBits() >>> shift) & 0xFF);
+		}
+	}
+
+	/**
+	 * Writes a string of 16 bit characters, preceded by its length.
+	 * @param string String to write or null
+	 */
+	public void writeMultiByteString(String string){
+		if(string == null){
+			writeI32(0);
+			return;
+		}
+		writeI32(string.length());
+		for(int i = 0; i < string.length(); i++){
+			writeI16(string.charAt(i));
+		}
+	}
+
+	/**
+	 * Writes a coordinate, a direction or a color.
+	 * @param values Components to write
+	 */
+	public void writeF32s(float[] values){
+		for(int i = 0; i < values.length; i++){
+			writeF32(values[i]);
+		}
+	}
+
+	/**
+	 * Writes a bounding box.
+	 * @param boundingBox Minimum and maximum corner
+	 */
+	public void writeBBoxF32(float[][] boundingBox){
+		writeF32s(boundingBox[0]);
+		writeF32s(boundingBox[1]);
+	}
+
+	/**
+	 * Writes a vector of F32 values, preceded by its length.
+	 * @param values Values to write
+	 */
+	public void writeVecF32(float[] values){
+		writeI32(values.length);
+		writeF32s(values);
+	}
+
+	/**
+	 * Writes a range.
+	 * @param minimum Minimum
+	 * @param maximum Maximum
+	 */
+	public void writeRange(int minimum, int maximum){
+		writeI32(minimum);
+		writeI32(maximum);
+	}
+
+	/**
+	 * Writes a compressed vector of integer values. The reader has to use the same
+	 * predictor type. Vectors, read by readVecU32(), have to contain only values
+	 * between 0 and 0xffff.
+	 * @param values        Values to write
+	 * @param predictorType Predictor type
+	 */
+	public void writeVecI32(int[] values, PredictorType predictorType){
+		int[] residuals = Int32CDP.packResiduals(values, predictorType);
+		if(_jtFileVersion < 9.0){
+			writeInt32CDP(residuals, _codecType);
+		} else {
+			writeInt32CDP2(residuals, _codecType);
+		}
+	}
+
+	/**
+	 * Writes an Int32 Compressed Data Packet (JT version 8).
+	 * @param residuals Residuals to write
+	 * @param codecType Codec type
+	 */
+	private void writeInt32CDP(int[] residuals, int codecType){
+		codecType = getCodecType(residuals, codecType);
+		writeU8(codecType);
+
+		if(codecType == CODECTYPE_NULL){
+			writeI32(residuals.length);
+			for(int i = 0; i < residuals.length; i++){
+				writeI32(residuals[i]);
+			}
+			return;
+		}
+
+		CodeTextWriter codeTextWriter = new CodeTextWriter();
+		if(codecType == CODECTYPE_ARITHMETIC){
+			Int32ProbabilityContexts int32ProbabilityContexts = ArithmeticEncoder.createProbabilityContexts(residuals, MAXIMUM_ENTRY_COUNT);
+			List<Integer> outOfBandValues = ArithmeticEncoder.encode(residuals, int32ProbabilityContexts, codeTextWriter);
+			writeProbabilityContexts(int32ProbabilityContexts);
+			writeI32(outOfBandValues.size());
+			if(outOfBandValues.size() > 0){
+				writeInt32CDP(toArray(outOfBandValues), CODECTYPE_BITLENGTH);
+			}
+		} else {
+			BitlengthEncoder.encode(residuals, codeTextWriter);
+		}
+
+		writeI32((int)codeTextWriter.getBitLength());
+		writeI32(residuals.length);
+		writeCodeText(codeTextWriter);
+	}
+
+	/**
+	 * Writes an Int32 Compressed Data Packet Mk. 2 (JT version 9).
+	 * @param residuals Residuals to write
+	 * @param codecType Codec type
+	 */
+	private void writeInt32CDP2(int[] residuals, int codecType){
+		writeI32(residuals.length);
+		if(residuals.length == 0){
+			return;
+		}
+
+		codecType = getCodecType(residuals, codecType);
+		writeU8(codecType);
+
+		if(codecType == CODECTYPE_NULL){
+			writeI32(residuals.length * 4);
+			for(int i = 0; i < residuals.length; i++){
+				writeI32(residuals[i]);
+			}
+			return;
+		}
+
+		CodeTextWriter codeTextWriter = new CodeTextWriter();
+		if(codecType == CODECTYPE_ARITHMETIC){
+			Int32ProbabilityContexts int32ProbabilityContexts = ArithmeticEncoder.createProbabilityContexts(residuals, MAXIMUM_ENTRY_COUNT);
+			List<Integer> outOfBandValues = ArithmeticEncoder.encode(residuals, int32ProbabilityContexts, codeTextWriter);
+			writeI32((int)codeTextWriter.getBitLength());
+			writeCodeText(codeTextWriter);
+			writeProbabilityContexts(int32ProbabilityContexts);
+			writeInt32CDP2(toArray(outOfBandValues), CODECTYPE_BITLENGTH);
+		} else {
+			BitlengthEncoder.encode2(residuals, codeTextWriter);
+			writeI32((int)codeTextWriter.getBitLength());
+			writeCodeText(codeTextWriter);
+		}
+	}
+
+	/**
+	 * Returns the codec type, which can be used for the given residuals. Empty
+	 * vectors and residuals with a range beyond 31 bits are written by the null codec.
+	 * @param  residuals Residuals to write
+	 * @param  codecType Requested codec type
+	 * @return           Codec type to use
+	 */
+	private int getCodecType(int[] residuals, int codecType){
+		if(residuals.length == 0){
+			return CODECTYPE_NULL;
+		}
+
+		int minimum = Integer.MAX_VALUE;
+		int maximum = Integer.MIN_VALUE;
+		for(int i = 0; i < residuals.length; i++){
+			minimum = Math.min(minimum, residuals[i]);
+			maximum = Math.max(maximum, residuals[i]);
+		}
+		if(((long)maximum - minimum) > Integer.MAX_VALUE){
+			return CODECTYPE_NULL;
+		}
+		return codecType;
+	}
+
+	/**
+	 * Writes the words of the given code text in the byte order of the file.
+	 * @param codeTextWriter Writer, holding the code text
+	 */
+	private void writeCodeText(CodeTextWriter codeTextWriter){
+		int[] words = codeTextWriter.getWords();
+		if(_jtFileVersion < 9.0){
+			writeI32(words.length);
+		}
+		for(int i = 0; i < words.length; i++){
+			writeI32(words[i]);
+		}
+	}
+
+	/**
+	 * Writes the given probability contexts. Only the first context is written.
+	 * @param int32ProbabilityContexts Probability contexts
+	 */
+	private void writeProbabilityContexts(Int32ProbabilityContexts int32ProbabilityContexts){
+		int entryCount = int32ProbabilityContexts.getProbabilityContextEntryCount(0);
+		long maximumSymbol = 0;
+		long maximumOccurrenceCount = 0;
+		int minimumValue = Integer.MAX_VALUE;
+		long maximumValue = Integer.MIN_VALUE;
+		for(int i = 0; i < entryCount; i++){
+			Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = int32ProbabilityContexts.getProbabilityContextEntry(0, i);
+			maximumSymbol = Math.max(maximumSymbol, int32ProbabilityContextTableEntry.getSymbol() + 2);
+			maximumOccurrenceCount = Math.max(maximumOccurrenceCount, int32ProbabilityContextTableEntry.getOccurrenceCount());
+			minimumValue = Math.min(minimumValue, int32ProbabilityContextTableEntry.getAssociatedValue());
+			maximumValue = Math.max(maximumValue, int32ProbabilityContextTableEntry.getAssociatedValue());
+		}
+		int numberSymbolBits = getBitFieldWidth(maximumSymbol);
+		int numberOccurrenceCountBits = getBitFieldWidth(maximumOccurrenceCount);
+		int numberValueBits = getBitFieldWidth(maximumValue - minimumValue);
+
+		// The table is a big endian bit stream, independent of the byte order of the file
+		CodeTextWriter codeTextWriter = new CodeTextWriter();
+		if(_jtFileVersion < 9.0){
+			writeU8(1);
+			codeTextWriter.write(entryCount, 32);
+			codeTextWriter.write(numberSymbolBits, 6);
+			codeTextWriter.write(numberOccurrenceCountBits, 6);
+			codeTextWriter.write(numberValueBits, 6);
+			codeTextWriter.write(0, 6);
+			codeTextWriter.write(minimumValue, 32);
+		} else {
+			codeTextWriter.write(entryCount, 16);
+			codeTextWriter.write(numberSymbolBits, 6);
+			codeTextWriter.write(numberOccurrenceCountBits, 6);
+			codeTextWriter.write(numberValueBits, 6);
+			codeTextWriter.write(minimumValue, 32);
+		}
+
+		for(int i = 0; i < entryCount; i++){
+			Int32ProbabilityContextTableEntry int32ProbabilityContextTableEntry = int32ProbabilityContexts.getProbabilityContextEntry(0, i);
+			codeTextWriter.write(int32ProbabilityContextTableEntry.getSymbol() + 2, numberSymbolBits);
+			codeTextWriter.write(int32ProbabilityContextTableEntry.getOccurrenceCount(), numberOccurrenceCountBits);
+			codeTextWriter.write(int32ProbabilityContextTableEntry.getAssociatedValue() - minimumValue, numberValueBits);
+		}
+
+		writeBytes(codeTextWriter.getCodeText(), 0, (int)((codeTextWriter.getBitLength() + 7) >> 3));
+	}
+
+	/**
+	 * Returns the number of bits, needed to store the given unsigned value.
+	 * @param  value Unsigned value
+	 * @return       Number of bits
+	 */
+	private static int getBitFieldWidth(long value){
+		return 64 - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * Converts the given list into an array.
+	 * @param  values List of values
+	 * @return        Array of values
+	 */
+	private static int[] toArray(List<Integer> values){
+		int[] array = new int[values.size()];
+		for(int i = 0; i < array.length; i++){
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Grows the buffer, so that the given number of bytes can be written.
+	 * @param numberOfBytes Number of bytes to write
+	 */
+	private void ensureCapacity(int numberOfBytes){
+		if(_byteBuffer.remaining() >= numberOfBytes){
+			return;
+		}
+
+		long capacity = Math.max((long)_byteBuffer.capacity() * 2, (long)_byteBuffer.position() + numberOfBytes);
+		if(capacity > Integer.MAX_VALUE){
+			throw new IllegalStateException("Data exceeds the maximum buffer size: " + capacity);
+		}
+		ByteBuffer byteBuffer = ByteBuffer.allocate((int)capacity);
+		byteBuffer.order(_byteBuffer.order());
+		_byteBuffer.flip();
+		byteBuffer.put(_byteBuffer);
+		_byteBuffer = byteBuffer;
+	}
+}
@@ -0,0 +1,1101 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.generator;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.zip.Deflater;
+
+import de.raida.jcadlib.cadimport.jt.JTImporter;
+import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
+import de.raida.jcadlib.cadimport.jt.model.GUID;
+import de.raida.jcadlib.cadimport.jt.model.SegmentType;
+import de.raida.jcadlib.cadimport.jt.model.TriStripSetShapeLODElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.GeometricTransformAttributeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.InstanceNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.MaterialAttributeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PartNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.PartitionNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.RangeLODNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.lsg.TriStripSetShapeNodeElement;
+import de.raida.jcadlib.cadimport.jt.model.property.LateLoadedPropertyAtomElement;
+import de.raida.jcadlib.cadimport.jt.model.property.StringPropertyAtomElement;
+
+/**
+ * Generator for synthetic JT files (version 8 and 9), which can be read by the
+ * JTImporter. Each part is a wavy surface of triangles, instanced several times
+ * and optionally with multiple levels of detail. The integer vectors of the shapes
+ * are written with the null, bitlength or arithmetic codec, the LSG segment is
+ * optionally zipped. The segments are written one after another, so the size of
+ * the file is only limited by the 32 bit offsets of the JT format.
+ * <br>Version 8 shapes are written as triangle strips (lossy quantized vertex data),
+ * version 9 shapes as topologically compressed separate triangles.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class JTFileGenerator {
+	/** Comment of the file signature */
+	private final static String SIGNATURE_COMMENT = " JT file, written by JTFileGenerator";
+
+	/** Element base type: base graph node */
+	private final static int BASE_TYPE_GRAPH_NODE = 1;
+
+	/** Element base type: group graph node */
+	private final static int BASE_TYPE_GROUP_NODE = 2;
+
+	/** Element base type: shape graph node */
+	private final static int BASE_TYPE_SHAPE_NODE = 3;
+
+	/** Element base type: base attribute */
+	private final static int BASE_TYPE_ATTRIBUTE = 4;
+
+	/** Element base type: shape LOD */
+	private final static int BASE_TYPE_SHAPE_LOD = 5;
+
+	/** Element base type: base property */
+	private final static int BASE_TYPE_PROPERTY = 6;
+
+	/** Element base type: late loaded property */
+	private final static int BASE_TYPE_LATE_LOADED_PROPERTY = 8;
+
+	/** Maximum number of levels of detail */
+	private final static int MAXIMUM_LOD_COUNT = 10;
+
+	/** Number of triangles per triangle strip */
+	private final static int STRIP_TRIANGLE_COUNT = 32;
+
+	/** Number of bits of the quantized vertex coordinates */
+	private final static int VERTEX_BITS = 16;
+
+	/** Number of bits of the quantized normals */
+	private final static int NORMAL_BITS = 6;
+
+	/** Amplitude of the surface waves */
+	private final static float AMPLITUDE = 2.0f;
+
+	/** Distance between two instances */
+	private final static float INSTANCE_GAP = 4.0f;
+
+	/** Vertex bindings of version 9 shapes: vertex coordinates and normals */
+	private final static long VERTEX_BINDINGS = 0x0F;
+
+	/** Version of the JT file */
+	private String _version;
+
+	/** Number of parts */
+	private int _partCount;
+
+	/** Number of triangles per part (highest level of detail) */
+	private int _triangleCount;
+
+	/** Number of levels of detail */
+	private int _lodCount;
+
+	/** Number of instances per part */
+	private double _instancingRatio;
+
+	/** Codec type of the compressed integer vectors */
+	private int _codecType;
+
+	/** Zip the LSG segment? */
+	private boolean _zipped;
+
+	/** Byte order */
+	private ByteOrder _byteOrder;
+
+	/** Writer for the elements of the current segment */
+	private DataWriter _dataWriter;
+
+	/** Writer for the TOC entries */
+	private DataWriter _tocWriter;
+
+	/** Number of TOC entries */
+	private int _tocEntryCount;
+
+	/** File channel to write to */
+	private FileChannel _fileChannel;
+
+	/** Number of instances of the last generated file */
+	private int _instanceCount;
+
+	/**
+	 * Constructor. Initializes a small JT 9.5 file with arithmetic coded shapes.
+	 */
+	public JTFileGenerator(){
+		_version = "9.5";
+		_partCount = 10;
+		_triangleCount = 1000;
+		_lodCount = 1;
+		_instancingRatio = 1.0;
+		_codecType = DataWriter.CODECTYPE_ARITHMETIC;
+		_zipped = true;
+		_byteOrder = ByteOrder.LITTLE_ENDIAN;
+	}
+
+	/**
+	 * Sets the version of the JT file.
+	 * @param version Version of the JT file ("8.0" - "9.9")
+	 */
+	public void setVersion(String version){
+		if(!version.matches("\\d\\.\\d") || (Float.parseFloat(version) < 8.0f) || (Float.parseFloat(version) >= 10.0f)){
+			throw new IllegalArgumentException("Found unsupported version: " + version);
+		}
+		_version = version;
+	}
+
+	/**
+	 * Sets the number of parts.
+	 * @param partCount Number of parts
+	 */
+	public void setPartCount(int partCount){
+		if(partCount < 1){
+			throw new IllegalArgumentException("Found invalid number of parts: " + partCount);
+		}
+		_partCount = partCount;
+	}
+
+	/**
+	 * Sets the number of triangles per part. Each further level of detail has half
+	 * the triangles of the previous one.
+	 * @param triangleCount Number of triangles of the highest level of detail
+	 */
+	public void setTriangleCount(int triangleCount){
+		if(triangleCount < 1){
+			throw new IllegalArgumentException("Found invalid number of triangles: " + triangleCount);
+		}
+		_triangleCount = triangleCount;
+	}
+
+	/**
+	 * Sets the number of levels of detail.
+	 * @param lodCount Number of levels of detail (1 - 10)
+	 */
+	public void setLODCount(int lodCount){
+		if((lodCount < 1) || (lodCount > MAXIMUM_LOD_COUNT)){
+			throw new IllegalArgumentException("Found invalid number of levels of detail: " + lodCount);
+		}
+		_lodCount = lodCount;
+	}
+
+	/**
+	 * Sets the average number of instances per part.
+	 * @param instancingRatio Number of instances per part (at least 1.0)
+	 */
+	public void setInstancingRatio(double instancingRatio){
+		if(!(instancingRatio >= 1.0)){
+			throw new IllegalArgumentException("Found invalid instancing ratio: " + instancingRatio);
+		}
+		_instancingRatio = instancingRatio;
+	}
+
+	/**
+	 * Sets the codec of the compressed integer vectors.
+	 * @param codecType Codec type (DataWriter.CODECTYPE_*)
+	 */
+	public void setCodecType(int codecType){
+		if((codecType != DataWriter.CODECTYPE_NULL) && (codecType != DataWriter.CODECTYPE_BITLENGTH) && (codecType != DataWriter.CODECTYPE_ARITHMETIC)){
+			throw new IllegalArgumentException("Found invalid codec type: " + codecType);
+		}
+		_codecType = codecType;
+	}
+
+	/**
+	 * Sets, whether the LSG segment is zipped. The shape segments are never zipped,
+	 * because their segment types don't support it.
+	 * @param zipped Zip the LSG segment?
+	 */
+	public void setZipped(boolean zipped){
+		_zipped = zipped;
+	}
+
+	/**
+	 * Sets the byte order of the file.
+	 * @param byteOrder Byte order
+	 */
+	public void setByteOrder(ByteOrder byteOrder){
+		_byteOrder = byteOrder;
+	}
+
+	/**
+	 * Returns the number of instances of the last generated file.
+	 * @return Number of instances
+	 */
+	public int getInstanceCount(){
+		return _instanceCount;
+	}
+
+	/**
+	 * Returns the number of triangles, the importer has to create for the last
+	 * generated file (only the highest level of detail is imported).
+	 * @return Number of triangles
+	 */
+	public long getImportedTriangleCount(){
+		return (long)_instanceCount * _triangleCount;
+	}
+
+	/**
+	 * Generates the JT file.
+	 * @param  file        File to write
+	 * @throws IOException Thrown, if the file couldn't be written
+	 */
+	public void generate(File file) throws IOException {
+		float jtFileVersion = Float.parseFloat(_version);
+		_instanceCount = (int)Math.max(_partCount, Math.round(_partCount * _instancingRatio));
+		_dataWriter = new DataWriter(_byteOrder, jtFileVersion, _codecType);
+		_tocWriter = new DataWriter(_byteOrder, jtFileVersion, _codecType);
+		_tocEntryCount = 0;
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(0);
+			_fileChannel = randomAccessFile.getChannel();
+
+			// File header (the TOC offset is written at the end)
+			StringBuffer signature = new StringBuffer("Version ").append(_version).append(SIGNATURE_COMMENT);
+			while(signature.length() < 75){
+				signature.append(' ');
+			}
+			signature.append((jtFileVersion < 9.0f) ? "     " : " \n\r\n ");
+
+			DataWriter headerWriter = new DataWriter(_byteOrder, jtFileVersion, _codecType);
+			byte[] signatureBytes = signature.toString().getBytes("ISO-8859-1");
+			headerWriter.writeBytes(signatureBytes, 0, signatureBytes.length);
+			headerWriter.writeU8((_byteOrder == ByteOrder.LITTLE_ENDIAN) ? 0 : 1);
+			headerWriter.writeI32(0);
+			int tocOffsetPosition = headerWriter.getPosition();
+			headerWriter.writeI32(0);
+			headerWriter.writeGUID(createSegmentID(0));
+			write(headerWriter.getByteBuffer());
+
+			// Segments
+			writeLSGSegment();
+			for(int i = 0; i < _partCount; i++){
+				for(int j = 0; j < _lodCount; j++){
+					writeShapeSegment(i, j);
+				}
+			}
+
+			// TOC
+			long tocOffset = _fileChannel.position();
+			DataWriter tocCountWriter = new DataWriter(_byteOrder, jtFileVersion, _codecType);
+			tocCountWriter.writeI32(_tocEntryCount);
+			write(tocCountWriter.getByteBuffer());
+			write(_tocWriter.getByteBuffer());
+			checkOffset(_fileChannel.position());
+
+			headerWriter.setI32(tocOffsetPosition, (int)tocOffset);
+			_fileChannel.position(0);
+			write(headerWriter.getByteBuffer());
+
+		} finally {
+			_fileChannel = null;
+			_dataWriter = null;
+			_tocWriter = null;
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Writes the logical scene graph: a partition with all instances, each
+	 * referencing a part with a material and a shape for each level of detail.
+	 * @throws IOException Thrown, if the segment couldn't be written
+	 */
+	private void writeLSGSegment() throws IOException {
+		// Assign the object IDs
+		int nextObjectID = 1;
+		int partitionID = nextObjectID++;
+		int nameKeyID = nextObjectID++;
+		int shapeKeyID = nextObjectID++;
+		int[] instanceIDs = new int[_instanceCount];
+		int[] transformIDs = new int[_instanceCount];
+		for(int i = 0; i < _instanceCount; i++){
+			instanceIDs[i] = nextObjectID++;
+			transformIDs[i] = nextObjectID++;
+		}
+		int[] partIDs = new int[_partCount];
+		int[] materialIDs = new int[_partCount];
+		int[] nameIDs = new int[_partCount];
+		int[] lodIDs = new int[_partCount];
+		int[][] shapeIDs = new int[_partCount][_lodCount];
+		int[][] lateLoadedIDs = new int[_partCount][_lodCount];
+		for(int i = 0; i < _partCount; i++){
+			partIDs[i] = nextObjectID++;
+			materialIDs[i] = nextObjectID++;
+			nameIDs[i] = nextObjectID++;
+			lodIDs[i] = (_lodCount > 1) ? nextObjectID++ : -1;
+			for(int j = 0; j < _lodCount; j++){
+				shapeIDs[i][j] = nextObjectID++;
+				lateLoadedIDs[i][j] = nextObjectID++;
+			}
+		}
+
+		DataWriter dataWriter = _dataWriter;
+		dataWriter.clear();
+
+		// Graph elements
+		//----------------
+		int elementPosition = beginElement(PartitionNodeElement.ID, BASE_TYPE_GROUP_NODE);
+		writeGroupNodeData(partitionID, new int[0], instanceIDs);
+		dataWriter.writeI32(0);
+		dataWriter.writeMultiByteString(null);
+		dataWriter.writeBBoxF32(getModelBoundingBox());
+		dataWriter.writeF32(0.0f);
+		dataWriter.writeRange(0, 0);
+		dataWriter.writeRange(0, 0);
+		dataWriter.writeRange(0, 0);
+		endElement(elementPosition);
+
+		for(int i = 0; i < _instanceCount; i++){
+			elementPosition = beginElement(InstanceNodeElement.ID, BASE_TYPE_GRAPH_NODE);
+			writeBaseNodeData(instanceIDs[i], new int[]{transformIDs[i]});
+			if(dataWriter.getJTFileVersion() >= 9.0f){
+				dataWriter.writeI16(1);
+			}
+			dataWriter.writeI32(partIDs[i % _partCount]);
+			endElement(elementPosition);
+
+			// Translation of the instance (elements 12 - 14 of the matrix)
+			float[] translation = getInstanceBoundingBox(i)[0];
+			elementPosition = beginElement(GeometricTransformAttributeElement.ID, BASE_TYPE_ATTRIBUTE);
+			writeBaseAttributeData(transformIDs[i]);
+			if(dataWriter.getJTFileVersion() >= 9.5f){
+				dataWriter.writeI16(1);
+			}
+			dataWriter.writeI16(0x0008 | 0x0004 | 0x0002);
+			dataWriter.writeF32(translation[0]);
+			dataWriter.writeF32(translation[1]);
+			dataWriter.writeF32(0.0f);
+			endElement(elementPosition);
+		}
+
+		for(int i = 0; i < _partCount; i++){
+			elementPosition = beginElement(PartNodeElement.ID, BASE_TYPE_GROUP_NODE);
+			writeGroupNodeData(partIDs[i], new int[]{materialIDs[i]}, new int[]{(_lodCount > 1) ? lodIDs[i] : shapeIDs[i][0]});
+			dataWriter.writeI16(1);
+			dataWriter.writeI16(1);
+			dataWriter.writeI32(0);
+			endElement(elementPosition);
+
+			elementPosition = beginElement(MaterialAttributeElement.ID, BASE_TYPE_ATTRIBUTE);
+			writeBaseAttributeData(materialIDs[i]);
+			if(dataWriter.getJTFileVersion() >= 9.5f){
+				dataWriter.writeI16(1);
+			}
+			float[] diffuseColor = Color.getHSBColor((i * 0.618034f) % 1.0f, 0.6f, 0.9f).getRGBComponents(null);
+			dataWriter.writeI16(0);
+			dataWriter.writeF32s(new float[]{0.2f, 0.2f, 0.2f, 1.0f});
+			dataWriter.writeF32s(diffuseColor);
+			dataWriter.writeF32s(new float[]{0.5f, 0.5f, 0.5f, 1.0f});
+			dataWriter.writeF32s(new float[]{0.0f, 0.0f, 0.0f, 1.0f});
+			dataWriter.writeF32(32.0f);
+			endElement(elementPosition);
+
+			if(_lodCount > 1){
+				float[] rangeLimits = new float[_lodCount];
+				for(int j = 0; j < _lodCount; j++){
+					rangeLimits[j] = (j + 1) * 100.0f;
+				}
+				float[][] boundingBox = getShapeBoundingBox(_triangleCount);
+				elementPosition = beginElement(RangeLODNodeElement.ID, BASE_TYPE_GROUP_NODE);
+				writeGroupNodeData(lodIDs[i], new int[0], shapeIDs[i]);
+				dataWriter.writeVecF32(new float[0]);
+				dataWriter.writeI32(0);
+				dataWriter.writeVecF32(rangeLimits);
+				dataWriter.writeF32s(new float[]{	(boundingBox[0][0] + boundingBox[1][0]) / 2.0f,
+													(boundingBox[0][1] + boundingBox[1][1]) / 2.0f,
+													(boundingBox[0][2] + boundingBox[1][2]) / 2.0f});
+				endElement(elementPosition);
+			}
+
+			for(int j = 0; j < _lodCount; j++){
+				int triangleCount = getTriangleCount(j);
+				int vertexCount = (dataWriter.getJTFileVersion() < 9.0f) ? getStripVertexCount(triangleCount) : (triangleCount * 3);
+				float[][] boundingBox = getShapeBoundingBox(triangleCount);
+				elementPosition = beginElement(TriStripSetShapeNodeElement.ID, BASE_TYPE_SHAPE_NODE);
+				writeBaseNodeData(shapeIDs[i][j], new int[0]);
+				if(dataWriter.getJTFileVersion() >= 9.0f){
+					dataWriter.writeI16(1);
+				}
+				dataWriter.writeBBoxF32(boundingBox);
+				dataWriter.writeBBoxF32(boundingBox);
+				dataWriter.writeF32((boundingBox[1][0] - boundingBox[0][0]) * (boundingBox[1][1] - boundingBox[0][1]));
+				dataWriter.writeRange(vertexCount, vertexCount);
+				dataWriter.writeRange(1, 1);
+				dataWriter.writeRange(triangleCount, triangleCount);
+				dataWriter.writeI32(0);
+				dataWriter.writeF32(0.0f);
+				if(dataWriter.getJTFileVersion() >= 9.0f){
+					dataWriter.writeI16(1);
+					dataWriter.writeU64(VERTEX_BINDINGS);
+					writeQuantizationParameters();
+				} else {
+					dataWriter.writeI32(1);
+					dataWriter.writeI32(0);
+					dataWriter.writeI32(0);
+					writeQuantizationParameters();
+				}
+				endElement(elementPosition);
+			}
+		}
+		writeEndOfElements();
+
+		// Property atom elements
+		//------------------------
+		writeStringPropertyAtom(nameKeyID, "JT_PROP_NAME");
+		writeStringPropertyAtom(shapeKeyID, "JT_LLPROP_SHAPEIMPL");
+		for(int i = 0; i < _partCount; i++){
+			writeStringPropertyAtom(nameIDs[i], "Part_" + (i + 1) + ".part");
+			for(int j = 0; j < _lodCount; j++){
+				elementPosition = beginElement(LateLoadedPropertyAtomElement.ID, BASE_TYPE_LATE_LOADED_PROPERTY);
+				writeBasePropertyAtomData(lateLoadedIDs[i][j]);
+				dataWriter.writeGUID(createSegmentID(getShapeSegmentIndex(i, j)));
+				dataWriter.writeI32(SegmentType.SHAPE_LOD0.getType() + j);
+				if(dataWriter.getJTFileVersion() >= 9.0f){
+					dataWriter.writeI32(shapeIDs[i][j]);
+					dataWriter.writeI32(0);
+				}
+				endElement(elementPosition);
+			}
+		}
+		writeEndOfElements();
+
+		// Property table
+		//----------------
+		dataWriter.writeI16(1);
+		dataWriter.writeI32(_partCount * (1 + _lodCount));
+		for(int i = 0; i < _partCount; i++){
+			dataWriter.writeI32(partIDs[i]);
+			dataWriter.writeI32(nameKeyID);
+			dataWriter.writeI32(nameIDs[i]);
+			dataWriter.writeI32(0);
+			for(int j = 0; j < _lodCount; j++){
+				dataWriter.writeI32(shapeIDs[i][j]);
+				dataWriter.writeI32(shapeKeyID);
+				dataWriter.writeI32(lateLoadedIDs[i][j]);
+				dataWriter.writeI32(0);
+			}
+		}
+
+		writeSegment(0, SegmentType.LOGICAL_SCENE_GRAPH, dataWriter.getByteBuffer());
+	}
+
+	/**
+	 * Writes the shape segment of the given part and level of detail.
+	 * @param  partIndex   Index of the part
+	 * @param  lod         Level of detail
+	 * @throws IOException Thrown, if the segment couldn't be written
+	 */
+	private void writeShapeSegment(int partIndex, int lod) throws IOException {
+		DataWriter dataWriter = _dataWriter;
+		dataWriter.clear();
+
+		int triangleCount = getTriangleCount(lod);
+		int elementPosition = beginElement(TriStripSetShapeLODElement.ID, BASE_TYPE_SHAPE_LOD);
+		if(dataWriter.getJTFileVersion() < 9.0f){
+			writeTriangleStrips(partIndex, triangleCount);
+		} else {
+			writeTopologicallyCompressedTriangles(partIndex, triangleCount);
+		}
+		endElement(elementPosition);
+
+		writeSegment(getShapeSegmentIndex(partIndex, lod), SegmentType.get(SegmentType.SHAPE_LOD0.getType() + lod), dataWriter.getByteBuffer());
+	}
+
+	/**
+	 * Writes the shape as triangle strips (TriStripSetShapeLODElement of version 8).
+	 * @param partIndex     Index of the part
+	 * @param triangleCount Number of triangles
+	 */
+	private void writeTriangleStrips(int partIndex, int triangleCount){
+		DataWriter dataWriter = _dataWriter;
+		int stripCount = (triangleCount + STRIP_TRIANGLE_COUNT - 1) / STRIP_TRIANGLE_COUNT;
+		int vertexCount = getStripVertexCount(triangleCount);
+
+		// Start index of each strip and the end index of the last one
+		int[] stripIndices = new int[stripCount + 1];
+		float[] vertices = new float[vertexCount * 3];
+		for(int i = 0, k = 0; i < stripCount; i++){
+			int stripVertexCount = Math.min(STRIP_TRIANGLE_COUNT, triangleCount - (i * STRIP_TRIANGLE_COUNT)) + 2;
+			for(int j = 0; j < stripVertexCount; j++, k++){
+				setVertex(vertices, k, partIndex, j >> 1, i + (j & 1));
+			}
+			stripIndices[i + 1] = stripIndices[i] + stripVertexCount;
+		}
+
+		// VertexShapeLODData
+		dataWriter.writeI16(1);
+		dataWriter.writeI32(0);
+		writeQuantizationParameters();
+		dataWriter.writeI16(1);
+
+		// VertexBasedShapeCompressedRepData: normals per vertex, no texture coordinates and colors
+		dataWriter.writeI16(1);
+		dataWriter.writeU8(1);
+		dataWriter.writeU8(0);
+		dataWriter.writeU8(0);
+		writeQuantizationParameters();
+		dataWriter.writeVecI32(stripIndices, PredictorType.PredStride1);
+
+		// LossyQuantizedRawVertexData
+		int[][] codes = writePointQuantizerData(vertices);
+		dataWriter.writeI32(vertexCount);
+		dataWriter.writeVecI32(codes[0], PredictorType.PredLag1);
+		dataWriter.writeVecI32(codes[1], PredictorType.PredLag1);
+		dataWriter.writeVecI32(codes[2], PredictorType.PredLag1);
+
+		int[][] normalCodes = createNormalCodes(vertices, partIndex);
+		dataWriter.writeU8(NORMAL_BITS);
+		dataWriter.writeI32(vertexCount);
+		for(int i = 0; i < normalCodes.length; i++){
+			dataWriter.writeVecI32(normalCodes[i], PredictorType.PredLag1);
+		}
+
+		int[] vertexDataIndices = new int[vertexCount];
+		for(int i = 0; i < vertexCount; i++){
+			vertexDataIndices[i] = i;
+		}
+		dataWriter.writeVecI32(vertexDataIndices, PredictorType.PredStripIndex);
+	}
+
+	/**
+	 * Writes the shape as topologically compressed, separate triangles
+	 * (TriStripSetShapeLODElement of version 9).
+	 * @param partIndex     Index of the part
+	 * @param triangleCount Number of triangles
+	 */
+	private void writeTopologicallyCompressedTriangles(int partIndex, int triangleCount){
+		DataWriter dataWriter = _dataWriter;
+		int vertexCount = triangleCount * 3;
+
+		// Three vertices per triangle, cut out of the triangle strips
+		float[] vertices = new float[vertexCount * 3];
+		for(int i = 0, k = 0; i < triangleCount; i++){
+			int strip = i / STRIP_TRIANGLE_COUNT;
+			int j = i % STRIP_TRIANGLE_COUNT;
+			int first = ((j & 1) == 0) ? j : (j + 1);
+			int second = ((j & 1) == 0) ? (j + 1) : j;
+			setVertex(vertices, k++, partIndex, first >> 1, strip + (first & 1));
+			setVertex(vertices, k++, partIndex, second >> 1, strip + (second & 1));
+			setVertex(vertices, k++, partIndex, (j + 2) >> 1, strip + (j & 1));
+		}
+
+		// LogicalElement, BaseShapeLODData, VertexShapeLODData and TopoMeshLODData
+		dataWriter.writeI32(0);
+		dataWriter.writeI16(1);
+		dataWriter.writeI16(1);
+		dataWriter.writeU64(VERTEX_BINDINGS);
+		dataWriter.writeI16(1);
+		dataWriter.writeI32(0);
+		dataWriter.writeI16(1);
+
+		// Mesh coder symbols: each triangle is a dual vertex of valence 3 with three
+		// dual faces of degree 1. The first face is coded in context 1, the other
+		// ones in context 0.
+		int[] ones = new int[triangleCount * 3];
+		int[] threes = new int[triangleCount];
+		for(int i = 0; i < ones.length; i++){
+			ones[i] = 1;
+		}
+		for(int i = 0; i < threes.length; i++){
+			threes[i] = 3;
+		}
+		int[] empty = new int[0];
+		int[] zeros = new int[triangleCount];
+
+		int[] faceDegrees0 = new int[triangleCount * 2];
+		System.arraycopy(ones, 0, faceDegrees0, 0, faceDegrees0.length);
+		dataWriter.writeVecI32(faceDegrees0, PredictorType.PredNULL);
+		int[] faceDegrees1 = new int[triangleCount];
+		System.arraycopy(ones, 0, faceDegrees1, 0, faceDegrees1.length);
+		dataWriter.writeVecI32(faceDegrees1, PredictorType.PredNULL);
+		for(int i = 2; i < 8; i++){
+			dataWriter.writeVecI32(empty, PredictorType.PredNULL);
+		}
+		dataWriter.writeVecI32(threes, PredictorType.PredNULL);
+		dataWriter.writeVecI32(zeros, PredictorType.PredNULL);
+		dataWriter.writeVecI32(zeros, PredictorType.PredLag1);
+		dataWriter.writeVecI32(ones, PredictorType.PredNULL);
+		for(int i = 1; i < 8; i++){
+			dataWriter.writeVecI32(empty, PredictorType.PredNULL);
+		}
+		dataWriter.writeVecI32(empty, PredictorType.PredNULL);
+		dataWriter.writeVecI32(empty, PredictorType.PredNULL);
+		dataWriter.writeI32(0);
+		dataWriter.writeVecI32(empty, PredictorType.PredLag1);
+		dataWriter.writeVecI32(empty, PredictorType.PredNULL);
+		dataWriter.writeU32(0);
+
+		// TopologicallyCompressedVertexRecords
+		dataWriter.writeU64(VERTEX_BINDINGS);
+		writeQuantizationParameters();
+		dataWriter.writeI32(vertexCount);
+		dataWriter.writeI32(vertexCount);
+
+		// CompressedVertexCoordinateArray
+		dataWriter.writeI32(vertexCount);
+		dataWriter.writeU8(3);
+		int[][] codes = writePointQuantizerData(vertices);
+		dataWriter.writeVecI32(codes[0], PredictorType.PredLag1);
+		dataWriter.writeVecI32(codes[1], PredictorType.PredLag1);
+		dataWriter.writeVecI32(codes[2], PredictorType.PredLag1);
+		dataWriter.writeU32(0);
+
+		// CompressedVertexNormalArray
+		int[][] normalCodes = createNormalCodes(vertices, partIndex);
+		dataWriter.writeI32(vertexCount);
+		dataWriter.writeU8(3);
+		dataWriter.writeU8(NORMAL_BITS);
+		for(int i = 0; i < normalCodes.length; i++){
+			dataWriter.writeVecI32(normalCodes[i], PredictorType.PredNULL);
+		}
+		dataWriter.writeU32(0);
+
+		// TriStripSetShapeLODElement
+		dataWriter.writeI16(1);
+	}
+
+	/**
+	 * Writes the header of an element with a placeholder for it's length.
+	 * @param  objectTypeID ID of the object type
+	 * @param  baseType     Base type of the object
+	 * @return              Position of the element length
+	 */
+	private int beginElement(String objectTypeID, int baseType){
+		int position = _dataWriter.getPosition();
+		_dataWriter.writeI32(0);
+		_dataWriter.writeGUID(new GUID(objectTypeID));
+		_dataWriter.writeU8(baseType);
+		return position;
+	}
+
+	/**
+	 * Writes the length of the element, which has been started at the given position.
+	 * @param position Position of the element length
+	 */
+	private void endElement(int position){
+		_dataWriter.setI32(position, _dataWriter.getPosition() - position - 4);
+	}
+
+	/**
+	 * Writes the marker, which terminates a list of elements.
+	 */
+	private void writeEndOfElements(){
+		byte[] endOfElements = new byte[16];
+		for(int i = 0; i < endOfElements.length; i++){
+			endOfElements[i] = (byte)0xFF;
+		}
+		_dataWriter.writeI32(endOfElements.length);
+		_dataWriter.writeBytes(endOfElements, 0, endOfElements.length);
+	}
+
+	/**
+	 * Writes the base node data.
+	 * @param objectID     Object ID of the node
+	 * @param attributeIDs Object IDs of the attributes
+	 */
+	private void writeBaseNodeData(int objectID, int[] attributeIDs){
+		_dataWriter.writeI32(objectID);
+		if(_dataWriter.getJTFileVersion() >= 9.0f){
+			_dataWriter.writeI16(1);
+		}
+		_dataWriter.writeU32(0);
+		_dataWriter.writeI32(attributeIDs.length);
+		for(int i = 0; i < attributeIDs.length; i++){
+			_dataWriter.writeI32(attributeIDs[i]);
+		}
+	}
+
+	/**
+	 * Writes the group node data.
+	 * @param objectID     Object ID of the node
+	 * @param attributeIDs Object IDs of the attributes
+	 * @param childIDs     Object IDs of the children
+	 */
+	private void writeGroupNodeData(int objectID, int[] attributeIDs, int[] childIDs){
+		writeBaseNodeData(objectID, attributeIDs);
+		if(_dataWriter.getJTFileVersion() >= 9.0f){
+			_dataWriter.writeI16(1);
+		}
+		_dataWriter.writeI32(childIDs.length);
+		for(int i = 0; i < childIDs.length; i++){
+			_dataWriter.writeI32(childIDs[i]);
+		}
+	}
+
+	/**
+	 * Writes the base attribute data.
+	 * @param objectID Object ID of the attribute
+	 */
+	private void writeBaseAttributeData(int objectID){
+		_dataWriter.writeI32(objectID);
+		if(_dataWriter.getJTFileVersion() >= 9.0f){
+			_dataWriter.writeI16(1);
+			if(_dataWriter.getJTFileVersion() < 9.5f){
+				_dataWriter.writeI16(0);
+			}
+		}
+		_dataWriter.writeU8(0);
+		_dataWriter.writeU32(0);
+	}
+
+	/**
+	 * Writes the base property atom data.
+	 * @param objectID Object ID of the property atom
+	 */
+	private void writeBasePropertyAtomData(int objectID){
+		_dataWriter.writeI32(objectID);
+		if(_dataWriter.getJTFileVersion() >= 9.0f){
+			_dataWriter.writeI16(1);
+			_dataWriter.writeI16(0);
+		}
+		_dataWriter.writeU32(0);
+	}
+
+	/**
+	 * Writes a string property atom element.
+	 * @param objectID Object ID of the property atom
+	 * @param value    Value of the property atom
+	 */
+	private void writeStringPropertyAtom(int objectID, String value){
+		int elementPosition = beginElement(StringPropertyAtomElement.ID, BASE_TYPE_PROPERTY);
+		writeBasePropertyAtomData(objectID);
+		_dataWriter.writeMultiByteString(value);
+		endElement(elementPosition);
+	}
+
+	/**
+	 * Writes the quantization parameters of the shapes.
+	 */
+	private void writeQuantizationParameters(){
+		_dataWriter.writeU8(VERTEX_BITS);
+		_dataWriter.writeU8(NORMAL_BITS);
+		_dataWriter.writeU8(0);
+		_dataWriter.writeU8(0);
+	}
+
+	/**
+	 * Writes the point quantizer data of the given vertices and quantizes them.
+	 * @param  vertices Vertices (x, y, z, x, y, z, ...)
+	 * @return          Quantized x, y and z coordinates
+	 */
+	private int[][] writePointQuantizerData(float[] vertices){
+		int vertexCount = vertices.length / 3;
+		int maximumCode = (1 << VERTEX_BITS) - 1;
+		int[][] codes = new int[3][vertexCount];
+		for(int i = 0; i < 3; i++){
+			float min = Float.MAX_VALUE;
+			float max = -Float.MAX_VALUE;
+			for(int j = 0; j < vertexCount; j++){
+				min = Math.min(min, vertices[(j * 3) + i]);
+				max = Math.max(max, vertices[(j * 3) + i]);
+			}
+			if(!(max > min)){
+				max = min + 1.0f;
+			}
+			_dataWriter.writeF32(min);
+			_dataWriter.writeF32(max);
+			_dataWriter.writeU8(VERTEX_BITS);
+
+			float multiplier = (1 << VERTEX_BITS) / (max - min);
+			for(int j = 0; j < vertexCount; j++){
+				int code = (int)(((vertices[(j * 3) + i] - min) * multiplier) + 0.5f);
+				codes[i][j] = Math.max(0, Math.min(maximumCode, code));
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 * Creates the Deering normal codes (sextant, octant, theta and psi) of the given
+	 * vertices. The normals point upwards and are tilted along the waves of the surface.
+	 * @param  vertices  Vertices (x, y, z, x, y, z, ...)
+	 * @param  partIndex Index of the part
+	 * @return           Sextant, octant, theta and psi codes
+	 */
+	private int[][] createNormalCodes(float[] vertices, int partIndex){
+		int vertexCount = vertices.length / 3;
+		int maximumCode = (1 << NORMAL_BITS) - 1;
+		int[][] codes = new int[4][vertexCount];
+		for(int i = 0; i < vertexCount; i++){
+			double x = vertices[i * 3];
+			double y = vertices[(i * 3) + 1];
+			codes[1][i] = 7;
+			codes[2][i] = (int)(((Math.sin((0.5 * x) + partIndex) + 1.0) / 2.0) * maximumCode);
+			codes[3][i] = (int)(((Math.cos(0.5 * y) + 1.0) / 2.0) * maximumCode);
+		}
+		return codes;
+	}
+
+	/**
+	 * Sets the vertex at the given grid position of the surface.
+	 * @param vertices  Vertices (x, y, z, x, y, z, ...)
+	 * @param index     Index of the vertex
+	 * @param partIndex Index of the part
+	 * @param x         X position on the grid
+	 * @param y         Y position on the grid
+	 */
+	private void setVertex(float[] vertices, int index, int partIndex, int x, int y){
+		vertices[index * 3]       = x;
+		vertices[(index * 3) + 1] = y;
+		vertices[(index * 3) + 2] = (float)(AMPLITUDE * Math.sin((0.5 * x) + partIndex) * Math.cos(0.5 * y));
+	}
+
+	/**
+	 * Returns the number of triangles of the given level of detail.
+	 * @param  lod Level of detail
+	 * @return     Number of triangles
+	 */
+	private int getTriangleCount(int lod){
+		return Math.max(1, _triangleCount >> lod);
+	}
+
+	/**
+	 * Returns the number of vertices, needed for the triangle strips.
+	 * @param  triangleCount Number of triangles
+	 * @return               Number of vertices
+	 */
+	private int getStripVertexCount(int triangleCount){
+		return triangleCount + (2 * ((triangleCount + STRIP_TRIANGLE_COUNT - 1) / STRIP_TRIANGLE_COUNT));
+	}
+
+	/**
+	 * Returns the bounding box of a shape.
+	 * @param  triangleCount Number of triangles
+	 * @return               Minimum and maximum corner of the bounding box
+	 */
+	private float[][] getShapeBoundingBox(int triangleCount){
+		int columnCount = (Math.min(STRIP_TRIANGLE_COUNT, triangleCount) + 1) >> 1;
+		int rowCount = (triangleCount + STRIP_TRIANGLE_COUNT - 1) / STRIP_TRIANGLE_COUNT;
+		return new float[][]{{0.0f, 0.0f, -AMPLITUDE}, {columnCount, rowCount, AMPLITUDE}};
+	}
+
+	/**
+	 * Returns the bounding box of the given instance. The instances are arranged
+	 * on a square grid.
+	 * @param  instanceIndex Index of the instance
+	 * @return               Minimum and maximum corner of the bounding box
+	 */
+	private float[][] getInstanceBoundingBox(int instanceIndex){
+		float[][] shapeBoundingBox = getShapeBoundingBox(_triangleCount);
+		int gridSize = (int)Math.ceil(Math.sqrt(_instanceCount));
+		float x = (instanceIndex % gridSize) * (shapeBoundingBox[1][0] + INSTANCE_GAP);
+		float y = (instanceIndex / gridSize) * (shapeBoundingBox[1][1] + INSTANCE_GAP);
+		return new float[][]{	{x, y, -AMPLITUDE},
+								{x + shapeBoundingBox[1][0], y + shapeBoundingBox[1][1], AMPLITUDE}};
+	}
+
+	/**
+	 * Returns the bounding box of all instances.
+	 * @return Minimum and maximum corner of the bounding box
+	 */
+	private float[][] getModelBoundingBox(){
+		int gridSize = (int)Math.ceil(Math.sqrt(_instanceCount));
+		float[][] boundingBox = getInstanceBoundingBox(Math.min(_instanceCount, gridSize) - 1);
+		boundingBox[0][0] = 0.0f;
+		boundingBox[1][1] = getInstanceBoundingBox(_instanceCount - 1)[1][1];
+		return boundingBox;
+	}
+
+	/**
+	 * Returns the index of the shape segment of the given part and level of detail.
+	 * @param  partIndex Index of the part
+	 * @param  lod       Level of detail
+	 * @return           Index of the segment
+	 */
+	private int getShapeSegmentIndex(int partIndex, int lod){
+		return 1 + (partIndex * _lodCount) + lod;
+	}
+
+	/**
+	 * Creates the ID of the segment with the given index.
+	 * @param  segmentIndex Index of the segment
+	 * @return              ID of the segment
+	 */
+	private GUID createSegmentID(int segmentIndex){
+		return new GUID(segmentIndex & 0xFFFFFFFFL, 0x4A54, 0x4745, 0x4E, 0x45, 0x52, 0x41, 0x54, 0x4F, 0x52, 0x00);
+	}
+
+	/**
+	 * Writes a segment and adds it's TOC entry. The data of zippable segments is
+	 * preceded by the compression header.
+	 * @param  segmentIndex Index of the segment
+	 * @param  segmentType  Type of the segment
+	 * @param  data         Elements of the segment
+	 * @throws IOException  Thrown, if the segment couldn't be written
+	 */
+	private void writeSegment(int segmentIndex, SegmentType segmentType, ByteBuffer data) throws IOException {
+		long segmentOffset = _fileChannel.position();
+		checkOffset(segmentOffset);
+
+		if(segmentType.isZipped() && _zipped){
+			data = deflate(data);
+		}
+
+		int segmentLength = 24 + (segmentType.isZipped() ? 9 : 0) + data.remaining();
+		DataWriter headerWriter = new DataWriter(_byteOrder, _dataWriter.getJTFileVersion(), _codecType);
+		headerWriter.writeGUID(createSegmentID(segmentIndex));
+		headerWriter.writeI32(segmentType.getType());
+		headerWriter.writeI32(segmentLength);
+		if(segmentType.isZipped()){
+			headerWriter.writeI32(_zipped ? 2 : 0);
+			headerWriter.writeI32(data.remaining() + 1);
+			headerWriter.writeU8(_zipped ? 2 : 1);
+		}
+		write(headerWriter.getByteBuffer());
+		write(data);
+
+		_tocWriter.writeGUID(createSegmentID(segmentIndex));
+		_tocWriter.writeI32((int)segmentOffset);
+		_tocWriter.writeI32(segmentLength);
+		_tocWriter.writeI32(segmentType.getType() << 24);
+		_tocEntryCount++;
+	}
+
+	/**
+	 * Compresses the given data by ZLIB.
+	 * @param  data Data to compress
+	 * @return      Compressed data
+	 */
+	private ByteBuffer deflate(ByteBuffer data){
+		DataWriter compressedData = new DataWriter(_byteOrder, _dataWriter.getJTFileVersion(), _codecType);
+		byte[] buffer = new byte[64 * 1024];
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(data.array(), data.arrayOffset() + data.position(), data.remaining());
+			deflater.finish();
+			while(!deflater.finished()){
+				int count = deflater.deflate(buffer);
+				compressedData.writeBytes(buffer, 0, count);
+			}
+		} finally {
+			deflater.end();
+		}
+		return compressedData.getByteBuffer();
+	}
+
+	/**
+	 * Writes the given data to the file.
+	 * @param  data        Data to write
+	 * @throws IOException Thrown, if the data couldn't be written
+	 */
+	private void write(ByteBuffer data) throws IOException {
+		while(data.hasRemaining()){
+			_fileChannel.write(data);
+		}
+	}
+
+	/**
+	 * Checks, whether the given file offset can be stored in a TOC entry.
+	 * @param offset File offset
+	 */
+	private void checkOffset(long offset){
+		if(offset > Integer.MAX_VALUE){
+			throw new IllegalStateException("JT file exceeds 2 GB, which can't be addressed by it's 32 bit offsets!");
+		}
+	}
+
+	/**
+	 * Generates a JT file and optionally loads it again to verify it.
+	 * <br>Usage: JTFileGenerator &lt;file&gt; [-version 9.5] [-parts 10] [-triangles 1000] [-lods 1]
+	 * [-instancing 1.0] [-codec null|bitlength|arithmetic] [-unzipped] [-bigendian] [-verify]
+	 * @param  arguments Command line arguments
+	 * @throws Exception Thrown, if the file couldn't be generated or loaded
+	 */
+	public static void main(String[] arguments) throws Exception {
+		if(arguments.length == 0){
+			System.out.println("Usage: JTFileGenerator <file> [-version 9.5] [-parts 10] [-triangles 1000] [-lods 1] [-instancing 1.0] [-codec null|bitlength|arithmetic] [-unzipped] [-bigendian] [-verify]");
+			return;
+		}
+
+		JTFileGenerator jtFileGenerator = new JTFileGenerator();
+		boolean verify = false;
+		for(int i = 1; i < arguments.length; i++){
+			String argument = arguments[i];
+			if(argument.equals("-unzipped")){
+				jtFileGenerator.setZipped(false);
+			} else if(argument.equals("-bigendian")){
+				jtFileGenerator.setByteOrder(ByteOrder.BIG_ENDIAN);
+			} else if(argument.equals("-verify")){
+				verify = true;
+			} else if((i + 1) >= arguments.length){
+				throw new IllegalArgumentException("Found unknown or incomplete argument: " + argument);
+			} else if(argument.equals("-version")){
+				jtFileGenerator.setVersion(arguments[++i]);
+			} else if(argument.equals("-parts")){
+				jtFileGenerator.setPartCount(Integer.parseInt(arguments[++i]));
+			} else if(argument.equals("-triangles")){
+				jtFileGenerator.setTriangleCount(Integer.parseInt(arguments[++i]));
+			} else if(argument.equals("-lods")){
+				jtFileGenerator.setLODCount(Integer.parseInt(arguments[++i]));
+			} else if(argument.equals("-instancing")){
+				jtFileGenerator.setInstancingRatio(Double.parseDouble(arguments[++i]));
+			} else if(argument.equals("-codec")){
+				String codec = arguments[++i];
+				if(codec.equals("null")){
+					jtFileGenerator.setCodecType(DataWriter.CODECTYPE_NULL);
+				} else if(codec.equals("bitlength")){
+					jtFileGenerator.setCodecType(DataWriter.CODECTYPE_BITLENGTH);
+				} else if(codec.equals("arithmetic")){
+					jtFileGenerator.setCodecType(DataWriter.CODECTYPE_ARITHMETIC);
+				} else {
+					throw new IllegalArgumentException("Found unknown codec: " + codec);
+				}
+			} else {
+				throw new IllegalArgumentException("Found unknown argument: " + argument);
+			}
+		}
+
+		File file = new File(arguments[0]);
+		long startTime = System.currentTimeMillis();
+		jtFileGenerator.generate(file);
+		System.out.println("Generated " + file + ": " + file.length() + " bytes, " + jtFileGenerator.getInstanceCount() + " instances in " + (System.currentTimeMillis() - startTime) + " ms");
+
+		if(verify){
+			JTImporter jtImporter = new JTImporter();
+			jtImporter.importFile(file.getPath());
+
+			long triangleCount = 0;
+			HashMap<String, ArrayList<Object[]>> faces = jtImporter.getFaces();
+			for(Iterator<ArrayList<Object[]>> iterator = faces.values().iterator(); iterator.hasNext();){
+				for(Iterator<Object[]> faceIterator = iterator.next().iterator(); faceIterator.hasNext();){
+					triangleCount += ((int[])faceIterator.next()[1]).length / 3;
+				}
+			}
+			if(triangleCount != jtFileGenerator.getImportedTriangleCount()){
+				throw new IllegalStateException("Found " + triangleCount + " triangles, expected " + jtFileGenerator.getImportedTriangleCount());
+			}
+			System.out.println("Verified " + faces.size() + " layers with " + triangleCount + " triangles");
+		}
+	}
+}
@@ -24,8 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.model;
 
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
@@ -51,7 +49,7 @@ public class CompressedCADTagType1Data {
 	 * @param firstI32OfType1CADTags  First I32 of type 1 CAD tags
 	 * @param secondI32OfType1CADTags Second I32 of type 1 CAD tags
 	 */
-	public CompressedCADTagType1Data(List<Integer> firstI32OfType1CADTags, List<Integer> secondI32OfType1CADTags){
+	public CompressedCADTagType1Data(int[] firstI32OfType1CADTags, int[] secondI32OfType1CADTags){
 	}
 
 	/**
@@ -61,7 +59,7 @@ public class CompressedCADTagType1Data {
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
 	public static CompressedCADTagType1Data read(WorkingContext workingContext) throws UnsupportedCodecException {
-		return new CompressedCADTagType1Data(	Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1),
-												Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1));
+		return new CompressedCADTagType1Data(	Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1),
+												Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1));
 	}
 }
\ No newline at end of file
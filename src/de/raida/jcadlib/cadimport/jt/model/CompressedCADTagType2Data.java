@@ -24,8 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.model;
 
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
@@ -52,7 +50,7 @@ public class CompressedCADTagType2Data {
 	 * @param secondI32OfType2CADTags Second I32 of type 2 CAD tags
 	 * @param lastI32OfType2CADTags   Last I32 of type 2 CAD tags
 	 */
-	public CompressedCADTagType2Data(List<Integer> firstI32OfType2CADTags, List<Integer> secondI32OfType2CADTags, List<Integer> lastI32OfType2CADTags){
+	public CompressedCADTagType2Data(int[] firstI32OfType2CADTags, int[] secondI32OfType2CADTags, int[] lastI32OfType2CADTags){
 	}
 
 	/**
@@ -63,13 +61,13 @@ public class CompressedCADTagType2Data {
 	 */
 	public static CompressedCADTagType2Data read(WorkingContext workingContext) throws UnsupportedCodecException {
 		if(workingContext.getJTFileVersion() < 9.0){
-			return new CompressedCADTagType2Data(	Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1),
-													Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1),
+			return new CompressedCADTagType2Data(	Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1),
+													Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1),
 													null);
 		} else {
-			return new CompressedCADTagType2Data(	Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1),
-													Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1),
-													Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1));
+			return new CompressedCADTagType2Data(	Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1),
+													Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1),
+													Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1));
 		}
 	}
 }
\ No newline at end of file
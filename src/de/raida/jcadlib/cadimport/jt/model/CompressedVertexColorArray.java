@@ -25,13 +25,12 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.model.quantize.ColorQuantizerData;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -48,36 +47,32 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class CompressedVertexColorArray {
 	/** Final color values */
-	private List<Double> _colorValues;
+	private double[] _colorValues;
 
 	/**
 	 * Constructor.
 	 * @param colorCount                Color count
 	 * @param numberComponents          Number of components
 	 * @param quantizationBits          Quantization bits
-	 * @param vertexColorExponentsLists Vertex color exponents lists
-	 * @param vertexColorMantissaeLists Vertex color mantissae lists
 	 * @param colorQuantizerData        Color quantizer data
 	 * @param hueRedCodes               Hue/red codes
 	 * @param satGreenCodes             Sat/green codes
 	 * @param valueBlueCodes            Value/blue codes
 	 * @param alphaCodes                Alpha codes
-	 * @param vertexColorCodeLists      Vertex color code lists
 	 * @param vertexColorHash           Vertex color hash
 	 * @param colorValues               Final color values
 	 */
-	public CompressedVertexColorArray(int colorCount, int numberComponents, int quantizationBits, List<List<Integer>> vertexColorExponentsLists,
-			List<List<Integer>> vertexColorMantissaeLists, ColorQuantizerData colorQuantizerData, List<Integer> hueRedCodes, List<Integer> satGreenCodes,
-			List<Integer> valueBlueCodes, List<Integer> alphaCodes, List<List<Integer>> vertexColorCodeLists, long vertexColorHash,
-			List<Double> colorValues){
+	public CompressedVertexColorArray(int colorCount, int numberComponents, int quantizationBits, ColorQuantizerData colorQuantizerData,
+			int[] hueRedCodes, int[] satGreenCodes, int[] valueBlueCodes, int[] alphaCodes, long vertexColorHash,
+			double[] colorValues){
 		_colorValues = colorValues;
 	}
 
 	/**
-	 * Returns the colors.
+	 * Returns the colors [r, g, b].
 	 * @return Colors
 	 */
-	public List<Double> getColors(){
+	public double[] getColorArray(){
 		return _colorValues;
 	}
 
@@ -94,56 +89,38 @@ public class CompressedVertexColorArray {
 		int numberComponents = Helper.readU8(byteBuffer);
 		int quantizationBits = Helper.readU8(byteBuffer);
 
-		List<List<Integer>> vertexColorExponentsLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexColorMantissaeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexColorCodeLists = new ArrayList<List<Integer>>();
 		ColorQuantizerData colorQuantizerData = null;
-		List<Integer> hueRedCodes = new ArrayList<Integer>();
-		List<Integer> satGreenCodes = new ArrayList<Integer>();
-		List<Integer> valueBlueCodes = new ArrayList<Integer>();
-		List<Integer> alphaCodes = new ArrayList<Integer>();
-		List<Double> colorValues = new ArrayList<Double>();
+		int[] hueRedCodes = new int[0];
+		int[] satGreenCodes = new int[0];
+		int[] valueBlueCodes = new int[0];
+		int[] alphaCodes = new int[0];
+		double[] colorValues = null;
 
 		if(quantizationBits == 0){
+			int[][] exponents = new int[numberComponents][];
+			int[][] mantissae = new int[numberComponents][];
 			for(int i = 0; i < numberComponents; i++){
-				List<Integer> exponents = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-				List<Integer> mantissae = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-
-				List<Integer> codeData = new ArrayList<Integer>();
-				for(int j = 0; j < exponents.size(); j++){
-					codeData.add((exponents.get(j) << 23) | mantissae.get(j));
-				}
-
-				vertexColorExponentsLists.add(exponents);
-				vertexColorMantissaeLists.add(mantissae);
-				vertexColorCodeLists.add(codeData);
+				exponents[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+				mantissae[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
 			}
 
-			List<Integer> redCodeData = vertexColorCodeLists.get(0);
-			List<Integer> greenCodeData = vertexColorCodeLists.get(1);
-			List<Integer> blueCodeData = vertexColorCodeLists.get(2);
-			for(int i = 0; i < redCodeData.size(); i++){
-				colorValues.add(Helper.convertIntToFloat(redCodeData.get(i)));
-				colorValues.add(Helper.convertIntToFloat(greenCodeData.get(i)));
-				colorValues.add(Helper.convertIntToFloat(blueCodeData.get(i)));
-			}
+			colorValues = new double[exponents[0].length * 3];
+			Helper.convertIntToFloat(exponents, mantissae, 3, colorValues);
 
 		} else if(quantizationBits > 0){
 			colorQuantizerData = ColorQuantizerData.read(workingContext);
 
-			hueRedCodes    = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-			satGreenCodes  = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-			valueBlueCodes = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-			alphaCodes     = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-
-			List<Double> redValues = Helper.dequantize(hueRedCodes, colorQuantizerData.getRedRange(), quantizationBits);
-			List<Double> greenValues = Helper.dequantize(satGreenCodes, colorQuantizerData.getGreenRange(), quantizationBits);
-			List<Double> blueValues = Helper.dequantize(valueBlueCodes, colorQuantizerData.getBlueRange(), quantizationBits);
-			for(int i = 0; i < redValues.size(); i++){
-				colorValues.add(redValues.get(i));
-				colorValues.add(greenValues.get(i));
-				colorValues.add(blueValues.get(i));
-			}
+			hueRedCodes    = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+			satGreenCodes  = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+			valueBlueCodes = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+			alphaCodes     = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+
+			workingContext.beginPhase(ImportPhase.DEQUANTIZE);
+			colorValues = new double[hueRedCodes.length * 3];
+			Helper.dequantize(	new int[][]{hueRedCodes, satGreenCodes, valueBlueCodes},
+								new float[][]{colorQuantizerData.getRedRange(), colorQuantizerData.getGreenRange(), colorQuantizerData.getBlueRange()},
+								quantizationBits, colorValues);
+			workingContext.endPhase(ImportPhase.DEQUANTIZE);
 
 		} else {
 			throw new IllegalArgumentException("ERROR: Negative number of quantized bits: " + quantizationBits);
@@ -151,8 +128,7 @@ public class CompressedVertexColorArray {
 
 		long readHash = Helper.readU32(byteBuffer);
 
-		return new CompressedVertexColorArray(colorCount, numberComponents, quantizationBits, vertexColorExponentsLists,
-				vertexColorMantissaeLists, colorQuantizerData, hueRedCodes, satGreenCodes, valueBlueCodes, alphaCodes,
-				vertexColorCodeLists, readHash, colorValues);
+		return new CompressedVertexColorArray(colorCount, numberComponents, quantizationBits, colorQuantizerData,
+				hueRedCodes, satGreenCodes, valueBlueCodes, alphaCodes, readHash, colorValues);
 	}
 }
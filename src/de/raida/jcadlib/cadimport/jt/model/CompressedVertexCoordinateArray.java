@@ -25,13 +25,12 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.model.quantize.PointQuantizerData;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -46,30 +45,26 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class CompressedVertexCoordinateArray {
 	/** Final vertex coordinates */
-	private List<Double> _vertexCoordinates;
+	private double[] _vertexCoordinates;
 
 	/**
 	 * Constructor.
 	 * @param uniqueVertexCount         Unique vertex count
 	 * @param numberComponents          Number of components
 	 * @param pointQuantizerData        Point quantizer data
-	 * @param vertexCoordExponentLists  Vertex coordinate exponent lists
-	 * @param vertexCoordMantissaeLists Vertex coordinate mantissae lists
-	 * @param vertexCoordCodeLists      Vertex coordinate code lists
 	 * @param vertexCoordinateHash      Vertex coordinate hash
 	 * @param vertexCoordinates         Final vertex coordinates
 	 */
 	public CompressedVertexCoordinateArray(int uniqueVertexCount, int numberComponents, PointQuantizerData pointQuantizerData,
-			List<List<Integer>> vertexCoordExponentLists, List<List<Integer>> vertexCoordMantissaeLists,
-			List<List<Integer>> vertexCoordCodeLists, long vertexCoordinateHash, List<Double> vertexCoordinates){
+			long vertexCoordinateHash, double[] vertexCoordinates){
 		_vertexCoordinates = vertexCoordinates;
 	}
 
 	/**
-	 * Returns the geometry vertices.
+	 * Returns the geometry vertices [x, y, z].
 	 * @return Geometry vertices
 	 */
-	public List<Double> getVertices(){
+	public double[] getVertexArray(){
 		return _vertexCoordinates;
 	}
 
@@ -86,48 +81,32 @@ public class CompressedVertexCoordinateArray {
 		int numberComponents = Helper.readU8(byteBuffer);
 		PointQuantizerData pointQuantizerData = PointQuantizerData.read(workingContext);
 
-		List<List<Integer>> vertexCoordExponentLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexCoordMantissaeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexCoordCodeLists = new ArrayList<List<Integer>>();
-		List<Double> vertexCoordinates = new ArrayList<Double>();
+		double[] vertexCoordinates = null;
 		int numberOfBits = pointQuantizerData.getNumberOfBits();
 		if(numberOfBits == 0){
+			int[][] exponents = new int[numberComponents][];
+			int[][] mantissae = new int[numberComponents][];
 			for(int i = 0; i < numberComponents; i++){
-				List<Integer> exponents = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-				List<Integer> mantissae = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-				List<Integer> codeData = new ArrayList<Integer>();
-				for(int j = 0; j < exponents.size(); j++){
-					codeData.add((exponents.get(j) << 23) | mantissae.get(j));
-				}
-
-				vertexCoordExponentLists.add(exponents);
-				vertexCoordMantissaeLists.add(mantissae);
-				vertexCoordCodeLists.add(codeData);
+				exponents[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+				mantissae[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
 			}
 
-			List<Integer> xCodeData = vertexCoordCodeLists.get(0);
-			List<Integer> yCodeData = vertexCoordCodeLists.get(1);
-			List<Integer> zCodeData = vertexCoordCodeLists.get(2);
-			for(int i = 0; i < xCodeData.size(); i++){
-				vertexCoordinates.add(Helper.convertIntToFloat(xCodeData.get(i)));
-				vertexCoordinates.add(Helper.convertIntToFloat(yCodeData.get(i)));
-				vertexCoordinates.add(Helper.convertIntToFloat(zCodeData.get(i)));
-			}
+			vertexCoordinates = new double[exponents[0].length * 3];
+			Helper.convertIntToFloat(exponents, mantissae, 3, vertexCoordinates);
 
 		} else if(numberOfBits > 0){
-			vertexCoordCodeLists.add(Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1));
-			vertexCoordCodeLists.add(Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1));
-			vertexCoordCodeLists.add(Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1));
-
-			List<Double> xValues = Helper.dequantize(vertexCoordCodeLists.get(0), pointQuantizerData.getXRange(), numberOfBits);
-			List<Double> yValues = Helper.dequantize(vertexCoordCodeLists.get(1), pointQuantizerData.getYRange(), numberOfBits);
-			List<Double> zValues = Helper.dequantize(vertexCoordCodeLists.get(2), pointQuantizerData.getZRange(), numberOfBits);
-			for(int i = 0; i < xValues.size(); i++){
-				vertexCoordinates.add(xValues.get(i));
-				vertexCoordinates.add(yValues.get(i));
-				vertexCoordinates.add(zValues.get(i));
+			int[][] vertexCoordCodes = new int[3][];
+			for(int i = 0; i < 3; i++){
+				vertexCoordCodes[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
 			}
 
+			workingContext.beginPhase(ImportPhase.DEQUANTIZE);
+			vertexCoordinates = new double[vertexCoordCodes[0].length * 3];
+			Helper.dequantize(	vertexCoordCodes,
+								new float[][]{pointQuantizerData.getXRange(), pointQuantizerData.getYRange(), pointQuantizerData.getZRange()},
+								numberOfBits, vertexCoordinates);
+			workingContext.endPhase(ImportPhase.DEQUANTIZE);
+
 		} else {
 			throw new IllegalArgumentException("ERROR: Negative number of quantized bits: " + numberOfBits);
 		}
@@ -137,9 +116,6 @@ public class CompressedVertexCoordinateArray {
 		return new CompressedVertexCoordinateArray(	uniqueVertexCount,
 													numberComponents,
 													pointQuantizerData,
-													vertexCoordExponentLists,
-													vertexCoordMantissaeLists,
-													vertexCoordCodeLists,
 													readHash,
 													vertexCoordinates);
 	}
@@ -25,7 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
@@ -49,7 +48,7 @@ public class CompressedVertexFlagArray {
 	 * @param vertexFlagCount Vertex flag count
 	 * @param vertexFlags     Vertex flags
 	 */
-	public CompressedVertexFlagArray(int vertexFlagCount, List<Integer> vertexFlags){
+	public CompressedVertexFlagArray(int vertexFlagCount, int[] vertexFlags){
 	}
 
 	/**
@@ -61,6 +60,6 @@ public class CompressedVertexFlagArray {
 	public static CompressedVertexFlagArray read(WorkingContext workingContext) throws UnsupportedCodecException {
 		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 		return new CompressedVertexFlagArray(	Helper.readI32(byteBuffer),
-												Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL));
+												Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL));
 	}
 }
@@ -25,15 +25,12 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.vecmath.Point3d;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.codec.deering.DeeringNormalCodec;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -54,34 +51,30 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class CompressedVertexNormalArray {
 	/** Final normal coordinates */
-	private List<Double> _normalCoordinates;
+	private double[] _normalCoordinates;
 
 	/**
 	 * Constructor.
 	 * @param normalCount                Normal count
 	 * @param numberComponents           Number of components
 	 * @param quantizationBits           Quantization bits
-	 * @param vertexNormalExponentsLists Vertex normal exponents lists
-	 * @param vertexNormalMantissaeLists Vertex normal mantissae lists
 	 * @param sextantCodes               Sextant codes
 	 * @param octantCodes                Octant codes
 	 * @param thetaCodes                 Theta codes
 	 * @param psiCodes                   Psi codes
 	 * @param vertexNormalHash           Vertex normal hash
-	 * @param normalVectorLists          Normal vector lists
 	 * @param normalCoordinates          Final normal coordinates
 	 */
-	public CompressedVertexNormalArray(int normalCount, int numberComponents, int quantizationBits, List<List<Integer>> vertexNormalExponentsLists,
-			List<List<Integer>> vertexNormalMantissaeLists, List<Integer> sextantCodes, List<Integer> octantCodes, List<Integer> thetaCodes,
-			List<Integer> psiCodes, long vertexNormalHash, List<List<Integer>> normalVectorLists, List<Double> normalCoordinates){
+	public CompressedVertexNormalArray(int normalCount, int numberComponents, int quantizationBits, int[] sextantCodes,
+			int[] octantCodes, int[] thetaCodes, int[] psiCodes, long vertexNormalHash, double[] normalCoordinates){
 		_normalCoordinates = normalCoordinates;
 	}
 
 	/**
-	 * Returns the normal data.
+	 * Returns the normal data [nx, ny, nz].
 	 * @return Normal data
 	 */
-	public List<Double> getNormals(){
+	public double[] getNormalArray(){
 		return _normalCoordinates;
 	}
 
@@ -98,52 +91,33 @@ public class CompressedVertexNormalArray {
 		int numberComponents = Helper.readU8(byteBuffer);
 		int quantizationBits = Helper.readU8(byteBuffer);
 
-		List<List<Integer>> vertexNormalExponentsLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexNormalMantissaeLists = new ArrayList<List<Integer>>();
-		List<Integer> sextantCodes = new ArrayList<Integer>();
-		List<Integer> octantCodes = new ArrayList<Integer>();
-		List<Integer> thetaCodes = new ArrayList<Integer>();
-		List<Integer> psiCodes = new ArrayList<Integer>();
-		List<Double> normalCoordinates = new ArrayList<Double>();
+		int[] sextantCodes = null;
+		int[] octantCodes = null;
+		int[] thetaCodes = null;
+		int[] psiCodes = null;
+		double[] normalCoordinates = null;
 
-		List<List<Integer>> normalVectorLists = new ArrayList<List<Integer>>();
 		if(quantizationBits == 0){
+			int[][] exponents = new int[numberComponents][];
+			int[][] mantissae = new int[numberComponents][];
 			for(int i = 0; i < numberComponents; i++){
-				List<Integer> exponents = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-				List<Integer> mantissae = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-
-				List<Integer> normalVectorData = new ArrayList<Integer>();
-				for(int j = 0; j < exponents.size(); j++){
-					normalVectorData.add((exponents.get(j) << 23) | mantissae.get(j));
-				}
-
-				normalVectorLists.add(normalVectorData);
-				vertexNormalExponentsLists.add(exponents);
-				vertexNormalMantissaeLists.add(mantissae);
+				exponents[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+				mantissae[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 			}
 
-			List<Integer> xCodeData = normalVectorLists.get(0);
-			List<Integer> yCodeData = normalVectorLists.get(1);
-			List<Integer> zCodeData = normalVectorLists.get(2);
-			for(int i = 0; i < xCodeData.size(); i++){
-				normalCoordinates.add(Helper.convertIntToFloat(xCodeData.get(i)));
-				normalCoordinates.add(Helper.convertIntToFloat(yCodeData.get(i)));
-				normalCoordinates.add(Helper.convertIntToFloat(zCodeData.get(i)));
-			}
+			normalCoordinates = new double[exponents[0].length * 3];
+			Helper.convertIntToFloat(exponents, mantissae, 3, normalCoordinates);
 
 		} else if(quantizationBits > 0){
-			sextantCodes = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-			octantCodes = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-			thetaCodes = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-			psiCodes = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-
-			DeeringNormalCodec deeringCodec = new DeeringNormalCodec(quantizationBits);
-			for(int i = 0; i < psiCodes.size(); i++){
-				Point3d normal = deeringCodec.convertCodeToVec(sextantCodes.get(i), octantCodes.get(i), thetaCodes.get(i), psiCodes.get(i));
-				normalCoordinates.add(normal.x);
-				normalCoordinates.add(normal.y);
-				normalCoordinates.add(normal.z);
-			}
+			sextantCodes = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+			octantCodes = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+			thetaCodes = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+			psiCodes = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+
+			workingContext.beginPhase(ImportPhase.DEQUANTIZE);
+			normalCoordinates = new double[psiCodes.length * 3];
+			new DeeringNormalCodec(quantizationBits).decode(sextantCodes, octantCodes, thetaCodes, psiCodes, normalCoordinates);
+			workingContext.endPhase(ImportPhase.DEQUANTIZE);
 
 		} else {
 			throw new IllegalArgumentException("ERROR: Negative number of quantized bits: " + quantizationBits);
@@ -152,7 +126,6 @@ public class CompressedVertexNormalArray {
 		long readHash = Helper.readU32(byteBuffer);
 
 		return new CompressedVertexNormalArray(normalCount, numberComponents, quantizationBits,
-				vertexNormalExponentsLists, vertexNormalMantissaeLists, sextantCodes, octantCodes, thetaCodes,
-				psiCodes, readHash, normalVectorLists, normalCoordinates);
+				sextantCodes, octantCodes, thetaCodes, psiCodes, readHash, normalCoordinates);
 	}
 }
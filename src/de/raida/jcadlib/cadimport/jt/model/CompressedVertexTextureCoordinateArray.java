@@ -25,12 +25,11 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
+import de.raida.jcadlib.cadimport.jt.reader.ImportPhase;
 import de.raida.jcadlib.cadimport.jt.reader.UnsupportedCodecException;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
 
@@ -47,30 +46,26 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class CompressedVertexTextureCoordinateArray {
 	/** Texture coordinates */
-	private List<Double> _textureCoordinates;
+	private double[] _textureCoordinates;
 
 	/**
 	 * Constructor.
 	 * @param textureCoordCount                Number of texture coordinates
 	 * @param numberComponents                 Number of components
 	 * @param quantizationBits                 Quantization bits
-	 * @param vertexTextureCoordExponentLists  Vertex texture coordinate exponent lists
-	 * @param vertexTextureCoordMantissaeLists Vertex texture coordinate mantissae lists
-	 * @param textureCoordCodesLists           Texture coordinate codes lists
 	 * @param textureQuantizerData             Texture quantizer data
 	 * @param textureCoordinates               Final texture coordinates
 	 */
 	public CompressedVertexTextureCoordinateArray(int textureCoordCount, int numberComponents, int quantizationBits,
-			List<List<Integer>> vertexTextureCoordExponentLists, List<List<Integer>> vertexTextureCoordMantissaeLists,
-			List<List<Integer>> textureCoordCodesLists, TextureQuantizerData textureQuantizerData, List<Double> textureCoordinates){
+			TextureQuantizerData textureQuantizerData, double[] textureCoordinates){
 		_textureCoordinates = textureCoordinates;
 	}
 
 	/**
-	 * Returns the texture coordinates.
+	 * Returns the texture coordinates [u, v].
 	 * @return Texture coordinates
 	 */
-	public List<Double> getTextureCoordinates(){
+	public double[] getTextureCoordinateArray(){
 		return _textureCoordinates;
 	}
 
@@ -87,48 +82,34 @@ public class CompressedVertexTextureCoordinateArray {
 		int numberComponents = Helper.readU8(byteBuffer);
 		int quantizationBits = Helper.readU8(byteBuffer);
 
-		List<List<Integer>> vertexTextureCoordExponentLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexTextureCoordMantissaeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> vertexTextureCodeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> textureCoordCodesLists = new ArrayList<List<Integer>>();
 		TextureQuantizerData textureQuantizerData = null;
-		List<Double> textureCoordinates = new ArrayList<Double>();
+		double[] textureCoordinates = null;
 
 		if(quantizationBits == 0){
+			int[][] exponents = new int[numberComponents][];
+			int[][] mantissae = new int[numberComponents][];
 			for(int i = 0; i < numberComponents; i++){
-				List<Integer> exponents = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-				List<Integer> mantissae = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-
-				List<Integer> codeData = new ArrayList<Integer>();
-				for(int j = 0; j < exponents.size(); j++){
-					codeData.add((exponents.get(j) << 23) | mantissae.get(j));
-				}
-
-				vertexTextureCoordExponentLists.add(exponents);
-				vertexTextureCoordMantissaeLists.add(mantissae);
-				vertexTextureCodeLists.add(codeData);
+				exponents[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+				mantissae[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 			}
 
-			List<Integer> uCodeData = vertexTextureCodeLists.get(0);
-			List<Integer> vCodeData = vertexTextureCodeLists.get(1);
-			for(int i = 0; i < uCodeData.size(); i++){
-				textureCoordinates.add(Helper.convertIntToFloat(uCodeData.get(i)));
-				textureCoordinates.add(Helper.convertIntToFloat(vCodeData.get(i)));
-			}
+			textureCoordinates = new double[exponents[0].length * 2];
+			Helper.convertIntToFloat(exponents, mantissae, 2, textureCoordinates);
 
 		} else if(quantizationBits > 0){
 			textureQuantizerData = TextureQuantizerData.read(workingContext, numberComponents);
 
+			int[][] textureCoordCodes = new int[numberComponents][];
 			for(int i = 0; i < numberComponents; i++){
-				textureCoordCodesLists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredLag1));
+				textureCoordCodes[i] = Int32CDP2.readVecU32Array(workingContext, PredictorType.PredLag1);
 			}
 
-			List<Double> uValues = Helper.dequantize(textureCoordCodesLists.get(0), textureQuantizerData.getURange(), quantizationBits);
-			List<Double> vValues = Helper.dequantize(textureCoordCodesLists.get(1), textureQuantizerData.getVRange(), quantizationBits);
-			for(int i = 0; i < uValues.size(); i++){
-				textureCoordinates.add(uValues.get(i));
-				textureCoordinates.add(vValues.get(i));
-			}
+			workingContext.beginPhase(ImportPhase.DEQUANTIZE);
+			textureCoordinates = new double[textureCoordCodes[0].length * 2];
+			Helper.dequantize(	new int[][]{textureCoordCodes[0], textureCoordCodes[1]},
+								new float[][]{textureQuantizerData.getURange(), textureQuantizerData.getVRange()},
+								quantizationBits, textureCoordinates);
+			workingContext.endPhase(ImportPhase.DEQUANTIZE);
 
 			// Ignore the hash value
 			Helper.readU32(byteBuffer);
@@ -137,7 +118,7 @@ public class CompressedVertexTextureCoordinateArray {
 			throw new IllegalArgumentException("ERROR: Negative number of quantized bits: " + quantizationBits);
 		}
 
-		return new CompressedVertexTextureCoordinateArray(textureCoordCount, numberComponents, quantizationBits, vertexTextureCoordExponentLists,
-				vertexTextureCoordMantissaeLists, textureCoordCodesLists, textureQuantizerData, textureCoordinates);
+		return new CompressedVertexTextureCoordinateArray(textureCoordCount, numberComponents, quantizationBits, textureQuantizerData,
+				textureCoordinates);
 	}
 }
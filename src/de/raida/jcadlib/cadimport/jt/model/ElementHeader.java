@@ -153,13 +153,16 @@ public class ElementHeader {
 										byteBuffer);
 		}
 
-		// Uncompress ElementHeader and data section
-		byte[] compressedBytes = new byte[compressedDataLength];
-		byteBuffer.get(compressedBytes);
-		byte[] uncompressedBytes = Helper.decompressByZLIB(compressedBytes);
-
-		ByteBuffer uncompressedData = ByteBuffer.wrap(uncompressedBytes);
-		uncompressedData.order(byteBuffer.order());
+		// Uncompress ElementHeader and data section (possibly already done in advance)
+		ByteBuffer uncompressedData = null;
+		if(workingContext.getSegmentInflater() != null){
+			uncompressedData = workingContext.getSegmentInflater().get(byteBuffer, byteBuffer.position());
+		}
+		if(uncompressedData == null){
+			uncompressedData = Helper.decompressByZLIB(byteBuffer, compressedDataLength);
+		} else {
+			byteBuffer.position(byteBuffer.position() + compressedDataLength);
+		}
 
 		WorkingContext workingContext2 = workingContext.clone();
 		workingContext2.setByteBuffer(uncompressedData);
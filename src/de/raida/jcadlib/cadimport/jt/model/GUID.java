@@ -25,6 +25,7 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
@@ -41,40 +42,23 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class GUID {
 	/** Object type ID */
-	public final static String END_OF_ELEMENTS = "ffffffff-ffff-ffff-ff-ff-ff-ff-ff-ff-ff-ff";
+	public final static GUID END_OF_ELEMENTS = new GUID(-1L, -1L);
 
-	/** Value 1 */
-	private long _a;
+	/** Most significant bits: the U32 and the two U16 words */
+	private final long _mostSignificantBits;
 
-	/** Value 2 */
-	private int _b;
+	/** Least significant bits: the eight U8 words, the first one in the highest byte */
+	private final long _leastSignificantBits;
 
-	/** Value 3 */
-	private int _c;
-
-	/** Value 4 */
-	private int _d;
-
-	/** Value 5 */
-	private int _e;
-
-	/** Value 6 */
-	private int _f;
-
-	/** Value 7 */
-	private int _g;
-
-	/** Value 8 */
-	private int _h;
-
-	/** Value 9 */
-	private int _i;
-
-	/** Value 10 */
-	private int _j;
-
-	/** Value 11 */
-	private int _k;
+	/**
+	 * Constructor.
+	 * @param mostSignificantBits  Most significant bits: the U32 and the two U16 words
+	 * @param leastSignificantBits Least significant bits: the eight U8 words
+	 */
+	public GUID(long mostSignificantBits, long leastSignificantBits){
+		_mostSignificantBits = mostSignificantBits;
+		_leastSignificantBits = leastSignificantBits;
+	}
 
 	/**
 	 * Constructor.
@@ -91,17 +75,9 @@ public class GUID {
 	 * @param k Value 11
 	 */
 	public GUID(long a, int b, int c, int d, int e, int f, int g, int h, int i, int j, int k){
-		_a = a;
-		_b = b;
-		_c = c;
-		_d = d;
-		_e = e;
-		_f = f;
-		_g = g;
-		_h = h;
-		_i = i;
-		_j = j;
-		_k = k;
+		this(	((a & 0xFFFFFFFFL) << 32) | ((b & 0xFFFFL) << 16) | (c & 0xFFFFL),
+				((d & 0xFFL) << 56) | ((e & 0xFFL) << 48) | ((f & 0xFFL) << 40) | ((g & 0xFFL) << 32) |
+				((h & 0xFFL) << 24) | ((i & 0xFFL) << 16) | ((j & 0xFFL) << 8) | (k & 0xFFL));
 	}
 
 	/**
@@ -110,17 +86,56 @@ public class GUID {
 	 */
 	public GUID(String guid){
 		String[] guidComponents = guid.split("-");
-		_a = Long.parseLong(guidComponents[0], 16);
-		_b = Integer.parseInt(guidComponents[1], 16);
-		_c = Integer.parseInt(guidComponents[2], 16);
-		_d = Integer.parseInt(guidComponents[3], 16);
-		_e = Integer.parseInt(guidComponents[4], 16);
-		_f = Integer.parseInt(guidComponents[5], 16);
-		_g = Integer.parseInt(guidComponents[6], 16);
-		_h = Integer.parseInt(guidComponents[7], 16);
-		_i = Integer.parseInt(guidComponents[8], 16);
-		_j = Integer.parseInt(guidComponents[9], 16);
-		_k = Integer.parseInt(guidComponents[10], 16);
+		long mostSignificantBits = Long.parseLong(guidComponents[0], 16);
+		mostSignificantBits = (mostSignificantBits << 16) | Integer.parseInt(guidComponents[1], 16);
+		mostSignificantBits = (mostSignificantBits << 16) | Integer.parseInt(guidComponents[2], 16);
+
+		long leastSignificantBits = 0;
+		for(int i = 3; i < guidComponents.length; i++){
+			leastSignificantBits = (leastSignificantBits << 8) | Integer.parseInt(guidComponents[i], 16);
+		}
+
+		_mostSignificantBits = mostSignificantBits;
+		_leastSignificantBits = leastSignificantBits;
+	}
+
+	/**
+	 * Returns the most significant bits: the U32 and the two U16 words.
+	 * @return Most significant bits
+	 */
+	public long getMostSignificantBits(){
+		return _mostSignificantBits;
+	}
+
+	/**
+	 * Returns the least significant bits: the eight U8 words, the first one in the highest byte.
+	 * @return Least significant bits
+	 */
+	public long getLeastSignificantBits(){
+		return _leastSignificantBits;
+	}
+
+	/**
+	 * Compares the GUID with the given object.
+	 * @param  object Object to compare with
+	 * @return        <b>true</b> if the object is a GUID with the same value, otherwise<br>
+	 *                <b>false</b>
+	 */
+	public boolean equals(Object object){
+		if(!(object instanceof GUID)){
+			return false;
+		}
+		GUID guid = (GUID)object;
+		return (_mostSignificantBits == guid._mostSignificantBits) && (_leastSignificantBits == guid._leastSignificantBits);
+	}
+
+	/**
+	 * Returns the hash code of the GUID.
+	 * @return Hash code
+	 */
+	public int hashCode(){
+		long bits = _mostSignificantBits ^ _leastSignificantBits;
+		return (int)(bits >> 32) ^ (int)bits;
 	}
 
 	/**
@@ -130,21 +145,16 @@ public class GUID {
 	public String toString(){
 		StringBuffer stringBuffer = new StringBuffer();
 
-		stringBuffer.append(Long.toHexString(_a)).append("-");
-		stringBuffer.append(Integer.toHexString(_b)).append("-");
-		stringBuffer.append(Integer.toHexString(_c)).append("-");
-		stringBuffer.append(Integer.toHexString(_d & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_e & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_f & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_g & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_h & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_i & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_j & 0xFF)).append("-");
-		stringBuffer.append(Integer.toHexString(_k & 0xFF));
+		stringBuffer.append(Long.toHexString(_mostSignificantBits >>> 32)).append("-");
+		stringBuffer.append(Integer.toHexString((int)(_mostSignificantBits >>> 16) & 0xFFFF)).append("-");
+		stringBuffer.append(Integer.toHexString((int)_mostSignificantBits & 0xFFFF));
+		for(int shift = 56; shift >= 0; shift -= 8){
+			stringBuffer.append("-").append(Integer.toHexString((int)(_leastSignificantBits >>> shift) & 0xFF));
+		}
 
 		return stringBuffer.toString();
 	}
-	
+
 	/**
 	 * Reads a Global Unique ID.
 	 * @param  workingContext Working context
@@ -153,16 +163,14 @@ public class GUID {
 	public static GUID read(WorkingContext workingContext){
 		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 
-        return new GUID(Helper.readU32(byteBuffer),
-        				Helper.readU16(byteBuffer),
-        				Helper.readU16(byteBuffer),
-        				Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer),
-		        		Helper.readU8(byteBuffer));
+		long mostSignificantBits = (Helper.readU32(byteBuffer) << 32) | ((long)Helper.readU16(byteBuffer) << 16) | Helper.readU16(byteBuffer);
+
+		// The U8 words are stored in file order, independent of the byte order
+		long leastSignificantBits = Helper.readI64(byteBuffer);
+		if(byteBuffer.order() == ByteOrder.LITTLE_ENDIAN){
+			leastSignificantBits = Long.reverseBytes(leastSignificantBits);
+		}
+
+		return new GUID(mostSignificantBits, leastSignificantBits);
 	}
 }
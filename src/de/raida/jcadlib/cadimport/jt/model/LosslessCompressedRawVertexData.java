@@ -25,11 +25,10 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
 import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
+import de.raida.jcadlib.cadimport.jt.reader.ZLIBByteSource;
 
 /**
  * <h>8.1.3.1 Lossless Compressed Raw Vertex Data</h>
@@ -45,23 +44,23 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  * @version 1.0
  */
 public class LosslessCompressedRawVertexData {
-	/** List of colors [r, g, b] */
-	private List<Float> _colors;
+	/** Colors [r, g, b] */
+	private double[] _colors;
 
-	/** List of normals [nx, ny, nz] */
-	private List<Double> _normals;
+	/** Normals [nx, ny, nz] */
+	private double[] _normals;
 
-	/** List of vertices [x, y, z] */
-	private List<Double> _vertices;
+	/** Vertices [x, y, z] */
+	private double[] _vertices;
 
 	/**
 	 * Constructor.
-	 * @param textureCoordinates List of texture coordinates [u, v]
-	 * @param colors             List of colors [r, g, b]
-	 * @param normals            List of normals [nx, ny, nz]
-	 * @param vertices           List of vertices [x, y, z]
+	 * @param textureCoordinates Texture coordinates [u, v]
+	 * @param colors             Colors [r, g, b]
+	 * @param normals            Normals [nx, ny, nz]
+	 * @param vertices           Vertices [x, y, z]
 	 */
-	public LosslessCompressedRawVertexData(List<Float> textureCoordinates, List<Float> colors, List<Double> normals, List<Double> vertices){
+	public LosslessCompressedRawVertexData(float[] textureCoordinates, double[] colors, double[] normals, double[] vertices){
 		_colors = colors;
 		_normals = normals;
 		_vertices = vertices;
@@ -71,7 +70,7 @@ public class LosslessCompressedRawVertexData {
 	 * Returns the vertex data.
 	 * @return Vertex data
 	 */
-	public List<Double> getVertices(){
+	public double[] getVertexArray(){
 		return _vertices;
 	}
 
@@ -79,7 +78,7 @@ public class LosslessCompressedRawVertexData {
 	 * Returns the normal data.
 	 * @return Normal data
 	 */
-	public List<Double> getNormals(){
+	public double[] getNormalArray(){
 		return _normals;
 	}
 
@@ -87,7 +86,7 @@ public class LosslessCompressedRawVertexData {
 	 * Returns the colors.
 	 * @return Colors
 	 */
-	public List<Float> getColors(){
+	public double[] getColorArray(){
 		return _colors;
 	}
 
@@ -114,62 +113,78 @@ public class LosslessCompressedRawVertexData {
 				rawVertexData[i] = Helper.readF32(byteBuffer);
 			}
 
-		// ZLIB compressed raw data
+		// ZLIB compressed raw data, uncompressed chunk by chunk straight into the floats
 		} else if(compressedDataSize > 0){
-			byte[] compressedBytes = Helper.readBytes(byteBuffer, compressedDataSize);
-			byte[] uncompressedBytes = Helper.decompressByZLIB(compressedBytes);
-
-			if(uncompressedBytes.length != uncompressedDataSize){
-				throw new IllegalStateException("ZLIB decompression seems to be failed! Expected length: " + uncompressedDataSize + " -> resulting length: " + uncompressedBytes.length);
+			if((uncompressedDataSize < 0) || ((uncompressedDataSize % 4) != 0)){
+				throw new IllegalArgumentException("Found invalid uncompressed data size: " + uncompressedDataSize);
 			}
 
-			ByteBuffer uncompressedData = ByteBuffer.wrap(uncompressedBytes);
-			uncompressedData.order(byteBuffer.order());
-
-			rawVertexData = new float[uncompressedBytes.length / 4];
-			for(int i = 0; i < rawVertexData.length; i++){
-				rawVertexData[i] = Helper.readF32(uncompressedData);
+			rawVertexData = new float[uncompressedDataSize / 4];
+			int chunkSize = Math.max(Math.min(uncompressedDataSize, ZLIBByteSource.DEFAULT_CHUNK_SIZE), 4);
+			ZLIBByteSource zlibByteSource = new ZLIBByteSource(byteBuffer, compressedDataSize, chunkSize);
+			try {
+				int index = 0;
+				for(ByteBuffer chunk = zlibByteSource.next(); chunk != null; chunk = zlibByteSource.next()){
+					if((index + (chunk.remaining() / 4)) > rawVertexData.length){
+						break;
+					}
+					while(chunk.remaining() >= 4){
+						rawVertexData[index++] = Helper.readF32(chunk);
+					}
+				}
+				if(zlibByteSource.getUncompressedLength() != uncompressedDataSize){
+					throw new IllegalStateException("ZLIB decompression seems to be failed! Expected length: " + uncompressedDataSize + " -> resulting length: " + zlibByteSource.getUncompressedLength());
+				}
+
+			} finally {
+				zlibByteSource.close();
 			}
 
 		} else {
 			throw new IllegalArgumentException("Found invalid compressed data size: " + compressedDataSize);
 		}
 
-		// Create derived lists
-		List<Float> textureCoordinates = new ArrayList<Float>();
-		List<Float> colors = new ArrayList<Float>();
-		List<Double> normals = new ArrayList<Double>();
-		List<Double> vertices = new ArrayList<Double>();
-
+		// Create derived arrays
 		boolean readTextureCoordinate = textureCoordBinding == VertexBasedShapeCompressedRepData.BINDING_PER_VERTEX;
 		boolean readColor             = colorBinding == VertexBasedShapeCompressedRepData.BINDING_PER_VERTEX;
 		boolean readNormal            = normalBinding == VertexBasedShapeCompressedRepData.BINDING_PER_VERTEX;
 
-		for(int i = 0; i < rawVertexData.length;){
+		int stride = (readTextureCoordinate ? 2 : 0) + (readColor ? 3 : 0) + (readNormal ? 3 : 0) + 3;
+		if((rawVertexData.length % stride) != 0){
+			throw new IllegalArgumentException("Found invalid raw vertex data length: " + rawVertexData.length);
+		}
+
+		int vertexCount = rawVertexData.length / stride;
+		float[] textureCoordinates = new float[readTextureCoordinate ? (vertexCount * 2) : 0];
+		double[] colors = new double[readColor ? (vertexCount * 3) : 0];
+		double[] normals = new double[readNormal ? (vertexCount * 3) : 0];
+		double[] vertices = new double[vertexCount * 3];
+
+		for(int i = 0, j = 0, k = 0; i < rawVertexData.length; j += 2, k += 3){
 			if(readTextureCoordinate){
 				// Read U, V
-				textureCoordinates.add(Float.valueOf(rawVertexData[i++]));
-				textureCoordinates.add(Float.valueOf(rawVertexData[i++]));
-            }
+				textureCoordinates[j]     = rawVertexData[i++];
+				textureCoordinates[j + 1] = rawVertexData[i++];
+			}
 
 			if(readColor){
 				// Read R, G, B
-				colors.add(Float.valueOf(rawVertexData[i++]));
-				colors.add(Float.valueOf(rawVertexData[i++]));
-				colors.add(Float.valueOf(rawVertexData[i++]));
-            }
+				colors[k]     = rawVertexData[i++];
+				colors[k + 1] = rawVertexData[i++];
+				colors[k + 2] = rawVertexData[i++];
+			}
 
 			if(readNormal){
 				// Read NX, NY, NZ
-				normals.add(Double.valueOf(rawVertexData[i++]));
-				normals.add(Double.valueOf(rawVertexData[i++]));
-				normals.add(Double.valueOf(rawVertexData[i++]));
+				normals[k]     = rawVertexData[i++];
+				normals[k + 1] = rawVertexData[i++];
+				normals[k + 2] = rawVertexData[i++];
 			}
 
 			// Read X, Y, Z
-			vertices.add(Double.valueOf(rawVertexData[i++]));
-			vertices.add(Double.valueOf(rawVertexData[i++]));
-			vertices.add(Double.valueOf(rawVertexData[i++]));
+			vertices[k]     = rawVertexData[i++];
+			vertices[k + 1] = rawVertexData[i++];
+			vertices[k + 2] = rawVertexData[i++];
 		}
 
 		return new LosslessCompressedRawVertexData(textureCoordinates, colors, normals, vertices);
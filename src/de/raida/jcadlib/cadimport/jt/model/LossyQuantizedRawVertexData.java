@@ -24,9 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.model.quantize.QuantizedVertexColorArray;
@@ -60,7 +57,7 @@ public class LossyQuantizedRawVertexData {
 	private QuantizedVertexColorArray _quantizedVertexColorArray;
 
 	/** Vertex data indices */
-	private List<Integer> _vertexDataIndices;
+	private int[] _vertexDataIndices;
 
 	/**
 	 * Constructor.
@@ -70,7 +67,7 @@ public class LossyQuantizedRawVertexData {
 	 * @param quantizedVertexColorArray        Quantized vertex color array
 	 * @param vertexDataIndices                Vertex data indices
 	 */
-	public LossyQuantizedRawVertexData(QuantizedVertexCoordArray quantizedVertexCoordArray, QuantizedVertexNormalArray quantizedVertexNormalArray, QuantizedVertexTextureCoordArray quantizedVertexTextureCoordArray, QuantizedVertexColorArray quantizedVertexColorArray, List<Integer> vertexDataIndices){
+	public LossyQuantizedRawVertexData(QuantizedVertexCoordArray quantizedVertexCoordArray, QuantizedVertexNormalArray quantizedVertexNormalArray, QuantizedVertexTextureCoordArray quantizedVertexTextureCoordArray, QuantizedVertexColorArray quantizedVertexColorArray, int[] vertexDataIndices){
 		_quantizedVertexCoordArray = quantizedVertexCoordArray;
 		_quantizedVertexNormalArray = quantizedVertexNormalArray;
 		_quantizedVertexColorArray = quantizedVertexColorArray;
@@ -79,51 +76,46 @@ public class LossyQuantizedRawVertexData {
 
 	/**
 	 * Returns the vertex data.
-	 * @return Vertex data
+	 * @return Vertex data [x, y, z]
 	 */
-	public List<Double> getVertices(){
-		List<Double> unsortedVertices = _quantizedVertexCoordArray.getVertices();
-		List<Double> sortedVertices = new ArrayList<Double>();
-		for(int vertexIndex : _vertexDataIndices){
-			sortedVertices.add(unsortedVertices.get(vertexIndex * 3));
-			sortedVertices.add(unsortedVertices.get((vertexIndex * 3) + 1));
-			sortedVertices.add(unsortedVertices.get((vertexIndex * 3) + 2));
-		}
-		return sortedVertices;
+	public double[] getVertexArray(){
+		return sort(_quantizedVertexCoordArray.getVertexArray());
 	}
 
 	/**
 	 * Returns the normal data.
-	 * @return Normal data
+	 * @return Normal data [nx, ny, nz]
 	 */
-	public List<Double> getNormals(){
-		List<Double> unsortedNormals = _quantizedVertexNormalArray.getNormals();
-		List<Double> sortedNormals = new ArrayList<Double>();
-		for(int vertexIndex : _vertexDataIndices){
-			sortedNormals.add(unsortedNormals.get(vertexIndex * 3));
-			sortedNormals.add(unsortedNormals.get((vertexIndex * 3) + 1));
-			sortedNormals.add(unsortedNormals.get((vertexIndex * 3) + 2));
-		}
-		return sortedNormals;
+	public double[] getNormalArray(){
+		return sort(_quantizedVertexNormalArray.getNormalArray());
 	}
 
 	/**
 	 * Returns the colors.
-	 * @return Colors
+	 * @return Colors [r, g, b]
 	 */
-	public List<Float> getColors(){
+	public double[] getColorArray(){
 		if(_quantizedVertexColorArray == null){
 			return null;
 		}
 
-		List<Float> unsortedColors = _quantizedVertexColorArray.getColors();
-		List<Float> sortedColors = new ArrayList<Float>();
-		for(int vertexIndex : _vertexDataIndices){
-			sortedColors.add(unsortedColors.get(vertexIndex * 3));
-			sortedColors.add(unsortedColors.get((vertexIndex * 3) + 1));
-			sortedColors.add(unsortedColors.get((vertexIndex * 3) + 2));
+		return sort(_quantizedVertexColorArray.getColorArray());
+	}
+
+	/**
+	 * Arranges the given per vertex triples in the order of the vertex data indices.
+	 * @param  unsortedValues Unsorted triples
+	 * @return                Sorted triples
+	 */
+	private double[] sort(double[] unsortedValues){
+		double[] sortedValues = new double[_vertexDataIndices.length * 3];
+		for(int i = 0, j = 0; i < _vertexDataIndices.length; i++){
+			int k = _vertexDataIndices[i] * 3;
+			sortedValues[j++] = unsortedValues[k];
+			sortedValues[j++] = unsortedValues[k + 1];
+			sortedValues[j++] = unsortedValues[k + 2];
 		}
-		return sortedColors;
+		return sortedValues;
 	}
 
 	/**
@@ -140,6 +132,6 @@ public class LossyQuantizedRawVertexData {
 												(normalBinding != 0) ? QuantizedVertexNormalArray.read(workingContext) : null,
 												(textureCoordBinding != 0) ? QuantizedVertexTextureCoordArray.read(workingContext) : null,
 												(colorBinding != 0) ? QuantizedVertexColorArray.read(workingContext) : null,
-												Int32CDP.readVecI32(workingContext, PredictorType.PredStripIndex));
+												Int32CDP.readVecI32Array(workingContext, PredictorType.PredStripIndex));
 	}
 }
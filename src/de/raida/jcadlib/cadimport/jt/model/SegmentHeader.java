@@ -44,6 +44,9 @@ public class SegmentHeader {
 	/** Segment type */
 	private SegmentType _segmentType;
 
+	/** Segment length in bytes (including the header) */
+	private int _segmentLength;
+
 	/**
 	 * Constructor.
 	 * @param segmentID     Segment ID
@@ -53,6 +56,7 @@ public class SegmentHeader {
 	public SegmentHeader(GUID segmentID, int segmentType, int segmentLength){
 		_segmentID = segmentID;
 		_segmentType = SegmentType.get(segmentType);
+		_segmentLength = segmentLength;
 	}
 
 	/**
@@ -71,6 +75,14 @@ public class SegmentHeader {
 		return _segmentType;
 	}
 
+	/**
+	 * Returns the length of the segment.
+	 * @return Length of the segment in bytes (including the header)
+	 */
+	public int getSegmentLength(){
+		return _segmentLength;
+	}
+
 	/**
 	 * Reads a segment header.
 	 * @param  workingContext Working context
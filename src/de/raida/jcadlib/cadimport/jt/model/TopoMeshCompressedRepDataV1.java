@@ -25,7 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
@@ -45,10 +44,10 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class TopoMeshCompressedRepDataV1 {
 	/** Primitive list indices */
-	private List<Integer> _primitiveListIndices;
+	private int[] _primitiveListIndices;
 
 	/** Vertex list indices */
-	private List<Integer> _vertexListIndices;
+	private int[] _vertexListIndices;
 
 	/** Compressed vertex coordinate array */
 	private CompressedVertexCoordinateArray _compressedVertexCoordinateArray;
@@ -73,7 +72,7 @@ public class TopoMeshCompressedRepDataV1 {
 	 * @param numberOfVertexRecords        Number of vertex records
 	 */
 	public TopoMeshCompressedRepDataV1(	int numberOfFaceGroupListIndices, int numberOfPrimitiveListIndices, int numberOfVertexListIndices,
-										List<Integer> faceGroupListIndices, List<Integer> primitiveListIndices, List<Integer> vertexListIndices,
+										int[] faceGroupListIndices, int[] primitiveListIndices, int[] vertexListIndices,
 										int fgpvListIndicesHash, long vertexBindings, QuantizationParameters quantizationParameters,
 										int numberOfVertexRecords){
 		this(	numberOfFaceGroupListIndices, numberOfPrimitiveListIndices, numberOfVertexListIndices, faceGroupListIndices, primitiveListIndices,
@@ -103,9 +102,9 @@ public class TopoMeshCompressedRepDataV1 {
 	 * @param compressedVertexFlagArray               Compressed vertex flag array
 	 */
 	public TopoMeshCompressedRepDataV1(	int numberOfFaceGroupListIndices, int numberOfPrimitiveListIndices, int numberOfVertexListIndices,
-										List<Integer> faceGroupListIndices, List<Integer> primitiveListIndices, List<Integer> vertexListIndices,
+										int[] faceGroupListIndices, int[] primitiveListIndices, int[] vertexListIndices,
 										int fgpvListIndicesHash, long vertexBindings, QuantizationParameters quantizationParameters,
-										int numberOfVertexRecords, int numberOfUniqueVertexCoordinates, List<Integer> uniqueVertexCoordinateLengthList,
+										int numberOfVertexRecords, int numberOfUniqueVertexCoordinates, int[] uniqueVertexCoordinateLengthList,
 										int uniqueVertexListMapHash, CompressedVertexCoordinateArray compressedVertexCoordinateArray,
 										CompressedVertexNormalArray compressedVertexNormalArray, CompressedVertexColorArray compressedVertexColorArray,
 										CompressedVertexTextureCoordinateArray[] compressedVertexTextureCoordinateArrays,
@@ -145,7 +144,7 @@ public class TopoMeshCompressedRepDataV1 {
 	 * Returns the primitive list indices.
 	 * @return Primitive list indices
 	 */
-	public List<Integer> getPrimitiveListIndices(){
+	public int[] getPrimitiveListIndices(){
 		return _primitiveListIndices;
 	}
 
@@ -153,7 +152,7 @@ public class TopoMeshCompressedRepDataV1 {
 	 * Returns the vertex list indices.
 	 * @return Vertex list indices
 	 */
-	public List<Integer> getVertexListIndices(){
+	public int[] getVertexListIndices(){
 		return _vertexListIndices;
 	}
 
@@ -175,13 +174,13 @@ public class TopoMeshCompressedRepDataV1 {
 		int numberOfPrimitiveListIndices = Helper.readI32(byteBuffer);
 		int numberOfVertexListIndices = Helper.readI32(byteBuffer);
 
-		List<Integer> faceGroupListIndices = null;
+		int[] faceGroupListIndices = null;
 		if(fromPolyLineShape){
-			faceGroupListIndices = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
+			faceGroupListIndices = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 		}
 
-		List<Integer> primitiveListIndices = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-		List<Integer> vertexListIndices = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
+		int[] primitiveListIndices = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+		int[] vertexListIndices = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 
 		int fgpvListIndicesHash = Helper.readI32(byteBuffer);
 		long vertexBindings = Helper.readU64(byteBuffer);
@@ -204,7 +203,7 @@ public class TopoMeshCompressedRepDataV1 {
 
 		int numberOfUniqueVertexCoordinates = Helper.readI32(byteBuffer);
 
-		List<Integer> uniqueVertexCoordinateLengthList = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
+		int[] uniqueVertexCoordinateLengthList = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 
 		int uniqueVertexListMapHash = Helper.readI32(byteBuffer);
 
@@ -76,9 +76,9 @@ public class TopoMeshCompressedRepDataV2 {
 	 * @param auxiliaryDataHashs          Auxiliary data hashs
 	 */
 	public TopoMeshCompressedRepDataV2(TopoMeshCompressedRepDataV1 topoMeshCompressedRepDataV1, int versionNumber, long vertexBindings,
-			int numberOfAuxiliaryFields, GUID[] uniqueFieldIdentifiers, int[] fieldTypes, List<List<Integer>> dataExponentsLists,
-			List<List<Integer>> dataUpperMantissaeLists, List<List<Integer>> dataLowerMantissaeLists, List<List<Integer>> dataU320Lists,
-			List<List<Integer>> dataU321Lists, List<List<Integer>> dataU322Lists, int[] auxiliaryDataHashs){
+			int numberOfAuxiliaryFields, GUID[] uniqueFieldIdentifiers, int[] fieldTypes, List<int[]> dataExponentsLists,
+			List<int[]> dataUpperMantissaeLists, List<int[]> dataLowerMantissaeLists, List<int[]> dataU320Lists,
+			List<int[]> dataU321Lists, List<int[]> dataU322Lists, int[] auxiliaryDataHashs){
 		_topoMeshCompressedRepDataV1 = topoMeshCompressedRepDataV1;
 	}
 
@@ -116,12 +116,12 @@ public class TopoMeshCompressedRepDataV2 {
 
 		GUID[] uniqueFieldIdentifiers = new GUID[numberOfAuxiliaryFields];
 		int[] fieldTypes = new int[numberOfAuxiliaryFields];
-		List<List<Integer>> dataExponentsLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> dataUpperMantissaeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> dataLowerMantissaeLists = new ArrayList<List<Integer>>();
-		List<List<Integer>> dataU320Lists = new ArrayList<List<Integer>>();
-		List<List<Integer>> dataU321Lists = new ArrayList<List<Integer>>();
-		List<List<Integer>> dataU322Lists = new ArrayList<List<Integer>>();
+		List<int[]> dataExponentsLists = new ArrayList<int[]>();
+		List<int[]> dataUpperMantissaeLists = new ArrayList<int[]>();
+		List<int[]> dataLowerMantissaeLists = new ArrayList<int[]>();
+		List<int[]> dataU320Lists = new ArrayList<int[]>();
+		List<int[]> dataU321Lists = new ArrayList<int[]>();
+		List<int[]> dataU322Lists = new ArrayList<int[]>();
 		int[] auxiliaryDataHashs = new int[numberOfAuxiliaryFields];
 
 		for(int i = 0; i < numberOfAuxiliaryFields; i++){
@@ -132,26 +132,26 @@ public class TopoMeshCompressedRepDataV2 {
 			for(int j = 0; j < fieldTypeComponents; j++){
 				String fieldTypeData = Helper.getFieldTypeData(fieldTypes[i]);
 				if(fieldTypeData.charAt(0) == 'F'){
-					dataExponentsLists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL)); 
+					dataExponentsLists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL)); 
 
 					if(fieldTypeData.equals("F64")){
-						dataUpperMantissaeLists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL));
+						dataUpperMantissaeLists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL));
 					}
 
 					if(fieldTypeData.equals("F32") || fieldTypeData.equals("F64")){
-						dataLowerMantissaeLists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL));
+						dataLowerMantissaeLists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL));
 					}
 
 				} else {
-					dataU320Lists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL)); 
+					dataU320Lists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL)); 
 
 					if(	fieldTypeData.equals("U32") || fieldTypeData.equals("I32") ||
 						fieldTypeData.equals("U64") || fieldTypeData.equals("I64")){
-						dataU321Lists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL));
+						dataU321Lists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL));
 					}
 
 					if(	fieldTypeData.equals("U64") || fieldTypeData.equals("I64")){
-						dataU322Lists.add(Int32CDP2.readVecU32(workingContext, PredictorType.PredNULL));
+						dataU322Lists.add(Int32CDP2.readVecU32Array(workingContext, PredictorType.PredNULL));
 					}
 				}
 			}
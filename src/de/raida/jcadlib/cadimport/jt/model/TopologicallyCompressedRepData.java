@@ -25,7 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP2;
@@ -62,38 +61,41 @@ import de.raida.jcadlib.cadimport.jt.reader.WorkingContext;
  */
 public class TopologicallyCompressedRepData {
 	/** Face degree lists */
-	private List<List<Integer>> _faceDegrees;
+	private int[][] _faceDegrees;
 
 	/** Vertex valences lists */
-	private List<Integer> _vertexValences;
+	private int[] _vertexValences;
 
 	/** Vertex groups lists */
-	private List<Integer> _vertexGroups;
+	private int[] _vertexGroups;
 
 	/** Vertex flags lists */
-	private List<Integer> _vertexFlags;
+	private int[] _vertexFlags;
 
 	/** Face attribute masks lists */
-	private List<List<Integer>> _faceAttributeMasks;
+	private int[][] _faceAttributeMasks;
 
 	/** Face attribute masks lists */
-	private List<Integer> _faceAttributeMask8_30;
+	private int[] _faceAttributeMask8_30;
 
 	/** Face attribute masks lists */
-	private List<Integer> _faceAttributeMask8_4;
+	private int[] _faceAttributeMask8_4;
 
 	/** High degree face attribute masks */
 	private long[] _highDegreeFaceAttributeMasks;
 
 	/** Split face syms lists */
-	private List<Integer> _splitFaceSyms;
+	private int[] _splitFaceSyms;
 
 	/** Split face positions lists */
-	private List<Integer> _splitFacePositions;
+	private int[] _splitFacePositions;
 
 	/** Topologically compressed vertex records */
 	private TopologicallyCompressedVertexRecords _topologicallyCompressedVertexRecords;
 
+	/** Decoded indices or null, if not decoded yet */
+	private List<List<Integer>> _indices;
+
 	/**
 	 * Constructor.
 	 * @param faceDegrees                          Face degree lists
@@ -109,10 +111,10 @@ public class TopologicallyCompressedRepData {
 	 * @param compositeHash                        Composite hash
 	 * @param topologicallyCompressedVertexRecords Topologically compressed vertex records
 	 */
-	public TopologicallyCompressedRepData(List<List<Integer>> faceDegrees, List<Integer> vertexValences,
-			List<Integer> vertexGroups, List<Integer> vertexFlags, List<List<Integer>> faceAttributeMasks,
-			List<Integer> faceAttributeMask8_30, List<Integer> faceAttributeMask8_4, long[] highDegreeFaceAttributeMasks,
-			List<Integer> splitFaceSyms, List<Integer> splitFacePositions, long compositeHash,
+	public TopologicallyCompressedRepData(int[][] faceDegrees, int[] vertexValences,
+			int[] vertexGroups, int[] vertexFlags, int[][] faceAttributeMasks,
+			int[] faceAttributeMask8_30, int[] faceAttributeMask8_4, long[] highDegreeFaceAttributeMasks,
+			int[] splitFaceSyms, int[] splitFacePositions, long compositeHash,
 			TopologicallyCompressedVertexRecords topologicallyCompressedVertexRecords){
 		_faceDegrees = faceDegrees;
 		_vertexValences = vertexValences;
@@ -128,15 +130,31 @@ public class TopologicallyCompressedRepData {
 	}
 
 	/**
-	 * Returns the indices.
-	 * @return Indices (vertex and normal)
+	 * Returns the indices. The indices are decoded on the first call, afterwards
+	 * the symbol lists are released.
+	 * @param  workingContext Working context
+	 * @return                Indices (vertex and normal)
 	 */
-	public List<List<Integer>> getIndices(){
-		MeshCoderDriver meshCoderDriver = new MeshCoderDriver();
-		meshCoderDriver.setInputData(	_vertexValences, _faceDegrees, _vertexGroups, _vertexFlags,
-										_faceAttributeMasks, _faceAttributeMask8_30, _faceAttributeMask8_4,
-										_highDegreeFaceAttributeMasks, _splitFaceSyms, _splitFacePositions);
-		return meshCoderDriver.decode();
+	public List<List<Integer>> getIndices(WorkingContext workingContext){
+		if(_indices == null){
+			MeshCoderDriver meshCoderDriver = workingContext.getScratchArena().getMeshCoderDriver();
+			meshCoderDriver.setInputData(	_vertexValences, _faceDegrees, _vertexGroups, _vertexFlags,
+											_faceAttributeMasks, _faceAttributeMask8_30, _faceAttributeMask8_4,
+											_highDegreeFaceAttributeMasks, _splitFaceSyms, _splitFacePositions);
+			_indices = meshCoderDriver.decode();
+
+			_faceDegrees = null;
+			_vertexValences = null;
+			_vertexGroups = null;
+			_vertexFlags = null;
+			_faceAttributeMasks = null;
+			_faceAttributeMask8_30 = null;
+			_faceAttributeMask8_4 = null;
+			_highDegreeFaceAttributeMasks = null;
+			_splitFaceSyms = null;
+			_splitFacePositions = null;
+		}
+		return _indices;
 	}
 
 	/**
@@ -156,25 +174,25 @@ public class TopologicallyCompressedRepData {
 	public static TopologicallyCompressedRepData read(WorkingContext workingContext) throws UnsupportedCodecException {
 		ByteBuffer byteBuffer = workingContext.getByteBuffer();
 
-		List<List<Integer>> faceDegrees = new ArrayList<List<Integer>>();
+		int[][] faceDegrees = new int[8][];
 		for(int i = 0; i < 8; i++){
-			faceDegrees.add(Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL));
+			faceDegrees[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 		}
 
-		List<Integer> vertexValences = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-		List<Integer> vertexGroups = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-		List<Integer> vertexFlags = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
+		int[] vertexValences = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+		int[] vertexGroups = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+		int[] vertexFlags = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
 
-		List<List<Integer>> faceAttributeMasks = new ArrayList<List<Integer>>();
+		int[][] faceAttributeMasks = new int[8][];
 		for(int i = 0; i < 8; i++){
-			faceAttributeMasks.add(Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL));
+			faceAttributeMasks[i] = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 		}
 
-		List<Integer> faceAttributeMask8_30 = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
-		List<Integer> faceAttributeMask8_4 = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
+		int[] faceAttributeMask8_30 = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
+		int[] faceAttributeMask8_4 = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 		long[] highDegreeFaceAttributeMasks = Helper.readVecU32(byteBuffer);
-		List<Integer> splitFaceSyms = Int32CDP2.readVecI32(workingContext, PredictorType.PredLag1);
-		List<Integer> splitFacePositions = Int32CDP2.readVecI32(workingContext, PredictorType.PredNULL);
+		int[] splitFaceSyms = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredLag1);
+		int[] splitFacePositions = Int32CDP2.readVecI32Array(workingContext, PredictorType.PredNULL);
 
 		long readHash = Helper.readU32(byteBuffer);
 
@@ -25,7 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model;
 
 import java.nio.ByteBuffer;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
@@ -59,7 +58,7 @@ public class VertexBasedShapeCompressedRepData {
 	public final static byte BINDING_PER_PRIMITIVE = 3;
 
 	/** Indices */
-	private List<Integer> _indices;
+	private int[] _indices;
 
 	/** Lossless compressed raw vertex data */
 	private LosslessCompressedRawVertexData _losslessCompressedRawVertexData;
@@ -74,11 +73,11 @@ public class VertexBasedShapeCompressedRepData {
 	 * @param textureCoordBinding             Granularity of texture coordinate data
 	 * @param colorBinding                    Granularity of color data
 	 * @param quantizationParameters          Quantization paramters
-	 * @param indices                         List of indices
+	 * @param indices                         Indices
 	 * @param losslessCompressedRawVertexData Lossless compressed raw vertex data
 	 * @param lossyQuantizedRawVertexData     Lossy compressed raw vertex data
 	 */
-	public VertexBasedShapeCompressedRepData(int versionNumber, int normalBinding, int textureCoordBinding, int colorBinding, QuantizationParameters quantizationParameters, List<Integer> indices, LosslessCompressedRawVertexData losslessCompressedRawVertexData, LossyQuantizedRawVertexData lossyQuantizedRawVertexData){
+	public VertexBasedShapeCompressedRepData(int versionNumber, int normalBinding, int textureCoordBinding, int colorBinding, QuantizationParameters quantizationParameters, int[] indices, LosslessCompressedRawVertexData losslessCompressedRawVertexData, LossyQuantizedRawVertexData lossyQuantizedRawVertexData){
 		_indices = indices;
 		_losslessCompressedRawVertexData = losslessCompressedRawVertexData;
 		_lossyQuantizedRawVertexData = lossyQuantizedRawVertexData;
@@ -88,43 +87,43 @@ public class VertexBasedShapeCompressedRepData {
 	 * Returns the indices.
 	 * @return Indices
 	 */
-	public List<Integer> getIndices(){
+	public int[] getIndices(){
 		return _indices;
 	}
 
 	/**
 	 * Returns the geometry vertices (without texture coordinates, normals, ...).
-	 * @return Geometry vertices
+	 * @return Geometry vertices [x, y, z]
 	 */
-	public List<Double> getVertices(){
+	public double[] getVertexArray(){
 		if(_losslessCompressedRawVertexData != null){
-			return _losslessCompressedRawVertexData.getVertices();
+			return _losslessCompressedRawVertexData.getVertexArray();
 		} else {
-			return _lossyQuantizedRawVertexData.getVertices();
+			return _lossyQuantizedRawVertexData.getVertexArray();
 		}
 	}
 
 	/**
 	 * Returns the normals.
-	 * @return Normals
+	 * @return Normals [nx, ny, nz]
 	 */
-	public List<Double> getNormals(){
+	public double[] getNormalArray(){
 		if(_losslessCompressedRawVertexData != null){
-			return _losslessCompressedRawVertexData.getNormals();
+			return _losslessCompressedRawVertexData.getNormalArray();
 		} else {
-			return _lossyQuantizedRawVertexData.getNormals();
+			return _lossyQuantizedRawVertexData.getNormalArray();
 		}
 	}
 
 	/**
 	 * Returns the colors.
-	 * @return Colors
+	 * @return Colors [r, g, b]
 	 */
-	public List<Float> getColors(){
+	public double[] getColorArray(){
 		if(_losslessCompressedRawVertexData != null){
-			return _losslessCompressedRawVertexData.getColors();
+			return _losslessCompressedRawVertexData.getColorArray();
 		} else {
-			return _lossyQuantizedRawVertexData.getColors();
+			return _lossyQuantizedRawVertexData.getColorArray();
 		}
 	}
 
@@ -157,7 +156,7 @@ public class VertexBasedShapeCompressedRepData {
 
 		// Read the index list
 		//---------------------
-		List<Integer> indices = Int32CDP.readVecI32(workingContext, PredictorType.PredStride1);
+		int[] indices = Int32CDP.readVecI32Array(workingContext, PredictorType.PredStride1);
 
 		// Read the vertex list
 		//----------------------
@@ -55,9 +55,10 @@ public class VertexShapeLODElement {
 
 	/**
 	 * Returns the indices.
-	 * @return Indices (vertex and normal)
+	 * @param  workingContext Working context
+	 * @return                Indices (vertex and normal)
 	 */
-	public List<List<Integer>> getIndices(){
+	public List<List<Integer>> getIndices(WorkingContext workingContext){
 		TopoMeshCompressedRepDataV1 topoMeshCompressedRepDataV1 = getTopoMeshCompressedRepDataV1();
 		if(topoMeshCompressedRepDataV1 != null){
 			throw new RuntimeException("Unimplemented code block found!");
@@ -66,7 +67,7 @@ public class VertexShapeLODElement {
 		} else {
 			TopologicallyCompressedRepData topologicallyCompressedRepData = getTopologicallyCompressedRepData();
 			if(topologicallyCompressedRepData != null){
-				return topologicallyCompressedRepData.getIndices();
+				return topologicallyCompressedRepData.getIndices(workingContext);
 			}
 		}
 		
@@ -75,17 +76,17 @@ public class VertexShapeLODElement {
 
 	/**
 	 * Returns the geometry vertices (without texture coordinates, normals, ...).
-	 * @return Geometry vertices
+	 * @return Geometry vertices [x, y, z]
 	 */
-	public List<Double> getVertices(){
+	public double[] getVertexArray(){
 		TopoMeshCompressedRepDataV1 topoMeshCompressedRepDataV1 = getTopoMeshCompressedRepDataV1();
 		if(topoMeshCompressedRepDataV1 != null){
-			return topoMeshCompressedRepDataV1.getCompressedVertexCoordinateArray().getVertices();
+			return topoMeshCompressedRepDataV1.getCompressedVertexCoordinateArray().getVertexArray();
 	
 		} else {
 			TopologicallyCompressedVertexRecords topologicallyCompressedVertexRecords = getTopologicallyCompressedVertexRecords();
 			if(topologicallyCompressedVertexRecords != null){
-				return topologicallyCompressedVertexRecords.getCompressedVertexCoordinateArray().getVertices();
+				return topologicallyCompressedVertexRecords.getCompressedVertexCoordinateArray().getVertexArray();
 			}
 		}
 	
@@ -94,17 +95,17 @@ public class VertexShapeLODElement {
 
 	/**
 	 * Returns the normals.
-	 * @return Normals
+	 * @return Normals [nx, ny, nz]
 	 */
-	public List<Double> getNormals(){
+	public double[] getNormalArray(){
 		TopoMeshCompressedRepDataV1 topoMeshCompressedRepDataV1 = getTopoMeshCompressedRepDataV1();
 		if(topoMeshCompressedRepDataV1 != null){
-			return topoMeshCompressedRepDataV1.getCompressedVertexNormalArray().getNormals();
+			return topoMeshCompressedRepDataV1.getCompressedVertexNormalArray().getNormalArray();
 	
 		} else {
 			TopologicallyCompressedVertexRecords topologicallyCompressedVertexRecords = getTopologicallyCompressedVertexRecords();
 			if(topologicallyCompressedVertexRecords != null){
-				return topologicallyCompressedVertexRecords.getCompressedVertexNormalArray().getNormals();
+				return topologicallyCompressedVertexRecords.getCompressedVertexNormalArray().getNormalArray();
 			}
 		}
 	
@@ -113,19 +114,19 @@ public class VertexShapeLODElement {
 
 	/**
 	 * Returns the colors.
-	 * @return Colors
+	 * @return Colors [r, g, b]
 	 */
-	public List<Double> getColors(){
+	public double[] getColorArray(){
 		TopoMeshCompressedRepDataV1 topoMeshCompressedRepDataV1 = getTopoMeshCompressedRepDataV1();
 		if(topoMeshCompressedRepDataV1 != null){
-			return topoMeshCompressedRepDataV1.getCompressedVertexColorArray().getColors();
+			return topoMeshCompressedRepDataV1.getCompressedVertexColorArray().getColorArray();
 	
 		} else {
 			TopologicallyCompressedVertexRecords topologicallyCompressedVertexRecords = getTopologicallyCompressedVertexRecords();
 			if(topologicallyCompressedVertexRecords != null){
 				CompressedVertexColorArray compressedVertexColorArray = topologicallyCompressedVertexRecords.getCompressedVertexColorArray();
 				if(compressedVertexColorArray != null){
-					return compressedVertexColorArray.getColors();
+					return compressedVertexColorArray.getColorArray();
 				}
 			}
 		}
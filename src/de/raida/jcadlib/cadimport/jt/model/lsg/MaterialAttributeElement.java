@@ -150,6 +150,30 @@ public class MaterialAttributeElement extends LSGNode {
 		return new Color(_diffuseColor[0], _diffuseColor[1], _diffuseColor[2], _diffuseColor[3]);
 	}
 
+	/**
+	 * Returns the specular color.
+	 * @return Specular color
+	 */
+	public Color getSpecularColor(){
+		return new Color(_specularColor[0], _specularColor[1], _specularColor[2], _specularColor[3]);
+	}
+
+	/**
+	 * Returns the emission color.
+	 * @return Emission color
+	 */
+	public Color getEmissionColor(){
+		return new Color(_emissionColor[0], _emissionColor[1], _emissionColor[2], _emissionColor[3]);
+	}
+
+	/**
+	 * Returns the shininess (0 - 128).
+	 * @return Shininess
+	 */
+	public float getShininess(){
+		return _shininess;
+	}
+
 	/**
 	 * Returns a copy of the current class.
 	 * @param  lsgNode Parent node
@@ -45,6 +45,9 @@ public class DatePropertyAtomElement implements JTNode {
 	/** Base property atom data */
 	private BasePropertyAtomData _basePropertyAtomData;
 
+	/** Value: year, month, day, hour, minute, second */
+	private short[] _value;
+
 	/**
 	 * Constructor.
 	 * @param basePropertyAtomData Base property atom data
@@ -57,6 +60,7 @@ public class DatePropertyAtomElement implements JTNode {
 	 */
 	public DatePropertyAtomElement(BasePropertyAtomData basePropertyAtomData, short year, short month, short day, short hour, short minute, short second){
 		_basePropertyAtomData = basePropertyAtomData;
+		_value = new short[]{year, month, day, hour, minute, second};
 	}
 
 	/**
@@ -67,6 +71,14 @@ public class DatePropertyAtomElement implements JTNode {
 		return _basePropertyAtomData.getObjectID();
 	}
 
+	/**
+	 * Returns the value of the property node.
+	 * @return Value of the property node: year, month, day, hour, minute, second
+	 */
+	public short[] getValue(){
+		return _value;
+	}
+
 	/**
 	 * Reads a DatePropertyAtomElement object.
 	 * @param  workingContext Working context
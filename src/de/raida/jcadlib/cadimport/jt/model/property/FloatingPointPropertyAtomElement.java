@@ -44,6 +44,9 @@ public class FloatingPointPropertyAtomElement implements JTNode {
 	/** Base property atom data */
 	private BasePropertyAtomData _basePropertyAtomData;
 
+	/** Value */
+	private float _value;
+
 	/**
 	 * Constructor.
 	 * @param basePropertyAtomData Base property atom data
@@ -51,6 +54,7 @@ public class FloatingPointPropertyAtomElement implements JTNode {
 	 */
 	public FloatingPointPropertyAtomElement(BasePropertyAtomData basePropertyAtomData, float value){
 		_basePropertyAtomData = basePropertyAtomData;
+		_value = value;
 	}
 
 	/**
@@ -61,6 +65,14 @@ public class FloatingPointPropertyAtomElement implements JTNode {
 		return _basePropertyAtomData.getObjectID();
 	}
 
+	/**
+	 * Returns the value of the property node.
+	 * @return Value of the property node
+	 */
+	public float getValue(){
+		return _value;
+	}
+
 	/**
 	 * Reads a FloatingPointPropertyAtomElement object.
 	 * @param  workingContext Working context
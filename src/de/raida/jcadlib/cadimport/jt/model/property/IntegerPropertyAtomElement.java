@@ -44,6 +44,9 @@ public class IntegerPropertyAtomElement implements JTNode {
 	/** Base property atom data */
 	private BasePropertyAtomData _basePropertyAtomData;
 
+	/** Value */
+	private int _value;
+
 	/**
 	 * Constructor.
 	 * @param basePropertyAtomData Base property atom data
@@ -51,6 +54,7 @@ public class IntegerPropertyAtomElement implements JTNode {
 	 */
 	public IntegerPropertyAtomElement(BasePropertyAtomData basePropertyAtomData, int value){
 		_basePropertyAtomData = basePropertyAtomData;
+		_value = value;
 	}
 
 	/**
@@ -61,6 +65,14 @@ public class IntegerPropertyAtomElement implements JTNode {
 		return _basePropertyAtomData.getObjectID();
 	}
 
+	/**
+	 * Returns the value of the property node.
+	 * @return Value of the property node
+	 */
+	public int getValue(){
+		return _value;
+	}
+
 	/**
 	 * Reads a IntegerPropertyAtomElement object.
 	 * @param  workingContext Working context
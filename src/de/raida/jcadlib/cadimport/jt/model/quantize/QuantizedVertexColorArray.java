@@ -25,9 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model.quantize;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
@@ -52,13 +49,13 @@ public class QuantizedVertexColorArray {
 	private ColorQuantizerData _colorQuantizerData;
 
 	/** Hue / red codes */
-	private List<Integer> _hueRedCodes;
+	private int[] _hueRedCodes;
 
 	/** Vertex x coordinates */
-	private List<Integer> _satGreenCodes;
+	private int[] _satGreenCodes;
 
 	/** Vertex y coordinates */
-	private List<Integer> _valueBlueCodes;
+	private int[] _valueBlueCodes;
 
 	/**
 	 * Constructor.
@@ -71,7 +68,7 @@ public class QuantizedVertexColorArray {
 	 * @param alphaCodes          Alpha codes
 	 * @param colorCodes          Color codes
 	 */
-	public QuantizedVertexColorArray(ColorQuantizerData colorQuantizerData, int numberOfBits, int numberOfColorFloats, List<Integer> hueRedCodes, List<Integer> satGreenCodes, List<Integer> valueBlueCodes, List<Integer> alphaCodes, List<Integer> colorCodes){
+	public QuantizedVertexColorArray(ColorQuantizerData colorQuantizerData, int numberOfBits, int numberOfColorFloats, int[] hueRedCodes, int[] satGreenCodes, int[] valueBlueCodes, int[] alphaCodes, int[] colorCodes){
 		_colorQuantizerData = colorQuantizerData;
 		_hueRedCodes = hueRedCodes;
 		_satGreenCodes = satGreenCodes;
@@ -80,56 +77,67 @@ public class QuantizedVertexColorArray {
 
 	/**
 	 * Returns the colors.
-	 * @return Colors
+	 * @return Colors [r, g, b]
 	 */
-	public List<Float> getColors(){
+	public double[] getColorArray(){
 		float[] redRange = _colorQuantizerData.getRedRange();
 		float deltaRedRange = redRange[1] - redRange[0];
-		float minRed = Collections.min(_hueRedCodes);
-		float maxRed = Collections.max(_hueRedCodes);
+		float minRed = min(_hueRedCodes);
+		float maxRed = max(_hueRedCodes);
 		float deltaRedValue = maxRed - minRed;
 		float mRed = deltaRedRange / deltaRedValue;
 		float bRed = redRange[0] - (mRed * minRed);
 
 		float[] greenRange = _colorQuantizerData.getGreenRange();
 		float deltaGreenRange = greenRange[1] - greenRange[0];
-		float minGreen = Collections.min(_satGreenCodes);
-		float maxGreen = Collections.max(_satGreenCodes);
+		float minGreen = min(_satGreenCodes);
+		float maxGreen = max(_satGreenCodes);
 		float deltaGreenValue = maxGreen - minGreen;
 		float mGreen = deltaGreenRange / deltaGreenValue;
 		float bGreen = greenRange[0] - (mGreen * minGreen);
 
 		float[] blueRange = _colorQuantizerData.getBlueRange();
 		float deltaBlueRange = blueRange[1] - blueRange[0];
-		float minBlue = Collections.min(_valueBlueCodes);
-		float maxBlue = Collections.max(_valueBlueCodes);
+		float minBlue = min(_valueBlueCodes);
+		float maxBlue = max(_valueBlueCodes);
 		float deltaBlueValue = maxBlue - minBlue;
 		float mBlue = deltaBlueRange / deltaBlueValue;
 		float bBlue = blueRange[0] - (mBlue * minBlue);
 
-		List<Float> redValues = new ArrayList<Float>();
-		for(int i = 0; i < _hueRedCodes.size(); i++){
-			redValues.add((mRed * _hueRedCodes.get(i)) + bRed);
+		double[] colors = new double[_hueRedCodes.length * 3];
+		for(int i = 0, j = 0; i < _hueRedCodes.length; i++){
+			colors[j++] = (mRed * _hueRedCodes[i]) + bRed;
+			colors[j++] = (mGreen * _satGreenCodes[i]) + bGreen;
+			colors[j++] = (mBlue * _valueBlueCodes[i]) + bBlue;
 		}
 
-		List<Float> greenValues = new ArrayList<Float>();
-		for(int i = 0; i < _satGreenCodes.size(); i++){
-			greenValues.add((mGreen * _satGreenCodes.get(i)) + bGreen);
-		}
+		return colors;
+	}
 
-		List<Float> blueValues = new ArrayList<Float>();
-		for(int i = 0; i < _valueBlueCodes.size(); i++){
-			blueValues.add((mBlue * _valueBlueCodes.get(i)) + bBlue);
+	/**
+	 * Returns the minimum of the given codes.
+	 * @param  codes Codes
+	 * @return       Minimum
+	 */
+	private static int min(int[] codes){
+		int min = codes[0];
+		for(int i = 1; i < codes.length; i++){
+			min = Math.min(min, codes[i]);
 		}
+		return min;
+	}
 
-		List<Float> colors = new ArrayList<Float>();
-		for(int i = 0; i < _hueRedCodes.size(); i++){
-			colors.add(redValues.get(i));
-			colors.add(greenValues.get(i));
-			colors.add(blueValues.get(i));
+	/**
+	 * Returns the maximum of the given codes.
+	 * @param  codes Codes
+	 * @return       Maximum
+	 */
+	private static int max(int[] codes){
+		int max = codes[0];
+		for(int i = 1; i < codes.length; i++){
+			max = Math.max(max, codes[i]);
 		}
-
-		return colors;
+		return max;
 	}
 
 	/**
@@ -149,20 +157,20 @@ public class QuantizedVertexColorArray {
 			throw new IllegalArgumentException("Found invalid component arrays flag: " + componentArraysFlag);
 		}
 
-		List<Integer> hueRedCodes = null;
-		List<Integer> satGreenCodes = null;
-		List<Integer> valueBlueCodes = null;
-		List<Integer> alphaCodes = null;
-		List<Integer> colorCodes = null;
+		int[] hueRedCodes = null;
+		int[] satGreenCodes = null;
+		int[] valueBlueCodes = null;
+		int[] alphaCodes = null;
+		int[] colorCodes = null;
 
 		if(componentArraysFlag == 0){
-			colorCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredNULL);
+			colorCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredNULL);
 
 		} else {
-			hueRedCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-			satGreenCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-			valueBlueCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-			alphaCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
+			hueRedCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+			satGreenCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+			valueBlueCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+			alphaCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
 		}
 
 		return new QuantizedVertexColorArray(	colorQuantizerData,
@@ -24,9 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.model.quantize;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
@@ -47,13 +44,16 @@ public class QuantizedVertexCoordArray {
 	private PointQuantizerData _pointQuantizerData;
 
 	/** Vertex x coordinates */
-	private List<Integer> _xVertexCoordinates;
+	private int[] _xVertexCoordinates;
 
 	/** Vertex y coordinates */
-	private List<Integer> _yVertexCoordinates;
+	private int[] _yVertexCoordinates;
 
 	/** Vertex z coordinates */
-	private List<Integer> _zVertexCoordinates;
+	private int[] _zVertexCoordinates;
+
+	/** Dequantized vertices or null, if not dequantized yet */
+	private double[] _vertices;
 
 	/**
 	 * Constructor.
@@ -63,7 +63,7 @@ public class QuantizedVertexCoordArray {
 	 * @param yVertexCoordinates Vertex y coordinates
 	 * @param zVertexCoordinates Vertex z coordinates
 	 */
-	public QuantizedVertexCoordArray(PointQuantizerData pointQuantizerData, int vertexCount, List<Integer> xVertexCoordinates, List<Integer> yVertexCoordinates, List<Integer> zVertexCoordinates){
+	public QuantizedVertexCoordArray(PointQuantizerData pointQuantizerData, int vertexCount, int[] xVertexCoordinates, int[] yVertexCoordinates, int[] zVertexCoordinates){
 		_pointQuantizerData = pointQuantizerData;
 		_xVertexCoordinates = xVertexCoordinates;
 		_yVertexCoordinates = yVertexCoordinates;
@@ -71,22 +71,22 @@ public class QuantizedVertexCoordArray {
 	}
 
 	/**
-	 * Returns the vertex data.
-	 * @return Vertex data
+	 * Returns the vertex data. The vertices are dequantized on the first call,
+	 * afterwards the vertex codes are released.
+	 * @return Vertex data [x, y, z]
 	 */
-	public List<Double> getVertices(){
-		List<Double> xVertices = Helper.dequantize(_xVertexCoordinates, _pointQuantizerData.getXRange(), _pointQuantizerData.getNumberOfBits());
-		List<Double> yVertices = Helper.dequantize(_yVertexCoordinates, _pointQuantizerData.getYRange(), _pointQuantizerData.getNumberOfBits());
-		List<Double> zVertices = Helper.dequantize(_zVertexCoordinates, _pointQuantizerData.getZRange(), _pointQuantizerData.getNumberOfBits());
+	public double[] getVertexArray(){
+		if(_vertices == null){
+			_vertices = new double[_xVertexCoordinates.length * 3];
+			Helper.dequantize(	new int[][]{_xVertexCoordinates, _yVertexCoordinates, _zVertexCoordinates},
+								new float[][]{_pointQuantizerData.getXRange(), _pointQuantizerData.getYRange(), _pointQuantizerData.getZRange()},
+								_pointQuantizerData.getNumberOfBits(), _vertices);
 
-		List<Double> vertices = new ArrayList<Double>();
-		for(int i = 0; i < _xVertexCoordinates.size(); i++){
-			vertices.add(xVertices.get(i));
-			vertices.add(yVertices.get(i));
-			vertices.add(zVertices.get(i));
+			_xVertexCoordinates = null;
+			_yVertexCoordinates = null;
+			_zVertexCoordinates = null;
 		}
-
-		return vertices;
+		return _vertices;
 	}
 
 	/**
@@ -96,13 +96,20 @@ public class QuantizedVertexCoordArray {
 	 * @throws UnsupportedCodecException Thrown, when an unsupported codec has been found
 	 */
 	public static QuantizedVertexCoordArray read(WorkingContext workingContext) throws UnsupportedCodecException {
-		return new QuantizedVertexCoordArray(	PointQuantizerData.read(workingContext),
-												Helper.readI32(workingContext.getByteBuffer()),
-												// J. Raida: The next values have to be read as signed values. The
-                								// specification up to version 8.1d is wrong (is says, that unsigned
-                								// values have to be read)!
-												Int32CDP.readVecI32(workingContext, PredictorType.PredLag1),
-												Int32CDP.readVecI32(workingContext, PredictorType.PredLag1),
-												Int32CDP.readVecI32(workingContext, PredictorType.PredLag1));
+		PointQuantizerData pointQuantizerData = PointQuantizerData.read(workingContext);
+		int vertexCount = Helper.readI32(workingContext.getByteBuffer());
+
+		// J. Raida: The next values have to be read as signed values. The
+		// specification up to version 8.1d is wrong (is says, that unsigned
+		// values have to be read)!
+		int[] xVertexCoordinates = Int32CDP.readVecI32Array(workingContext, PredictorType.PredLag1);
+		int[] yVertexCoordinates = Int32CDP.readVecI32Array(workingContext, PredictorType.PredLag1);
+		int[] zVertexCoordinates = Int32CDP.readVecI32Array(workingContext, PredictorType.PredLag1);
+
+		return new QuantizedVertexCoordArray(	pointQuantizerData,
+												vertexCount,
+												xVertexCoordinates,
+												yVertexCoordinates,
+												zVertexCoordinates);
 	}
 }
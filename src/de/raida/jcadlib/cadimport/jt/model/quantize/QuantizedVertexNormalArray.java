@@ -25,10 +25,6 @@
 package de.raida.jcadlib.cadimport.jt.model.quantize;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.vecmath.Point3d;
 
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
@@ -57,23 +53,11 @@ public class QuantizedVertexNormalArray {
 	/** Quantized size */
 	private int _numberOfBits;
 
-	/** Sectant codes */
-	private List<Integer> _sextantCodes;
-
-	/** Octant codes */
-	private List<Integer> _octantCodes;
-
-	/** Theta codes */
-	private List<Integer> _thetaCodes;
-
-	/** Psi codes */
-	private List<Integer> _psiCodes;
-
-	/** List of normals */
-	private List<Double> _normals;
+	/** Normals [nx, ny, nz] */
+	private double[] _normals;
 
 	/**
-	 * Constructor.
+	 * Constructor. The normals are decoded immediately, the codes aren't kept.
 	 * @param numberOfBits Quantized size
 	 * @param normalCount  Normal count
 	 * @param sextantCodes Sextant code
@@ -81,29 +65,18 @@ public class QuantizedVertexNormalArray {
 	 * @param thetaCodes   Theta codes
 	 * @param psiCodes     Psi codes
 	 */
-	public QuantizedVertexNormalArray(int numberOfBits, int normalCount, List<Integer> sextantCodes, List<Integer> octantCodes, List<Integer> thetaCodes, List<Integer> psiCodes){
+	public QuantizedVertexNormalArray(int numberOfBits, int normalCount, int[] sextantCodes, int[] octantCodes, int[] thetaCodes, int[] psiCodes){
 		_numberOfBits = numberOfBits;
-		_sextantCodes = sextantCodes;
-		_octantCodes = octantCodes;
-		_thetaCodes = thetaCodes;
-		_psiCodes = psiCodes;
-
-		_normals = new ArrayList<Double>();
-		DeeringNormalCodec deeringCodec = new DeeringNormalCodec(_numberOfBits);
 
-		for(int i = 0; i < _psiCodes.size(); i++){
-			Point3d normal = deeringCodec.convertCodeToVec(_sextantCodes.get(i), _octantCodes.get(i), _thetaCodes.get(i), _psiCodes.get(i));
-			_normals.add(normal.x);
-			_normals.add(normal.y);
-			_normals.add(normal.z);
-		}
+		_normals = new double[psiCodes.length * 3];
+		new DeeringNormalCodec(_numberOfBits).decode(sextantCodes, octantCodes, thetaCodes, psiCodes, _normals);
 	}
 
 	/**
-	 * Returns the list of normals.
-	 * @return List of normals
+	 * Returns the normals.
+	 * @return Normals [nx, ny, nz]
 	 */
-	public List<Double> getNormals(){
+	public double[] getNormalArray(){
 		return _normals;
 	}
 
@@ -118,10 +91,10 @@ public class QuantizedVertexNormalArray {
 
 		int numberOfBits = Helper.readU8(byteBuffer);
 		int normalCount = Helper.readI32(byteBuffer);
-		List<Integer> sextantCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-		List<Integer> octantCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-		List<Integer> thetaCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-		List<Integer> psiCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
+		int[] sextantCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+		int[] octantCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+		int[] thetaCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+		int[] psiCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
 
 		return new QuantizedVertexNormalArray(	numberOfBits,
 												normalCount,
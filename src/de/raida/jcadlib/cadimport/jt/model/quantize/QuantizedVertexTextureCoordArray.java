@@ -24,8 +24,6 @@
 
 package de.raida.jcadlib.cadimport.jt.model.quantize;
 
-import java.util.List;
-
 import de.raida.jcadlib.cadimport.jt.codec.Int32CDP;
 import de.raida.jcadlib.cadimport.jt.codec.PredictorType;
 import de.raida.jcadlib.cadimport.jt.reader.Helper;
@@ -53,7 +51,7 @@ public class QuantizedVertexTextureCoordArray {
 	 * @param uTextureCoordCodes    U texture coordinate codes
 	 * @param vTextureCoordCodes    V texture coordinate codes
 	 */
-	public QuantizedVertexTextureCoordArray(TextureQuantizerData textureQuantizerData, int suggestedNumberOfBits, List<Integer> uTextureCoordCodes, List<Integer> vTextureCoordCodes){
+	public QuantizedVertexTextureCoordArray(TextureQuantizerData textureQuantizerData, int suggestedNumberOfBits, int[] uTextureCoordCodes, int[] vTextureCoordCodes){
 	}
 
 	/**
@@ -69,8 +67,8 @@ public class QuantizedVertexTextureCoordArray {
 			throw new IllegalArgumentException("Found invalid suggested number of bits: " + suggestedNumberOfBits);
 		}
 
-		List<Integer> uTextureCoordCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
-		List<Integer> vTextureCoordCodes = Int32CDP.readVecU32(workingContext, PredictorType.PredLag1);
+		int[] uTextureCoordCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
+		int[] vTextureCoordCodes = Int32CDP.readVecU32Array(workingContext, PredictorType.PredLag1);
 
 		return new QuantizedVertexTextureCoordArray(textureQuantizerData,
 													suggestedNumberOfBits,
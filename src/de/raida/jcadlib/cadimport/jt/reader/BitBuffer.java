@@ -66,6 +66,18 @@ public class BitBuffer {
 		_byteOrder = ByteOrder.BIG_ENDIAN;
 	}
 
+	/**
+	 * Resets the bit buffer to the start of another byte buffer.
+	 * @param byteBuffer Underlying byte buffer
+	 * @param bufferSize Buffer size
+	 */
+	public void reset(ByteBuffer byteBuffer, long bufferSize){
+		_byteBuffer = byteBuffer;
+		_bitBufferSize = bufferSize;
+		_position = 0;
+		_byteOrder = ByteOrder.BIG_ENDIAN;
+	}
+
 	/**
 	 * Sets the byte order.
 	 * @param byteOrder ByteOrder.BIG_ENDIAN or ByteOrder.LITTLE_ENDIAN
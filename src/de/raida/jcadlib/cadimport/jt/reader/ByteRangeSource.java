@@ -0,0 +1,63 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source, giving random access to the bytes of a file. Implementations have to
+ * support concurrent calls of read(), because the segments of a file are
+ * fetched in parallel.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public interface ByteRangeSource extends Closeable {
+	/**
+	 * Returns the length of the file.
+	 * @return             Length of the file in bytes or<br>
+	 *                     <b>-1</b> if the length is unknown
+	 * @throws IOException Thrown if the length couldn't be requested
+	 */
+	public long getLength() throws IOException;
+
+	/**
+	 * Returns the version of the file, which changes, when the file is rewritten.
+	 * @return             Version of the file
+	 * @throws IOException Thrown if the version couldn't be requested
+	 */
+	public String getVersion() throws IOException;
+
+	/**
+	 * Reads the given range of bytes.
+	 * @param  offset            Offset of the first byte inside the file
+	 * @param  destination       Array to fill
+	 * @param  destinationOffset Offset inside the array
+	 * @param  length            Number of bytes to read
+	 * @throws IOException       Thrown if the bytes couldn't be read
+	 */
+	public void read(long offset, byte[] destination, int destinationOffset, int length) throws IOException;
+}
@@ -0,0 +1,109 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+/**
+ * JFR events of the decoding: one event per decoded segment and one per decoded
+ * compressed integer vector (Int32CDP, Int32CDP2). Whether the events are enabled
+ * is queried from JFR by refresh(), which the importer calls at the start of each
+ * import. As long as no recording had enabled the events by then, begin*() only
+ * checks a flag and returns null, so the decoding isn't slowed down noticeably.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class DecodeEvents {
+	/** Event type of a segment decode or null, if JFR isn't available */
+	private final static FlightRecorderEventType SEGMENT_DECODE = FlightRecorderEventType.create(
+			"de.raida.jcadlib.JTSegmentDecode", "JT Segment Decode", "Decoding of a JT segment",
+			new String[]{"segmentID", "segmentType", "byteLength"},
+			new Class<?>[]{String.class, String.class, int.class});
+
+	/** Event type of a vector decode or null, if JFR isn't available */
+	private final static FlightRecorderEventType VECTOR_DECODE = FlightRecorderEventType.create(
+			"de.raida.jcadlib.JTVectorDecode", "JT Vector Decode", "Decoding of a compressed integer vector (Int32CDP, Int32CDP2)",
+			new String[]{"codec", "predictor", "valueCount", "byteLength"},
+			new Class<?>[]{String.class, String.class, int.class, int.class});
+
+	/** Has a recording enabled the segment decode events? */
+	private static volatile boolean _segmentDecodeEnabled;
+
+	/** Has a recording enabled the vector decode events? */
+	private static volatile boolean _vectorDecodeEnabled;
+
+	/**
+	 * Queries JFR, whether the events are enabled in any recording. A recording,
+	 * which is started during an import, is taken into account by the next import.
+	 */
+	public static void refresh(){
+		_segmentDecodeEnabled = (SEGMENT_DECODE != null) && SEGMENT_DECODE.isEnabled();
+		_vectorDecodeEnabled = (VECTOR_DECODE != null) && VECTOR_DECODE.isEnabled();
+	}
+
+	/**
+	 * Begins a segment decode event.
+	 * @return Event or<br>
+	 *         <b>null</b> if the event isn't recorded
+	 */
+	public static Object beginSegmentDecode(){
+		return _segmentDecodeEnabled ? SEGMENT_DECODE.begin() : null;
+	}
+
+	/**
+	 * Commits a segment decode event.
+	 * @param event       Event, returned by beginSegmentDecode() (may be null)
+	 * @param segmentID   ID of the segment
+	 * @param segmentType Type of the segment
+	 * @param byteLength  Length of the segment in bytes
+	 */
+	public static void commitSegmentDecode(Object event, String segmentID, Object segmentType, int byteLength){
+		if(event != null){
+			SEGMENT_DECODE.commit(event, segmentID, String.valueOf(segmentType), byteLength);
+		}
+	}
+
+	/**
+	 * Begins a vector decode event.
+	 * @return Event or<br>
+	 *         <b>null</b> if the event isn't recorded
+	 */
+	public static Object beginVectorDecode(){
+		return _vectorDecodeEnabled ? VECTOR_DECODE.begin() : null;
+	}
+
+	/**
+	 * Commits a vector decode event.
+	 * @param event      Event, returned by beginVectorDecode() (may be null)
+	 * @param codec      Name of the codec
+	 * @param predictor  Predictor type
+	 * @param valueCount Number of decoded values
+	 * @param byteLength Number of read bytes
+	 */
+	public static void commitVectorDecode(Object event, String codec, Object predictor, int valueCount, int byteLength){
+		if(event != null){
+			VECTOR_DECODE.commit(event, codec, String.valueOf(predictor), valueCount, byteLength);
+		}
+	}
+}
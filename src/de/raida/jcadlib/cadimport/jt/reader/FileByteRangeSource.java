@@ -0,0 +1,105 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Byte range source, reading a local file. Besides local imports, it is used as
+ * stand-in for a HTTP server, when the segment prefetching is tested.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class FileByteRangeSource implements ByteRangeSource {
+	/** File to read */
+	private File _file;
+
+	/** Random access file */
+	private RandomAccessFile _randomAccessFile;
+
+	/** Channel of the file, supporting concurrent positional reads */
+	private FileChannel _fileChannel;
+
+	/**
+	 * Constructor.
+	 * @param  file        File to read
+	 * @throws IOException Thrown if the file couldn't be opened
+	 */
+	public FileByteRangeSource(File file) throws IOException {
+		_file = file;
+		_randomAccessFile = new RandomAccessFile(file, "r");
+		_fileChannel = _randomAccessFile.getChannel();
+	}
+
+	/**
+	 * Returns the length of the file.
+	 * @return             Length of the file in bytes
+	 * @throws IOException Thrown if the length couldn't be requested
+	 */
+	public long getLength() throws IOException {
+		return _fileChannel.size();
+	}
+
+	/**
+	 * Returns the version of the file: its modification time and length.
+	 * @return             Version of the file
+	 * @throws IOException Thrown if the length couldn't be requested
+	 */
+	public String getVersion() throws IOException {
+		return _file.lastModified() + "/" + getLength();
+	}
+
+	/**
+	 * Reads the given range of bytes.
+	 * @param  offset            Offset of the first byte inside the file
+	 * @param  destination       Array to fill
+	 * @param  destinationOffset Offset inside the array
+	 * @param  length            Number of bytes to read
+	 * @throws IOException       Thrown if the bytes couldn't be read
+	 */
+	public void read(long offset, byte[] destination, int destinationOffset, int length) throws IOException {
+		ByteBuffer byteBuffer = ByteBuffer.wrap(destination, destinationOffset, length);
+		while(byteBuffer.hasRemaining()){
+			int readBytes = _fileChannel.read(byteBuffer, offset + (byteBuffer.position() - destinationOffset));
+			if(readBytes < 0){
+				throw new EOFException("Unexpected end of file at offset " + (offset + (byteBuffer.position() - destinationOffset)));
+			}
+		}
+	}
+
+	/**
+	 * Closes the file.
+	 * @throws IOException Thrown if the file couldn't be closed
+	 */
+	public void close() throws IOException {
+		_randomAccessFile.close();
+	}
+}
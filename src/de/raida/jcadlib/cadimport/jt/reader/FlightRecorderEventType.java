@@ -0,0 +1,234 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type of a Java Flight Recorder (JFR) event, which is defined at runtime via
+ * jdk.jfr.EventFactory. JFR is accessed by reflection only, so the importer still
+ * runs on Java versions without JFR. There, create() returns null and no events
+ * are emitted. Whether an event is recorded, is controlled by the settings of
+ * the running recording.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class FlightRecorderEventType {
+	/** Category of all events */
+	private final static String CATEGORY = "JT Importer";
+
+	/** Has the JFR API been looked up? */
+	private static boolean _initialized;
+
+	/** Constructor of jdk.jfr.AnnotationElement(Class, Object) */
+	private static Constructor<?> _annotationElementConstructor;
+
+	/** Constructor of jdk.jfr.ValueDescriptor(Class, String) */
+	private static Constructor<?> _valueDescriptorConstructor;
+
+	/** Method jdk.jfr.EventFactory.create(List, List) */
+	private static Method _createMethod;
+
+	/** Method jdk.jfr.EventFactory.newEvent() */
+	private static Method _newEventMethod;
+
+	/** Method jdk.jfr.EventFactory.getEventType() */
+	private static Method _getEventTypeMethod;
+
+	/** Method jdk.jfr.EventType.isEnabled() */
+	private static Method _isEnabledMethod;
+
+	/** Method jdk.jfr.Event.begin() */
+	private static Method _beginMethod;
+
+	/** Method jdk.jfr.Event.set(int, Object) */
+	private static Method _setMethod;
+
+	/** Method jdk.jfr.Event.commit() */
+	private static Method _commitMethod;
+
+	/** Annotation classes: Name, Label, Description, Category and StackTrace */
+	private static Class<?>[] _annotationClasses;
+
+	/** Event factory of this type */
+	private Object _eventFactory;
+
+	/** Registered jdk.jfr.EventType of this type */
+	private Object _eventType;
+
+	/** Number of fields */
+	private int _fieldCount;
+
+	/**
+	 * Constructor.
+	 * @param  eventFactory Event factory of this type
+	 * @param  fieldCount   Number of fields
+	 * @throws Exception    Thrown, if the event type couldn't be determined
+	 */
+	private FlightRecorderEventType(Object eventFactory, int fieldCount) throws Exception {
+		_eventFactory = eventFactory;
+		_eventType = _getEventTypeMethod.invoke(eventFactory);
+		_fieldCount = fieldCount;
+	}
+
+	/**
+	 * Creates and registers an event type.
+	 * @param  name        Unique name of the event type
+	 * @param  label       Human readable label
+	 * @param  description Description
+	 * @param  fieldNames  Names of the fields
+	 * @param  fieldTypes  Types of the fields (primitives or String)
+	 * @return             Event type or<br>
+	 *                     <b>null</b> if JFR isn't available
+	 */
+	public static synchronized FlightRecorderEventType create(String name, String label, String description, String[] fieldNames, Class<?>[] fieldTypes){
+		if(fieldNames.length != fieldTypes.length){
+			throw new IllegalArgumentException("Found " + fieldNames.length + " field names, but " + fieldTypes.length + " field types!");
+		}
+		if(!initialize()){
+			return null;
+		}
+
+		try {
+			List<Object> annotations = new ArrayList<Object>();
+			annotations.add(_annotationElementConstructor.newInstance(_annotationClasses[0], name));
+			annotations.add(_annotationElementConstructor.newInstance(_annotationClasses[1], label));
+			annotations.add(_annotationElementConstructor.newInstance(_annotationClasses[2], description));
+			annotations.add(_annotationElementConstructor.newInstance(_annotationClasses[3], new String[]{CATEGORY}));
+			annotations.add(_annotationElementConstructor.newInstance(_annotationClasses[4], Boolean.FALSE));
+
+			List<Object> fields = new ArrayList<Object>();
+			for(int i = 0; i < fieldNames.length; i++){
+				fields.add(_valueDescriptorConstructor.newInstance(fieldTypes[i], fieldNames[i]));
+			}
+
+			return new FlightRecorderEventType(_createMethod.invoke(null, annotations, fields), fieldNames.length);
+
+		} catch(Exception exception){
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a flag, telling whether the event type is enabled in any recording.
+	 * The check is a reflective call, so callers of frequent events should cache it.
+	 * @return Is the event type enabled?
+	 */
+	public boolean isEnabled(){
+		try {
+			return ((Boolean)_isEnabledMethod.invoke(_eventType)).booleanValue();
+		} catch(Exception exception){
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a new event and starts it's timing.
+	 * @return Event or<br>
+	 *         <b>null</b> if the event type isn't enabled in any recording
+	 */
+	public Object begin(){
+		if(!isEnabled()){
+			return null;
+		}
+
+		try {
+			Object event = _newEventMethod.invoke(_eventFactory);
+			_beginMethod.invoke(event);
+			return event;
+
+		} catch(Exception exception){
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the field values of the given event and commits it.
+	 * @param event  Event, created by begin() (may be null)
+	 * @param values Field values in the order of the field names
+	 */
+	public void commit(Object event, Object... values){
+		if(event == null){
+			return;
+		}
+		if(values.length != _fieldCount){
+			throw new IllegalArgumentException("Found " + values.length + " values, but " + _fieldCount + " fields!");
+		}
+
+		try {
+			for(int i = 0; i < values.length; i++){
+				_setMethod.invoke(event, i, values[i]);
+			}
+			_commitMethod.invoke(event);
+
+		} catch(Exception exception){
+			// The event is lost, but the import isn't affected
+		}
+	}
+
+	/**
+	 * Looks up the JFR API.
+	 * @return Is the JFR API available?
+	 */
+	private static boolean initialize(){
+		if(_initialized){
+			return (_createMethod != null);
+		}
+		_initialized = true;
+
+		try {
+			Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+			Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+			Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+			Class<?> eventClass = Class.forName("jdk.jfr.Event");
+			Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+
+			Class<?>[] annotationClasses = new Class<?>[]{	Class.forName("jdk.jfr.Name"),
+															Class.forName("jdk.jfr.Label"),
+															Class.forName("jdk.jfr.Description"),
+															Class.forName("jdk.jfr.Category"),
+															Class.forName("jdk.jfr.StackTrace")};
+
+			_annotationElementConstructor = annotationElementClass.getConstructor(Class.class, Object.class);
+			_valueDescriptorConstructor = valueDescriptorClass.getConstructor(Class.class, String.class);
+			_newEventMethod = eventFactoryClass.getMethod("newEvent");
+			_getEventTypeMethod = eventFactoryClass.getMethod("getEventType");
+			_isEnabledMethod = eventTypeClass.getMethod("isEnabled");
+			_beginMethod = eventClass.getMethod("begin");
+			_setMethod = eventClass.getMethod("set", int.class, Object.class);
+			_commitMethod = eventClass.getMethod("commit");
+			_annotationClasses = annotationClasses;
+			_createMethod = eventFactoryClass.getMethod("create", List.class, List.class);
+			return true;
+
+		} catch(Exception exception){
+			return false;
+		}
+	}
+}
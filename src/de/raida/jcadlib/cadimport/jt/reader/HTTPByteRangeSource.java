@@ -0,0 +1,149 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**
+ * Byte range source, fetching the bytes of a remote file by HTTP range requests.
+ * Servers, ignoring the range header, are detected by the response code, so the
+ * caller can fall back to a complete download.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class HTTPByteRangeSource implements ByteRangeSource {
+	/** URL of the file */
+	private URL _url;
+
+	/** Length of the file (-2 = not yet requested) */
+	private long _length;
+
+	/** Version of the file, requested together with the length */
+	private String _version;
+
+	/**
+	 * Constructor.
+	 * @param url URL of the file
+	 */
+	public HTTPByteRangeSource(URL url){
+		_url = url;
+		_length = -2;
+	}
+
+	/**
+	 * Returns the length of the file.
+	 * @return             Length of the file in bytes or<br>
+	 *                     <b>-1</b> if the length is unknown
+	 * @throws IOException Thrown if the length couldn't be requested
+	 */
+	public synchronized long getLength() throws IOException {
+		if(_length == -2){
+			HttpURLConnection httpURLConnection = openConnection();
+			try {
+				httpURLConnection.setRequestMethod("HEAD");
+				if(httpURLConnection.getResponseCode() != HttpURLConnection.HTTP_OK){
+					throw new IOException("Failed requesting " + _url + ": HTTP " + httpURLConnection.getResponseCode());
+				}
+				String contentLength = httpURLConnection.getHeaderField("Content-Length");
+				_length = (contentLength == null) ? -1 : Long.parseLong(contentLength.trim());
+				_version = Helper.getContentVersion(httpURLConnection);
+			} finally {
+				httpURLConnection.disconnect();
+			}
+		}
+		return _length;
+	}
+
+	/**
+	 * Returns the version of the file: its entity tag or its modification time
+	 * and length.
+	 * @return             Version of the file
+	 * @throws IOException Thrown if the version couldn't be requested
+	 */
+	public synchronized String getVersion() throws IOException {
+		getLength();
+		return _version;
+	}
+
+	/**
+	 * Reads the given range of bytes.
+	 * @param  offset            Offset of the first byte inside the file
+	 * @param  destination       Array to fill
+	 * @param  destinationOffset Offset inside the array
+	 * @param  length            Number of bytes to read
+	 * @throws IOException       Thrown if the bytes couldn't be read or the server doesn't support range requests
+	 */
+	public void read(long offset, byte[] destination, int destinationOffset, int length) throws IOException {
+		if(length == 0){
+			return;
+		}
+
+		HttpURLConnection httpURLConnection = openConnection();
+		httpURLConnection.setRequestProperty("Range", "bytes=" + offset + "-" + (offset + length - 1));
+		if(httpURLConnection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL){
+			httpURLConnection.disconnect();
+			throw new IOException("Server doesn't support range requests: " + _url + " (HTTP " + httpURLConnection.getResponseCode() + ")");
+		}
+
+		InputStream inputStream = httpURLConnection.getInputStream();
+		try {
+			int count = 0;
+			while(count < length){
+				int readBytes = inputStream.read(destination, destinationOffset + count, length - count);
+				if(readBytes < 0){
+					throw new EOFException("Unexpected end of range at offset " + (offset + count) + ": " + _url);
+				}
+				count += readBytes;
+			}
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Nothing to close, because every request uses its own connection.
+	 */
+	public void close(){
+	}
+
+	/**
+	 * Opens a new connection to the file.
+	 * @return             HTTP connection
+	 * @throws IOException Thrown if the connection couldn't be opened
+	 */
+	private HttpURLConnection openConnection() throws IOException {
+		URLConnection connection = _url.openConnection();
+		if(!(connection instanceof HttpURLConnection)){
+			throw new IOException("URLConnection '" + connection + "' not supported!");
+		}
+		return (HttpURLConnection)connection;
+	}
+}
@@ -24,12 +24,17 @@
 
 package de.raida.jcadlib.cadimport.jt.reader;
 
-import java.io.ByteArrayOutputStream;
+import java.net.URLConnection;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
 import de.raida.jcadlib.cadimport.jt.JTImporter;
@@ -57,6 +62,9 @@ public class Helper {
 		{"F64", "9"}, {"F64", "16"}
 	};
 
+	/** Inflater, reused by all ZLIB decompressions of a thread */
+	private static ThreadLocal<Inflater> _inflater = new ThreadLocal<Inflater>();
+
 	/**
 	 * Reads the given number of bytes and returns the string representation.
 	 * @param  byteBuffer    Byte buffer to read from
@@ -239,6 +247,21 @@ public class Helper {
 		return ((short)(byteBuffer.get() & 0xff));
 	}
 
+	/**
+	 * Returns the version of the resource behind the given connection, which
+	 * changes, when the resource is rewritten: the entity tag of a HTTP response
+	 * or otherwise the modification time and the length.
+	 * @param  urlConnection Connection to the resource
+	 * @return               Version of the resource
+	 */
+	public static String getContentVersion(URLConnection urlConnection){
+		String entityTag = urlConnection.getHeaderField("ETag");
+		if(entityTag != null){
+			return entityTag;
+		}
+		return urlConnection.getLastModified() + "/" + urlConnection.getContentLengthLong();
+	}
+
 	/**
 	 * Converts a signed byte to an unsigned byte.
 	 * @param  signedByte Signed byte
@@ -286,6 +309,22 @@ public class Helper {
 		return bytes;
 	}
 
+	/**
+	 * Reads the code text of a compressed vector: 32 bit words in the byte order
+	 * of the byte buffer, which are copied in bulk into the given array as big
+	 * endian words (as they are consumed by the bit buffer).
+	 * @param byteBuffer    Byte buffer to read from
+	 * @param wordCount     Number of 32 bit words to read
+	 * @param codeTextBytes Array, receiving the code text (at least 4 * number of words)
+	 */
+	public static void readCodeText(ByteBuffer byteBuffer, int wordCount, byte[] codeTextBytes){
+		JTImporter.updateProgress(wordCount * 4);
+		IntBuffer codeTextWords = byteBuffer.slice().order(byteBuffer.order()).asIntBuffer();
+		codeTextWords.limit(wordCount);
+		ByteBuffer.wrap(codeTextBytes).order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(codeTextWords);
+		byteBuffer.position(byteBuffer.position() + (wordCount * 4));
+	}
+
 	/**
 	 * Reads a list of integer values.
 	 * @param  byteBuffer Byte buffer to read from
@@ -389,20 +428,95 @@ public class Helper {
 	 * @return                 Uncompressed bytes
 	 */
 	public static byte[] decompressByZLIB(byte[] compressedBytes){
+		return decompressByZLIB(compressedBytes, 0, compressedBytes.length, compressedBytes.length * 4);
+	}
+
+	/**
+	 * Uncompresses the next bytes of the given byte buffer by the ZLIB algorithm. The
+	 * position of the byte buffer is moved behind the compressed bytes. The returned
+	 * buffer is sized to the uncompressed data and has the same byte order.
+	 * @param  byteBuffer       Byte buffer, holding the compressed bytes
+	 * @param  compressedLength Number of compressed bytes
+	 * @return                  Byte buffer with the uncompressed data
+	 */
+	public static ByteBuffer decompressByZLIB(ByteBuffer byteBuffer, int compressedLength){
+		ByteBuffer uncompressedData = null;
+		if(byteBuffer.hasArray()){
+			uncompressedData = ByteBuffer.wrap(decompressByZLIB(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), compressedLength, compressedLength * 4));
+			byteBuffer.position(byteBuffer.position() + compressedLength);
+		} else {
+			byte[] compressedBytes = new byte[compressedLength];
+			byteBuffer.get(compressedBytes);
+			uncompressedData = ByteBuffer.wrap(decompressByZLIB(compressedBytes, 0, compressedLength, compressedLength * 4));
+		}
+		uncompressedData.order(byteBuffer.order());
+		return uncompressedData;
+	}
+
+	/**
+	 * Uncompresses the given bytes by the ZLIB algorithm into a growing array, which
+	 * is trimmed to the uncompressed length at the end (the JT format doesn't store
+	 * the uncompressed length of zipped segments and elements).
+	 * @param  compressedBytes   Array, holding the compressed bytes
+	 * @param  offset            Offset of the compressed bytes
+	 * @param  length            Number of compressed bytes
+	 * @param  estimatedLength   Estimated number of uncompressed bytes
+	 * @return                   Uncompressed bytes
+	 */
+	private static byte[] decompressByZLIB(byte[] compressedBytes, int offset, int length, int estimatedLength){
+		Inflater inflater = getInflater();
 		try {
-			Inflater inflater = new Inflater();
-			inflater.setInput(compressedBytes);
-			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(compressedBytes.length);
-			byte[] buffer = new byte[1024];
+			inflater.setInput(compressedBytes, offset, length);
+			byte[] uncompressedBytes = new byte[Math.max(estimatedLength, 1024)];
+			int uncompressedLength = 0;
 			while(!inflater.finished()){
-				int count = inflater.inflate(buffer);
-				byteArrayOutputStream.write(buffer, 0, count);
+				if(uncompressedLength == uncompressedBytes.length){
+					byte[] newUncompressedBytes = new byte[uncompressedBytes.length * 2];
+					System.arraycopy(uncompressedBytes, 0, newUncompressedBytes, 0, uncompressedLength);
+					uncompressedBytes = newUncompressedBytes;
+				}
+				int count = inflater.inflate(uncompressedBytes, uncompressedLength, uncompressedBytes.length - uncompressedLength);
+				if((count == 0) && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())){
+					throw new IllegalStateException("ZLIB decompression seems to be failed! Found truncated data after " + uncompressedLength + " bytes");
+				}
+				uncompressedLength += count;
 			}
-			byteArrayOutputStream.close();
-			return byteArrayOutputStream.toByteArray();
+			if(uncompressedLength == uncompressedBytes.length){
+				return uncompressedBytes;
+			}
+			return Arrays.copyOf(uncompressedBytes, uncompressedLength);
 
-		} catch(Exception exception){
+		} catch(DataFormatException exception){
 			throw new IllegalStateException(exception.getMessage());
+
+		} finally {
+			inflater.reset();
+		}
+	}
+
+	/**
+	 * Returns the inflater of the current thread. The inflater is reused by all
+	 * decompressions of the thread, so it's native memory is allocated only once.
+	 * @return Inflater of the current thread
+	 */
+	static Inflater getInflater(){
+		Inflater inflater = _inflater.get();
+		if(inflater == null){
+			inflater = new Inflater();
+			_inflater.set(inflater);
+		}
+		return inflater;
+	}
+
+	/**
+	 * Releases the native memory of the inflater of the current thread. Should be
+	 * called by worker threads, which are not used for decompression any more.
+	 */
+	public static void releaseInflater(){
+		Inflater inflater = _inflater.get();
+		if(inflater != null){
+			inflater.end();
+			_inflater.remove();
 		}
 	}
 
@@ -432,21 +546,95 @@ public class Helper {
 	 * @return                   Dequantized vertices
 	 */
 	public static List<Double> dequantize(List<Integer> vertexCoordinates, float[] vertexRange, int numberOfBits){
-		float minimum = vertexRange[0];
-		float maximum = vertexRange[1];
+		double[] values = new double[vertexCoordinates.size()];
+		dequantize(new int[][]{convertToIntArray(vertexCoordinates)}, new float[][]{vertexRange}, numberOfBits, values);
+		return asDoubleList(values);
+	}
+
+	/**
+	 * Dequantizes the codes of all components (e.g. x, y and z) in one pass and
+	 * writes them interleaved (x1, y1, z1, x2, ...). The loops work on plain
+	 * arrays, so the JIT compiler can unroll and vectorize them.
+	 * @param codes        Codes per component
+	 * @param ranges       Ranges (min and max) per component
+	 * @param numberOfBits Number of bits
+	 * @param values       Array, receiving the interleaved values (at least number of components * number of codes)
+	 */
+	public static void dequantize(int[][] codes, float[][] ranges, int numberOfBits, double[] values){
+		int componentCount = codes.length;
+		double[] minimums = new double[componentCount];
+		double[] encodeMultipliers = new double[componentCount];
+		for(int j = 0; j < componentCount; j++){
+			minimums[j] = ranges[j][0];
+			encodeMultipliers[j] = getEncodeMultiplier(ranges[j], numberOfBits);
+		}
+
+		int valueCount = (componentCount == 0) ? 0 : codes[0].length;
+		if(componentCount == 3){
+			int[] xCodes = codes[0];
+			int[] yCodes = codes[1];
+			int[] zCodes = codes[2];
+			double xMinimum = minimums[0];
+			double yMinimum = minimums[1];
+			double zMinimum = minimums[2];
+			double xEncodeMultiplier = encodeMultipliers[0];
+			double yEncodeMultiplier = encodeMultipliers[1];
+			double zEncodeMultiplier = encodeMultipliers[2];
+			for(int i = 0, k = 0; i < valueCount; i++, k += 3){
+				values[k] = ((xCodes[i] - 0.5) / xEncodeMultiplier) + xMinimum;
+				values[k + 1] = ((yCodes[i] - 0.5) / yEncodeMultiplier) + yMinimum;
+				values[k + 2] = ((zCodes[i] - 0.5) / zEncodeMultiplier) + zMinimum;
+			}
+			return;
+		}
+
+		for(int j = 0; j < componentCount; j++){
+			int[] componentCodes = codes[j];
+			double minimum = minimums[j];
+			double encodeMultiplier = encodeMultipliers[j];
+			for(int i = 0, k = j; i < valueCount; i++, k += componentCount){
+				values[k] = ((componentCodes[i] - 0.5) / encodeMultiplier) + minimum;
+			}
+		}
+	}
+
+	/**
+	 * Dequantizes the codes of all components (e.g. x, y and z) in one pass and
+	 * writes them interleaved with single precision.
+	 * @param codes        Codes per component
+	 * @param ranges       Ranges (min and max) per component
+	 * @param numberOfBits Number of bits
+	 * @param values       Array, receiving the interleaved values (at least number of components * number of codes)
+	 */
+	public static void dequantize(int[][] codes, float[][] ranges, int numberOfBits, float[] values){
+		int componentCount = codes.length;
+		int valueCount = (componentCount == 0) ? 0 : codes[0].length;
+		for(int j = 0; j < componentCount; j++){
+			int[] componentCodes = codes[j];
+			double minimum = ranges[j][0];
+			double encodeMultiplier = getEncodeMultiplier(ranges[j], numberOfBits);
+			for(int i = 0, k = j; i < valueCount; i++, k += componentCount){
+				values[k] = (float)(((componentCodes[i] - 0.5) / encodeMultiplier) + minimum);
+			}
+		}
+	}
+
+	/**
+	 * Returns the factor, the values of the given range have been multiplied with.
+	 * @param  range        Range (min and max)
+	 * @param  numberOfBits Number of bits
+	 * @return              Encode multiplier
+	 */
+	private static double getEncodeMultiplier(float[] range, int numberOfBits){
+		float minimum = range[0];
+		float maximum = range[1];
 		long maxCode = 0xffffffff;
 
 		if(numberOfBits < 32){
 			maxCode = 0x1 << numberOfBits;
 		}
 
-		double encodeMultiplier = (double)maxCode / (maximum - minimum);
-
-		List<Double> dequantizesVertices = new ArrayList<Double>();
-		for(int i = 0; i < vertexCoordinates.size(); i++){
-			dequantizesVertices.add((((vertexCoordinates.get(i) - 0.5) / encodeMultiplier + minimum)));
-		}
-		return dequantizesVertices;
+		return (double)maxCode / (maximum - minimum);
 	}
 
 	/**
@@ -455,10 +643,27 @@ public class Helper {
 	 * @return          Double value
 	 */
 	public static double convertIntToFloat(int intValue){
-		ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-		byteBuffer.putInt(intValue);
-		byteBuffer.position(0);
-		return byteBuffer.getFloat();
+		return Float.intBitsToFloat(intValue);
+	}
+
+	/**
+	 * Merges the exponent and mantissa streams of lossless compressed floats
+	 * ((exponent &lt;&lt; 23) | mantissa) and writes the floats of the first
+	 * components interleaved (x1, y1, z1, x2, ...).
+	 * @param exponents      Exponents (sign and exponent) per component
+	 * @param mantissae      Mantissae per component
+	 * @param componentCount Number of components to convert
+	 * @param values         Array, receiving the interleaved values (at least number of components * number of values)
+	 */
+	public static void convertIntToFloat(int[][] exponents, int[][] mantissae, int componentCount, double[] values){
+		int valueCount = (componentCount == 0) ? 0 : exponents[0].length;
+		for(int j = 0; j < componentCount; j++){
+			int[] componentExponents = exponents[j];
+			int[] componentMantissae = mantissae[j];
+			for(int i = 0, k = j; i < valueCount; i++, k += componentCount){
+				values[k] = Float.intBitsToFloat((componentExponents[i] << 23) | componentMantissae[i]);
+			}
+		}
 	}
 
 	/**
@@ -486,4 +691,44 @@ public class Helper {
 		}
 		return intValuesAsArray;
 	}
+
+	/**
+	 * Converts an array of int into a list of integer.
+	 * @param  intValues Array of int
+	 * @return           List of integer
+	 */
+	public static List<Integer> convertToIntegerList(int[] intValues){
+		List<Integer> intValuesAsList = new ArrayList<Integer>(intValues.length);
+		for(int i = 0; i < intValues.length; i++){
+			intValuesAsList.add(intValues[i]);
+		}
+		return intValuesAsList;
+	}
+
+	/**
+	 * Returns a fixed-size list view of the given array. Unlike a copied list, it
+	 * doesn't hold a Double object per value.
+	 * @param  doubleValues Array of double
+	 * @return              List view of the array
+	 */
+	public static List<Double> asDoubleList(final double[] doubleValues){
+		return new AbstractList<Double>(){
+			/**
+			 * Returns the value at the given index.
+			 * @param  index Index
+			 * @return       Value
+			 */
+			public Double get(int index){
+				return doubleValues[index];
+			}
+
+			/**
+			 * Returns the number of values.
+			 * @return Number of values
+			 */
+			public int size(){
+				return doubleValues.length;
+			}
+		};
+	}
 }
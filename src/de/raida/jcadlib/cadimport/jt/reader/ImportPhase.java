@@ -0,0 +1,88 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+/**
+ * Phases of an import, measured by the ImportStatistics.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public enum ImportPhase {
+	/** Reading the file and it's header */
+	READ("Read"),
+
+	/** Reading the TOC and starting the segment prefetcher and inflater */
+	TOC("TOC"),
+
+	/** Parsing the LSG segments (graph and property atom elements) */
+	LSG("LSG parse"),
+
+	/** Parsing the property tables */
+	PROPERTY_TABLE("Property table"),
+
+	/** Building the LSG tree */
+	CREATE_LSG("Create LSG"),
+
+	/** Reading the shape LOD elements (without the nested phases) */
+	SHAPE_DECODE("Shape decode"),
+
+	/** Decoding the compressed integer vectors (Int32CDP, Int32CDP2) */
+	ENTROPY_DECODE("Entropy decode"),
+
+	/** Decoding the topologically compressed meshes */
+	TOPOLOGY_DECODE("Topology decode"),
+
+	/** Dequantizing vertices, normals, colors and texture coordinates */
+	DEQUANTIZE("Dequantize"),
+
+	/** Transforming the decoded shapes into the JT model */
+	PREPARE_GEOMETRY("Prepare geometry"),
+
+	/** Loading the external referenced files */
+	EXTERNAL_REFERENCES("External references"),
+
+	/** Everything else, e.g. walking the LSG tree */
+	OTHER("Other");
+
+	/** Label of the phase */
+	private String _label;
+
+	/**
+	 * Constructor.
+	 * @param label Label of the phase
+	 */
+	private ImportPhase(String label){
+		_label = label;
+	}
+
+	/**
+	 * Returns the label of the phase.
+	 * @return Label of the phase
+	 */
+	public String getLabel(){
+		return _label;
+	}
+}
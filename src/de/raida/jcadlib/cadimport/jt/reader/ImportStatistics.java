@@ -0,0 +1,478 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.raida.jcadlib.cadimport.jt.model.SegmentType;
+
+/**
+ * Statistics of an import: wall time, CPU time and allocated bytes per phase, the
+ * number of segments per segment type and the number of compressed integer vectors
+ * per codec. The phases are measured exclusively: while a nested phase (e.g. the
+ * entropy decoding inside the shape decoding) is active, the outer phase is paused.
+ * <br>
+ * Only the thread, which has started the import, is measured. CPU time and
+ * allocated bytes are -1, if the JVM doesn't support their measurement. At the end
+ * of the import, the statistics are emitted as JFR events, if JFR is available.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ImportStatistics {
+	/** Thread management */
+	private final static ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+	/** Method com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long) or null */
+	private final static Method GET_THREAD_ALLOCATED_BYTES = getThreadAllocatedBytesMethod();
+
+	/** JFR event type of a whole import or null */
+	private static FlightRecorderEventType _importEventType;
+
+	/** JFR event type of a phase or null */
+	private static FlightRecorderEventType _phaseEventType;
+
+	/** Have the JFR event types been created? */
+	private static boolean _eventTypesCreated;
+
+	/** URL of the imported file */
+	private URL _url;
+
+	/** Measured thread */
+	private Thread _thread;
+
+	/** JFR event of the whole import or null */
+	private Object _importEvent;
+
+	/** Active phases, the innermost at the end */
+	private ArrayList<ImportPhase> _phaseStack;
+
+	/** Wall time at the last phase change in nanoseconds */
+	private long _lastWallTime;
+
+	/** CPU time at the last phase change in nanoseconds */
+	private long _lastCPUTime;
+
+	/** Allocated bytes at the last phase change */
+	private long _lastAllocatedBytes;
+
+	/** Wall time per phase in nanoseconds */
+	private long[] _wallTimes;
+
+	/** CPU time per phase in nanoseconds */
+	private long[] _cpuTimes;
+
+	/** Allocated bytes per phase */
+	private long[] _allocatedBytes;
+
+	/** Number of invocations per phase */
+	private long[] _invocationCounts;
+
+	/** Number of segments per segment type */
+	private HashMap<SegmentType, Integer> _segmentCounts;
+
+	/** Number of compressed integer vectors per codec */
+	private HashMap<String, Integer> _codecCounts;
+
+	/**
+	 * Constructor.
+	 * @param url URL of the imported file
+	 */
+	public ImportStatistics(URL url){
+		_url = url;
+		_phaseStack = new ArrayList<ImportPhase>();
+		_wallTimes = new long[ImportPhase.values().length];
+		_cpuTimes = new long[ImportPhase.values().length];
+		_allocatedBytes = new long[ImportPhase.values().length];
+		_invocationCounts = new long[ImportPhase.values().length];
+		_segmentCounts = new HashMap<SegmentType, Integer>();
+		_codecCounts = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Starts the measurement on the current thread. Until the first phase begins,
+	 * the time is charged to ImportPhase.OTHER.
+	 */
+	public void start(){
+		createEventTypes();
+		if(_importEventType != null){
+			_importEvent = _importEventType.begin();
+		}
+
+		_thread = Thread.currentThread();
+		_lastWallTime = System.nanoTime();
+		_lastCPUTime = getCPUTime();
+		_lastAllocatedBytes = getAllocatedBytes();
+		_phaseStack.clear();
+		_phaseStack.add(ImportPhase.OTHER);
+		_invocationCounts[ImportPhase.OTHER.ordinal()]++;
+	}
+
+	/**
+	 * Stops the measurement and emits the JFR events.
+	 */
+	public void stop(){
+		if(!isMeasuredThread()){
+			return;
+		}
+		charge();
+		_phaseStack.clear();
+		_thread = null;
+
+		if(_importEvent != null){
+			_importEventType.commit(_importEvent, String.valueOf(_url), getTotalWallTime(), getTotalCPUTime(), getTotalAllocatedBytes(), getSegmentCount());
+			_importEvent = null;
+		}
+		if(_phaseEventType != null){
+			for(ImportPhase importPhase : ImportPhase.values()){
+				if(_invocationCounts[importPhase.ordinal()] > 0){
+					_phaseEventType.commit(	_phaseEventType.begin(), String.valueOf(_url), importPhase.getLabel(),
+											getWallTime(importPhase), getCPUTime(importPhase), getAllocatedBytes(importPhase),
+											getInvocationCount(importPhase));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Begins the given phase. The current phase is paused until the given one ends.
+	 * @param importPhase Phase to begin
+	 */
+	public void beginPhase(ImportPhase importPhase){
+		if(!isMeasuredThread()){
+			return;
+		}
+		charge();
+		_phaseStack.add(importPhase);
+		_invocationCounts[importPhase.ordinal()]++;
+	}
+
+	/**
+	 * Ends the innermost occurrence of the given phase. Phases, which have been
+	 * begun afterwards and haven't ended (e.g. because of an exception), end too.
+	 * @param importPhase Phase to end
+	 */
+	public void endPhase(ImportPhase importPhase){
+		if(!isMeasuredThread()){
+			return;
+		}
+		int index = _phaseStack.lastIndexOf(importPhase);
+		if(index <= 0){
+			return;
+		}
+		charge();
+		while(_phaseStack.size() > index){
+			_phaseStack.remove(_phaseStack.size() - 1);
+		}
+	}
+
+	/**
+	 * Counts a segment of the given type.
+	 * @param segmentType Segment type
+	 */
+	public void addSegment(SegmentType segmentType){
+		Integer count = _segmentCounts.get(segmentType);
+		_segmentCounts.put(segmentType, (count == null) ? 1 : (count + 1));
+	}
+
+	/**
+	 * Counts a compressed integer vector of the given codec.
+	 * @param codecName Name of the codec
+	 */
+	public void addCodec(String codecName){
+		Integer count = _codecCounts.get(codecName);
+		_codecCounts.put(codecName, (count == null) ? 1 : (count + 1));
+	}
+
+	/**
+	 * Adds the segment and codec counts of the given statistics (e.g. of an external
+	 * referenced file). The times are already included in the phase
+	 * ImportPhase.EXTERNAL_REFERENCES.
+	 * @param importStatistics Statistics to add
+	 */
+	public void addCounts(ImportStatistics importStatistics){
+		for(Iterator<Map.Entry<SegmentType, Integer>> iterator = importStatistics._segmentCounts.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<SegmentType, Integer> entry = iterator.next();
+			Integer count = _segmentCounts.get(entry.getKey());
+			_segmentCounts.put(entry.getKey(), (count == null) ? entry.getValue() : (count + entry.getValue()));
+		}
+		for(Iterator<Map.Entry<String, Integer>> iterator = importStatistics._codecCounts.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<String, Integer> entry = iterator.next();
+			Integer count = _codecCounts.get(entry.getKey());
+			_codecCounts.put(entry.getKey(), (count == null) ? entry.getValue() : (count + entry.getValue()));
+		}
+	}
+
+	/**
+	 * Returns the URL of the imported file.
+	 * @return URL of the imported file
+	 */
+	public URL getURL(){
+		return _url;
+	}
+
+	/**
+	 * Returns the wall time of the given phase.
+	 * @param  importPhase Phase
+	 * @return             Wall time in nanoseconds
+	 */
+	public long getWallTime(ImportPhase importPhase){
+		return _wallTimes[importPhase.ordinal()];
+	}
+
+	/**
+	 * Returns the CPU time of the given phase.
+	 * @param  importPhase Phase
+	 * @return             CPU time in nanoseconds or<br>
+	 *                     <b>-1</b> if the CPU time can't be measured
+	 */
+	public long getCPUTime(ImportPhase importPhase){
+		return (_lastCPUTime < 0) ? -1 : _cpuTimes[importPhase.ordinal()];
+	}
+
+	/**
+	 * Returns the number of bytes, allocated during the given phase.
+	 * @param  importPhase Phase
+	 * @return             Allocated bytes or<br>
+	 *                     <b>-1</b> if the allocated bytes can't be measured
+	 */
+	public long getAllocatedBytes(ImportPhase importPhase){
+		return (_lastAllocatedBytes < 0) ? -1 : _allocatedBytes[importPhase.ordinal()];
+	}
+
+	/**
+	 * Returns the number of times, the given phase has been begun.
+	 * @param  importPhase Phase
+	 * @return             Number of invocations
+	 */
+	public long getInvocationCount(ImportPhase importPhase){
+		return _invocationCounts[importPhase.ordinal()];
+	}
+
+	/**
+	 * Returns the wall time of the whole import.
+	 * @return Wall time in nanoseconds
+	 */
+	public long getTotalWallTime(){
+		return sum(_wallTimes);
+	}
+
+	/**
+	 * Returns the CPU time of the whole import.
+	 * @return CPU time in nanoseconds or<br>
+	 *         <b>-1</b> if the CPU time can't be measured
+	 */
+	public long getTotalCPUTime(){
+		return (_lastCPUTime < 0) ? -1 : sum(_cpuTimes);
+	}
+
+	/**
+	 * Returns the number of bytes, allocated during the whole import.
+	 * @return Allocated bytes or<br>
+	 *         <b>-1</b> if the allocated bytes can't be measured
+	 */
+	public long getTotalAllocatedBytes(){
+		return (_lastAllocatedBytes < 0) ? -1 : sum(_allocatedBytes);
+	}
+
+	/**
+	 * Returns the number of segments per segment type.
+	 * @return Segment type -> number of segments
+	 */
+	public HashMap<SegmentType, Integer> getSegmentCounts(){
+		return new HashMap<SegmentType, Integer>(_segmentCounts);
+	}
+
+	/**
+	 * Returns the number of segments.
+	 * @return Number of segments
+	 */
+	public int getSegmentCount(){
+		int segmentCount = 0;
+		for(Iterator<Integer> iterator = _segmentCounts.values().iterator(); iterator.hasNext();){
+			segmentCount += iterator.next();
+		}
+		return segmentCount;
+	}
+
+	/**
+	 * Returns the number of compressed integer vectors per codec.
+	 * @return Codec name -> number of vectors
+	 */
+	public HashMap<String, Integer> getCodecCounts(){
+		return new HashMap<String, Integer>(_codecCounts);
+	}
+
+	/**
+	 * Returns a readable report of the statistics.
+	 * @return Report
+	 */
+	public String toString(){
+		StringBuffer report = new StringBuffer();
+		report.append("Import statistics of ").append(_url).append("\n");
+		report.append(String.format(Locale.US, "  %-20s %12s %12s %14s %10s%n", "Phase", "Wall [ms]", "CPU [ms]", "Allocated [KB]", "Count"));
+		for(ImportPhase importPhase : ImportPhase.values()){
+			if(getInvocationCount(importPhase) > 0){
+				report.append(String.format(Locale.US, "  %-20s %12.3f %12.3f %14d %10d%n",
+											importPhase.getLabel(), getWallTime(importPhase) / 1e6, getCPUTime(importPhase) / 1e6,
+											getAllocatedBytes(importPhase) / 1024, getInvocationCount(importPhase)));
+			}
+		}
+		report.append(String.format(Locale.US, "  %-20s %12.3f %12.3f %14d%n", "Total", getTotalWallTime() / 1e6, getTotalCPUTime() / 1e6, getTotalAllocatedBytes() / 1024));
+
+		report.append("  Segments:");
+		TreeMap<String, Integer> segmentCounts = new TreeMap<String, Integer>();
+		for(Iterator<Map.Entry<SegmentType, Integer>> iterator = _segmentCounts.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<SegmentType, Integer> entry = iterator.next();
+			segmentCounts.put(entry.getKey().toString(), entry.getValue());
+		}
+		for(Iterator<Map.Entry<String, Integer>> iterator = segmentCounts.entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<String, Integer> entry = iterator.next();
+			report.append(" ").append(entry.getKey()).append("=").append(entry.getValue());
+		}
+		report.append("\n  Codecs:");
+		for(Iterator<Map.Entry<String, Integer>> iterator = new TreeMap<String, Integer>(_codecCounts).entrySet().iterator(); iterator.hasNext();){
+			Map.Entry<String, Integer> entry = iterator.next();
+			report.append(" ").append(entry.getKey()).append("=").append(entry.getValue());
+		}
+		return report.append("\n").toString();
+	}
+
+	/**
+	 * Charges the time and bytes since the last phase change to the current phase.
+	 */
+	private void charge(){
+		long wallTime = System.nanoTime();
+		long cpuTime = getCPUTime();
+		long allocatedBytes = getAllocatedBytes();
+
+		if(!_phaseStack.isEmpty()){
+			int index = _phaseStack.get(_phaseStack.size() - 1).ordinal();
+			_wallTimes[index] += wallTime - _lastWallTime;
+			_cpuTimes[index] += cpuTime - _lastCPUTime;
+			_allocatedBytes[index] += allocatedBytes - _lastAllocatedBytes;
+		}
+
+		_lastWallTime = wallTime;
+		_lastCPUTime = cpuTime;
+		_lastAllocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Returns a flag, telling whether the current thread is measured.
+	 * @return Is the current thread measured?
+	 */
+	private boolean isMeasuredThread(){
+		return (_thread == Thread.currentThread());
+	}
+
+	/**
+	 * Returns the CPU time of the current thread.
+	 * @return CPU time in nanoseconds or<br>
+	 *         <b>-1</b> if the CPU time can't be measured
+	 */
+	private static long getCPUTime(){
+		if(!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() || !THREAD_MX_BEAN.isThreadCpuTimeEnabled()){
+			return -1;
+		}
+		return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+	}
+
+	/**
+	 * Returns the number of bytes, allocated by the current thread.
+	 * @return Allocated bytes or<br>
+	 *         <b>-1</b> if the allocated bytes can't be measured
+	 */
+	private static long getAllocatedBytes(){
+		if(GET_THREAD_ALLOCATED_BYTES == null){
+			return -1;
+		}
+		try {
+			return ((Long)GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId())).longValue();
+		} catch(Exception exception){
+			return -1;
+		}
+	}
+
+	/**
+	 * Looks up the vendor specific method, returning the allocated bytes of a thread.
+	 * @return Method com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long) or<br>
+	 *         <b>null</b> if the JVM doesn't provide it
+	 */
+	private static Method getThreadAllocatedBytesMethod(){
+		try {
+			Class<?> threadMXBeanClass = Class.forName("com.sun.management.ThreadMXBean");
+			if(!threadMXBeanClass.isInstance(THREAD_MX_BEAN)){
+				return null;
+			}
+			if(!((Boolean)threadMXBeanClass.getMethod("isThreadAllocatedMemorySupported").invoke(THREAD_MX_BEAN)).booleanValue()){
+				return null;
+			}
+			return threadMXBeanClass.getMethod("getThreadAllocatedBytes", long.class);
+
+		} catch(Exception exception){
+			return null;
+		}
+	}
+
+	/**
+	 * Creates the JFR event types once.
+	 */
+	private static synchronized void createEventTypes(){
+		if(_eventTypesCreated){
+			return;
+		}
+		_eventTypesCreated = true;
+
+		_importEventType = FlightRecorderEventType.create(	"de.raida.jcadlib.JTImport", "JT Import", "Import of a JT file",
+															new String[]{"url", "wallTime", "cpuTime", "allocatedBytes", "segmentCount"},
+															new Class<?>[]{String.class, long.class, long.class, long.class, int.class});
+		_phaseEventType = FlightRecorderEventType.create(	"de.raida.jcadlib.JTImportPhase", "JT Import Phase", "Accumulated measurement of an import phase",
+															new String[]{"url", "phase", "wallTime", "cpuTime", "allocatedBytes", "invocationCount"},
+															new Class<?>[]{String.class, String.class, long.class, long.class, long.class, long.class});
+	}
+
+	/**
+	 * Sums up the given values.
+	 * @param  values Values
+	 * @return        Sum
+	 */
+	private static long sum(long[] values){
+		long sum = 0;
+		for(int i = 0; i < values.length; i++){
+			sum += values[i];
+		}
+		return sum;
+	}
+}
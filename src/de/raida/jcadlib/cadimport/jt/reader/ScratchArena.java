@@ -0,0 +1,232 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import de.raida.jcadlib.cadimport.jt.codec.CodecDriver;
+import de.raida.jcadlib.cadimport.jt.codec.mesh.MeshCoderDriver;
+
+/**
+ * Scratch memory of the decoders, held per thread. The decoders borrow temporary
+ * int and byte arrays and return them, when they are done, so they are reused by
+ * the next vector or shape. Borrowed arrays may be longer than requested and contain
+ * the data of previous uses. Arrays longer than MAXIMUM_POOLED_LENGTH aren't pooled,
+ * so a single huge shape doesn't pin its scratch memory. Also the codec and mesh
+ * coder drivers are reused. The importer releases the arena of its thread at the
+ * end of each import.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ScratchArena {
+	/** Maximum number of pooled arrays per type */
+	private final static int POOL_SIZE = 8;
+
+	/** Minimum length of newly allocated arrays */
+	private final static int MINIMUM_LENGTH = 64;
+
+	/** Maximum length of pooled arrays (longer arrays are dropped on return) */
+	private final static int MAXIMUM_POOLED_LENGTH = 1 << 20;
+
+	/** Scratch arena of the current thread */
+	private static ThreadLocal<ScratchArena> _scratchArena = new ThreadLocal<ScratchArena>();
+
+	/** Pooled int arrays */
+	private int[][] _intArrays;
+
+	/** Number of pooled int arrays */
+	private int _intArrayCount;
+
+	/** Pooled byte arrays */
+	private byte[][] _byteArrays;
+
+	/** Number of pooled byte arrays */
+	private int _byteArrayCount;
+
+	/** Reused codec driver */
+	private CodecDriver _codecDriver;
+
+	/** Reused mesh coder driver */
+	private MeshCoderDriver _meshCoderDriver;
+
+	/**
+	 * Constructor.
+	 */
+	private ScratchArena(){
+		_intArrays = new int[POOL_SIZE][];
+		_byteArrays = new byte[POOL_SIZE][];
+	}
+
+	/**
+	 * Returns the scratch arena of the current thread.
+	 * @return Scratch arena of the current thread
+	 */
+	public static ScratchArena getInstance(){
+		ScratchArena scratchArena = _scratchArena.get();
+		if(scratchArena == null){
+			scratchArena = new ScratchArena();
+			_scratchArena.set(scratchArena);
+		}
+		return scratchArena;
+	}
+
+	/**
+	 * Releases the scratch arena of the current thread. Called by the importer at
+	 * the end of an import and should be called by other threads, which are not
+	 * used for decoding any more.
+	 */
+	public static void releaseInstance(){
+		_scratchArena.remove();
+	}
+
+	/**
+	 * Returns the length of a newly allocated array, so that slightly longer
+	 * requests can reuse it later on.
+	 * @param  length Requested length
+	 * @return        Length to allocate (next power of two)
+	 */
+	private static int getAllocationLength(int length){
+		if(length <= MINIMUM_LENGTH){
+			return MINIMUM_LENGTH;
+		}
+		int allocationLength = Integer.highestOneBit(length - 1) << 1;
+		return (allocationLength > 0) ? allocationLength : length;
+	}
+
+	/**
+	 * Borrows an int array with at least the given length.
+	 * @param  length Minimum length
+	 * @return        Int array (content undefined)
+	 */
+	public int[] borrowInts(int length){
+		int bestIndex = -1;
+		for(int i = 0; i < _intArrayCount; i++){
+			if((_intArrays[i].length >= length) && ((bestIndex == -1) || (_intArrays[i].length < _intArrays[bestIndex].length))){
+				bestIndex = i;
+			}
+		}
+		if(bestIndex == -1){
+			return new int[getAllocationLength(length)];
+		}
+
+		int[] array = _intArrays[bestIndex];
+		_intArrays[bestIndex] = _intArrays[--_intArrayCount];
+		_intArrays[_intArrayCount] = null;
+		return array;
+	}
+
+	/**
+	 * Returns a borrowed int array. If the pool is full, the shortest array is dropped.
+	 * @param array Int array, not used by the caller any more
+	 */
+	public void returnInts(int[] array){
+		if(array.length > MAXIMUM_POOLED_LENGTH){
+			return;
+		}
+		if(_intArrayCount < POOL_SIZE){
+			_intArrays[_intArrayCount++] = array;
+			return;
+		}
+
+		int shortestIndex = 0;
+		for(int i = 1; i < POOL_SIZE; i++){
+			if(_intArrays[i].length < _intArrays[shortestIndex].length){
+				shortestIndex = i;
+			}
+		}
+		if(_intArrays[shortestIndex].length < array.length){
+			_intArrays[shortestIndex] = array;
+		}
+	}
+
+	/**
+	 * Borrows a byte array with at least the given length.
+	 * @param  length Minimum length
+	 * @return        Byte array (content undefined)
+	 */
+	public byte[] borrowBytes(int length){
+		int bestIndex = -1;
+		for(int i = 0; i < _byteArrayCount; i++){
+			if((_byteArrays[i].length >= length) && ((bestIndex == -1) || (_byteArrays[i].length < _byteArrays[bestIndex].length))){
+				bestIndex = i;
+			}
+		}
+		if(bestIndex == -1){
+			return new byte[getAllocationLength(length)];
+		}
+
+		byte[] array = _byteArrays[bestIndex];
+		_byteArrays[bestIndex] = _byteArrays[--_byteArrayCount];
+		_byteArrays[_byteArrayCount] = null;
+		return array;
+	}
+
+	/**
+	 * Returns a borrowed byte array. If the pool is full, the shortest array is dropped.
+	 * @param array Byte array, not used by the caller any more
+	 */
+	public void returnBytes(byte[] array){
+		if(array.length > MAXIMUM_POOLED_LENGTH){
+			return;
+		}
+		if(_byteArrayCount < POOL_SIZE){
+			_byteArrays[_byteArrayCount++] = array;
+			return;
+		}
+
+		int shortestIndex = 0;
+		for(int i = 1; i < POOL_SIZE; i++){
+			if(_byteArrays[i].length < _byteArrays[shortestIndex].length){
+				shortestIndex = i;
+			}
+		}
+		if(_byteArrays[shortestIndex].length < array.length){
+			_byteArrays[shortestIndex] = array;
+		}
+	}
+
+	/**
+	 * Returns the codec driver of the thread. The driver has to be reset before
+	 * use and mustn't be used by nested decodings (e.g. of out-of-band values).
+	 * @return Codec driver
+	 */
+	public CodecDriver getCodecDriver(){
+		if(_codecDriver == null){
+			_codecDriver = new CodecDriver();
+		}
+		return _codecDriver;
+	}
+
+	/**
+	 * Returns the mesh coder driver of the thread, whose decoder and dual mesh
+	 * are reused from shape to shape.
+	 * @return Mesh coder driver
+	 */
+	public MeshCoderDriver getMeshCoderDriver(){
+		if(_meshCoderDriver == null){
+			_meshCoderDriver = new MeshCoderDriver();
+		}
+		return _meshCoderDriver;
+	}
+}
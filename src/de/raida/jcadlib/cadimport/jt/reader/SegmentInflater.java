@@ -0,0 +1,288 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.raida.jcadlib.cadimport.jt.model.SegmentType;
+import de.raida.jcadlib.cadimport.jt.model.TOCEntry;
+
+/**
+ * Inflates all zipped segments of a JT file concurrently, while the importer
+ * parses the segments in TOC order. The segments are submitted in TOC order, so
+ * the segment needed next is usually the first one, which is ready.
+ * <br>
+ * The worker threads read the file buffer only through duplicates and without
+ * Helper.read*(), because the progress handling of the importer is not thread safe.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class SegmentInflater {
+	/** Size of the segment header: GUID, segment type and segment length */
+	private final static int SEGMENT_HEADER_SIZE = 24;
+
+	/** Size of the compression header: flag, length and algorithm */
+	private final static int COMPRESSION_HEADER_SIZE = 9;
+
+	/** Byte buffer of the whole file */
+	private ByteBuffer _byteBuffer;
+
+	/** Inflated segments: position of the compressed data -> uncompressed data */
+	private HashMap<Integer, Future<ByteBuffer>> _inflatedSegments;
+
+	/** Executor service, running the inflation tasks */
+	private ExecutorService _executorService;
+
+	/** Has the executor service been created by this inflater (or is it shared)? */
+	private boolean _executorServiceOwned;
+
+	/** Optional prefetcher, still fetching the segments */
+	private SegmentPrefetcher _segmentPrefetcher;
+
+	/**
+	 * Constructor. Starts the inflation of all zipped segments.
+	 * @param byteBuffer  Byte buffer of the whole file (with the right byte order)
+	 * @param tocEntries  TOC entries of the file
+	 * @param threadCount Maximum number of worker threads
+	 */
+	public SegmentInflater(ByteBuffer byteBuffer, List<TOCEntry> tocEntries, int threadCount){
+		this(byteBuffer, tocEntries, threadCount, null);
+	}
+
+	/**
+	 * Constructor. Starts the inflation of all zipped segments. If the segments are
+	 * still fetched, each segment is examined after it has arrived.
+	 * @param byteBuffer        Byte buffer of the whole file (with the right byte order)
+	 * @param tocEntries        TOC entries of the file
+	 * @param threadCount       Maximum number of worker threads
+	 * @param segmentPrefetcher Prefetcher, fetching the segments or null
+	 */
+	public SegmentInflater(ByteBuffer byteBuffer, List<TOCEntry> tocEntries, int threadCount, SegmentPrefetcher segmentPrefetcher){
+		this(byteBuffer, tocEntries, threadCount, null, segmentPrefetcher);
+	}
+
+	/**
+	 * Constructor. Starts the inflation of all zipped segments on the given executor
+	 * service, which is shared with other inflaters (e.g. of the external references)
+	 * and isn't shut down by this inflater.
+	 * @param byteBuffer        Byte buffer of the whole file (with the right byte order)
+	 * @param tocEntries        TOC entries of the file
+	 * @param executorService   Executor service, created by createExecutorService()
+	 * @param segmentPrefetcher Prefetcher, fetching the segments or null
+	 */
+	public SegmentInflater(ByteBuffer byteBuffer, List<TOCEntry> tocEntries, ExecutorService executorService, SegmentPrefetcher segmentPrefetcher){
+		this(byteBuffer, tocEntries, 0, executorService, segmentPrefetcher);
+	}
+
+	/**
+	 * Constructor. Starts the inflation of all zipped segments.
+	 * @param byteBuffer        Byte buffer of the whole file (with the right byte order)
+	 * @param tocEntries        TOC entries of the file
+	 * @param threadCount       Maximum number of worker threads, if no executor service is given
+	 * @param executorService   Shared executor service or null, to create an own one
+	 * @param segmentPrefetcher Prefetcher, fetching the segments or null
+	 */
+	private SegmentInflater(ByteBuffer byteBuffer, List<TOCEntry> tocEntries, int threadCount, ExecutorService executorService, SegmentPrefetcher segmentPrefetcher){
+		_byteBuffer = byteBuffer;
+		_segmentPrefetcher = segmentPrefetcher;
+		_inflatedSegments = new HashMap<Integer, Future<ByteBuffer>>();
+
+		// Collect the zipped segments (or all, if they haven't been fetched yet)
+		List<Integer> segmentOffsets = new ArrayList<Integer>();
+		for(Iterator<TOCEntry> iterator = tocEntries.iterator(); iterator.hasNext();){
+			int segmentOffset = iterator.next().getSegmentOffSet();
+			if((segmentPrefetcher != null) || (getZippedSegment(segmentOffset) != null)){
+				segmentOffsets.add(segmentOffset);
+			}
+		}
+
+		if(segmentOffsets.size() == 0){
+			return;
+		}
+
+		// Submit the inflation tasks in TOC order
+		_executorService = executorService;
+		if(_executorService == null){
+			_executorService = createExecutorService(Math.min(threadCount, segmentOffsets.size()));
+			_executorServiceOwned = true;
+		}
+
+		for(Iterator<Integer> iterator = segmentOffsets.iterator(); iterator.hasNext();){
+			final int segmentOffset = iterator.next();
+			_inflatedSegments.put(segmentOffset + SEGMENT_HEADER_SIZE + COMPRESSION_HEADER_SIZE, _executorService.submit(new Callable<ByteBuffer>(){
+				/**
+				 * Inflates the segment.
+				 * @return             Uncompressed data or null, if the segment isn't zipped
+				 * @throws IOException Thrown if the segment couldn't be fetched
+				 */
+				public ByteBuffer call() throws IOException {
+					if(_segmentPrefetcher != null){
+						_segmentPrefetcher.waitForSegment(segmentOffset);
+					}
+
+					int[] zippedSegment = getZippedSegment(segmentOffset);
+					if(zippedSegment == null){
+						return null;
+					}
+
+					ByteBuffer byteBuffer = _byteBuffer.duplicate();
+					byteBuffer.order(_byteBuffer.order());
+					byteBuffer.position(zippedSegment[0]);
+					return Helper.decompressByZLIB(byteBuffer, zippedSegment[1]);
+				}
+			}));
+		}
+		if(_executorServiceOwned){
+			_executorService.shutdown();
+		}
+	}
+
+	/**
+	 * Creates an executor service for the inflation tasks. The daemon worker threads
+	 * release their inflaters at the end.
+	 * @param  threadCount Number of worker threads
+	 * @return             Executor service
+	 */
+	public static ExecutorService createExecutorService(int threadCount){
+	return Executors.newFixedThreadPool(Math.max(1, threadCount), new ThreadFactory(){
+		/**
+		 * Creates a daemon thread, which releases its inflater at the end.
+		 * @param  runnable Runnable to execute
+		 * @return          New thread
+		 */
+		public Thread newThread(final Runnable runnable){
+			Thread thread = new Thread(new Runnable(){
+				/**
+				 * Runs the given runnable.
+				 */
+				public void run(){
+					try {
+						runnable.run();
+					} finally {
+						Helper.releaseInflater();
+					}
+				}
+			}, "JT segment inflater");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	}
+
+	/**
+	 * Returns the uncompressed data of the segment, whose compressed data starts at
+	 * the given position. Waits, until the inflation has been finished. A segment,
+	 * whose inflation hasn't been started yet (e.g. because the threads are busy with
+	 * the segments of other files), is left to the caller.
+	 * @param  byteBuffer Byte buffer, holding the compressed data
+	 * @param  position   Position of the compressed data
+	 * @return            Uncompressed data or<br>
+	 *                    <b>null</b> if the segment hasn't been inflated or the inflation failed
+	 */
+	public ByteBuffer get(ByteBuffer byteBuffer, int position){
+		if(byteBuffer != _byteBuffer){
+			return null;
+		}
+
+		Future<ByteBuffer> future = null;
+		synchronized(_inflatedSegments){
+			future = _inflatedSegments.remove(position);
+		}
+		if((future == null) || future.cancel(false)){
+			return null;
+		}
+
+		try {
+			return future.get();
+
+		} catch(InterruptedException exception){
+			Thread.currentThread().interrupt();
+			return null;
+
+		} catch(ExecutionException exception){
+			// Let the caller inflate the segment again and report the error
+			return null;
+		}
+	}
+
+	/**
+	 * Stops all pending inflation tasks. A shared executor service keeps running.
+	 */
+	public void shutdown(){
+		if(_executorServiceOwned){
+			_executorService.shutdownNow();
+		}
+		synchronized(_inflatedSegments){
+			for(Iterator<Future<ByteBuffer>> iterator = _inflatedSegments.values().iterator(); iterator.hasNext();){
+				iterator.next().cancel(true);
+			}
+			_inflatedSegments.clear();
+		}
+	}
+
+	/**
+	 * Examines the segment at the given offset.
+	 * @param  segmentOffset Offset of the segment
+	 * @return               Position and length of the compressed data or<br>
+	 *                       <b>null</b> if the segment isn't zipped
+	 */
+	private int[] getZippedSegment(int segmentOffset){
+		if((segmentOffset < 0) || ((segmentOffset + SEGMENT_HEADER_SIZE + COMPRESSION_HEADER_SIZE) > _byteBuffer.limit())){
+			return null;
+		}
+
+		try {
+			SegmentType segmentType = SegmentType.get(_byteBuffer.getInt(segmentOffset + 16));
+			if(!segmentType.isZipped()){
+				return null;
+			}
+		} catch(IllegalArgumentException exception){
+			return null;
+		}
+
+		int compressionFlag = _byteBuffer.getInt(segmentOffset + SEGMENT_HEADER_SIZE);
+		int compressedDataLength = _byteBuffer.getInt(segmentOffset + SEGMENT_HEADER_SIZE + 4) - 1;
+		int compressionAlgorithm = _byteBuffer.get(segmentOffset + SEGMENT_HEADER_SIZE + 8) & 0xFF;
+		int position = segmentOffset + SEGMENT_HEADER_SIZE + COMPRESSION_HEADER_SIZE;
+		if(	(compressionFlag != 2) || (compressionAlgorithm != 2) ||
+			(compressedDataLength < 0) || ((position + compressedDataLength) > _byteBuffer.limit())){
+			return null;
+		}
+
+		return new int[]{position, compressedDataLength};
+	}
+}
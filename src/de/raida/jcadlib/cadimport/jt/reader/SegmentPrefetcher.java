@@ -0,0 +1,250 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.raida.jcadlib.cadimport.jt.model.TOCEntry;
+
+/**
+ * Loads a JT file segment by segment. At first only the file header and the
+ * TOC are fetched, afterwards all segments are fetched concurrently in TOC
+ * order, while the importer already parses the segments, that have arrived.
+ * All bytes are written to their original position inside one array, so the
+ * offsets of the file stay valid.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class SegmentPrefetcher {
+	/** Size of the file header: version, byte order, reserved field, TOC offset and LSG segment ID */
+	private final static int HEADER_SIZE = 105;
+
+	/** Size of a TOC entry: segment ID, offset, length and attributes */
+	private final static int TOC_ENTRY_SIZE = 28;
+
+	/** Source of the file */
+	private ByteRangeSource _byteRangeSource;
+
+	/** Content of the file */
+	private byte[] _bytes;
+
+	/** Pending segments: segment offset -> download */
+	private HashMap<Integer, Future<Object>> _segments;
+
+	/** Executor service, fetching the segments */
+	private ExecutorService _executorService;
+
+	/**
+	 * Constructor.
+	 * @param byteRangeSource Source of the file
+	 */
+	public SegmentPrefetcher(ByteRangeSource byteRangeSource){
+		_byteRangeSource = byteRangeSource;
+		_segments = new HashMap<Integer, Future<Object>>();
+	}
+
+	/**
+	 * Creates the byte range source for the given URL.
+	 * @param  url         URL of the file
+	 * @return             Byte range source
+	 * @throws IOException Thrown if the protocol doesn't support random access
+	 */
+	public static ByteRangeSource createByteRangeSource(URL url) throws IOException {
+		if(url.getProtocol().equals("file")){
+			try {
+				return new FileByteRangeSource(new File(url.toURI()));
+			} catch(URISyntaxException exception){
+				throw new IOException(exception.getMessage());
+			}
+		}
+		if(url.getProtocol().equals("http") || url.getProtocol().equals("https")){
+			return new HTTPByteRangeSource(url);
+		}
+		throw new IOException("Protocol doesn't support range requests: " + url.getProtocol());
+	}
+
+	/**
+	 * Returns the version of the file, which changes, when the file is rewritten.
+	 * @return             Version of the file
+	 * @throws IOException Thrown if the version couldn't be requested
+	 */
+	public String getFileVersion() throws IOException {
+		return _byteRangeSource.getVersion();
+	}
+
+	/**
+	 * Fetches the file header and the TOC.
+	 * @return             Array, sized to the whole file and holding the header and the TOC
+	 * @throws IOException Thrown if the header or the TOC couldn't be fetched
+	 */
+	public byte[] loadHeaderAndTOC() throws IOException {
+		byte[] header = new byte[HEADER_SIZE];
+		_byteRangeSource.read(0, header, 0, header.length);
+
+		ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+		if(header[80] == 0){
+			headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		int tocOffset = headerBuffer.getInt(85);
+		if(tocOffset < HEADER_SIZE){
+			throw new IOException("Found invalid TOC offset: " + tocOffset);
+		}
+
+		byte[] tocCount = new byte[4];
+		_byteRangeSource.read(tocOffset, tocCount, 0, tocCount.length);
+		int tocEntryCount = ByteBuffer.wrap(tocCount).order(headerBuffer.order()).getInt();
+		if(tocEntryCount < 0){
+			throw new IOException("Found invalid number of TOC entries: " + tocEntryCount);
+		}
+
+		byte[] toc = new byte[tocEntryCount * TOC_ENTRY_SIZE];
+		_byteRangeSource.read(tocOffset + 4, toc, 0, toc.length);
+
+		// Size the array to the whole file
+		long length = Math.max(_byteRangeSource.getLength(), tocOffset + 4 + toc.length);
+		ByteBuffer tocBuffer = ByteBuffer.wrap(toc).order(headerBuffer.order());
+		for(int i = 0; i < tocEntryCount; i++){
+			long segmentOffset = tocBuffer.getInt((i * TOC_ENTRY_SIZE) + 16);
+			long segmentLength = tocBuffer.getInt((i * TOC_ENTRY_SIZE) + 20);
+			length = Math.max(length, segmentOffset + segmentLength);
+		}
+		if(length > Integer.MAX_VALUE){
+			throw new IOException("File is too large: " + length);
+		}
+
+		_bytes = new byte[(int)length];
+		System.arraycopy(header, 0, _bytes, 0, header.length);
+		System.arraycopy(tocCount, 0, _bytes, tocOffset, tocCount.length);
+		System.arraycopy(toc, 0, _bytes, tocOffset + 4, toc.length);
+		return _bytes;
+	}
+
+	/**
+	 * Starts fetching the segments, referenced by the given TOC entries.
+	 * @param tocEntries  TOC entries
+	 * @param threadCount Number of concurrent downloads
+	 */
+	public void start(List<TOCEntry> tocEntries, int threadCount){
+		if(_bytes == null){
+			throw new IllegalStateException("Header and TOC have to be loaded first!");
+		}
+
+		_executorService = Executors.newFixedThreadPool(Math.max(1, threadCount), new ThreadFactory(){
+			/**
+			 * Creates a daemon thread.
+			 * @param  runnable Runnable to execute
+			 * @return          New thread
+			 */
+			public Thread newThread(Runnable runnable){
+				Thread thread = new Thread(runnable, "JT segment prefetcher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		for(Iterator<TOCEntry> iterator = tocEntries.iterator(); iterator.hasNext();){
+			TOCEntry tocEntry = iterator.next();
+			final int segmentOffset = tocEntry.getSegmentOffSet();
+			final int segmentLength = tocEntry.getSegmentLength();
+			if(_segments.containsKey(segmentOffset)){
+				continue;
+			}
+			if((segmentOffset < 0) || (segmentLength < 0) || ((segmentOffset + segmentLength) > _bytes.length)){
+				throw new IllegalArgumentException("Found invalid segment: offset " + segmentOffset + ", length " + segmentLength);
+			}
+
+			_segments.put(segmentOffset, _executorService.submit(new Callable<Object>(){
+				/**
+				 * Fetches the segment.
+				 * @return             Nothing
+				 * @throws IOException Thrown if the segment couldn't be fetched
+				 */
+				public Object call() throws IOException {
+					_byteRangeSource.read(segmentOffset, _bytes, segmentOffset, segmentLength);
+					return null;
+				}
+			}));
+		}
+		_executorService.shutdown();
+	}
+
+	/**
+	 * Waits, until the segment at the given offset has been fetched.
+	 * @param  segmentOffset Offset of the segment
+	 * @throws IOException   Thrown if the segment couldn't be fetched
+	 */
+	public void waitForSegment(int segmentOffset) throws IOException {
+		Future<Object> future = null;
+		synchronized(_segments){
+			future = _segments.get(segmentOffset);
+		}
+		if(future == null){
+			return;
+		}
+
+		try {
+			future.get();
+
+		} catch(InterruptedException exception){
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while fetching segment at offset " + segmentOffset);
+
+		} catch(ExecutionException exception){
+			if(exception.getCause() instanceof IOException){
+				throw (IOException)exception.getCause();
+			}
+			throw new IOException("Failed fetching segment at offset " + segmentOffset + ": " + exception.getCause());
+		}
+	}
+
+	/**
+	 * Stops all pending downloads and closes the source.
+	 */
+	public void shutdown(){
+		if(_executorService != null){
+			_executorService.shutdownNow();
+		}
+		try {
+			_byteRangeSource.close();
+		} catch(IOException exception){
+			// Ignore
+		}
+	}
+}
@@ -27,6 +27,7 @@ package de.raida.jcadlib.cadimport.jt.reader;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import de.raida.jcadlib.cadimport.jt.codec.CodecStatistics;
 import de.raida.jcadlib.cadimport.jt.model.SegmentType;
 
 
@@ -55,6 +56,15 @@ public class WorkingContext {
 	/** Byte order */
 	private ByteOrder _byteOrder;
 
+	/** Optional inflater, uncompressing the zipped segments in advance */
+	private SegmentInflater _segmentInflater;
+
+	/** Optional statistics of the import */
+	private ImportStatistics _importStatistics;
+
+	/** Optional statistics of the compressed vectors */
+	private CodecStatistics _codecStatistics;
+
 	/**
 	 * Constructor.
 	 */
@@ -70,6 +80,9 @@ public class WorkingContext {
 		workingContext.setByteBuffer(_byteBuffer);
 		workingContext.setJTFileVersion(_jtFileVersion);
 		workingContext.setSegmentType(_segmentType);
+		workingContext.setSegmentInflater(_segmentInflater);
+		workingContext.setImportStatistics(_importStatistics);
+		workingContext.setCodecStatistics(_codecStatistics);
 		return workingContext;
 	}
 
@@ -168,4 +181,84 @@ public class WorkingContext {
 	public ByteOrder getByteOrder(){
 		return _byteOrder;
 	}
+
+	/**
+	 * Sets the inflater, uncompressing the zipped segments in advance.
+	 * @param segmentInflater Segment inflater or null
+	 */
+	public void setSegmentInflater(SegmentInflater segmentInflater){
+		_segmentInflater = segmentInflater;
+	}
+
+	/**
+	 * Returns the inflater, uncompressing the zipped segments in advance.
+	 * @return Segment inflater or<br>
+	 *         <b>null</b> if the segments are inflated on demand
+	 */
+	public SegmentInflater getSegmentInflater(){
+		return _segmentInflater;
+	}
+
+	/**
+	 * Sets the statistics of the import.
+	 * @param importStatistics Statistics of the import or null
+	 */
+	public void setImportStatistics(ImportStatistics importStatistics){
+		_importStatistics = importStatistics;
+	}
+
+	/**
+	 * Returns the statistics of the import.
+	 * @return Statistics of the import or<br>
+	 *         <b>null</b> if the import isn't measured
+	 */
+	public ImportStatistics getImportStatistics(){
+		return _importStatistics;
+	}
+
+	/**
+	 * Sets the statistics of the compressed vectors.
+	 * @param codecStatistics Statistics of the compressed vectors or null
+	 */
+	public void setCodecStatistics(CodecStatistics codecStatistics){
+		_codecStatistics = codecStatistics;
+	}
+
+	/**
+	 * Returns the statistics of the compressed vectors.
+	 * @return Statistics of the compressed vectors or<br>
+	 *         <b>null</b> if the vectors aren't measured
+	 */
+	public CodecStatistics getCodecStatistics(){
+		return _codecStatistics;
+	}
+
+	/**
+	 * Returns the scratch arena of the current thread, the decoders borrow their
+	 * temporary arrays from.
+	 * @return Scratch arena of the current thread
+	 */
+	public ScratchArena getScratchArena(){
+		return ScratchArena.getInstance();
+	}
+
+	/**
+	 * Begins the given phase of the import, if the import is measured.
+	 * @param importPhase Phase to begin
+	 */
+	public void beginPhase(ImportPhase importPhase){
+		if(_importStatistics != null){
+			_importStatistics.beginPhase(importPhase);
+		}
+	}
+
+	/**
+	 * Ends the given phase of the import, if the import is measured.
+	 * @param importPhase Phase to end
+	 */
+	public void endPhase(ImportPhase importPhase){
+		if(_importStatistics != null){
+			_importStatistics.endPhase(importPhase);
+		}
+	}
 }
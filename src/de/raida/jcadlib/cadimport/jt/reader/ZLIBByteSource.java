@@ -0,0 +1,198 @@
+//################################################################################
+//	The MIT License
+//
+//	Copyright (c) 2014 Johannes Raida
+//
+//	Permission is hereby granted, free of charge, to any person obtaining a copy
+//	of this software and associated documentation files (the "Software"), to deal
+//	in the Software without restriction, including without limitation the rights
+//	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+//	copies of the Software, and to permit persons to whom the Software is
+//	furnished to do so, subject to the following conditions:
+//
+//	The above copyright notice and this permission notice shall be included in
+//	all copies or substantial portions of the Software.
+//
+//	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//	IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//	FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//	AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//	LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//	OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//	THE SOFTWARE.
+//################################################################################
+
+package de.raida.jcadlib.cadimport.jt.reader;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Source of ZLIB compressed data, which is uncompressed lazily in chunks. Each call
+ * of next() inflates only as many bytes as fit into the chunk buffer, so big
+ * compressed sections can be processed without holding the whole uncompressed
+ * data in memory. The source uses the pooled inflater of the current thread, so
+ * no other ZLIB decompression may take place on the thread until close() has
+ * reset the inflater.
+ * <br>(c) 2014 by <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @author  <a href="mailto:j.raida@gmx.net">Johannes Raida</a>
+ * @version 1.0
+ */
+public class ZLIBByteSource implements Closeable {
+	/** Default size of a chunk in bytes */
+	public final static int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/** Inflater of the current thread, null after close() */
+	private Inflater _inflater;
+
+	/** Chunk buffer, reused by every call of next() */
+	private ByteBuffer _chunk;
+
+	/** Number of uncompressed bytes */
+	private long _uncompressedLength;
+
+	/**
+	 * Constructor.
+	 * @param byteBuffer       Byte buffer, holding the compressed bytes at it's current position
+	 * @param compressedLength Number of compressed bytes
+	 * @param chunkSize        Size of a chunk in bytes
+	 */
+	public ZLIBByteSource(ByteBuffer byteBuffer, int compressedLength, int chunkSize){
+		if(chunkSize <= 0){
+			throw new IllegalArgumentException("Found invalid chunk size: " + chunkSize);
+		}
+
+		_inflater = Helper.getInflater();
+		if(byteBuffer.hasArray()){
+			_inflater.setInput(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), compressedLength);
+			byteBuffer.position(byteBuffer.position() + compressedLength);
+		} else {
+			byte[] compressedBytes = new byte[compressedLength];
+			byteBuffer.get(compressedBytes);
+			_inflater.setInput(compressedBytes);
+		}
+
+		_chunk = ByteBuffer.allocate(chunkSize);
+		_chunk.order(byteBuffer.order());
+	}
+
+	/**
+	 * Constructor.
+	 * @param compressedBytes Compressed bytes
+	 */
+	public ZLIBByteSource(byte[] compressedBytes){
+		this(ByteBuffer.wrap(compressedBytes), compressedBytes.length, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Sets the byte order of the returned chunks.
+	 * @param byteOrder Byte order
+	 */
+	public void setByteOrder(ByteOrder byteOrder){
+		_chunk.order(byteOrder);
+	}
+
+	/**
+	 * Uncompresses the next chunk. The returned buffer is reused by the next call,
+	 * so it's content has to be consumed before.
+	 * @return Byte buffer with the next uncompressed bytes or<br>
+	 *         <b>null</b> if all bytes have been uncompressed
+	 */
+	public ByteBuffer next(){
+		if(_inflater == null){
+			throw new IllegalStateException("ZLIB source has already been closed!");
+		}
+		if(_inflater.finished()){
+			return null;
+		}
+
+		try {
+			byte[] chunkBytes = _chunk.array();
+			int count = 0;
+			while((count < chunkBytes.length) && !_inflater.finished()){
+				int readBytes = _inflater.inflate(chunkBytes, count, chunkBytes.length - count);
+				if((readBytes == 0) && !_inflater.finished() && (_inflater.needsInput() || _inflater.needsDictionary())){
+					throw new IllegalStateException("ZLIB decompression seems to be failed! Found truncated data after " + (_uncompressedLength + count) + " bytes");
+				}
+				count += readBytes;
+			}
+			_uncompressedLength += count;
+
+			_chunk.clear();
+			_chunk.limit(count);
+			return _chunk;
+
+		} catch(DataFormatException exception){
+			throw new IllegalStateException(exception.getMessage());
+		}
+	}
+
+	/**
+	 * Uncompresses the next bytes into the given byte buffer.
+	 * @param  destination Byte buffer to fill up to it's limit
+	 * @return             Number of uncompressed bytes or<br>
+	 *                     <b>-1</b> if all bytes have been uncompressed
+	 */
+	public int read(ByteBuffer destination){
+		if(_inflater == null){
+			throw new IllegalStateException("ZLIB source has already been closed!");
+		}
+		if(_inflater.finished()){
+			return -1;
+		}
+
+		try {
+			int count = 0;
+			while(destination.hasRemaining() && !_inflater.finished()){
+				int readBytes = 0;
+				if(destination.hasArray()){
+					readBytes = _inflater.inflate(destination.array(), destination.arrayOffset() + destination.position(), destination.remaining());
+					destination.position(destination.position() + readBytes);
+				} else {
+					byte[] chunkBytes = _chunk.array();
+					readBytes = _inflater.inflate(chunkBytes, 0, Math.min(chunkBytes.length, destination.remaining()));
+					destination.put(chunkBytes, 0, readBytes);
+				}
+				if((readBytes == 0) && !_inflater.finished() && (_inflater.needsInput() || _inflater.needsDictionary())){
+					throw new IllegalStateException("ZLIB decompression seems to be failed! Found truncated data after " + (_uncompressedLength + count) + " bytes");
+				}
+				count += readBytes;
+			}
+			_uncompressedLength += count;
+			return count;
+
+		} catch(DataFormatException exception){
+			throw new IllegalStateException(exception.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the number of bytes, uncompressed so far.
+	 * @return Number of uncompressed bytes
+	 */
+	public long getUncompressedLength(){
+		return _uncompressedLength;
+	}
+
+	/**
+	 * Returns a flag, telling whether all bytes have been uncompressed.
+	 * @return Have all bytes been uncompressed?
+	 */
+	public boolean isFinished(){
+		return (_inflater == null) || _inflater.finished();
+	}
+
+	/**
+	 * Resets the inflater, so it can be reused by the next decompression of the thread.
+	 */
+	@Override
+	public void close(){
+		if(_inflater != null){
+			_inflater.reset();
+			_inflater = null;
+		}
+	}
+}